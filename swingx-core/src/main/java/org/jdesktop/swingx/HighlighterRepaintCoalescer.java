@@ -0,0 +1,183 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx;
+
+import java.awt.Rectangle;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.jdesktop.swingx.decorator.AffectedRegion;
+
+/**
+ * ChangeListener for Highlighters which coalesces the repaints of a 
+ * collection component. <p>
+ * 
+ * All notifications received during one cycle of the EventDispatchThread
+ * are collected into one dirty region, which is repainted once at the end
+ * of the cycle. If the notifying highlighter is an 
+ * <code>AffectedRegion</code>, the region is restricted to the declared rows 
+ * and columns, otherwise the complete component is repainted. <p>
+ * 
+ * Like all Swing related state, highlighters are expected to be changed
+ * on the EventDispatchThread.
+ * 
+ * @see AffectedRegion
+ */
+abstract class HighlighterRepaintCoalescer implements ChangeListener, Runnable {
+
+    private final JComponent component;
+    
+    /** the union of regions to repaint, null if none. */
+    private Rectangle dirtyRegion;
+    
+    /** flag to indicate that the complete component must be repainted. */
+    private boolean dirtyAll;
+    
+    /** flag to indicate that the repaint is scheduled. */
+    private boolean pending;
+    
+    /**
+     * Instantiates a coalescer for the given component.
+     * 
+     * @param component the component to repaint.
+     */
+    HighlighterRepaintCoalescer(JComponent component) {
+        this.component = component;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to add the region affected by the change to the dirty region.
+     */
+    @Override
+    public void stateChanged(ChangeEvent e) {
+        if (e.getSource() instanceof AffectedRegion) {
+            AffectedRegion region = (AffectedRegion) e.getSource();
+            addDirtyRegion(region.getAffectedRows(), region.getAffectedColumns());
+        } else {
+            addDirtyRegion(null, null);
+        }
+    }
+    
+    /**
+     * Adds the cells at the intersection of the given rows and columns 
+     * to the region to repaint and schedules the repaint, if necessary.
+     * 
+     * @param rows the view indices of the rows to repaint, null for all
+     * @param columns the model indices of the columns to repaint, null for all
+     */
+    public void addDirtyRegion(int[] rows, int[] columns) {
+        if (!dirtyAll) {
+            if ((rows == null) && (columns == null)) {
+                dirtyAll = true;
+                dirtyRegion = null;
+            } else {
+                Rectangle bounds = getBounds(rows, columns);
+                if (bounds.isEmpty()) return;
+                dirtyRegion = dirtyRegion == null ? bounds : dirtyRegion.union(bounds);
+            }
+        }
+        if (!pending) {
+            pending = true;
+            SwingUtilities.invokeLater(this);
+        }
+    }
+    
+    /**
+     * Repaints the collected dirty region. Called once per cycle of
+     * the EventDispatchThread.
+     */
+    @Override
+    public void run() {
+        if (dirtyAll) {
+            component.repaint();
+        } else if (dirtyRegion != null) {
+            component.repaint(dirtyRegion);
+        }
+        pending = false;
+        dirtyAll = false;
+        dirtyRegion = null;
+    }
+    
+    /**
+     * Returns the bounds of the cells at the intersection of the given rows and 
+     * columns. Note: RepaintManager repaints the union of dirty regions 
+     * anyway, so no need to be more precise.
+     * 
+     * @param rows the view indices of the rows, null for all
+     * @param columns the model indices of the columns, null for all
+     * @return the bounding rectangle of the cells, may be empty
+     */
+    private Rectangle getBounds(int[] rows, int[] columns) {
+        Rectangle result = new Rectangle(0, 0, component.getWidth(), component.getHeight());
+        if (columns != null) {
+            Rectangle union = null;
+            for (int column : columns) {
+                union = union(union, getColumnBounds(column));
+            }
+            if (union == null) return new Rectangle();
+            result.x = union.x;
+            result.width = union.width;
+        }
+        if (rows != null) {
+            Rectangle union = null;
+            for (int row : rows) {
+                union = union(union, getRowBounds(row));
+            }
+            if (union == null) return new Rectangle();
+            result.y = union.y;
+            result.height = union.height;
+        }
+        return result;
+    }
+
+    private Rectangle union(Rectangle union, Rectangle bounds) {
+        if (bounds == null) return union;
+        return union == null ? bounds : union.union(bounds);
+    }
+    
+    /**
+     * Returns the bounds of the given row. Only the vertical 
+     * extent is used.
+     * 
+     * @param row the row index in view coordinates
+     * @return the bounds of the row or null if not visible
+     */
+    protected abstract Rectangle getRowBounds(int row);
+    
+    /**
+     * Returns the bounds of the given column. Only the horizontal 
+     * extent is used. <p>
+     * 
+     * This implementation is for single-column components, it returns
+     * the component's bounds for column 0 and null otherwise.
+     * 
+     * @param column the column index in model coordinates
+     * @return the bounds of the column or null if not visible
+     */
+    protected Rectangle getColumnBounds(int column) {
+        return column == 0 ? new Rectangle(0, 0, component.getWidth(), component.getHeight()) : null;
+    }
+}
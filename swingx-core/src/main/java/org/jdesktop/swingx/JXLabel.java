@@ -71,6 +71,7 @@ import javax.swing.text.WrappedPlainView;
 import org.jdesktop.beans.JavaBean;
 import org.jdesktop.swingx.painter.AbstractPainter;
 import org.jdesktop.swingx.painter.Painter;
+import org.jdesktop.swingx.renderer.GlyphLayoutCache;
 
 /**
  * <p>
@@ -156,6 +157,8 @@ public class JXLabel extends JLabel implements BackgroundPaintable {
 
     private boolean multiLine;
 
+    private boolean glyphCacheEnabled;
+
     private int pWidth;
 
     private int pHeight;
@@ -660,6 +663,30 @@ public class JXLabel extends JLabel implements BackgroundPaintable {
         return this.multiLine;
     }
 
+    /**
+     * Enables painting of plain, single line and unrotated text from the shared glyph layout cache, to not lay out
+     * the same text again on every paint. By default this is disabled. Labels which don't qualify are painted by
+     * the ui-delegate as usual.
+     *
+     * @param enabled the new value
+     * @see GlyphLayoutCache#isCacheable(JLabel)
+     */
+    public void setGlyphCacheEnabled(boolean enabled) {
+        boolean old = isGlyphCacheEnabled();
+        this.glyphCacheEnabled = enabled;
+        firePropertyChange("glyphCacheEnabled", old, isGlyphCacheEnabled());
+    }
+
+    /**
+     * Returns whether plain text is painted from the shared glyph layout cache. The default value of this 
+     * property is false.
+     *
+     * @return true if the glyph layout cache is used, false otherwise
+     */
+    public boolean isGlyphCacheEnabled() {
+        return glyphCacheEnabled;
+    }
+
     private boolean paintBorderInsets = true;
 
     private int maxLineSpan = -1;
@@ -736,7 +763,9 @@ public class JXLabel extends JLabel implements BackgroundPaintable {
 //        }
         painted = true;
         if (painting || backgroundPainter == null && foregroundPainter == null) {
-            super.paintComponent(g);
+            if (!paintFromGlyphCache(g)) {
+                super.paintComponent(g);
+            }
         } else {
             pWidth = getWidth();
             pHeight = getHeight();
@@ -783,6 +812,13 @@ public class JXLabel extends JLabel implements BackgroundPaintable {
         }
     }
 
+    private boolean paintFromGlyphCache(Graphics g) {
+        if (!isGlyphCacheEnabled() || isLineWrap() || textRotation != NORMAL) {
+            return false;
+        }
+        return GlyphLayoutCache.getInstance().paintLabel(this, g);
+    }
+
     private Point2D calculateT() {
         double tx = getWidth();
         double ty = getHeight();
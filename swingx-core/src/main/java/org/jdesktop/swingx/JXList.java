@@ -42,7 +42,6 @@ import javax.swing.RowFilter;
 import javax.swing.RowSorter;
 import javax.swing.SortOrder;
 import javax.swing.SwingUtilities;
-import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.plaf.ListUI;
 import javax.swing.text.Position.Bias;
@@ -1332,17 +1331,23 @@ public class JXList extends JList {
     /**
      * Creates and returns the ChangeListener observing Highlighters.
      * <p>
-     * Here: repaints the table on receiving a stateChanged.
+     * Here: repaints the list on receiving a stateChanged. Notifications
+     * are coalesced into one repaint per cycle of the EDT, restricted to the 
+     * rows reported by an <code>AffectedRegion</code>.
      * 
      * @return the ChangeListener defining the reaction to changes of
      *         highlighters.
+     * @see org.jdesktop.swingx.decorator.AffectedRegion
      */
     protected ChangeListener createHighlighterChangeListener() {
-        return new ChangeListener() {
+        return new HighlighterRepaintCoalescer(this) {
+
             @Override
-            public void stateChanged(ChangeEvent e) {
-                repaint();
+            protected Rectangle getRowBounds(int row) {
+                if ((row < 0) || (row >= getElementCount())) return null;
+                return getCellBounds(row, row);
             }
+            
         };
     }
 
@@ -1,6 +1,8 @@
 package org.jdesktop.swingx;
 
+import java.awt.EventQueue;
 import java.awt.Insets;
+import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyAdapter;
@@ -60,6 +62,19 @@ public class JXSearchField extends JXTextField {
 	 * The default instant search delay.
 	 */
 	private static final int DEFAULT_INSTANT_SEARCH_DELAY = 180;
+	/**
+	 * The lower bound of the adaptive instant search delay.
+	 */
+	private static final int MIN_ADAPTIVE_INSTANT_SEARCH_DELAY = 20;
+	/**
+	 * The upper bound of the adaptive instant search delay.
+	 */
+	private static final int MAX_ADAPTIVE_INSTANT_SEARCH_DELAY = 1000;
+	/**
+	 * The factor between the average search duration and the adaptive
+	 * instant search delay.
+	 */
+	private static final int ADAPTIVE_INSTANT_SEARCH_FACTOR = 2;
 	/**
 	 * The key used to invoke the cancel action.
 	 */
@@ -151,6 +166,14 @@ public class JXSearchField extends JXTextField {
 
 	private int instantSearchDelay = DEFAULT_INSTANT_SEARCH_DELAY;
 
+	private boolean adaptiveInstantSearchDelay;
+
+	/**
+	 * The smoothed duration of the last searches in milliseconds, -1 if not
+	 * yet measured.
+	 */
+	private long averageSearchDuration = -1;
+
 	private boolean promptFontStyleSet;
 
 	private Timer instantSearchTimer;
@@ -293,6 +316,90 @@ public class JXSearchField extends JXTextField {
 		firePropertyChange("instantSearchDelay", this.instantSearchDelay, this.instantSearchDelay = instantSearchDelay);
 	}
 
+	/**
+	 * Returns <code>true</code> if the instant search delay adapts to the
+	 * duration of the searches. The default is <code>false</code>.
+	 * 
+	 * @see {@link #setAdaptiveInstantSearchDelay(boolean)}
+	 * @return <code>true</code> if the instant search delay is adaptive
+	 */
+	public boolean isAdaptiveInstantSearchDelay() {
+		return adaptiveInstantSearchDelay;
+	}
+
+	/**
+	 * Sets whether the instant search delay adapts to the duration of the
+	 * searches. In {@link SearchMode#INSTANT} with an adaptive delay, the
+	 * search field measures how long the registered action listeners took to
+	 * perform the last searches and delays the next action event accordingly:
+	 * expensive searches (f.i. filtering a large table) are delayed until the
+	 * user pauses typing, cheap searches are performed almost immediately.
+	 * 
+	 * The instant search delay is used until the first search is measured.
+	 * Pending searches are dropped while newer input is waiting to be
+	 * processed.
+	 * 
+	 * @param adaptive
+	 *            <code>true</code> to adapt the instant search delay to the
+	 *            search duration, <code>false</code> to use the fixed instant
+	 *            search delay
+	 * @see #getCurrentInstantSearchDelay()
+	 */
+	public void setAdaptiveInstantSearchDelay(boolean adaptive) {
+		boolean old = isAdaptiveInstantSearchDelay();
+		this.adaptiveInstantSearchDelay = adaptive;
+		averageSearchDuration = -1;
+		firePropertyChange("adaptiveInstantSearchDelay", old, isAdaptiveInstantSearchDelay());
+	}
+
+	/**
+	 * Returns the delay in milliseconds to use for the next instant search.
+	 * This is the instant search delay, if the delay is not adaptive or no
+	 * search has been measured yet. Otherwise it is a multiple of the average
+	 * duration of the last searches, bounded to a range of 20 to 1000
+	 * milliseconds.
+	 * 
+	 * @return the delay in milliseconds to use for the next instant search
+	 * @see #setAdaptiveInstantSearchDelay(boolean)
+	 */
+	public int getCurrentInstantSearchDelay() {
+		if (!isAdaptiveInstantSearchDelay() || averageSearchDuration < 0) {
+			return getInstantSearchDelay();
+		}
+		long delay = averageSearchDuration * ADAPTIVE_INSTANT_SEARCH_FACTOR;
+		return (int) Math.max(MIN_ADAPTIVE_INSTANT_SEARCH_DELAY,
+				Math.min(MAX_ADAPTIVE_INSTANT_SEARCH_DELAY, delay));
+	}
+
+	/**
+	 * Updates the smoothed search duration with the given measurement.
+	 * 
+	 * @param duration
+	 *            the duration of the last search in milliseconds
+	 */
+	private void updateSearchDuration(long duration) {
+		if (averageSearchDuration < 0) {
+			averageSearchDuration = duration;
+		} else {
+			averageSearchDuration = (3 * averageSearchDuration + duration) / 4;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if there is typed input waiting in the
+	 * event queue, which will change the search text.
+	 * 
+	 * @return <code>true</code> if newer input is pending
+	 */
+	private boolean hasPendingInput() {
+		try {
+			EventQueue queue = Toolkit.getDefaultToolkit().getSystemEventQueue();
+			return queue.peekEvent(KeyEvent.KEY_TYPED) != null;
+		} catch (SecurityException e) {
+			return false;
+		}
+	}
+
 	/**
 	 * Get the current {@link LayoutStyle}.
 	 * 
@@ -675,7 +782,8 @@ public class JXSearchField extends JXTextField {
 	 * Returns the {@link Timer} used to delay the firing of action events in
 	 * instant search mode when the user enters text.
 	 * 
-	 * This timer calls {@link #postActionEvent()}.
+	 * This timer calls {@link #postActionEvent()}. With an adaptive instant
+	 * search delay, the timer is restarted instead if newer input is pending.
 	 * 
 	 * @return the {@link Timer} used to delay the firing of action events
 	 */
@@ -684,6 +792,11 @@ public class JXSearchField extends JXTextField {
 			instantSearchTimer = new Timer(0, new ActionListener() {
 				@Override
                 public void actionPerformed(ActionEvent e) {
+					if (isAdaptiveInstantSearchDelay() && hasPendingInput()) {
+						// drop this search, the newer input will trigger the next
+						instantSearchTimer.restart();
+						return;
+					}
 					postActionEvent();
 				}
 			});
@@ -786,11 +899,20 @@ public class JXSearchField extends JXTextField {
 	 * immediately because the users presses enter. However, this method would
 	 * be invoked after the instant search delay, if we would not prevent it
 	 * here.
+	 * 
+	 * With an adaptive instant search delay, also measures the time the
+	 * action listeners take to perform the search.
 	 */
 	@Override
     public void postActionEvent() {
 		getInstantSearchTimer().stop();
+		if (!isAdaptiveInstantSearchDelay()) {
+			super.postActionEvent();
+			return;
+		}
+		long start = System.nanoTime();
 		super.postActionEvent();
+		updateSearchDuration((System.nanoTime() - start) / 1000000);
 	}
 
 	/**
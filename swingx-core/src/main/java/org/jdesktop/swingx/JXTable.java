@@ -69,10 +69,12 @@ import javax.swing.JViewport;
 import javax.swing.KeyStroke;
 import javax.swing.ListSelectionModel;
 import javax.swing.RowFilter;
+import javax.swing.DefaultRowSorter;
 import javax.swing.RowSorter;
 import javax.swing.RowSorter.SortKey;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SortOrder;
+import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
 import javax.swing.UIDefaults;
 import javax.swing.UIManager;
@@ -126,6 +128,7 @@ import org.jdesktop.swingx.sort.StringValueRegistry;
 import org.jdesktop.swingx.sort.TableSortController;
 import org.jdesktop.swingx.table.ColumnControlButton;
 import org.jdesktop.swingx.table.ColumnFactory;
+import org.jdesktop.swingx.table.RowHeightSequence;
 import org.jdesktop.swingx.table.DefaultTableColumnModelExt;
 import org.jdesktop.swingx.table.NumberEditorExt;
 import org.jdesktop.swingx.table.TableColumnExt;
@@ -531,6 +534,12 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
      */
     protected boolean isXTableRowHeightSet;
 
+    /** 
+     * The variable row heights in view coordinates, null if all rows
+     * have the same height. 
+     */
+    private RowHeightSequence rowHeights;
+
     /** property to control search behaviour. */
     protected Searchable searchable;
 
@@ -1644,7 +1653,9 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
     @Override
     public void tableChanged(TableModelEvent e) {
         preprocessModelChange(e);
+        int[] modelRowHeights = preprocessRowHeights(e);
         super.tableChanged(e);
+        postprocessRowHeights(e, modelRowHeights);
         if (isStructureChanged(e) && getAutoCreateColumnsFromModel()) {
             initializeColumnWidths();
             resetCalculatedScrollableSize(true);
@@ -1666,6 +1677,7 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
      */
     @Override
     public void sorterChanged(RowSorterEvent e) {
+        updateRowHeights(e);
         super.sorterChanged(e);
         postprocessSorterChanged(e);
     }
@@ -1713,6 +1725,199 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
 
 //----> end hack around core issue 6791934: 
     
+//----> start variable row heights
+    
+    /**
+     * Updates the variable row heights, if any, before the table model 
+     * change is processed. Returns the row heights in model coordinates
+     * if the view order might be changed by the sorter, null otherwise.
+     * 
+     * @param e the TableModelEvent received from the model
+     * @return the row heights by model index, or null if the heights can 
+     *    be updated in view coordinates
+     */
+    private int[] preprocessRowHeights(TableModelEvent e) {
+        if (rowHeights == null) return null;
+        if (isStructureChanged(e) || (e.getLastRow() == Integer.MAX_VALUE)) {
+            // same as super: all rows changed
+            rowHeights = null;
+            return null;
+        }
+        if (isIdentityRowMapping()) {
+            // the view rows are the model rows. Without sorter the row count 
+            // is the new count already, so the heights are checked against 
+            // their own size, that is the count before the change
+            int length = e.getLastRow() - e.getFirstRow() + 1;
+            if (e.getType() == TableModelEvent.INSERT) {
+                if (e.getFirstRow() <= rowHeights.size()) {
+                    rowHeights.insertEntries(e.getFirstRow(), length, getRowHeight());
+                } else {
+                    rowHeights = null;
+                }
+            } else if (e.getType() == TableModelEvent.DELETE) {
+                if (e.getLastRow() < rowHeights.size()) {
+                    rowHeights.removeEntries(e.getFirstRow(), length);
+                } else {
+                    rowHeights = null;
+                }
+            }
+            return null;
+        }
+        if (getVariableRowHeights() == null) {
+            rowHeights = null;
+            return null;
+        }
+        if (isUpdate(e) && !getSortsOnUpdates()) return null;
+        // the sorter still has the old mapping
+        int[] modelRowHeights = new int[getRowSorter().getModelRowCount()];
+        Arrays.fill(modelRowHeights, getRowHeight());
+        int[] viewRowHeights = rowHeights.getSizes();
+        for (int i = 0; i < viewRowHeights.length; i++) {
+            modelRowHeights[convertRowIndexToModel(i)] = viewRowHeights[i];
+        }
+        // uniform until updated after the change 
+        rowHeights = null;
+        return modelRowHeights;
+    }
+
+    /**
+     * Restores the variable row heights after the table model change
+     * is processed, if they had been cached in model coordinates.
+     * 
+     * @param e the TableModelEvent received from the model
+     * @param modelRowHeights the row heights by model index before the change,
+     *    may be null
+     */
+    private void postprocessRowHeights(TableModelEvent e, int[] modelRowHeights) {
+        if (rowHeights != null) {
+            if (rowHeights.size() != getRowCount()) {
+                rowHeights = null;
+                return;
+            }
+            // the dirty region of super assumes uniform heights
+            repaintVariableRows(e);
+            return;
+        }
+        if (modelRowHeights == null) return;
+        int length = e.getLastRow() - e.getFirstRow() + 1;
+        if (e.getType() == TableModelEvent.INSERT) {
+            int[] inserted = new int[modelRowHeights.length + length];
+            System.arraycopy(modelRowHeights, 0, inserted, 0, e.getFirstRow());
+            Arrays.fill(inserted, e.getFirstRow(), e.getFirstRow() + length, getRowHeight());
+            System.arraycopy(modelRowHeights, e.getFirstRow(), inserted, 
+                    e.getFirstRow() + length, modelRowHeights.length - e.getFirstRow());
+            modelRowHeights = inserted;
+        } else if (e.getType() == TableModelEvent.DELETE) {
+            int[] removed = new int[modelRowHeights.length - length];
+            System.arraycopy(modelRowHeights, 0, removed, 0, e.getFirstRow());
+            System.arraycopy(modelRowHeights, e.getFirstRow() + length, removed, 
+                    e.getFirstRow(), removed.length - e.getFirstRow());
+            modelRowHeights = removed;
+        }
+        setViewRowHeights(modelRowHeights);
+        resizeAndRepaint();
+    }
+    
+    /**
+     * Repaints the rows changed by the table model event, taking the 
+     * variable row heights into account. Inserts and deletes move all 
+     * rows below the first.
+     * 
+     * @param e the TableModelEvent received from the model
+     */
+    private void repaintVariableRows(TableModelEvent e) {
+        if (e.getType() == TableModelEvent.UPDATE) {
+            Rectangle dirty = null;
+            for (int row = e.getFirstRow(); row <= e.getLastRow(); row++) {
+                int viewRow = ((row >= 0) && (row < getModel().getRowCount())) 
+                    ? convertRowIndexToView(row) : -1;
+                if (viewRow < 0) continue;
+                Rectangle r = getCellRect(viewRow, 0, true);
+                dirty = dirty == null ? r : dirty.union(r);
+            }
+            if (dirty != null) {
+                repaint(0, dirty.y, getWidth(), dirty.height);
+            }
+        } else {
+            int y = getCellRect(Math.max(e.getFirstRow(), 0), 0, true).y;
+            repaint(0, y, getWidth(), Math.max(getHeight() - y, 0));
+        }
+    }
+    
+    /**
+     * Re-orders the variable row heights, if any, to keep them with their 
+     * model rows after a sort or filter change. Rows which had been filtered
+     * before get the default height, as in super.
+     * 
+     * @param e the sorter event received from the sorter
+     */
+    private void updateRowHeights(RowSorterEvent e) {
+        if ((rowHeights == null) || (e.getType() != RowSorterEvent.Type.SORTED)) return;
+        // the previous row count is 0 if the previous mapping was the identity
+        boolean previousIdentity = e.getPreviousRowCount() == 0;
+        int previousRowCount = previousIdentity 
+                ? getModel().getRowCount() : e.getPreviousRowCount();
+        if (rowHeights.size() != previousRowCount) {
+            rowHeights = null;
+            return;
+        }
+        int[] modelRowHeights = new int[getModel().getRowCount()];
+        Arrays.fill(modelRowHeights, getRowHeight());
+        int[] viewRowHeights = rowHeights.getSizes();
+        for (int i = 0; i < viewRowHeights.length; i++) {
+            int modelRow = previousIdentity ? i : e.convertPreviousRowIndexToModel(i);
+            if ((modelRow >= 0) && (modelRow < modelRowHeights.length)) {
+                modelRowHeights[modelRow] = viewRowHeights[i];
+            }
+        }
+        setViewRowHeights(modelRowHeights);
+    }
+
+    /**
+     * Sets the variable row heights from the heights in model coordinates, 
+     * using the current view order.
+     * 
+     * @param modelRowHeights the row heights by model index
+     */
+    private void setViewRowHeights(int[] modelRowHeights) {
+        int[] viewRowHeights = new int[getRowCount()];
+        for (int i = 0; i < viewRowHeights.length; i++) {
+            viewRowHeights[i] = modelRowHeights[convertRowIndexToModel(i)];
+        }
+        if (rowHeights == null) {
+            rowHeights = new RowHeightSequence(viewRowHeights);
+        } else {
+            rowHeights.setSizes(viewRowHeights);
+        }
+    }
+    
+    /**
+     * Returns a boolean indicating whether the view rows are the model rows,
+     * that is there's no sorter or it neither sorts nor filters.
+     * 
+     * @return true if view and model coordinates of rows are the same
+     */
+    private boolean isIdentityRowMapping() {
+        RowSorter<?> sorter = getRowSorter();
+        if (sorter == null) return true;
+        if (!sorter.getSortKeys().isEmpty()) return false;
+        return (sorter instanceof DefaultRowSorter<?, ?>) 
+            && (((DefaultRowSorter<?, ?>) sorter).getRowFilter() == null);
+    }
+    
+    /**
+     * Returns the variable row heights if they are in synch with the rows,
+     * null otherwise.
+     * 
+     * @return the variable row heights or null
+     */
+    private RowHeightSequence getVariableRowHeights() {
+        return ((rowHeights != null) && (rowHeights.size() == getRowCount())) 
+            ? rowHeights : null;
+    }
+    
+//----> end variable row heights
+    
     /**
      * {@inheritDoc} <p>
      * 
@@ -1786,6 +1991,8 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
      */
     @Override
     public void setRowSorter(RowSorter<? extends TableModel> sorter) {
+        // same as super: reset variable row heights
+        rowHeights = null;
         super.setRowSorter(sorter);
         configureSorterProperties();
     }
@@ -2578,11 +2785,15 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
             if (event.getSource() instanceof TableColumnExt
                     && getRowCount() > 0) {
                 TableColumnExt column = (TableColumnExt) event.getSource();
-
-                Rectangle r = getCellRect(0, convertColumnIndexToView(column
-                        .getModelIndex()), true);
-                r.height = getHeight();
-                repaint(r);
+                if (getHighlighterChangeListener() instanceof HighlighterRepaintCoalescer) {
+                    ((HighlighterRepaintCoalescer) getHighlighterChangeListener())
+                        .addDirtyRegion(null, new int[] {column.getModelIndex()});
+                } else {
+                    Rectangle r = getCellRect(0, convertColumnIndexToView(column
+                            .getModelIndex()), true);
+                    r.height = getHeight();
+                    repaint(r);
+                }
             } else {
                 repaint();
             }
@@ -3469,17 +3680,30 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
     /**
      * Creates and returns the ChangeListener observing Highlighters.
      * <p>
-     * Here: repaints the table on receiving a stateChanged.
+     * Here: repaints the table on receiving a stateChanged. Notifications
+     * are coalesced into one repaint per cycle of the EDT, restricted to the 
+     * rows and columns reported by an <code>AffectedRegion</code>.
      * 
      * @return the ChangeListener defining the reaction to changes of
      *         highlighters.
+     * @see org.jdesktop.swingx.decorator.AffectedRegion
      */
     protected ChangeListener createHighlighterChangeListener() {
-        return new ChangeListener() {
+        return new HighlighterRepaintCoalescer(this) {
+
             @Override
-            public void stateChanged(ChangeEvent e) {
-                repaint();
+            protected Rectangle getRowBounds(int row) {
+                if ((row < 0) || (row >= getRowCount())) return null;
+                return getCellRect(row, 0, true);
             }
+
+            @Override
+            protected Rectangle getColumnBounds(int column) {
+                int viewColumn = convertColumnIndexToView(column);
+                if (viewColumn < 0) return null;
+                return getCellRect(0, viewColumn, true);
+            }
+            
         };
     }
 
@@ -3666,15 +3890,8 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
 
         if (columnExt != null) {
             // JW: fix for #838 - artificial compound installs listener
-            // PENDING JW: instead of doing the looping ourselves, how
-            // about adding a method prepareRenderer to the TableColumnExt
-            for (Highlighter highlighter : columnExt.getHighlighters()) {
-                stamp = highlighter.highlight(stamp, adapter);
-
-            }
-            // CompoundHighlighter columnHighlighters
-            // = new CompoundHighlighter(columnExt.getHighlighters());
-
+            // the column applies its own compound, no array copy per cell
+            stamp = columnExt.prepareRenderer(stamp, adapter);
         }
 
         return stamp;
@@ -4479,12 +4696,104 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
      */
     @Override
     public void setRowHeight(int rowHeight) {
+        rowHeights = null;
         super.setRowHeight(rowHeight);
         if (rowHeight > 0) {
             isXTableRowHeightSet = true;
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Overridden to keep the variable row heights in a 
+     * <code>RowHeightSequence</code>, which maps between rows and positions 
+     * in logarithmic time, also after inserts and removes. Does nothing
+     * if the row is out of range or its height unchanged.
+     * 
+     * @see org.jdesktop.swingx.table.TableRowHeightController
+     */
+    @Override
+    public void setRowHeight(int row, int rowHeight) {
+        if (rowHeight <= 0) {
+            throw new IllegalArgumentException("New row height less than 1");
+        }
+        if ((row < 0) || (row >= getRowCount())) return;
+        if (getVariableRowHeights() == null) {
+            rowHeights = new RowHeightSequence(getRowCount(), getRowHeight());
+        }
+        if (rowHeights.getSize(row) == rowHeight) return;
+        rowHeights.setSize(row, rowHeight);
+        resizeAndRepaint();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Overridden to return the height from the variable row heights, if any.
+     */
+    @Override
+    public int getRowHeight(int row) {
+        RowHeightSequence heights = getVariableRowHeights();
+        if ((heights == null) || (row < 0) || (row >= heights.size())) {
+            return super.getRowHeight(row);
+        }
+        return heights.getSize(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Overridden to take the variable row heights, if any, into account.
+     */
+    @Override
+    public Rectangle getCellRect(int row, int column, boolean includeSpacing) {
+        Rectangle r = super.getCellRect(row, column, includeSpacing);
+        RowHeightSequence heights = getVariableRowHeights();
+        if ((heights != null) && (row >= 0) && (row < heights.size())) {
+            r.y = heights.getPosition(row);
+            r.height = heights.getSize(row);
+            if (!includeSpacing) {
+                int rowMargin = Math.min(getRowMargin(), r.height);
+                r.y += rowMargin / 2;
+                r.height -= rowMargin;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Overridden to align the vertical block increment to the variable row 
+     * heights, if any: the super implementation assumes uniform heights.
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation,
+            int direction) {
+        if ((getVariableRowHeights() == null) || (orientation != SwingConstants.VERTICAL)) {
+            return super.getScrollableBlockIncrement(visibleRect, orientation, direction);
+        }
+        if (direction > 0) {
+            // the row partly visible at the bottom becomes the first 
+            int row = rowAtPoint(new Point(visibleRect.x, visibleRect.y + visibleRect.height - 1));
+            if (row >= 0) {
+                int y = getCellRect(row, 0, true).y;
+                if (y > visibleRect.y) return y - visibleRect.y;
+            }
+            return visibleRect.height;
+        }
+        // the row at one page up becomes the first, if completely visible
+        int target = Math.max(0, visibleRect.y - visibleRect.height);
+        int row = rowAtPoint(new Point(visibleRect.x, target));
+        if (row >= 0) {
+            Rectangle cell = getCellRect(row, 0, true);
+            int y = cell.y < target ? cell.y + cell.height : cell.y;
+            if (y < visibleRect.y) return visibleRect.y - y;
+        }
+        return visibleRect.height;
+    }
+
     /**
      * Sets the rowHeight for all rows to the given value. Keeps the flag
      * <code>isXTableRowHeight</code> unchanged. This enables the distinction
@@ -4506,13 +4815,18 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
      * {@inheritDoc}
      * <p>
      * Overridden to work around core Bug (ID #6291631): negative y is mapped to
-     * row 0).
+     * row 0) and to look up the row in the variable row heights, if any.
      * 
      */
     @Override
     public int rowAtPoint(Point point) {
         if (point.y < 0)
             return -1;
+        RowHeightSequence heights = getVariableRowHeights();
+        if (heights != null) {
+            int row = heights.getIndex(point.y);
+            return row < heights.size() ? row : -1;
+        }
         return super.rowAtPoint(point);
     }
 
@@ -29,10 +29,14 @@ import java.beans.PropertyChangeListener;
 import java.io.Serializable;
 import java.util.logging.Logger;
 
+import javax.swing.Icon;
+import javax.swing.JLabel;
 import javax.swing.JTable;
 import javax.swing.SortOrder;
 import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 import javax.swing.event.MouseInputListener;
+import javax.swing.plaf.UIResource;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
@@ -94,6 +98,7 @@ public class JXTableHeader extends JTableHeader
     private transient PropertyChangeListener tablePropertyChangeListener;
     private boolean resortsOnDoubleClick;
     private Point popupTriggerLocation;
+    private transient SortIconRenderer sortIconRenderer;
 
     /**
      *  Constructs a <code>JTableHeader</code> with a default 
@@ -370,6 +375,86 @@ public class JXTableHeader extends JTableHeader
         return renderer != null ? renderer : getDefaultRenderer();
     }
     
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to decorate the default renderer with the sort icon of the
+     * primary sort column if the table is sorted without a RowSorter (as
+     * f.i. a JXTreeTable with a TreeTableSortController): core's default 
+     * renderer queries the RowSorter only.
+     */
+    @Override
+    public TableCellRenderer getDefaultRenderer() {
+        TableCellRenderer renderer = super.getDefaultRenderer();
+        if ((renderer == null) || (renderer instanceof SortIconRenderer)
+                || (getXTable() == null) || (getXTable().getRowSorter() != null)
+                || (getXTable().getSortedColumnIndex() < 0)) {
+            return renderer;
+        }
+        if ((sortIconRenderer == null) || (sortIconRenderer.delegate != renderer)) {
+            sortIconRenderer = renderer instanceof UIResource 
+                    ? new UIResourceSortIconRenderer(renderer) 
+                    : new SortIconRenderer(renderer);
+        }
+        return sortIconRenderer;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to update the ui of the default renderer if it is 
+     * decorated with the sort icon.
+     */
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        TableCellRenderer renderer = super.getDefaultRenderer();
+        if ((renderer instanceof Component) && (getDefaultRenderer() != renderer)) {
+            SwingUtilities.updateComponentTreeUI((Component) renderer);
+        }
+    }
+    
+    /**
+     * Sets the sort icon of the primary sort column on the delegate's 
+     * rendering component.
+     */
+    private static class SortIconRenderer implements TableCellRenderer {
+        private final TableCellRenderer delegate;
+
+        public SortIconRenderer(TableCellRenderer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table,
+                Object value, boolean isSelected, boolean hasFocus, int row,
+                int column) {
+            Component comp = delegate.getTableCellRendererComponent(table, value, 
+                    isSelected, hasFocus, row, column);
+            if ((comp instanceof JLabel) && (table instanceof JXTable)
+                    && (column >= 0) 
+                    && (((JXTable) table).getSortedColumnIndex() == column)) {
+                Icon icon = null;
+                SortOrder order = ((JXTable) table).getSortOrder(column);
+                if (order == SortOrder.ASCENDING) {
+                    icon = UIManager.getIcon("Table.ascendingSortIcon");
+                } else if (order == SortOrder.DESCENDING) {
+                    icon = UIManager.getIcon("Table.descendingSortIcon");
+                }
+                ((JLabel) comp).setIcon(icon);
+            }
+            return comp;
+        }
+    }
+    
+    private static class UIResourceSortIconRenderer extends SortIconRenderer 
+        implements UIResource {
+
+        public UIResourceSortIconRenderer(TableCellRenderer delegate) {
+            super(delegate);
+        }
+    }
+    
     /**
      * {@inheritDoc} <p>
      * 
@@ -643,10 +728,24 @@ public class JXTableHeader extends JTableHeader
                 return;
             }
             doResize(e);
+            doSort(e);
             doDoubleSort(e);
             uncacheResizingColumn();
         }
 
+        /**
+         * Toggles the sort order on a single click if the table has no RowSorter:
+         * core sorts on click only by way of the RowSorter.
+         */
+        private void doSort(MouseEvent e) {
+            if (getXTable() == null || getXTable().getRowSorter() != null
+                    || isInResizeRegion(e) || e.getClickCount() % 2 == 0) return;
+            int column = columnAtPoint(e.getPoint());
+            if (column >= 0) {
+                getXTable().toggleSortOrder(column);
+            }
+        }
+
         private void doDoubleSort(MouseEvent e) {
             if (!hasCachedSortColumn() || e.getClickCount() % 2 == 1) return;
             getXTable().toggleSortOrder(sortColumn);
@@ -32,7 +32,15 @@ import java.awt.event.ActionEvent;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -50,11 +58,15 @@ import javax.swing.UIManager;
 import javax.swing.event.CellEditorListener;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
+import javax.swing.plaf.TreeUI;
 import javax.swing.plaf.basic.BasicTreeUI;
 import javax.swing.text.Position.Bias;
 import javax.swing.tree.DefaultTreeCellRenderer;
+import javax.swing.tree.ExpandVetoException;
 import javax.swing.tree.TreeCellRenderer;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
@@ -77,6 +89,8 @@ import org.jdesktop.swingx.search.Searchable;
 import org.jdesktop.swingx.search.TreeSearchable;
 import org.jdesktop.swingx.tree.DefaultXTreeCellEditor;
 import org.jdesktop.swingx.tree.DefaultXTreeCellRenderer;
+import org.jdesktop.swingx.tree.TreePathPredicate;
+import org.jdesktop.swingx.util.Contract;
 
 
 /**
@@ -254,6 +268,14 @@ public class JXTree extends JTree {
 
     private Point popupTriggerLocation;
     
+    /** 
+     * The expansion listeners installed by the ui-delegate. Note: must not
+     * be initialized, it's set in super's constructor.
+     */
+    private List<TreeExpansionListener> uiExpansionListeners;
+    /** flag to suppress the per-node notification while expanding in bulk. */
+    private boolean bulkExpansion;
+    
     
     
     /**
@@ -548,11 +570,25 @@ public class JXTree extends JTree {
 
 //--------------------- misc. new api and super overrides
     /**
-     * Collapses all nodes in this tree.
+     * Collapses all nodes in this tree. If the root is not visible, it
+     * stays expanded.
+     * 
+     * @see #collapseSubtree(TreePath)
      */
     public void collapseAll() {
-        for (int i = getRowCount() - 1; i >= 0 ; i--) {
-            collapseRow(i);
+        TreeModel model = getModel();
+        if (model == null || model.getRoot() == null) return;
+        TreePath root = new TreePath(model.getRoot());
+        if (isRootVisible()) {
+            collapseSubtree(root);
+            return;
+        }
+        for (int i = model.getChildCount(root.getLastPathComponent()) - 1; i >= 0; i--) {
+            TreePath child = root.pathByAddingChild(
+                    model.getChild(root.getLastPathComponent(), i));
+            if (isExpanded(child)) {
+                collapseSubtree(child);
+            }
         }
     }
 
@@ -561,25 +597,279 @@ public class JXTree extends JTree {
      * 
      * Note: it's not recommended to use this method on the EDT for large/deep trees
      * because expansion can take a considerable amount of time. 
+     * 
+     * @see #expandSubtree(TreePath)
      */
     public void expandAll() {
-        if (getRowCount() == 0) {
-            expandRoot();
+        TreeModel model = getModel();
+        if (model == null || model.getRoot() == null) return;
+        expandSubtree(new TreePath(model.getRoot()));
+    }
+
+    /**
+     * Expands the given path and all its descendants.
+     * 
+     * @param path the root of the subtree to expand
+     * @see #expandSubtree(TreePath, int, TreePathPredicate)
+     */
+    public void expandSubtree(TreePath path) {
+        expandSubtree(path, Integer.MAX_VALUE, null);
+    }
+    
+    /**
+     * Expands the given path and its descendants up to the given depth in
+     * bulk. Descendants which are not included by the predicate are not
+     * expanded, nor are their descendants. The parents of the path are 
+     * expanded as needed. <p>
+     * 
+     * As opposed to expanding node by node, the ui updates its layout once and
+     * TreeWillExpandListeners and TreeExpansionListeners are notified once, 
+     * with the given path. A veto cancels the complete expansion.
+     * 
+     * @param path the root of the subtree to expand, must not be null
+     * @param depth the number of levels below the path to expand, 
+     *    0 expands the path only
+     * @param predicate decides which descendants to expand, may be null 
+     *    to expand all
+     * @throws NullPointerException if the path is null
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    public void expandSubtree(TreePath path, int depth, TreePathPredicate predicate) {
+        setSubtreeExpandedState(path, depth, predicate, true);
+    }
+    
+    /**
+     * Collapses the given path and all its descendants.
+     * 
+     * @param path the root of the subtree to collapse
+     * @see #collapseSubtree(TreePath, int, TreePathPredicate)
+     */
+    public void collapseSubtree(TreePath path) {
+        collapseSubtree(path, Integer.MAX_VALUE, null);
+    }
+    
+    /**
+     * Collapses the given path and its expanded descendants up to the given 
+     * depth in bulk. Descendants which are not included by the predicate 
+     * are not collapsed, nor are their descendants. Does nothing if the 
+     * path is not expanded.<p>
+     * 
+     * TreeWillExpandListeners and TreeExpansionListeners are notified once, 
+     * with the given path. A veto cancels the complete collapse.
+     * 
+     * @param path the root of the subtree to collapse, must not be null
+     * @param depth the number of levels below the path to collapse, 
+     *    0 collapses the path only
+     * @param predicate decides which descendants to collapse, may be null 
+     *    to collapse all
+     * @throws NullPointerException if the path is null
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    public void collapseSubtree(TreePath path, int depth, TreePathPredicate predicate) {
+        setSubtreeExpandedState(path, depth, predicate, false);
+    }
+    
+    /**
+     * Sets the expanded state of the subtree in bulk. Called by 
+     * expandSubtree and collapseSubtree. <p>
+     * 
+     * The per-node notification of the expansion listeners is suppressed, 
+     * except for collapsing the ui-delegate needs to update its layout. 
+     * When done, the listeners are notified with the given path. 
+     * 
+     * @param path the root of the subtree, must not be null
+     * @param depth the number of levels below the path to change
+     * @param predicate decides which descendants to change, may be null
+     * @param expanded the expanded state to set
+     * @throws NullPointerException if the path is null
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    protected void setSubtreeExpandedState(TreePath path, int depth, 
+            TreePathPredicate predicate, boolean expanded) {
+        Contract.asNotNull(path, "path must not be null");
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth must not be negative: " + depth);
+        }
+        if (getModel() == null) return;
+        List<TreePath> paths;
+        if (expanded) {
+            if (getModel().isLeaf(path.getLastPathComponent())) return;
+            if ((path.getParentPath() != null) && !isExpanded(path.getParentPath())) {
+                expandPath(path.getParentPath());
+            }
+            paths = getCollapsedPaths(path, depth, predicate);
+        } else {
+            if (!isExpanded(path)) return;
+            paths = getExpandedPaths(path, depth, predicate);
         }
-        for (int i = 0; i < getRowCount(); i++) {
-            expandRow(i);
+        if (paths.isEmpty()) return;
+        try {
+            if (expanded) {
+                fireTreeWillExpand(path);
+            } else {
+                fireTreeWillCollapse(path);
+            }
+        } catch (ExpandVetoException e) {
+            return;
         }
+        bulkExpansion = true;
+        try {
+            for (TreePath p : paths) {
+                setExpandedState(p, expanded);
+            }
+        } finally {
+            bulkExpansion = false;
+        }
+        // the ui had been notified of each collapse
+        fireTreeExpansionEvent(path, expanded, expanded, true);
     }
 
     /**
-     * Expands the root path if a TreeModel has been set, does nothing if not.
-     * 
+     * Returns the not expanded paths of the subtree to expand, parents before 
+     * their children. 
      */
-    private void expandRoot() {
+    private List<TreePath> getCollapsedPaths(TreePath path, int depth, TreePathPredicate predicate) {
         TreeModel model = getModel();
-        if (model != null && model.getRoot() != null) {
-            expandPath(new TreePath(model.getRoot()));
+        List<TreePath> paths = new ArrayList<TreePath>();
+        List<TreePath> stack = new ArrayList<TreePath>();
+        stack.add(path);
+        int topCount = path.getPathCount();
+        while (!stack.isEmpty()) {
+            TreePath current = stack.remove(stack.size() - 1);
+            if (!isExpanded(current)) {
+                paths.add(current);
+            }
+            if (current.getPathCount() - topCount >= depth) continue;
+            Object node = current.getLastPathComponent();
+            for (int i = model.getChildCount(node) - 1; i >= 0; i--) {
+                Object child = model.getChild(node, i);
+                if (model.isLeaf(child)) continue;
+                TreePath childPath = current.pathByAddingChild(child);
+                if ((predicate == null) || predicate.isIncluded(childPath)) {
+                    stack.add(childPath);
+                }
+            }
+        }
+        return paths;
+    }
+    
+    /**
+     * Returns the expanded paths of the subtree to collapse, children before 
+     * their parents. 
+     */
+    private List<TreePath> getExpandedPaths(TreePath path, int depth, TreePathPredicate predicate) {
+        List<TreePath> paths = new ArrayList<TreePath>();
+        Map<TreePath, Boolean> included = new HashMap<TreePath, Boolean>();
+        included.put(path, Boolean.TRUE);
+        paths.add(path);
+        int topCount = path.getPathCount();
+        Enumeration<TreePath> descendants = getExpandedDescendants(path);
+        while (descendants != null && descendants.hasMoreElements()) {
+            TreePath descendant = descendants.nextElement();
+            if (descendant.equals(path)) continue;
+            if ((descendant.getPathCount() - topCount <= depth)
+                    && isIncluded(descendant, predicate, included)) {
+                paths.add(descendant);
+            }
+        }
+        Collections.sort(paths, new Comparator<TreePath>() {
+            @Override
+            public int compare(TreePath o1, TreePath o2) {
+                return o2.getPathCount() - o1.getPathCount();
+            }
+        });
+        return paths;
+    }
+
+    /**
+     * Returns a boolean indicating whether the path and all its parents up
+     * to the root of the subtree are included by the predicate.
+     */
+    private boolean isIncluded(TreePath path, TreePathPredicate predicate, 
+            Map<TreePath, Boolean> included) {
+        Boolean result = included.get(path);
+        if (result == null) {
+            result = ((predicate == null) || predicate.isIncluded(path)) 
+                && isIncluded(path.getParentPath(), predicate, included);
+            included.put(path, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Notifies the TreeExpansionListeners with the given path.
+     * 
+     * @param path the path which was expanded or collapsed
+     * @param expanded true to notify treeExpanded, false for treeCollapsed
+     * @param notifyUI true to notify the listeners of the ui-delegate
+     * @param notifyOthers true to notify all other listeners
+     */
+    private void fireTreeExpansionEvent(TreePath path, boolean expanded, 
+            boolean notifyUI, boolean notifyOthers) {
+        TreeExpansionListener[] listeners = getTreeExpansionListeners();
+        TreeExpansionEvent e = new TreeExpansionEvent(this, path);
+        // same order as super
+        for (int i = listeners.length - 1; i >= 0; i--) {
+            if (!(isUIExpansionListener(listeners[i]) ? notifyUI : notifyOthers)) continue;
+            if (expanded) {
+                listeners[i].treeExpanded(e);
+            } else {
+                listeners[i].treeCollapsed(e);
+            }
+        }
+    }
+    
+    private boolean isUIExpansionListener(TreeExpansionListener l) {
+        return (uiExpansionListeners != null) && uiExpansionListeners.contains(l);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to not notify while expanding in bulk. 
+     */
+    @Override
+    public void fireTreeWillExpand(TreePath path) throws ExpandVetoException {
+        if (bulkExpansion) return;
+        super.fireTreeWillExpand(path);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to not notify while expanding in bulk. 
+     */
+    @Override
+    public void fireTreeWillCollapse(TreePath path) throws ExpandVetoException {
+        if (bulkExpansion) return;
+        super.fireTreeWillCollapse(path);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to not notify while expanding in bulk. The ui-delegate
+     * updates the layout of all expanded descendants when notified with
+     * the root of the subtree.
+     */
+    @Override
+    public void fireTreeExpanded(TreePath path) {
+        if (bulkExpansion) return;
+        super.fireTreeExpanded(path);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to notify the ui-delegate only while expanding in bulk. 
+     */
+    @Override
+    public void fireTreeCollapsed(TreePath path) {
+        if (bulkExpansion) {
+            fireTreeExpansionEvent(path, false, true, false);
+            return;
         }
+        super.fireTreeCollapsed(path);
     }
 
     /**
@@ -708,6 +998,22 @@ public class JXTree extends JTree {
     }
 
     
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to keep track of the expansion listeners installed by the 
+     * ui-delegate, they need to be notified of each change while expanding
+     * in bulk.
+     */
+    @Override
+    public void setUI(TreeUI ui) {
+        List<TreeExpansionListener> listeners = Arrays.asList(getTreeExpansionListeners());
+        super.setUI(ui);
+        uiExpansionListeners = new ArrayList<TreeExpansionListener>(
+                Arrays.asList(getTreeExpansionListeners()));
+        uiExpansionListeners.removeAll(listeners);
+    }
+    
     /**
      * Quick fix for #1060-swingx: icons lost on toggling LAF
      */
@@ -1000,17 +1306,22 @@ public class JXTree extends JTree {
     /**
      * Creates and returns the ChangeListener observing Highlighters.
      * <p>
-     * Here: repaints the table on receiving a stateChanged.
+     * Here: repaints the tree on receiving a stateChanged. Notifications
+     * are coalesced into one repaint per cycle of the EDT, restricted to the 
+     * rows reported by an <code>AffectedRegion</code>.
      * 
      * @return the ChangeListener defining the reaction to changes of
      *         highlighters.
+     * @see org.jdesktop.swingx.decorator.AffectedRegion
      */
     protected ChangeListener createHighlighterChangeListener() {
-        return new ChangeListener() {
+        return new HighlighterRepaintCoalescer(this) {
+
             @Override
-            public void stateChanged(ChangeEvent e) {
-                repaint();
+            protected Rectangle getRowBounds(int row) {
+                return JXTree.this.getRowBounds(row);
             }
+            
         };
     }
     
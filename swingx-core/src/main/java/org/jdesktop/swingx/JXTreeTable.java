@@ -33,9 +33,13 @@ import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.EventObject;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import javax.swing.ActionMap;
@@ -44,7 +48,9 @@ import javax.swing.JComponent;
 import javax.swing.JTable;
 import javax.swing.JTree;
 import javax.swing.ListSelectionModel;
+import javax.swing.RowFilter;
 import javax.swing.RowSorter;
+import javax.swing.SortOrder;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.border.Border;
@@ -67,6 +73,7 @@ import javax.swing.table.TableModel;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.DefaultTreeSelectionModel;
 import javax.swing.tree.TreeCellRenderer;
+import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 
@@ -78,7 +85,10 @@ import org.jdesktop.swingx.renderer.StringValue;
 import org.jdesktop.swingx.renderer.StringValues;
 import org.jdesktop.swingx.rollover.RolloverProducer;
 import org.jdesktop.swingx.rollover.RolloverRenderer;
+import org.jdesktop.swingx.sort.SortUtils;
+import org.jdesktop.swingx.sort.TreeTableSortController;
 import org.jdesktop.swingx.tree.DefaultXTreeCellRenderer;
+import org.jdesktop.swingx.tree.TreePathPredicate;
 import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
 import org.jdesktop.swingx.treetable.TreeTableCellEditor;
 import org.jdesktop.swingx.treetable.TreeTableModel;
@@ -163,6 +173,15 @@ public class JXTreeTable extends JXTable {
     private boolean consumedOnPress;
     private TreeExpansionBroadcaster treeExpansionBroadcaster;
 
+    /**
+     * Hierarchical sort controller, interposed between the tree and the
+     * treeTableModel if not null.
+     */
+    private TreeTableSortController treeTableSortController;
+    private SortExpansionHandler sortExpansionSaver;
+    private SortExpansionHandler sortExpansionRestorer;
+    private List<TreePath> sortExpandedPaths;
+
     /**
      * Constructs a JXTreeTable using a
      * {@link org.jdesktop.swingx.treetable.DefaultTreeTableModel}.
@@ -290,10 +309,11 @@ public class JXTreeTable extends JXTable {
      * {@inheritDoc} <p>
      * Overridden to do nothing. 
      * 
-     * TreeTable is not sortable because there is no equivalent to 
-     * RowSorter (which is targeted to linear structures) for 
-     * hierarchical data.
+     * TreeTable is not sortable by a RowSorter (which is targeted to 
+     * linear structures). Hierarchical data can be sorted and filtered
+     * by a TreeTableSortController.
      * 
+     * @see #setTreeTableSortController(TreeTableSortController)
      */
     @Override
     public void setSortable(boolean sortable) {
@@ -304,10 +324,11 @@ public class JXTreeTable extends JXTable {
      * {@inheritDoc} <p>
      * Overridden to do nothing. 
      * 
-     * TreeTable is not sortable because there is no equivalent to 
-     * RowSorter (which is targeted to linear structures) for 
-     * hierarchical data.
+     * TreeTable is not sortable by a RowSorter (which is targeted to 
+     * linear structures). Hierarchical data can be sorted and filtered
+     * by a TreeTableSortController.
      * 
+     * @see #setTreeTableSortController(TreeTableSortController)
      */
     @Override
     public void setAutoCreateRowSorter(boolean autoCreateRowSorter) {
@@ -317,10 +338,11 @@ public class JXTreeTable extends JXTable {
      * {@inheritDoc} <p>
      * Overridden to do nothing. 
      * 
-     * TreeTable is not sortable because there is no equivalent to 
-     * RowSorter (which is targeted to linear structures) for 
-     * hierarchical data.
+     * TreeTable is not sortable by a RowSorter (which is targeted to 
+     * linear structures). Hierarchical data can be sorted and filtered
+     * by a TreeTableSortController.
      * 
+     * @see #setTreeTableSortController(TreeTableSortController)
      */
     @Override
     public void setRowSorter(RowSorter<? extends TableModel> sorter) {
@@ -374,6 +396,286 @@ public class JXTreeTable extends JXTable {
         super.setRowSorter(sorter);
     }
     
+    /**
+     * Sets the hierarchical sort controller. If not null, the controller 
+     * decorates the treeTableModel: it sorts the children of each parent and 
+     * filters the nodes. The expanded paths are kept when the sort order or 
+     * filter is changed.<p>
+     * 
+     * The sort and filter api of JXTable (f.i. <code>toggleSortOrder</code>,
+     * <code>setRowFilter</code>) is routed to the controller if available.<p>
+     * 
+     * A JXTableHeader toggles the sort order on click and shows the sort icon
+     * of the primary sort column.
+     * 
+     * @param controller the sort controller to use, may be null to remove
+     *   sorting/filtering.
+     * 
+     * @see #getTreeTableSortController()
+     */
+    public void setTreeTableSortController(TreeTableSortController controller) {
+        TreeTableSortController old = getTreeTableSortController();
+        if (old == controller) return;
+        TreeTableModel model = getTreeTableModel();
+        this.treeTableSortController = controller;
+        if (controller != null) {
+            if (sortExpansionSaver == null) {
+                sortExpansionSaver = new SortExpansionHandler(true);
+                sortExpansionRestorer = new SortExpansionHandler(false);
+            }
+            controller.setModel(model);
+            // notified after the tree
+            controller.addTreeModelListener(sortExpansionRestorer);
+            renderer.setModel(controller);
+            // notified before the tree
+            controller.addTreeModelListener(sortExpansionSaver);
+        } else {
+            renderer.setModel(model);
+        }
+        if (old != null) {
+            old.removeTreeModelListener(sortExpansionSaver);
+            old.removeTreeModelListener(sortExpansionRestorer);
+            old.setModel(null);
+        }
+        if (getTableHeader() != null) {
+            getTableHeader().repaint();
+        }
+        firePropertyChange("treeTableSortController", old, getTreeTableSortController());
+    }
+    
+    /**
+     * Returns the hierarchical sort controller.
+     * 
+     * @return the sort controller, may be null.
+     * @see #setTreeTableSortController(TreeTableSortController)
+     */
+    public TreeTableSortController getTreeTableSortController() {
+        return treeTableSortController;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to query the TreeTableSortController, if available.
+     */
+    @Override
+    public TableColumn getSortedColumn() {
+        if (getTreeTableSortController() == null) {
+            return super.getSortedColumn();
+        }
+        RowSorter.SortKey sortKey = SortUtils.getFirstSortingKey(
+                getTreeTableSortController().getSortKeys());
+        if (sortKey != null) {
+            for (TableColumn column : getColumns(true)) {
+                if (column.getModelIndex() == sortKey.getColumn()) {
+                    return column;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to query the TreeTableSortController, if available.
+     */
+    @Override
+    public int getSortedColumnIndex() {
+        if (getTreeTableSortController() == null) {
+            return super.getSortedColumnIndex();
+        }
+        RowSorter.SortKey sortKey = SortUtils.getFirstSortingKey(
+                getTreeTableSortController().getSortKeys());
+        return sortKey != null ? convertColumnIndexToView(sortKey.getColumn()) : -1;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public void toggleSortOrder(int columnIndex) {
+        if (getTreeTableSortController() == null) {
+            super.toggleSortOrder(columnIndex);
+            return;
+        }
+        getTreeTableSortController().toggleSortOrder(convertColumnIndexToModel(columnIndex));
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public void toggleSortOrder(Object identifier) {
+        if (getTreeTableSortController() == null) {
+            super.toggleSortOrder(identifier);
+            return;
+        }
+        TableColumn column = getColumnExt(identifier);
+        if (column == null) return;
+        getTreeTableSortController().toggleSortOrder(column.getModelIndex());
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public void setSortOrder(int columnIndex, SortOrder sortOrder) {
+        if (getTreeTableSortController() == null) {
+            super.setSortOrder(columnIndex, sortOrder);
+            return;
+        }
+        getTreeTableSortController().setSortOrder(
+                convertColumnIndexToModel(columnIndex), sortOrder);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public void setSortOrder(Object identifier, SortOrder sortOrder) {
+        if (getTreeTableSortController() == null) {
+            super.setSortOrder(identifier, sortOrder);
+            return;
+        }
+        TableColumn column = getColumnExt(identifier);
+        if (column == null) return;
+        getTreeTableSortController().setSortOrder(column.getModelIndex(), sortOrder);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public SortOrder getSortOrder(int columnIndex) {
+        if (getTreeTableSortController() == null) {
+            return super.getSortOrder(columnIndex);
+        }
+        return getTreeTableSortController().getSortOrder(convertColumnIndexToModel(columnIndex));
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public SortOrder getSortOrder(Object identifier) {
+        if (getTreeTableSortController() == null) {
+            return super.getSortOrder(identifier);
+        }
+        TableColumn column = getColumnExt(identifier);
+        if (column == null) return SortOrder.UNSORTED;
+        return getTreeTableSortController().getSortOrder(column.getModelIndex());
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public void resetSortOrder() {
+        if (getTreeTableSortController() == null) {
+            super.resetSortOrder();
+            return;
+        }
+        getTreeTableSortController().resetSortOrders();
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available. 
+     * Note that the entries passed into the filter have the TreeTableModel
+     * as model and the node's index in its parent as identifier.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <R extends TableModel> void setRowFilter(RowFilter<? super R, ? super Integer> filter) {
+        if (getTreeTableSortController() == null) {
+            super.setRowFilter(filter);
+            return;
+        }
+        // JW: the typical filters don't care about the model type
+        getTreeTableSortController().setRowFilter((RowFilter<? super TreeTableModel, ? super Integer>) 
+                (RowFilter<?, ? super Integer>) filter);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to delegate to the TreeTableSortController, if available.
+     */
+    @Override
+    public RowFilter<?, ?> getRowFilter() {
+        if (getTreeTableSortController() == null) {
+            return super.getRowFilter();
+        }
+        return getTreeTableSortController().getRowFilter();
+    }
+    
+    /**
+     * Keeps the expanded paths across the reordering structure changes 
+     * of the TreeTableSortController: the saving instance must be notified 
+     * before, the restoring instance after the tree.
+     */
+    private class SortExpansionHandler implements TreeModelListener {
+        private final boolean save;
+        
+        public SortExpansionHandler(boolean save) {
+            this.save = save;
+        }
+        
+        @Override
+        public void treeStructureChanged(TreeModelEvent e) {
+            if (!((TreeTableSortController) e.getSource()).isReordering()) return;
+            if (save) {
+                sortExpandedPaths = new ArrayList<TreePath>();
+                Enumeration<TreePath> expanded = renderer.getExpandedDescendants(e.getTreePath());
+                while (expanded != null && expanded.hasMoreElements()) {
+                    sortExpandedPaths.add(expanded.nextElement());
+                }
+            } else {
+                // the sort icon
+                if (getTableHeader() != null) {
+                    getTableHeader().repaint();
+                }
+                if (sortExpandedPaths == null) return;
+                List<TreePath> paths = sortExpandedPaths;
+                sortExpandedPaths = null;
+                for (TreePath path : paths) {
+                    if (((TreeTableSortController) e.getSource()).containsPath(path)) {
+                        renderer.expandPath(path);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void treeNodesChanged(TreeModelEvent e) {
+        }
+
+        @Override
+        public void treeNodesInserted(TreeModelEvent e) {
+        }
+
+        @Override
+        public void treeNodesRemoved(TreeModelEvent e) {
+        }
+        
+    }
+    
     /**
      * {@inheritDoc} <p>
      * 
@@ -1260,7 +1562,11 @@ public class JXTreeTable extends JXTable {
         TreeTableModel old = getTreeTableModel();
 //        boolean rootVisible = isRootVisible();
 //        setRootVisible(false);
-        renderer.setModel(treeModel);
+        if (getTreeTableSortController() != null) {
+            getTreeTableSortController().setModel(treeModel);
+        } else {
+            renderer.setModel(treeModel);
+        }
 //        setRootVisible(rootVisible);
         
         firePropertyChange("treeTableModel", old, getTreeTableModel());
@@ -1272,6 +1578,9 @@ public class JXTreeTable extends JXTable {
      * @return the underlying TreeTableModel for this JXTreeTable
      */
     public TreeTableModel getTreeTableModel() {
+        if (getTreeTableSortController() != null) {
+            return getTreeTableSortController().getModel();
+        }
         return (TreeTableModel) renderer.getModel();
     }
 
@@ -1323,10 +1632,22 @@ public class JXTreeTable extends JXTable {
 
 
     
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to not pass inserts and removes to super: the selection
+     * is controlled by the tree. Repaints from the row above the first
+     * inserted/removed row, which might have changed its expansion handle.
+     */
     @Override
     public void tableChanged(TableModelEvent e) {
         if (isStructureChanged(e) || isUpdate(e)) {
             super.tableChanged(e);
+        } else if ((e.getType() != TableModelEvent.UPDATE) 
+                && (e.getLastRow() != Integer.MAX_VALUE)) {
+            revalidate();
+            Rectangle dirty = getCellRect(Math.max(0, e.getFirstRow() - 1), 0, true);
+            repaint(0, dirty.y, getWidth(), Math.max(0, getHeight() - dirty.y));
         } else {
             resizeAndRepaint();
         }
@@ -1679,6 +2000,56 @@ public class JXTreeTable extends JXTable {
         renderer.expandAll();
     }
 
+    /**
+     * Expands the given path and all its descendants.
+     * 
+     * @param path the root of the subtree to expand
+     * @see JXTree#expandSubtree(TreePath)
+     */
+    public void expandSubtree(TreePath path) {
+        renderer.expandSubtree(path);
+    }
+    
+    /**
+     * Expands the given path and its descendants up to the given depth in
+     * bulk, notifying a single rowsInserted or dataChanged.
+     * 
+     * @param path the root of the subtree to expand, must not be null
+     * @param depth the number of levels below the path to expand, 
+     *    0 expands the path only
+     * @param predicate decides which descendants to expand, may be null 
+     *    to expand all
+     * @see JXTree#expandSubtree(TreePath, int, TreePathPredicate)
+     */
+    public void expandSubtree(TreePath path, int depth, TreePathPredicate predicate) {
+        renderer.expandSubtree(path, depth, predicate);
+    }
+    
+    /**
+     * Collapses the given path and all its descendants.
+     * 
+     * @param path the root of the subtree to collapse
+     * @see JXTree#collapseSubtree(TreePath)
+     */
+    public void collapseSubtree(TreePath path) {
+        renderer.collapseSubtree(path);
+    }
+    
+    /**
+     * Collapses the given path and its expanded descendants up to the given 
+     * depth in bulk, notifying a single rowsDeleted or dataChanged.
+     * 
+     * @param path the root of the subtree to collapse, must not be null
+     * @param depth the number of levels below the path to collapse, 
+     *    0 collapses the path only
+     * @param predicate decides which descendants to collapse, may be null 
+     *    to collapse all
+     * @see JXTree#collapseSubtree(TreePath, int, TreePathPredicate)
+     */
+    public void collapseSubtree(TreePath path, int depth, TreePathPredicate predicate) {
+        renderer.collapseSubtree(path, depth, predicate);
+    }
+    
     /**
      * Collapses the node at the specified path in the treetable.
      *
@@ -2229,15 +2600,17 @@ public class JXTreeTable extends JXTable {
 
         /**
          * This is overridden to set <code>updatingListSelectionModel</code>
-         * and message super. This is the only place DefaultTreeSelectionModel
-         * alters the ListSelectionModel.
+         * and update the ListSelectionModel. This is the only place 
+         * DefaultTreeSelectionModel alters the ListSelectionModel.
+         * 
+         * @see #resetListSelection()
          */
         @Override
         public void resetRowSelection() {
             if (!updatingListSelectionModel) {
                 updatingListSelectionModel = true;
                 try {
-                    super.resetRowSelection();
+                    resetListSelection();
                 }
                 finally {
                     updatingListSelectionModel = false;
@@ -2250,6 +2623,65 @@ public class JXTreeTable extends JXTable {
             // paths are the only thing that needs to be updated.
         }
 
+        /**
+         * Resets the ListSelectionModel from the selected paths. Same as
+         * super, except that the rows are added in intervals and the 
+         * listeners are notified once. The last added row is the same as
+         * in super.
+         */
+        private void resetListSelection() {
+            ListSelectionModel lsm = listSelectionModel;
+            boolean adjusting = lsm.getValueIsAdjusting();
+            lsm.setValueIsAdjusting(true);
+            try {
+                lsm.clearSelection();
+                if ((selection == null) || (rowMapper == null)) {
+                    leadRow = -1;
+                    return;
+                }
+                int[] rows = rowMapper.getRowsForPaths(selection);
+                if (rows != null) {
+                    int[] sorted = rows.clone();
+                    Arrays.sort(sorted);
+                    int first = -1;
+                    int last = -1;
+                    for (int row : sorted) {
+                        if (row < 0) continue;
+                        if ((first >= 0) && (row <= last + 1)) {
+                            last = row;
+                            continue;
+                        }
+                        if (first >= 0) {
+                            lsm.addSelectionInterval(first, last);
+                        }
+                        first = last = row;
+                    }
+                    if (first >= 0) {
+                        lsm.addSelectionInterval(first, last);
+                    }
+                    // super adds the rows in the order of the paths
+                    for (int i = rows.length - 1; i >= 0; i--) {
+                        if (rows[i] >= 0) {
+                            lsm.addSelectionInterval(rows[i], rows[i]);
+                            break;
+                        }
+                    }
+                }
+                if ((leadIndex != -1) && (rows != null)) {
+                    leadRow = rows[leadIndex];
+                } else if (leadPath != null) {
+                    // Lead selection path doesn't have to be in the selection.
+                    rows = rowMapper.getRowsForPaths(new TreePath[] {leadPath});
+                    leadRow = (rows != null) ? rows[0] : -1;
+                } else {
+                    leadRow = -1;
+                }
+                insureRowContinuity();
+            } finally {
+                lsm.setValueIsAdjusting(adjusting);
+            }
+        }
+
         /**
          * Creates and returns an instance of ListSelectionHandler.
          */
@@ -2297,6 +2729,57 @@ public class JXTreeTable extends JXTable {
             }
         }
 
+        /**
+         * Updates the selected paths from the selected rows in the given
+         * range, the paths of the rows outside are left as they are. Resets 
+         * all paths if the selection mode isn't discontiguous, 
+         * because adding/removing paths would enforce the mode.
+         * 
+         * @param firstIndex the first row which might have changed
+         * @param lastIndex the last row which might have changed
+         */
+        protected void updateSelectedPathsFromSelectedRows(int firstIndex, int lastIndex) {
+            if (updatingListSelectionModel) return;
+            if ((getSelectionMode() != DISCONTIGUOUS_TREE_SELECTION)
+                    || listSelectionModel.isSelectionEmpty() || isSelectionEmpty()) {
+                updateSelectedPathsFromSelectedRows();
+                return;
+            }
+            updatingListSelectionModel = true;
+            try {
+                List<TreePath> added = new ArrayList<TreePath>();
+                List<TreePath> removed = new ArrayList<TreePath>();
+                int last = Math.min(lastIndex, renderer.getRowCount() - 1);
+                for (int row = Math.max(0, firstIndex); row <= last; row++) {
+                    TreePath path = renderer.getPathForRow(row);
+                    if (path == null) continue;
+                    boolean selected = listSelectionModel.isSelectedIndex(row);
+                    if (selected == isPathSelected(path)) continue;
+                    if (selected) {
+                        added.add(path);
+                    } else {
+                        removed.add(path);
+                    }
+                }
+                // a single notification: replace if both added and removed
+                if (!removed.isEmpty() && !added.isEmpty()) {
+                    Set<TreePath> remaining = new LinkedHashSet<TreePath>(Arrays.asList(getSelectionPaths()));
+                    remaining.removeAll(removed);
+                    remaining.addAll(added);
+                    setSelectionPaths(remaining.toArray(new TreePath[remaining.size()]));
+                } else if (!removed.isEmpty()) {
+                    removeSelectionPaths(removed.toArray(new TreePath[removed.size()]));
+                } else if (!added.isEmpty()) {
+                    addSelectionPaths(added.toArray(new TreePath[added.size()]));
+                }
+                // the leadRow is adjusted in resetRowSelection which is disabled 
+                leadRow = (leadPath != null) ? renderer.getRowForPath(leadPath) : -1;
+            }
+            finally {
+                updatingListSelectionModel = false;
+            }
+        }
+        
         /**
          * Class responsible for calling updateSelectedPathsFromSelectedRows
          * when the selection of the list changse.
@@ -2305,7 +2788,7 @@ public class JXTreeTable extends JXTable {
             @Override
             public void valueChanged(ListSelectionEvent e) {
                 if (!e.getValueIsAdjusting()) {
-                    updateSelectedPathsFromSelectedRows();
+                    updateSelectedPathsFromSelectedRows(e.getFirstIndex(), e.getLastIndex());
                 }
             }
         }
@@ -2319,6 +2802,20 @@ public class JXTreeTable extends JXTable {
         private TreeModelListener treeModelListener;
         private final JTree tree; // immutable
         private JXTreeTable treeTable; // logically immutable
+        /** the path which will be collapsed and the number of its visible descendants. */
+        private TreePath collapsingPath;
+        private int collapsingRowCount;
+        /** the table events of expansion changes not yet fired. */
+        private final List<TableModelEvent> pendingExpansionEvents = new ArrayList<TableModelEvent>();
+        /** the delayed mappings of tree model events, run in one batch. */
+        private final List<Runnable> pendingModelTasks = new ArrayList<Runnable>();
+        /** the coalesced table events of the running batch, null if none. */
+        private List<TableModelEvent> coalescedEvents;
+        /** the range of updated rows of the running batch. */
+        private int firstUpdatedRow;
+        private int lastUpdatedRow;
+        /** the node of each row, filled on access, null if invalid. */
+        private List<Object> rowNodes;
         
         /**
          * Maintains a TreeTableModel and a JTree as purely implementation details.
@@ -2334,22 +2831,45 @@ public class JXTreeTable extends JXTable {
 
             this.tree = tree; // need tree to implement getRowCount()
             tree.getModel().addTreeModelListener(getTreeModelListener());
+            tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+                
+                @Override
+                public void treeWillExpand(TreeExpansionEvent event) {
+                }
+                
+                // the rows to remove must be counted while still visible
+                @Override
+                public void treeWillCollapse(TreeExpansionEvent event) {
+                    collapsingPath = event.getPath();
+                    collapsingRowCount = TreeTableModelAdapter.this.tree.isExpanded(collapsingPath) 
+                        ? getVisibleDescendantCount(collapsingPath) : 0;
+                }
+            });
             tree.addTreeExpansionListener(new TreeExpansionListener() {
-                // Don't use fireTableRowsInserted() here; the selection model
-                // would get updated twice.
+                // Note: the table doesn't pass the rowsInserted/-Deleted on
+                // to super, so the selection model is not updated twice.
                 @Override
                 public void treeExpanded(TreeExpansionEvent event) {
+                    rowNodes = null;
                     updateAfterExpansionEvent(event);
                 }
 
                 @Override
                 public void treeCollapsed(TreeExpansionEvent event) {
+                    rowNodes = null;
                     updateAfterExpansionEvent(event);
                 }
             });
+            tree.addPropertyChangeListener(JTree.ROOT_VISIBLE_PROPERTY, new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent evt) {
+                    rowNodes = null;
+                }
+            });
             tree.addPropertyChangeListener("model", new PropertyChangeListener() {
                 @Override
                 public void propertyChange(PropertyChangeEvent evt) {
+                    rowNodes = null;
                     TreeTableModel model = (TreeTableModel) evt.getOldValue();
                     model.removeTreeModelListener(getTreeModelListener());
                     
@@ -2364,13 +2884,108 @@ public class JXTreeTable extends JXTable {
         /**
          * updates the table after having received an TreeExpansionEvent.<p>
          * 
+         * Notifies rowsInserted/-Deleted for the visible descendants of the 
+         * expanded/collapsed path, or rowsUpdated for the path's row if it has 
+         * no children. Falls back to dataChanged if the range is unknown. 
+         * Events caused by the renderer's change of expansion state are fired 
+         * after the change is complete, that is when the tree's rows are 
+         * updated.
+         * 
          * @param event the TreeExpansionEvent which triggered the method call.
          */
         protected void updateAfterExpansionEvent(TreeExpansionEvent event) {
             // moved to let the renderer handle directly
 //            treeTable.getTreeTableHacker().setExpansionChangedFlag();
             // JW: delayed fire leads to a certain sluggishness occasionally? 
-            fireTableDataChanged();
+            TreePath path = event.getPath();
+            int count;
+            if (tree.isExpanded(path)) {
+                count = getVisibleDescendantCount(path);
+            } else {
+                count = path.equals(collapsingPath) ? collapsingRowCount : -1;
+                collapsingPath = null;
+            }
+            TableModelEvent e;
+            if (count < 0) {
+                e = new TableModelEvent(this);
+            } else {
+                int row = getRowForExpansionPath(path);
+                if (row < -1) return;
+                if (count == 0) {
+                    if (row < 0) return;
+                    e = new TableModelEvent(this, row, row);
+                } else {
+                    e = new TableModelEvent(this, row + 1, row + count, 
+                        TableModelEvent.ALL_COLUMNS, tree.isExpanded(path) 
+                            ? TableModelEvent.INSERT : TableModelEvent.DELETE);
+                }
+            }
+            if ((tree instanceof TreeTableCellRenderer) 
+                    && ((TreeTableCellRenderer) tree).isChangingExpansion()) {
+                pendingExpansionEvents.add(e);
+            } else {
+                fireTableChanged(e);
+            }
+        }
+        
+        /**
+         * Fires the table events of a completed change of expansion state. 
+         * Fires a dataChanged instead if the events don't add up to the
+         * tree's current row count.
+         * 
+         * @param rowCount the tree's row count before the change
+         */
+        void firePendingExpansionEvents(int rowCount) {
+            if (pendingExpansionEvents.isEmpty()) return;
+            List<TableModelEvent> events = new ArrayList<TableModelEvent>(pendingExpansionEvents);
+            pendingExpansionEvents.clear();
+            for (TableModelEvent e : events) {
+                int length = e.getLastRow() - e.getFirstRow() + 1;
+                if (e.getType() == TableModelEvent.INSERT) {
+                    rowCount += length;
+                } else if (e.getType() == TableModelEvent.DELETE) {
+                    rowCount -= length;
+                }
+            }
+            if (rowCount != tree.getRowCount()) {
+                fireTableDataChanged();
+                return;
+            }
+            for (TableModelEvent e : events) {
+                fireTableChanged(e);
+            }
+        }
+        
+        /**
+         * Returns the row of the given path, -1 for the invisible root and
+         * -2 if the path is not visible.
+         */
+        private int getRowForExpansionPath(TreePath path) {
+            if ((path.getParentPath() == null) && !tree.isRootVisible()) return -1;
+            if (!tree.isVisible(path)) return -2;
+            int row = tree.getRowForPath(path);
+            return row >= 0 ? row : -2;
+        }
+        
+        /**
+         * Returns the number of rows of the descendants of the given 
+         * expanded path. Queries the model and the expansion state, not the
+         * rows of the tree, which are not necessarily updated.
+         */
+        private int getVisibleDescendantCount(TreePath path) {
+            TreeModel model = tree.getModel();
+            Object parent = path.getLastPathComponent();
+            int childCount = model.getChildCount(parent);
+            int count = childCount;
+            for (int i = 0; i < childCount; i++) {
+                Object child = model.getChild(parent, i);
+                if (model.isLeaf(child)) continue;
+                TreePath childPath = path.pathByAddingChild(child);
+                if (tree.isExpanded(childPath)) {
+                    count += getVisibleDescendantCount(childPath);
+                }
+            }
+            return count;
         }
 
         /**
@@ -2408,10 +3023,14 @@ public class JXTreeTable extends JXTable {
          * 
          * @inherited <p>
          * 
-         * Implemented to return the the underlying TreeTableModel. 
+         * Implemented to return the the underlying TreeTableModel, that is
+         * the model decorated by the sort controller, if any. 
          */
         @Override
         public TreeTableModel getTreeTableModel() {
+            if (tree.getModel() instanceof TreeTableSortController) {
+                return ((TreeTableSortController) tree.getModel()).getModel();
+            }
             return (TreeTableModel) tree.getModel();
         }
 
@@ -2461,10 +3080,58 @@ public class JXTreeTable extends JXTable {
             }
         }
 
+        /**
+         * Returns the node at the given row or null if there is none. The 
+         * nodes are cached per row, the cache is dropped on changes of 
+         * expansion and inserts/removes. 
+         * 
+         * @param row the row in tree coordinates.
+         * @return the node at the row or null.
+         */
         protected Object nodeForRow(int row) {
+            List<Object> nodes = getRowNodes();
+            boolean cached = (nodes != null) && (row >= 0) && (row < nodes.size());
+            if (cached) {
+                Object node = nodes.get(row);
+                if (node != null) return node;
+            }
             // Issue #270-swingx: guard against invisible row
             TreePath path = tree.getPathForRow(row);
-            return path != null ? path.getLastPathComponent() : null;
+            Object node = path != null ? path.getLastPathComponent() : null;
+            if (cached) {
+                nodes.set(row, node);
+            }
+            return node;
+        }
+
+        /**
+         * Returns the row nodes, creating them if necessary, or null if 
+         * they can't be trusted because tree model events are pending.
+         */
+        private List<Object> getRowNodes() {
+            if (hasPendingModelTasks()) return null;
+            if (rowNodes == null) {
+                rowNodes = new ArrayList<Object>(Collections.nCopies(tree.getRowCount(), null));
+            }
+            return rowNodes;
+        }
+        
+        /**
+         * Updates the row nodes after a batch. Drops them on any coalesced 
+         * table event: the rows of inserts/deletes are approximate, they
+         * don't account for the visible descendants of preceding siblings. 
+         * Drops the nodes of the updated rows, as they might be replaced.
+         */
+        private void updateRowNodes(List<TableModelEvent> events) {
+            if (rowNodes == null) return;
+            if (!events.isEmpty() || (rowNodes.size() != tree.getRowCount())) {
+                rowNodes = null;
+                return;
+            }
+            int last = Math.min(lastUpdatedRow, rowNodes.size() - 1);
+            for (int row = Math.max(firstUpdatedRow, 0); row <= last; row++) {
+                rowNodes.set(row, null);
+            }
         }
 
         /**
@@ -2522,41 +3189,187 @@ public class JXTreeTable extends JXTable {
          *   should trigger a structureChanged.
          */
         private boolean isTableStructureChanged(TreeModelEvent e) {
+            // reordering by the sort controller doesn't change the columns
+            if ((e.getSource() instanceof TreeTableSortController)
+                    && ((TreeTableSortController) e.getSource()).isReordering()) return false;
             if ((e.getTreePath() == null) ||
                     (e.getTreePath().getParentPath() == null)) return true;
             return false;
         }
 
         /**
-         * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
+         * Returns a boolean indicating whether tree model events are waiting
+         * to be mapped to table events.
          */
-        private void delayedFireTableStructureChanged() {
+        private boolean hasPendingModelTasks() {
+            synchronized (pendingModelTasks) {
+                return !pendingModelTasks.isEmpty();
+            }
+        }
+        
+        /**
+         * Runs the task after all the pending events have been processed, 
+         * together with all other tasks queued until then. 
+         * SwingUtilities.invokeLater is used to handle this, once per batch.
+         * 
+         * @param task the task mapping a tree model event to table events.
+         */
+        private void invokeDelayed(Runnable task) {
+            boolean schedule;
+            synchronized (pendingModelTasks) {
+                schedule = pendingModelTasks.isEmpty();
+                pendingModelTasks.add(task);
+            }
+            if (!schedule) return;
             SwingUtilities.invokeLater(new Runnable() {
                 @Override
                 public void run() {
-                    fireTableStructureChanged();
+                    firePendingModelEvents();
+                }
+            });
+        }
+        
+        /**
+         * Runs the queued tasks and fires the table events they produced,
+         * coalesced into as few events as possible.
+         * 
+         * @see #fireCoalesced(TableModelEvent)
+         */
+        private void firePendingModelEvents() {
+            List<Runnable> tasks;
+            synchronized (pendingModelTasks) {
+                tasks = new ArrayList<Runnable>(pendingModelTasks);
+                pendingModelTasks.clear();
+            }
+            List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+            coalescedEvents = events;
+            firstUpdatedRow = Integer.MAX_VALUE;
+            lastUpdatedRow = -1;
+            try {
+                for (Runnable task : tasks) {
+                    task.run();
+                }
+            } finally {
+                coalescedEvents = null;
+            }
+            updateRowNodes(events);
+            for (TableModelEvent e : events) {
+                fireTableChanged(e);
+            }
+            // the updated rows are in terms of the final state, so go last
+            if (lastUpdatedRow >= 0) {
+                fireTableRowsUpdated(firstUpdatedRow, lastUpdatedRow);
+            }
+        }
+        
+        /**
+         * Adds the event to the coalesced events of the running batch, 
+         * fires it immediately if there is none. <p>
+         * 
+         * A structureChanged absorbs all other events, a dataChanged all 
+         * but a structureChanged. Inserts/deletes are merged with the 
+         * previous if the ranges are adjacent, updates are merged into one 
+         * range which is fired after all others.
+         * 
+         * @param e the table event to fire.
+         */
+        private void fireCoalesced(TableModelEvent e) {
+            if (coalescedEvents == null) {
+                fireTableChanged(e);
+                return;
+            }
+            TableModelEvent first = coalescedEvents.isEmpty() ? null : coalescedEvents.get(0);
+            if (first != null && first.getFirstRow() == TableModelEvent.HEADER_ROW) return;
+            if (isDataChanged(e) || (e.getFirstRow() == TableModelEvent.HEADER_ROW)) {
+                coalescedEvents.clear();
+                coalescedEvents.add(e);
+                lastUpdatedRow = -1;
+                return;
+            }
+            if ((first != null) && isDataChanged(first)) return;
+            if (e.getType() == TableModelEvent.UPDATE) {
+                firstUpdatedRow = Math.min(firstUpdatedRow, e.getFirstRow());
+                lastUpdatedRow = Math.max(lastUpdatedRow, e.getLastRow());
+                return;
+            }
+            if (first != null) {
+                TableModelEvent merged = merge(coalescedEvents.get(coalescedEvents.size() - 1), e);
+                if (merged != null) {
+                    coalescedEvents.set(coalescedEvents.size() - 1, merged);
+                    return;
+                }
+            }
+            coalescedEvents.add(e);
+        }
+
+        /**
+         * Returns a single event equivalent to the given insert/delete 
+         * events fired in sequence or null if there is none.
+         */
+        private TableModelEvent merge(TableModelEvent last, TableModelEvent e) {
+            if (last.getType() != e.getType()) return null;
+            int lastLength = last.getLastRow() - last.getFirstRow() + 1;
+            int length = e.getLastRow() - e.getFirstRow() + 1;
+            int firstRow;
+            if (e.getType() == TableModelEvent.INSERT) {
+                // inserted into or next to the rows inserted before
+                if ((e.getFirstRow() < last.getFirstRow()) 
+                        || (e.getFirstRow() > last.getLastRow() + 1)) return null;
+                firstRow = last.getFirstRow();
+            } else if (e.getType() == TableModelEvent.DELETE) {
+                // deleted around or next to the rows deleted before
+                if ((last.getFirstRow() < e.getFirstRow()) 
+                        || (last.getFirstRow() > e.getLastRow() + 1)) return null;
+                firstRow = e.getFirstRow();
+            } else {
+                return null;
+            }
+            return new TableModelEvent(this, firstRow, firstRow + lastLength + length - 1, 
+                    TableModelEvent.ALL_COLUMNS, e.getType());
+        }
+        
+        private boolean isDataChanged(TableModelEvent e) {
+            return (e.getType() == TableModelEvent.UPDATE) && (e.getFirstRow() == 0)
+                && (e.getLastRow() == Integer.MAX_VALUE);
+        }
+        
+        /**
+         * Invokes fireTableStructureChanged after all the pending events have 
+         * been processed. 
+         * 
+         * @see #invokeDelayed(Runnable)
+         */
+        private void delayedFireTableStructureChanged() {
+            invokeDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this, 
+                            TableModelEvent.HEADER_ROW));
                 }
             });
         }
 
         /**
          * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
+         * processed. 
+         * 
+         * @see #invokeDelayed(Runnable)
          */
         private void delayedFireTableDataChanged() {
-            SwingUtilities.invokeLater(new Runnable() {
+            invokeDelayed(new Runnable() {
                 @Override
                 public void run() {
-                    fireTableDataChanged();
+                    fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this));
                 }
             });
         }
 
         /**
-         * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
+         * Invokes fireTableRowsInserted/-Deleted after all the pending events 
+         * have been processed. 
          * Allowed event types: 1 for insert, 2 for delete
+         * 
+         * @see #invokeDelayed(Runnable)
          */
         private void delayedFireTableDataChanged(final TreeModelEvent tme, final int typeChange) {
             if ((typeChange < 1 ) || (typeChange > 2)) 
@@ -2566,7 +3379,7 @@ public class JXTreeTable extends JXTable {
             final boolean expanded = tree.isExpanded(tme.getTreePath());
             // quick test if tree throws for unrelated path. Seems like not.
 //            tree.getRowForPath(new TreePath("dummy"));
-            SwingUtilities.invokeLater(new Runnable() {
+            invokeDelayed(new Runnable() {
                 @Override
                 public void run() {
                     int indices[] = tme.getChildIndices();
@@ -2586,12 +3399,14 @@ public class JXTreeTable extends JXTable {
                             case 1:
 //                                LOG.info("rows inserted: path " + path + "/" + min + "/"
 //                                        + max);
-                                fireTableRowsInserted(min, max);
+                                fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this, 
+                                        min, max, TableModelEvent.ALL_COLUMNS, TableModelEvent.INSERT));
                                 break;
                             case 2:
 //                                LOG.info("rows deleted path " + path + "/" + min + "/"
 //                                                + max);
-                                fireTableRowsDeleted(min, max);
+                                fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this, 
+                                        min, max, TableModelEvent.ALL_COLUMNS, TableModelEvent.DELETE));
                                 break;
                             }
                         } else {
@@ -2605,11 +3420,11 @@ public class JXTreeTable extends JXTable {
                             // in this case row == -1, which ==
                             // TableEvent.HEADER_ROW
                             if (row >= 0)
-                                fireTableRowsUpdated(row, row);
+                                fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this, row, row));
                         }
                     } else { // case where the event is fired to identify
                                 // root.
-                        fireTableDataChanged();
+                        fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this));
                     }
                 }
             });
@@ -2618,12 +3433,13 @@ public class JXTreeTable extends JXTable {
         /**
          * This is used for updated only. PENDING: not necessary to delay?
          * Updates are never structural changes which are the critical.
+         * The updated rows of a batch are coalesced into one range.
          * 
          * @param tme
          */
         protected void delayedFireTableDataUpdated(final TreeModelEvent tme) {
             final boolean expanded = tree.isExpanded(tme.getTreePath());
-            SwingUtilities.invokeLater(new Runnable() {
+            invokeDelayed(new Runnable() {
                 @Override
                 public void run() {
                     int indices[] = tme.getChildIndices();
@@ -2651,7 +3467,8 @@ public class JXTreeTable extends JXTable {
                             }
 //                            LOG.info("Updated: parentPath/min/max" + path + "/" + min + "/" + max);
                             // JW: the index is occasionally - 1 - need further digging 
-                            fireTableRowsUpdated(Math.max(0, min), Math.max(0, max));
+                            fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this, 
+                                    Math.max(0, min), Math.max(0, max)));
                         } else {
                             // not expanded - but change might effect appearance
                             // of parent Issue #82-swingx
@@ -2660,11 +3477,11 @@ public class JXTreeTable extends JXTable {
                             // for collapsed path in this case row == -1, 
                             // which == TableEvent.HEADER_ROW
                             if (row >= 0)
-                                fireTableRowsUpdated(row, row);
+                                fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this, row, row));
                         }
                     } else { // case where the event is fired to identify
                                 // root.
-                        fireTableDataChanged();
+                        fireCoalesced(new TableModelEvent(TreeTableModelAdapter.this));
                     }
                 }
             });
@@ -2685,6 +3502,7 @@ public class JXTreeTable extends JXTable {
         {
         private PropertyChangeListener rolloverListener;
         private Border cellBorder;
+        private boolean changingExpansion;
 
         // Force user to specify TreeTableModel instead of more general
         // TreeModel
@@ -2949,6 +3767,16 @@ public class JXTreeTable extends JXTable {
             treeTable.scrollRectToVisible(aRect);
         }
 
+        /**
+         * Returns a boolean indicating whether the expansion state is 
+         * currently being changed.
+         * 
+         * @return true if inside setExpandedState
+         */
+        boolean isChangingExpansion() {
+            return changingExpansion;
+        }
+        
         @Override
         protected void setExpandedState(TreePath path, boolean state) {
             // JW: fix for #1126 - CellEditors are removed immediately after starting an
@@ -2960,11 +3788,47 @@ public class JXTreeTable extends JXTable {
             // on change of expansion state, the editor's row might be changed
             // for simplicity, it's stopped always (even if the row is not changed)
             treeTable.getTreeTableHacker().completeEditing();
-            super.setExpandedState(path, state);
+            int rowCount = getRowCount();
+            boolean changing = changingExpansion;
+            changingExpansion = true;
+            try {
+                super.setExpandedState(path, state);
+            } finally {
+                changingExpansion = changing;
+            }
+            // all expansion listeners, including the ui, are done: fire 
+            // the table events now that the rows are updated
+            if (!changing && (treeTable.getModel() instanceof TreeTableModelAdapter)) {
+                ((TreeTableModelAdapter) treeTable.getModel()).firePendingExpansionEvents(rowCount);
+            }
             treeTable.getTreeTableHacker().expansionChanged();
             
         }
 
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Overridden to fire the table events after the complete change, 
+         * same as for a single node.
+         */
+        @Override
+        protected void setSubtreeExpandedState(TreePath path, int depth,
+                TreePathPredicate predicate, boolean expanded) {
+            treeTable.getTreeTableHacker().completeEditing();
+            int rowCount = getRowCount();
+            boolean changing = changingExpansion;
+            changingExpansion = true;
+            try {
+                super.setSubtreeExpandedState(path, depth, predicate, expanded);
+            } finally {
+                changingExpansion = changing;
+            }
+            if (!changing && (treeTable.getModel() instanceof TreeTableModelAdapter)) {
+                ((TreeTableModelAdapter) treeTable.getModel()).firePendingExpansionEvents(rowCount);
+            }
+            treeTable.getTreeTableHacker().expansionChanged();
+        }
+
         /**
          * updateUI is overridden to set the colors of the Tree's renderer
          * to match that of the table.
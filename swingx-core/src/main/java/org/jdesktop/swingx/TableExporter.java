@@ -0,0 +1,394 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableModel;
+
+import org.jdesktop.swingx.decorator.ComponentAdapter;
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * Exports the content of a <code>JXTable</code> as CSV, TSV or HTML text. <p>
+ * 
+ * The export follows what the user sees: rows in view order (that is sorted
+ * and filtered), the visible columns in view order with their header values 
+ * and the cell values converted by the table's string representation, the 
+ * same as returned by <code>JXTable.getStringAt</code>. <p>
+ * 
+ * The row order and columns are snapshotted when the export is started. 
+ * Then the rows are written in chunks on a background thread: the strings
+ * of one chunk are collected on the EDT, so only a chunk is held in 
+ * memory at any time. The returned <code>SwingWorker</code> reports the 
+ * progress as bound property and can be cancelled. The export fails with
+ * a <code>ConcurrentModificationException</code> if rows are inserted or 
+ * removed in the model while it is running. <p>
+ * 
+ * Usage:
+ * 
+ * <pre><code>
+ * SwingWorker&lt;Integer, Void&gt; worker = new TableExporter(table, Format.CSV).export(writer);
+ * worker.addPropertyChangeListener(progressListener);
+ * ...
+ * worker.cancel(false);
+ * </code></pre>
+ * 
+ * @see JXTable#getStringAt(int, int)
+ */
+public class TableExporter {
+
+    /** the default number of rows which are collected at once. */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    
+    /**
+     * The supported formats.
+     */
+    public enum Format {
+        /** comma separated values, quoted as of RFC 4180. */
+        CSV,
+        /** tab separated values, tabs and line breaks in values are replaced by spaces. */
+        TSV,
+        /** a html document with a single table. */
+        HTML
+    }
+    
+    private final JXTable table;
+    private final Format format;
+    private boolean includeHeader = true;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Instantiates an exporter of the given table's content.
+     * 
+     * @param table the table to export
+     * @param format the output format
+     * @throws NullPointerException if any of the parameters is null
+     */
+    public TableExporter(JXTable table, Format format) {
+        this.table = Contract.asNotNull(table, "table must not be null");
+        this.format = Contract.asNotNull(format, "format must not be null");
+    }
+    
+    /**
+     * Returns the output format.
+     * 
+     * @return the output format
+     */
+    public Format getFormat() {
+        return format;
+    }
+    
+    /**
+     * Sets whether the column headers are written before the rows. The 
+     * default is true.
+     * 
+     * @param includeHeader the flag to write the column headers
+     */
+    public void setIncludeHeader(boolean includeHeader) {
+        this.includeHeader = includeHeader;
+    }
+    
+    /**
+     * Returns whether the column headers are written before the rows.
+     * 
+     * @return the flag to write the column headers
+     */
+    public boolean isIncludeHeader() {
+        return includeHeader;
+    }
+    
+    /**
+     * Sets the number of rows which are collected on the EDT at once.
+     * 
+     * @param chunkSize the number of rows per chunk
+     * @throws IllegalArgumentException if chunkSize is not positive
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Returns the number of rows which are collected on the EDT at once.
+     * 
+     * @return the number of rows per chunk
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    /**
+     * Starts the export to the given stream, encoded with the given charset.
+     * The stream is flushed, but not closed when done. <p>
+     * 
+     * Must be called on the EDT.
+     * 
+     * @param out the stream to write to
+     * @param charsetName the name of the charset to encode with
+     * @return the started worker, its result is the number of rows written
+     * @throws UnsupportedEncodingException if the charset is not supported
+     * @see #export(Writer)
+     */
+    public SwingWorker<Integer, Void> export(OutputStream out, String charsetName) 
+        throws UnsupportedEncodingException {
+        return export(new OutputStreamWriter(
+                Contract.asNotNull(out, "stream must not be null"), charsetName));
+    }
+    
+    /**
+     * Starts the export to the given writer. The writer is flushed, but not 
+     * closed when done. <p>
+     * 
+     * Takes the snapshot of row order and columns and starts a worker which 
+     * writes the rows in the background. The worker's progress property is
+     * updated after every chunk. If cancelled, the worker stops after the
+     * current chunk. <p>
+     * 
+     * Must be called on the EDT.
+     * 
+     * @param writer the writer to write to
+     * @return the started worker, its result is the number of rows written
+     */
+    public SwingWorker<Integer, Void> export(Writer writer) {
+        Contract.asNotNull(writer, "writer must not be null");
+        ExportWorker worker = new ExportWorker(writer, new Snapshot(table));
+        worker.execute();
+        return worker;
+    }
+    
+    /**
+     * The snapshot of the view state: row order and visible columns.
+     */
+    private static class Snapshot {
+        final int[] modelRows;
+        final int[] modelColumns;
+        final String[] headers;
+        
+        Snapshot(JXTable table) {
+            modelRows = new int[table.getRowCount()];
+            for (int i = 0; i < modelRows.length; i++) {
+                modelRows[i] = table.convertRowIndexToModel(i);
+            }
+            List<TableColumn> columns = table.getColumns();
+            modelColumns = new int[columns.size()];
+            headers = new String[columns.size()];
+            for (int i = 0; i < modelColumns.length; i++) {
+                TableColumn column = columns.get(i);
+                modelColumns[i] = column.getModelIndex();
+                Object header = column.getHeaderValue();
+                headers[i] = header != null ? header.toString() : "";
+            }
+        }
+    }
+    
+    /**
+     * The worker which writes the snapshotted rows chunk by chunk.
+     */
+    private class ExportWorker extends SwingWorker<Integer, Void> implements TableModelListener {
+        
+        private final Writer writer;
+        private final Snapshot snapshot;
+        private final TableModel model;
+        private final ComponentAdapter adapter;
+        /** accessed on the EDT only. */
+        private boolean modelChanged;
+        
+        ExportWorker(Writer writer, Snapshot snapshot) {
+            this.writer = new BufferedWriter(writer);
+            this.snapshot = snapshot;
+            this.model = table.getModel();
+            this.adapter = table.getComponentAdapter();
+            model.addTableModelListener(this);
+        }
+
+        @Override
+        protected Integer doInBackground() throws Exception {
+            int written = 0;
+            try {
+                writeStart();
+                int total = snapshot.modelRows.length;
+                while ((written < total) && !isCancelled()) {
+                    String[][] chunk = collect(written, Math.min(total, written + chunkSize));
+                    for (String[] row : chunk) {
+                        writeRow(row, false);
+                    }
+                    written += chunk.length;
+                    setProgress((int) (written * 100L / total));
+                }
+                if (!isCancelled()) {
+                    writeEnd();
+                }
+                writer.flush();
+            } finally {
+                SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        model.removeTableModelListener(ExportWorker.this);
+                    }
+                });
+            }
+            return written;
+        }
+
+        /**
+         * Returns the strings of the rows in the given range, collected on the EDT.
+         */
+        private String[][] collect(final int from, final int to) 
+            throws InterruptedException, InvocationTargetException {
+            final String[][] chunk = new String[to - from][];
+            try {
+                SwingUtilities.invokeAndWait(new Runnable() {
+                    public void run() {
+                        if (modelChanged) {
+                            throw new ConcurrentModificationException(
+                                    "rows inserted or removed during export");
+                        }
+                        int[] columns = snapshot.modelColumns;
+                        for (int i = from; i < to; i++) {
+                            String[] row = new String[columns.length];
+                            for (int j = 0; j < columns.length; j++) {
+                                String value = adapter.getStringAt(snapshot.modelRows[i], columns[j]);
+                                row[j] = value != null ? value : "";
+                            }
+                            chunk[i - from] = row;
+                        }
+                    }
+                });
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+            return chunk;
+        }
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to mark the snapshot as invalid if rows are inserted or 
+         * removed.
+         */
+        @Override
+        public void tableChanged(TableModelEvent e) {
+            if ((e.getType() != TableModelEvent.UPDATE) 
+                    || (e.getLastRow() == Integer.MAX_VALUE)) {
+                modelChanged = true;
+            }
+        }
+
+        private void writeStart() throws IOException {
+            if (format == Format.HTML) {
+                writer.write("<html>\n<body>\n<table>\n");
+            }
+            if (includeHeader) {
+                writeRow(snapshot.headers, true);
+            }
+        }
+
+        private void writeEnd() throws IOException {
+            if (format == Format.HTML) {
+                writer.write("</table>\n</body>\n</html>\n");
+            }
+        }
+
+        private void writeRow(String[] row, boolean header) throws IOException {
+            switch (format) {
+            case CSV:
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) writer.write(',');
+                    writeCSV(row[i]);
+                }
+                writer.write("\r\n");
+                break;
+            case TSV:
+                for (int i = 0; i < row.length; i++) {
+                    if (i > 0) writer.write('\t');
+                    writer.write(row[i].replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+                }
+                writer.write('\n');
+                break;
+            case HTML:
+                String tag = header ? "th" : "td";
+                writer.write("<tr>");
+                for (String value : row) {
+                    writer.write('<' + tag + '>');
+                    writeHTML(value);
+                    writer.write("</" + tag + '>');
+                }
+                writer.write("</tr>\n");
+                break;
+            }
+        }
+
+        private void writeCSV(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = (c == ',') || (c == '"') || (c == '\r') || (c == '\n');
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        private void writeHTML(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    writer.write(c);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+/**
+ * Optional interface for <code>Highlighter</code>s to declare the part of 
+ * a component which is affected by their latest change. <p>
+ * 
+ * Collection components repaint on receiving a <code>ChangeEvent</code> from 
+ * their highlighters. Implementations which know that a change is 
+ * restricted to some rows and/or columns, f.i. an animated highlighter
+ * for a single column, can report that region to limit the repaint. The
+ * region is queried while notifying the <code>ChangeListener</code>s, 
+ * so it must cover all cells which might look different after the change,
+ * including those which were highlighted before. <p>
+ * 
+ * Row indices are in view coordinates of the component, column indices in
+ * model coordinates. A return value of null means all rows or columns, 
+ * respectively. 
+ * 
+ * @see CompoundHighlighter
+ */
+public interface AffectedRegion {
+
+    /**
+     * Returns the rows which are affected by the change currently
+     * notified.
+     * 
+     * @return the view indices of the affected rows, or null if all rows 
+     *   might be affected.
+     */
+    int[] getAffectedRows();
+    
+    /**
+     * Returns the columns which are affected by the change currently
+     * notified.
+     * 
+     * @return the model indices of the affected columns, or null if all 
+     *   columns might be affected.
+     */
+    int[] getAffectedColumns();
+}
@@ -0,0 +1,157 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+import java.awt.Color;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * A small cache of interned <code>Color</code>s, used by color-computing 
+ * Highlighters to not allocate a new color per highlighted cell. <p>
+ * 
+ * The cache is direct-mapped by argb value: a lookup either returns the 
+ * color in the slot, if it has the requested value, or replaces the slot 
+ * with a new instance. Typical highlighting produces a handful of distinct 
+ * colors per component, which are served without any allocation after 
+ * the first paint. <p>
+ * 
+ * The colors returned are plain <code>Color</code>s, never 
+ * <code>UIResource</code>s. 
+ * 
+ * @see ColorHighlighter
+ * @see ShadingColorHighlighter
+ */
+public final class ColorCache {
+
+    /** number of slots, must be a power of two. */
+    private static final int SIZE = 1024;
+    
+    private static final AtomicReferenceArray<Color> CACHE = 
+        new AtomicReferenceArray<Color>(SIZE);
+    
+    private ColorCache() {
+        // no instances
+    }
+    
+    /**
+     * Returns a color with the given argb value.
+     * 
+     * @param argb the color value, alpha in bits 24-31
+     * @return a color with the given value
+     */
+    public static Color getColor(int argb) {
+        int index = hash(argb) & (SIZE - 1);
+        Color color = CACHE.get(index);
+        if ((color == null) || (color.getRGB() != argb)) {
+            color = new Color(argb, true);
+            CACHE.set(index, color);
+        }
+        return color;
+    }
+    
+    /**
+     * Returns an opaque color with the given red, green and blue components.
+     * 
+     * @param red the red component in the range 0-255
+     * @param green the green component in the range 0-255
+     * @param blue the blue component in the range 0-255
+     * @return an opaque color with the given components
+     */
+    public static Color getColor(int red, int green, int blue) {
+        return getColor(0xff000000 | (red << 16) | (green << 8) | blue);
+    }
+    
+    /**
+     * Blends two colors, with the same result as 
+     * {@link org.jdesktop.swingx.util.PaintUtils#blend(Color, Color)} but 
+     * returning an interned color. 
+     * 
+     * @param origin the base color
+     * @param over the alpha-enabled color to add to the base
+     * @return the blended opaque color, <code>origin</code> if <code>over</code>
+     *   is null and <code>over</code> if <code>origin</code> is null.
+     */
+    public static Color blend(Color origin, Color over) {
+        if (over == null) {
+            return origin;
+        }
+        if (origin == null) {
+            return over;
+        }
+        int overRGB = over.getRGB();
+        int originRGB = origin.getRGB();
+        int a = overRGB >>> 24;
+        
+        int rb = (((overRGB & 0x00ff00ff) * (a + 1))
+                    + ((originRGB & 0x00ff00ff) * (0xff - a))) & 0xff00ff00;
+        int g = (((overRGB & 0x0000ff00) * (a + 1))
+                    + ((originRGB & 0x0000ff00) * (0xff - a))) & 0x00ff0000;
+        
+        // like PaintUtils, the result is opaque
+        return getColor(0xff000000 | ((rb | g) >> 8));
+    }
+    
+    /**
+     * Returns a lookup table of colors interpolated linearly from start to end, 
+     * including both. The colors are interned. Mapping a value to one of
+     * its steps is a simple index computation, so highlighting with the ramp 
+     * doesn't allocate.
+     * 
+     * @param start the first color of the ramp
+     * @param end the last color of the ramp
+     * @param steps the number of colors, must be >= 2
+     * @return the colors of the ramp
+     * @throws NullPointerException if any of the colors is null
+     * @throws IllegalArgumentException if steps < 2
+     */
+    public static Color[] createRamp(Color start, Color end, int steps) {
+        Contract.asNotNull(start, "start color must not be null");
+        Contract.asNotNull(end, "end color must not be null");
+        if (steps < 2) {
+            throw new IllegalArgumentException("ramp must have at least two steps " + steps);
+        }
+        int startRGB = start.getRGB();
+        int endRGB = end.getRGB();
+        Color[] ramp = new Color[steps];
+        for (int i = 0; i < steps; i++) {
+            int argb = 0;
+            for (int shift = 0; shift < 32; shift += 8) {
+                int from = (startRGB >>> shift) & 0xff;
+                int to = (endRGB >>> shift) & 0xff;
+                int value = from + Math.round((to - from) * i / (float) (steps - 1));
+                argb |= value << shift;
+            }
+            ramp[i] = getColor(argb);
+        }
+        return ramp;
+    }
+    
+    /**
+     * Spreads the bits of the argb value, similar colors differ in the
+     * lower bits of their components only.
+     */
+    private static int hash(int argb) {
+        int h = argb * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
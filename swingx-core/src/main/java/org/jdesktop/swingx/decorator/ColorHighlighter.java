@@ -21,7 +21,7 @@
 package org.jdesktop.swingx.decorator;
 
 
-import static org.jdesktop.swingx.util.PaintUtils.blend;
+import static org.jdesktop.swingx.decorator.ColorCache.blend;
 
 import java.awt.Color;
 import java.awt.Component;
@@ -33,6 +33,9 @@ import java.awt.Component;
  * This will have little effect on previous users, who were likely to be 
  * using fully-opaque colors. If you are, however, supplying a non-opaque color 
  * and need it to be considered opaque, use {@link org.jdesktop.swingx.util.PaintUtils#removeAlpha(Color)}.
+ * <p>
+ * The blended colors are taken from the {@link ColorCache}, so highlighting 
+ * doesn't allocate a new color per cell.
  * 
  * @author Jeanette Winzenburg
  * @author Karl Schaefer
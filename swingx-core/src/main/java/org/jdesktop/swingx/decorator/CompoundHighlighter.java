@@ -23,7 +23,10 @@ package org.jdesktop.swingx.decorator;
 
 import java.awt.Component;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -32,23 +35,48 @@ import org.jdesktop.swingx.plaf.UIDependent;
 import org.jdesktop.swingx.util.Contract;
 
 /**
- * A class which manages the lists of <code>Highlighter</code>s.
+ * A class which manages the lists of <code>Highlighter</code>s. <p>
+ * 
+ * While notifying about a change of a contained highlighter, the 
+ * <code>AffectedRegion</code> reports the rows and columns touched by 
+ * that change: as declared by highlighters which implement 
+ * <code>AffectedRegion</code> themselves, otherwise the columns their 
+ * predicate is restricted to before and after the change. All other 
+ * notifications affect the complete component.
  *
  * @see Highlighter
+ * @see AffectedRegion
  *
  * @author Ramesh Gupta
  * @author Jeanette Winzenburg
  * 
  */
 public class CompoundHighlighter extends AbstractHighlighter 
-    implements UIDependent {
+    implements UIDependent, AffectedRegion {
     public static final Highlighter[] EMPTY_HIGHLIGHTERS = new Highlighter[0];
 
+    /** 
+     * The contained highlighters. Note: subclasses which modify the list 
+     * directly must call invalidatePipeline to keep the compiled form in synch.
+     */
     protected List<Highlighter> highlighters;
     
     /** the listener for changes in contained Highlighters. */
     private ChangeListener highlighterChangeListener;
 
+    /** the compiled form of the highlighters, lazily re-created after changes. */
+    private HighlighterPipeline pipeline;
+
+    /** 
+     * the model columns each contained highlighter was restricted to after 
+     * its latest change, a null value for unrestricted. 
+     */
+    private final Map<Highlighter, BitSet> restrictions = new IdentityHashMap<Highlighter, BitSet>();
+    
+    /** the region affected by the change currently notified, null for all. */
+    private int[] affectedRows;
+    private int[] affectedColumns;
+    
     
     /**
      * Instantiates a CompoundHighlighter containing the given 
@@ -92,6 +120,7 @@ public class CompoundHighlighter extends AbstractHighlighter
         for (Highlighter highlighter : inList) {
             addHighlighterSilently(highlighter, false);
         }
+        invalidatePipeline();
         fireStateChanged();
     }
 
@@ -104,6 +133,7 @@ public class CompoundHighlighter extends AbstractHighlighter
             highlighter.removeChangeListener(getHighlighterChangeListener());
         }
         highlighters.clear();
+        restrictions.clear();
     }
 
     /**
@@ -127,6 +157,7 @@ public class CompoundHighlighter extends AbstractHighlighter
      */
     public void addHighlighter(Highlighter highlighter, boolean prepend) {
         addHighlighterSilently(highlighter, prepend);
+        invalidatePipeline();
         fireStateChanged();
     }
 
@@ -138,6 +169,7 @@ public class CompoundHighlighter extends AbstractHighlighter
             highlighters.add(highlighters.size(), highlighter);
         }
         updateUI(highlighter);
+        restrictions.put(highlighter, getRestriction(highlighter));
         highlighter.addChangeListener(getHighlighterChangeListener());
     }
 
@@ -152,6 +184,10 @@ public class CompoundHighlighter extends AbstractHighlighter
         if (success) {
             // PENDING: duplicates?
             hl.removeChangeListener(getHighlighterChangeListener());
+            if (!highlighters.contains(hl)) {
+                restrictions.remove(hl);
+            }
+            invalidatePipeline();
             fireStateChanged();
         }
         // should log if this didn't succeed. Maybe
@@ -197,8 +233,9 @@ public class CompoundHighlighter extends AbstractHighlighter
 
     /**
      * Creates and returns the ChangeListener registered to
-     * contained <code>Highlighter</code>s. Here: fires a 
-     * stateChanged on each notification. 
+     * contained <code>Highlighter</code>s. Here: invalidates the 
+     * compiled pipeline and fires a stateChanged on each notification,
+     * reporting the region affected by the change. 
      * 
      * @return the listener for contained Highlighters.
      * 
@@ -208,12 +245,82 @@ public class CompoundHighlighter extends AbstractHighlighter
 
             @Override
             public void stateChanged(ChangeEvent e) {
-                fireStateChanged();
+                updateAffectedRegion(e.getSource());
+                invalidatePipeline();
+                try {
+                    fireStateChanged();
+                } finally {
+                    affectedRows = null;
+                    affectedColumns = null;
+                }
             }
             
         };
     }
 
+    /**
+     * Updates the affected region for a change notification of the
+     * given source.
+     * 
+     * @param source the source of a change notification
+     */
+    private void updateAffectedRegion(Object source) {
+        if (source instanceof AffectedRegion) {
+            affectedRows = ((AffectedRegion) source).getAffectedRows();
+            affectedColumns = ((AffectedRegion) source).getAffectedColumns();
+            return;
+        }
+        affectedRows = null;
+        affectedColumns = null;
+        // unknown if not added through the api
+        if (!restrictions.containsKey(source)) return;
+        Highlighter highlighter = (Highlighter) source;
+        BitSet old = restrictions.get(highlighter);
+        BitSet columns = getRestriction(highlighter);
+        restrictions.put(highlighter, columns);
+        if (columns == null || old == null) return;
+        // cells highlighted before the change must be repainted as well
+        BitSet affected = (BitSet) columns.clone();
+        affected.or(old);
+        affectedColumns = HighlighterPipeline.toArray(affected);
+    }
+    
+    /**
+     * Returns the model columns the given highlighter is restricted to
+     * by its predicate.
+     * 
+     * @param highlighter the highlighter to look up
+     * @return the model columns the highlighter is restricted to, or 
+     *   null if unrestricted or unknown
+     */
+    private BitSet getRestriction(Highlighter highlighter) {
+        if (!(highlighter instanceof AbstractHighlighter)) return null;
+        return HighlighterPipeline.getColumns(
+                ((AbstractHighlighter) highlighter).getHighlightPredicate());
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the rows affected by the change of a contained
+     * highlighter while notifying listeners, null otherwise.
+     */
+    @Override
+    public int[] getAffectedRows() {
+        return affectedRows;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the columns affected by the change of a contained
+     * highlighter while notifying listeners, null otherwise.
+     */
+    @Override
+    public int[] getAffectedColumns() {
+        return affectedColumns;
+    }
+
    /**
     *  Updates the ui-dependent state of the given Highlighter.
     *  
@@ -233,12 +340,39 @@ public class CompoundHighlighter extends AbstractHighlighter
      */
     @Override
     protected Component doHighlight(Component stamp, ComponentAdapter adapter) {
-        for (Highlighter highlighter : highlighters) {
-            stamp = highlighter.highlight(stamp, adapter);
+        Highlighter[] pipeline = getPipeline().getHighlighters(
+                adapter.convertColumnIndexToModel(adapter.column));
+        for (int i = 0; i < pipeline.length; i++) {
+            stamp = pipeline[i].highlight(stamp, adapter);
         }
         return stamp;
     }
     
+    /**
+     * Invalidates the compiled form of the contained highlighters. It is 
+     * re-created on the next highlight. <p>
+     * 
+     * Called on every change of the list of highlighters and on every 
+     * ChangeEvent of contained highlighters. 
+     */
+    protected void invalidatePipeline() {
+        pipeline = null;
+    }
+    
+    /**
+     * Returns the compiled form of the contained highlighters, nested 
+     * compounds flattened and grouped by the columns they apply to. It 
+     * is re-created after each change.
+     * 
+     * @return the compiled pipeline of contained highlighters
+     */
+    private HighlighterPipeline getPipeline() {
+        if (pipeline == null) {
+            pipeline = new HighlighterPipeline(highlighters);
+        }
+        return pipeline;
+    }
+    
     
 
 }
@@ -0,0 +1,64 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+/**
+ * Optional interface for <code>HighlightPredicate</code>s to hint at the 
+ * relative cost of their evaluation. <p>
+ * 
+ * Compound predicates like <code>AndHighlightPredicate</code> and 
+ * <code>OrHighlightPredicate</code> evaluate their children cheapest-first, 
+ * so that cheap coordinate checks short-circuit expensive value tests, 
+ * f.i. regex matching. Implementations which provide a hint must not depend
+ * on the evaluation order of their siblings. <p>
+ * 
+ * The constants are meant as a scale, custom implementations may return 
+ * any non-negative value.
+ * 
+ * @see HighlightPredicate.AndHighlightPredicate
+ * @see HighlightPredicate.OrHighlightPredicate
+ */
+public interface CostHint {
+
+    /**
+     * Cost of a predicate which tests only the adapter's coordinates or
+     * state, like column index, row or selection.
+     */
+    public static final int CHEAP = 1;
+    
+    /**
+     * Cost of a predicate which accesses the adapter's value.
+     */
+    public static final int MODERATE = 10;
+    
+    /**
+     * Cost of a predicate which converts the adapter's values to a string
+     * representation and/or matches them against a Pattern.
+     */
+    public static final int EXPENSIVE = 100;
+    
+    /**
+     * Returns the relative cost of evaluating this.
+     * 
+     * @return the relative cost of evaluation, a non-negative value.
+     */
+    int getCost();
+}
@@ -0,0 +1,519 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+
+import org.jdesktop.swingx.decorator.HighlightPredicate.ColumnHighlightPredicate;
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * A Highlighter which colors the background of cells by the numeric value of 
+ * a table column, a heat map. <p>
+ * 
+ * The values are mapped to a ramp of colors between a low and a high color,
+ * precomputed with a fixed number of steps. The range of the ramp is the 
+ * minimum and maximum of the column's values: the value of a cell is mapped
+ * to its ramp color by a simple bucket index computation. <p>
+ * 
+ * To keep the range up to date, the highlighter listens to the 
+ * <code>TableModel</code> and maintains the column's values incrementally
+ * from <code>TableModelEvent</code>s. Only removing or overwriting the
+ * current minimum or maximum requires a re-scan, which is done lazily on 
+ * the next access. Changes of the range are notified as a change affecting 
+ * the column. Non-numeric values are ignored. <p>
+ * 
+ * By default, the highlighter is restricted to the value column. With a 
+ * different predicate, f.i. <code>HighlightPredicate.ALWAYS</code>, it 
+ * colors complete rows by the column's value. Selected cells are not 
+ * highlighted. <p>
+ * 
+ * Note: the highlighter is registered as listener to its model, it must be 
+ * detached by setting the model to null if it is no longer used while the
+ * model is.
+ * 
+ * <pre><code>
+ * table.addHighlighter(new HeatMapHighlighter(table.getModel(), 
+ *         PRICE_COLUMN, Color.WHITE, Color.RED));
+ * </code></pre>
+ * 
+ * @see ColorCache#createRamp(Color, Color, int)
+ */
+public class HeatMapHighlighter extends AbstractHighlighter implements AffectedRegion {
+
+    /** default number of steps in the color ramp. */
+    public static final int DEFAULT_STEPS = 64;
+    
+    private TableModel model;
+    private final int modelColumn;
+    private Color lowColor;
+    private Color highColor;
+    private int steps;
+    
+    /** the precomputed colors, lazily re-created after changes. */
+    private Color[] ramp;
+    
+    /** 
+     * the column's values in model row order, NaN for non-numbers; null if 
+     * not loaded. Grows with spare capacity, only the first valueCount are used.
+     */
+    private double[] values;
+    private int valueCount;
+    private double minimum;
+    private double maximum;
+    
+    /** flag to indicate that the minimum/maximum must be re-scanned. */
+    private boolean rangeInvalid;
+    
+    private TableModelListener modelListener;
+    
+    /** the columns affected by the change currently notified, null for all. */
+    private int[] affectedColumns;
+    
+    /**
+     * Instantiates a HeatMapHighlighter for the given column of the model with 
+     * a default number of steps.
+     * 
+     * @param model the model to take the values from, may be null
+     * @param modelColumn the column index in model coordinates
+     * @param lowColor the color for the minimum value
+     * @param highColor the color for the maximum value
+     * @throws NullPointerException if any of the colors is null
+     */
+    public HeatMapHighlighter(TableModel model, int modelColumn, Color lowColor, 
+            Color highColor) {
+        this(model, modelColumn, lowColor, highColor, DEFAULT_STEPS);
+    }
+    
+    /**
+     * Instantiates a HeatMapHighlighter for the given column of the model.
+     * 
+     * @param model the model to take the values from, may be null
+     * @param modelColumn the column index in model coordinates
+     * @param lowColor the color for the minimum value
+     * @param highColor the color for the maximum value
+     * @param steps the number of colors in the ramp, must be >= 2
+     * @throws NullPointerException if any of the colors is null
+     * @throws IllegalArgumentException if steps < 2
+     */
+    public HeatMapHighlighter(TableModel model, int modelColumn, Color lowColor, 
+            Color highColor, int steps) {
+        super(new ColumnHighlightPredicate(modelColumn));
+        this.modelColumn = modelColumn;
+        this.lowColor = Contract.asNotNull(lowColor, "low color must not be null");
+        this.highColor = Contract.asNotNull(highColor, "high color must not be null");
+        this.steps = checkSteps(steps);
+        setTableModel(model);
+    }
+
+//------------------------ state
+    
+    /**
+     * Returns the column the values are taken from.
+     * 
+     * @return the column index in model coordinates
+     */
+    public int getModelColumn() {
+        return modelColumn;
+    }
+    
+    /**
+     * Returns the model the values are taken from.
+     * 
+     * @return the model, may be null
+     */
+    public TableModel getTableModel() {
+        return model;
+    }
+    
+    /**
+     * Sets the model to take the values from and notifies registered 
+     * ChangeListeners. The highlighter is registered as listener to the new 
+     * model and deregistered from the old.
+     * 
+     * @param model the model to take the values from, 
+     *   or null to detach from the current
+     */
+    public void setTableModel(TableModel model) {
+        if (this.model == model) return;
+        if (this.model != null) {
+            this.model.removeTableModelListener(getTableModelListener());
+        }
+        this.model = model;
+        if (model != null) {
+            model.addTableModelListener(getTableModelListener());
+        }
+        values = null;
+        fireStateChanged();
+    }
+    
+    /**
+     * Returns the color of the minimum value.
+     * 
+     * @return the color of the minimum value
+     */
+    public Color getLowColor() {
+        return lowColor;
+    }
+    
+    /**
+     * Sets the color of the minimum value and notifies registered 
+     * ChangeListeners.
+     * 
+     * @param color the color of the minimum value
+     * @throws NullPointerException if the color is null
+     */
+    public void setLowColor(Color color) {
+        Contract.asNotNull(color, "low color must not be null");
+        if (areEqual(color, getLowColor())) return;
+        lowColor = color;
+        ramp = null;
+        fireStateChanged();
+    }
+    
+    /**
+     * Returns the color of the maximum value.
+     * 
+     * @return the color of the maximum value
+     */
+    public Color getHighColor() {
+        return highColor;
+    }
+    
+    /**
+     * Sets the color of the maximum value and notifies registered 
+     * ChangeListeners.
+     * 
+     * @param color the color of the maximum value
+     * @throws NullPointerException if the color is null
+     */
+    public void setHighColor(Color color) {
+        Contract.asNotNull(color, "high color must not be null");
+        if (areEqual(color, getHighColor())) return;
+        highColor = color;
+        ramp = null;
+        fireStateChanged();
+    }
+    
+    /**
+     * Returns the number of colors in the ramp.
+     * 
+     * @return the number of colors in the ramp
+     */
+    public int getSteps() {
+        return steps;
+    }
+    
+    /**
+     * Sets the number of colors in the ramp and notifies registered 
+     * ChangeListeners.
+     * 
+     * @param steps the number of colors in the ramp, must be >= 2
+     * @throws IllegalArgumentException if steps < 2
+     */
+    public void setSteps(int steps) {
+        checkSteps(steps);
+        if (steps == getSteps()) return;
+        this.steps = steps;
+        ramp = null;
+        fireStateChanged();
+    }
+    
+    /**
+     * Returns the minimum of the column's numeric values.
+     * 
+     * @return the minimum value or NaN if there are no numeric values
+     */
+    public double getMinimum() {
+        ensureRange();
+        return minimum;
+    }
+    
+    /**
+     * Returns the maximum of the column's numeric values.
+     * 
+     * @return the maximum value or NaN if there are no numeric values
+     */
+    public double getMaximum() {
+        ensureRange();
+        return maximum;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return null, range changes affect all rows.
+     */
+    @Override
+    public int[] getAffectedRows() {
+        return null;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the columns the highlighter is restricted to while 
+     * notifying a range change, null otherwise.
+     */
+    @Override
+    public int[] getAffectedColumns() {
+        return affectedColumns;
+    }
+    
+//------------------------ highlight
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to blend the ramp color of the numeric value in the
+     * current row into the background of unselected cells.
+     */
+    @Override
+    protected Component doHighlight(Component component, ComponentAdapter adapter) {
+        if (adapter.isSelected()) return component;
+        Color color = getColor(toDouble(adapter.getValue(modelColumn)));
+        if (color != null) {
+            component.setBackground(ColorCache.blend(component.getBackground(), color));
+        }
+        return component;
+    }
+    
+    /**
+     * Returns the ramp color for the given value.
+     * 
+     * @param value the value to map
+     * @return the color of the bucket the value falls into, or null if 
+     *    the value is NaN or there is no range.
+     */
+    protected Color getColor(double value) {
+        if (Double.isNaN(value)) return null;
+        ensureRange();
+        if (Double.isNaN(minimum)) return null;
+        Color[] colors = getRamp();
+        double range = maximum - minimum;
+        if (range <= 0) return colors[0];
+        int index = (int) ((value - minimum) * (colors.length / range));
+        return colors[Math.max(0, Math.min(colors.length - 1, index))];
+    }
+    
+    private Color[] getRamp() {
+        if (ramp == null) {
+            ramp = ColorCache.createRamp(lowColor, highColor, steps);
+        }
+        return ramp;
+    }
+    
+//------------------------ maintain values and range
+
+    /**
+     * Loads the values if necessary and re-scans the range if invalid.
+     */
+    private void ensureRange() {
+        if (values == null) {
+            valueCount = model != null ? model.getRowCount() : 0;
+            values = new double[valueCount];
+            for (int row = 0; row < valueCount; row++) {
+                values[row] = getModelValue(row);
+            }
+            rangeInvalid = true;
+        }
+        if (rangeInvalid) {
+            minimum = Double.NaN;
+            maximum = Double.NaN;
+            for (int i = 0; i < valueCount; i++) {
+                extendRange(values[i]);
+            }
+            rangeInvalid = false;
+        }
+    }
+    
+    /**
+     * Extends the range to include the given value.
+     * 
+     * @param value the value to include
+     * @return true if the range was changed
+     */
+    private boolean extendRange(double value) {
+        if (Double.isNaN(value)) return false;
+        boolean changed = false;
+        if (Double.isNaN(minimum) || (value < minimum)) {
+            minimum = value;
+            changed = true;
+        }
+        if (Double.isNaN(maximum) || (value > maximum)) {
+            maximum = value;
+            changed = true;
+        }
+        return changed;
+    }
+    
+    /**
+     * Returns a boolean indicating whether removing the given value
+     * might change the range.
+     */
+    private boolean isBoundary(double value) {
+        return (value == minimum) || (value == maximum);
+    }
+    
+    /**
+     * Updates the values and range after a change of the model. 
+     * 
+     * @param e the event describing the change
+     */
+    protected void updateAfterModelChanged(TableModelEvent e) {
+        // not yet loaded: nothing to update
+        if (values == null) return;
+        boolean changed;
+        if ((e.getFirstRow() == TableModelEvent.HEADER_ROW) 
+                || (e.getLastRow() == Integer.MAX_VALUE)) {
+            values = null;
+            changed = true;
+        } else {
+            if ((e.getType() == TableModelEvent.UPDATE) 
+                    && (e.getColumn() != TableModelEvent.ALL_COLUMNS)
+                    && (e.getColumn() != modelColumn)) return;
+            ensureRange();
+            changed = updateValues(e.getType(), e.getFirstRow(), e.getLastRow());
+        }
+        if (changed) {
+            fireRangeChanged();
+        }
+    }
+
+    /**
+     * Updates the values in the given range of rows. 
+     * 
+     * @return true if the range might have changed
+     */
+    private boolean updateValues(int type, int firstRow, int lastRow) {
+        int length = lastRow - firstRow + 1;
+        boolean changed = false;
+        if (type == TableModelEvent.INSERT) {
+            if ((firstRow < 0) || (firstRow > valueCount)) {
+                values = null;
+                return true;
+            }
+            ensureCapacity(valueCount + length);
+            System.arraycopy(values, firstRow, values, lastRow + 1, valueCount - firstRow);
+            valueCount += length;
+            for (int row = firstRow; row <= lastRow; row++) {
+                values[row] = getModelValue(row);
+                changed |= extendRange(values[row]);
+            }
+        } else if (type == TableModelEvent.DELETE) {
+            if ((firstRow < 0) || (lastRow >= valueCount)) {
+                values = null;
+                return true;
+            }
+            for (int row = firstRow; row <= lastRow; row++) {
+                rangeInvalid |= isBoundary(values[row]);
+            }
+            changed = rangeInvalid;
+            System.arraycopy(values, lastRow + 1, values, firstRow, valueCount - lastRow - 1);
+            valueCount -= length;
+        } else {
+            if ((firstRow < 0) || (lastRow >= valueCount)) {
+                values = null;
+                return true;
+            }
+            for (int row = firstRow; row <= lastRow; row++) {
+                double value = getModelValue(row);
+                if (Double.compare(value, values[row]) == 0) continue;
+                // an old extreme which is overwritten by a value inside the range  
+                rangeInvalid |= isBoundary(values[row]);
+                values[row] = value;
+                changed |= extendRange(value);
+            }
+            changed |= rangeInvalid;
+        }
+        // sanity: out of synch with the model
+        if ((model != null) && (valueCount != model.getRowCount())) {
+            values = null;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Grows the values to at least the given capacity, with spare room
+     * to not re-allocate on every insert.
+     * 
+     * @param capacity the minimal capacity
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= values.length) return;
+        values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 16));
+    }
+
+    /**
+     * Notifies registered ChangeListeners about a change of the range, 
+     * affecting only the columns the highlighter is restricted to, if any.
+     */
+    private void fireRangeChanged() {
+        BitSet columns = HighlighterPipeline.getColumns(getHighlightPredicate());
+        if (columns != null) {
+            affectedColumns = HighlighterPipeline.toArray(columns);
+        }
+        try {
+            fireStateChanged();
+        } finally {
+            affectedColumns = null;
+        }
+    }
+    
+    private double getModelValue(int row) {
+        if ((model == null) || (modelColumn >= model.getColumnCount())) return Double.NaN;
+        return toDouble(model.getValueAt(row, modelColumn));
+    }
+    
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    private static int checkSteps(int steps) {
+        if (steps < 2) {
+            throw new IllegalArgumentException("ramp must have at least two steps " + steps);
+        }
+        return steps;
+    }
+    
+    private TableModelListener getTableModelListener() {
+        if (modelListener == null) {
+            modelListener = new TableModelListener() {
+
+                @Override
+                public void tableChanged(TableModelEvent e) {
+                    updateAfterModelChanged(e);
+                }
+                
+            };
+        }
+        return modelListener;
+    }
+
+}
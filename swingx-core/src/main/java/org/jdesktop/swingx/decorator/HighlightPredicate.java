@@ -410,12 +410,18 @@ public interface HighlightPredicate {
     }
     
     /**
-     * Ands a list of predicates.
+     * Ands a list of predicates. <p>
+     * 
+     * The predicates are evaluated cheapest-first, as far as they provide 
+     * a {@link CostHint}. Predicates without a hint keep their position 
+     * relative to the others.
      */
     public static class AndHighlightPredicate implements HighlightPredicate {
         
         private List<HighlightPredicate> predicate;
         
+        private HighlightPredicate[] evaluationOrder;
+        
         /**
          * Instantiates a predicate which ands all given predicates.
          * @param predicate zero or more not null predicates to and
@@ -423,6 +429,7 @@ public interface HighlightPredicate {
          */
         public AndHighlightPredicate(HighlightPredicate... predicate) {
             this.predicate = Arrays.asList(Contract.asNotNull(predicate, "predicate must not be null"));
+            this.evaluationOrder = PredicateCosts.getEvaluationOrder(this.predicate);
         }
         
         /**
@@ -432,6 +439,7 @@ public interface HighlightPredicate {
          */
         public AndHighlightPredicate(Collection<HighlightPredicate> list) {
             this.predicate = new ArrayList<HighlightPredicate>(Contract.asNotNull(list, "predicate list must not be null"));
+            this.evaluationOrder = PredicateCosts.getEvaluationOrder(this.predicate);
         }
 
         /**
@@ -441,10 +449,10 @@ public interface HighlightPredicate {
          */
         @Override
         public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
-            for (HighlightPredicate hp : predicate) {
+            for (HighlightPredicate hp : evaluationOrder) {
                 if (!hp.isHighlighted(renderer, adapter)) return false;
             }
-            return !predicate.isEmpty();
+            return evaluationOrder.length > 0;
         }
 
         /**
@@ -459,12 +467,18 @@ public interface HighlightPredicate {
     }
     
     /**
-     * Or's a list of predicates.
+     * Or's a list of predicates. <p>
+     * 
+     * The predicates are evaluated cheapest-first, as far as they provide 
+     * a {@link CostHint}. Predicates without a hint keep their position 
+     * relative to the others.
      */
     public static class OrHighlightPredicate implements HighlightPredicate {
         
         private List<HighlightPredicate> predicate;
         
+        private HighlightPredicate[] evaluationOrder;
+        
         /**
          * Instantiates a predicate which ORs all given predicates.
          * @param predicate zero or more not null predicates to OR
@@ -472,6 +486,7 @@ public interface HighlightPredicate {
          */
         public OrHighlightPredicate(HighlightPredicate... predicate) {
             this.predicate = Arrays.asList(Contract.asNotNull(predicate, "predicate must not be null"));
+            this.evaluationOrder = PredicateCosts.getEvaluationOrder(this.predicate);
         }
         
         /**
@@ -481,6 +496,7 @@ public interface HighlightPredicate {
          */
         public OrHighlightPredicate(Collection<HighlightPredicate> list) {
             this.predicate = new ArrayList<HighlightPredicate>(Contract.asNotNull(list, "predicate list must not be null"));
+            this.evaluationOrder = PredicateCosts.getEvaluationOrder(this.predicate);
         }
 
         /**
@@ -490,7 +506,7 @@ public interface HighlightPredicate {
          */
         @Override
         public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
-            for (HighlightPredicate hp : predicate) {
+            for (HighlightPredicate hp : evaluationOrder) {
                 if (hp.isHighlighted(renderer, adapter)) return true;
             }
             return false;
@@ -507,7 +523,7 @@ public interface HighlightPredicate {
     
 //------------------------ coordinates
     
-    public static class RowGroupHighlightPredicate implements HighlightPredicate {
+    public static class RowGroupHighlightPredicate implements HighlightPredicate, CostHint {
 
         private int linesPerGroup;
 
@@ -542,14 +558,25 @@ public interface HighlightPredicate {
         public int getLinesPerGroup() {
             return linesPerGroup;
         }
-        
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to return {@link CostHint#CHEAP}, this tests 
+         * the adapter's coordinates or state only.
+         */
+        @Override
+        public int getCost() {
+            return CHEAP;
+        }
+
     }
     
     /**
      * A HighlightPredicate based on column index.
      * 
      */
-    public static class ColumnHighlightPredicate implements HighlightPredicate {
+    public static class ColumnHighlightPredicate implements HighlightPredicate, CostHint {
         List<Integer> columnList;
         
         /**
@@ -587,7 +614,18 @@ public interface HighlightPredicate {
             if (columnList.isEmpty()) return EMPTY_INTEGER_ARRAY;
             return columnList.toArray(new Integer[columnList.size()]);
         }
-        
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to return {@link CostHint#CHEAP}, this tests 
+         * the adapter's coordinates or state only.
+         */
+        @Override
+        public int getCost() {
+            return CHEAP;
+        }
+
     }
     
 
@@ -595,7 +633,7 @@ public interface HighlightPredicate {
      * A HighlightPredicate based on column identifier.
      * 
      */
-    public static class IdentifierHighlightPredicate implements HighlightPredicate {
+    public static class IdentifierHighlightPredicate implements HighlightPredicate, CostHint {
         List<Object> columnList;
         
         /**
@@ -632,7 +670,18 @@ public interface HighlightPredicate {
             if (columnList.isEmpty()) return EMPTY_OBJECT_ARRAY;
             return columnList.toArray(new Object[0]);
         }
-        
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to return {@link CostHint#CHEAP}, this tests 
+         * the adapter's column identifier only.
+         */
+        @Override
+        public int getCost() {
+            return CHEAP;
+        }
+
     }
     
 
@@ -642,7 +691,7 @@ public interface HighlightPredicate {
      * 
      * @author Karl Schaefer
      */
-    public static class DepthHighlightPredicate implements HighlightPredicate {
+    public static class DepthHighlightPredicate implements HighlightPredicate, CostHint {
         private List<Integer> depthList;
         
         /**
@@ -679,7 +728,18 @@ public interface HighlightPredicate {
             if (depthList.isEmpty()) return EMPTY_INTEGER_ARRAY;
             return depthList.toArray(new Integer[depthList.size()]);
         }
-        
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to return {@link CostHint#CHEAP}, this tests 
+         * the adapter's coordinates or state only.
+         */
+        @Override
+        public int getCost() {
+            return CHEAP;
+        }
+
     }
     
     //--------------------- value testing
@@ -688,7 +748,7 @@ public interface HighlightPredicate {
      * Predicate testing the componentAdapter value against a fixed
      * Object. 
      */
-    public static class EqualsHighlightPredicate implements HighlightPredicate {
+    public static class EqualsHighlightPredicate implements HighlightPredicate, CostHint {
 
         private Object compareValue;
         
@@ -727,14 +787,25 @@ public interface HighlightPredicate {
         public Object getCompareValue() {
             return compareValue;
         }
-        
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to return {@link CostHint#MODERATE}, this tests 
+         * the adapter's value only.
+         */
+        @Override
+        public int getCost() {
+            return MODERATE;
+        }
+
     }
 
     /**
      * Predicate testing the componentAdapter value type against a given
      * Class. 
      */
-    public static class TypeHighlightPredicate implements HighlightPredicate {
+    public static class TypeHighlightPredicate implements HighlightPredicate, CostHint {
 
         private Class<?> clazz;
         
@@ -779,14 +850,25 @@ public interface HighlightPredicate {
         public Class<?> getType() {
             return clazz;
         }
-        
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to return {@link CostHint#MODERATE}, this tests 
+         * the adapter's value only.
+         */
+        @Override
+        public int getCost() {
+            return MODERATE;
+        }
+
     }
 
     /**
      * Predicate testing the componentAdapter column type against a given
      * Class. 
      */
-    public static class ColumnTypeHighlightPredicate implements HighlightPredicate {
+    public static class ColumnTypeHighlightPredicate implements HighlightPredicate, CostHint {
 
         private Class<?> clazz;
         
@@ -829,6 +911,17 @@ public interface HighlightPredicate {
         public Class<?> getType() {
             return clazz;
         }
-        
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to return {@link CostHint#CHEAP}, this tests 
+         * the adapter's column class only.
+         */
+        @Override
+        public int getCost() {
+            return CHEAP;
+        }
+
     }
 }
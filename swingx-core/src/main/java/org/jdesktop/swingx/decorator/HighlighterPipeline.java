@@ -0,0 +1,221 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.jdesktop.swingx.decorator.HighlightPredicate.AndHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.ColumnHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.OrHighlightPredicate;
+
+/**
+ * The compiled form of a list of Highlighters, as used by CompoundHighlighter. <p>
+ * 
+ * Flattens nested CompoundHighlighters which apply unconditionally and groups
+ * the resulting highlighters by the columns their predicate restricts them to. 
+ * The per-column arrays are created lazily and contain only those
+ * highlighters which can apply to the column, in their original order. <p>
+ * 
+ * Instances are snapshots, they have to be re-created whenever any of the
+ * highlighters changes.
+ * 
+ * @see CompoundHighlighter
+ */
+final class HighlighterPipeline {
+
+    /** the flattened highlighters in order of application. */
+    private final Highlighter[] highlighters;
+    
+    /** 
+     * the model columns each of the highlighters is restricted to, 
+     * null for unrestricted. 
+     */
+    private final BitSet[] columns;
+    
+    /** true if any of the highlighters is restricted to columns. */
+    private final boolean restricted;
+    
+    /** lazily created highlighters per model column. */
+    private Highlighter[][] columnPipelines = new Highlighter[0][];
+    
+    /**
+     * Compiles the given list of Highlighters.
+     * 
+     * @param list the highlighters in order of application.
+     */
+    HighlighterPipeline(List<Highlighter> list) {
+        List<Highlighter> flattened = new ArrayList<Highlighter>();
+        flatten(list, flattened);
+        List<Highlighter> applicable = new ArrayList<Highlighter>(flattened.size());
+        List<BitSet> columnList = new ArrayList<BitSet>(flattened.size());
+        boolean anyRestricted = false;
+        for (Highlighter highlighter : flattened) {
+            BitSet restriction = null;
+            if (highlighter instanceof AbstractHighlighter) {
+                restriction = getColumns(((AbstractHighlighter) highlighter).getHighlightPredicate());
+            }
+            // can't apply at all
+            if ((restriction != null) && restriction.isEmpty()) continue;
+            anyRestricted |= restriction != null;
+            applicable.add(highlighter);
+            columnList.add(restriction);
+        }
+        highlighters = applicable.toArray(new Highlighter[applicable.size()]);
+        columns = columnList.toArray(new BitSet[columnList.size()]);
+        restricted = anyRestricted;
+    }
+    
+    /**
+     * Returns the highlighters which can apply to cells in the given column, 
+     * in order of application. 
+     * 
+     * @param modelColumn the column index in model coordinates
+     * @return the highlighters which can apply to the column
+     */
+    Highlighter[] getHighlighters(int modelColumn) {
+        if (!restricted || (modelColumn < 0)) return highlighters;
+        if (modelColumn >= columnPipelines.length) {
+            columnPipelines = Arrays.copyOf(columnPipelines, modelColumn + 1);
+        }
+        Highlighter[] pipeline = columnPipelines[modelColumn];
+        if (pipeline == null) {
+            List<Highlighter> list = new ArrayList<Highlighter>(highlighters.length);
+            for (int i = 0; i < highlighters.length; i++) {
+                if ((columns[i] == null) || columns[i].get(modelColumn)) {
+                    list.add(highlighters[i]);
+                }
+            }
+            pipeline = list.toArray(new Highlighter[list.size()]);
+            columnPipelines[modelColumn] = pipeline;
+        }
+        return pipeline;
+    }
+    
+    /**
+     * Adds the given highlighters to the target list, replacing 
+     * CompoundHighlighters which apply unconditionally with their children. 
+     * 
+     * @param list the highlighters to flatten
+     * @param target the list to add the flattened highlighters to
+     */
+    private static void flatten(List<Highlighter> list, List<Highlighter> target) {
+        for (Highlighter highlighter : list) {
+            if (isFlattenable(highlighter)) {
+                flatten(((CompoundHighlighter) highlighter).highlighters, target);
+            } else {
+                target.add(highlighter);
+            }
+        }
+    }
+
+    /**
+     * Returns a boolean indicating whether the given Highlighter can be
+     * replaced by its children. That's the case for plain CompoundHighlighters,
+     * subclasses might change the highlighting.
+     * 
+     * @param highlighter the highlighter to check
+     * @return true if the highlighter can be replaced by its children
+     */
+    private static boolean isFlattenable(Highlighter highlighter) {
+        return (highlighter.getClass() == CompoundHighlighter.class)
+            && (((CompoundHighlighter) highlighter).getHighlightPredicate() == HighlightPredicate.ALWAYS);
+    }
+    
+    /**
+     * Returns the set of model columns the given predicate is restricted to 
+     * or null if unrestricted (or unknown). Subclasses of the known predicates
+     * are unknown, they might change the matching.
+     * 
+     * @param predicate the predicate to analyse
+     * @return the model column indices the predicate can be true for, 
+     *   null if not restricted to columns.
+     */
+    static BitSet getColumns(HighlightPredicate predicate) {
+        if (predicate == HighlightPredicate.NEVER) {
+            return new BitSet();
+        }
+        if (predicate.getClass() == ColumnHighlightPredicate.class) {
+            BitSet result = new BitSet();
+            for (Integer column : ((ColumnHighlightPredicate) predicate).getColumns()) {
+                if (column >= 0) {
+                    result.set(column);
+                }
+            }
+            return result;
+        }
+        if (predicate.getClass() == PatternPredicate.class) {
+            return getColumn(((PatternPredicate) predicate).getHighlightColumn());
+        }
+        if (predicate.getClass() == SearchPredicate.class) {
+            SearchPredicate search = (SearchPredicate) predicate;
+            // a predicate without pattern is disabled
+            return search.getPattern() == null ? new BitSet() : getColumn(search.getHighlightColumn());
+        }
+        if (predicate.getClass() == AndHighlightPredicate.class) {
+            BitSet result = null;
+            for (HighlightPredicate child : ((AndHighlightPredicate) predicate).getHighlightPredicates()) {
+                BitSet childColumns = getColumns(child);
+                if (childColumns == null) continue;
+                if (result == null) {
+                    result = childColumns;
+                } else {
+                    result.and(childColumns);
+                }
+            }
+            return result;
+        }
+        if (predicate.getClass() == OrHighlightPredicate.class) {
+            BitSet result = new BitSet();
+            for (HighlightPredicate child : ((OrHighlightPredicate) predicate).getHighlightPredicates()) {
+                BitSet childColumns = getColumns(child);
+                if (childColumns == null) return null;
+                result.or(childColumns);
+            }
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the indices of the set bits.
+     * 
+     * @param bits the set to convert
+     * @return the set bits in ascending order
+     */
+    static int[] toArray(BitSet bits) {
+        int[] result = new int[bits.cardinality()];
+        int index = 0;
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result[index++] = i;
+        }
+        return result;
+    }
+
+    private static BitSet getColumn(int column) {
+        if (column < 0) return null;
+        BitSet result = new BitSet();
+        result.set(column);
+        return result;
+    }
+}
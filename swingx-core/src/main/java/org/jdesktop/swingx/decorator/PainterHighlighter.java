@@ -21,8 +21,16 @@
 package org.jdesktop.swingx.decorator;
 
 import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.jdesktop.swingx.painter.AbstractPainter;
 import org.jdesktop.swingx.painter.Painter;
@@ -69,6 +77,18 @@ import org.jdesktop.swingx.renderer.PainterAware;
  * }
  * </code></pre>
  * 
+ * Painting the Painter for every highlighted cell can be expensive, f.i. for 
+ * gradients or glossy effects. If the Painter's output depends only on its own
+ * state and the size it paints, it can be cached: if this highlighter's 
+ * cacheable property is true or the Painter is a cacheable AbstractPainter,
+ * a bounded number of rendered images is kept, keyed by cell size, and the
+ * cells are blitted from those. The cache is invalidated on every property 
+ * change of the Painter. Caching is turned off for the current Painter once 
+ * it is changed during the decoration, as its output then depends on the cell.
+ * AbstractPainters which override <code>validate</code> are never cached, as 
+ * they may mark themselves dirty depending on the painted object.
+ * <p>
+ * 
  * NOTE: this will change once the Painter api is stable.
  * 
  * @author Jeanette Winzenburg
@@ -84,6 +104,27 @@ public class PainterHighlighter extends AbstractHighlighter {
      * should be passed-on to the Highlighter's ChangeListeners. 
      */
     private boolean isAdjusting;
+    
+    /** the maximum number of images kept in the cache. */
+    private static final int CACHE_SIZE = 32;
+    /** the maximum number of pixels of a cached image. */
+    private static final int MAX_CACHED_PIXELS = 1 << 20;
+    /** 
+     * A flag indicating whether or not the painter's output may be 
+     * cached.
+     */
+    private boolean cacheable;
+    /** the painter which paints from the image cache, lazily created. */
+    private CachingPainter cachingPainter;
+    /** 
+     * A flag indicating that the painter has been changed during the 
+     * decoration. Its output depends on the cell then, so it is not cached.
+     */
+    private boolean painterAdjusted;
+    /** 
+     * A flag indicating that the painter overrides AbstractPainter's validate. 
+     */
+    private boolean painterValidates;
 
     /**
      * Instantiates a PainterHighlighter with null painter and 
@@ -146,8 +187,92 @@ public class PainterHighlighter extends AbstractHighlighter {
         uninstallPainterListener();
         this.painter = painter;
         installPainterListener();
+        painterAdjusted = false;
+        painterValidates = overridesValidate(painter);
+        invalidateCache();
+        fireStateChanged();
+    }
+
+    /**
+     * Returns a boolean indicating whether the output of the painter 
+     * is always cached.
+     * 
+     * @return true if the output of the painter is cached.
+     * @see #setCacheable(boolean)
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+    
+    /**
+     * Sets whether or not the output of the painter should be cached as
+     * images per cell size. This must be true only if the output depends 
+     * on the painter's state and the size it paints, and the painter fires
+     * property changes on any change of its state. <p>
+     * 
+     * Note: the output of AbstractPainters which are cacheable is cached 
+     * independent of this property. The output of painters which are changed 
+     * during the decoration or which override AbstractPainter's validate
+     * is never cached.
+     * 
+     * @param cacheable true if the output of the painter should be cached.
+     */
+    public void setCacheable(boolean cacheable) {
+        if (cacheable == isCacheable()) return;
+        this.cacheable = cacheable;
+        invalidateCache();
         fireStateChanged();
     }
+    
+    /**
+     * Returns a boolean indicating whether the output of the current painter 
+     * is cached.
+     * 
+     * @return true if the cells are painted from the cache, false otherwise.
+     */
+    protected boolean isCaching() {
+        if (painterAdjusted || painterValidates) return false;
+        return isCacheable() || ((getPainter() instanceof AbstractPainter) 
+                && ((AbstractPainter) getPainter()).isCacheable());
+    }
+    
+    /**
+     * Returns a boolean indicating whether the painter is an AbstractPainter 
+     * which overrides validate: it can change its state depending on the 
+     * painted object, which painting from the cache would skip.
+     * 
+     * @param painter the painter to check, may be null.
+     * @return true if the painter overrides validate, false otherwise.
+     */
+    private static boolean overridesValidate(Painter<?> painter) {
+        if (!(painter instanceof AbstractPainter)) return false;
+        try {
+            for (Class<?> clazz = painter.getClass(); clazz != AbstractPainter.class; 
+                    clazz = clazz.getSuperclass()) {
+                for (Method method : clazz.getDeclaredMethods()) {
+                    if ("validate".equals(method.getName()) 
+                            && (method.getParameterTypes().length == 1)) {
+                        return true;
+                    }
+                }
+            }
+        } catch (SecurityException e) {
+            // can't tell, so don't cache
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Clears the cached images of the painter's output. Called 
+     * on every change of the painter. Subclasses which change the painter
+     * without it firing a property change must call this.
+     */
+    protected void invalidateCache() {
+        if (cachingPainter != null) {
+            cachingPainter.clear();
+        }
+    }
 
     /**
      * Installs a listener to the painter if appropriate.
@@ -190,9 +315,10 @@ public class PainterHighlighter extends AbstractHighlighter {
      * Creates and returns the property change listener used
      * to listen to changes of the painter. <p>
      * 
-     * This implementation fires a stateChanged on receiving
-     * any propertyChange, if the isAdjusting flag is false. 
-     * Otherwise does nothing.
+     * This implementation invalidates the image cache and fires a 
+     * stateChanged on receiving any propertyChange, if the isAdjusting 
+     * flag is false. Otherwise it turns off caching for the current
+     * painter.
      * 
      * @return the property change listener used to listen to changes
      *   of the painter.
@@ -202,7 +328,14 @@ public class PainterHighlighter extends AbstractHighlighter {
 
             @Override
             public void propertyChange(PropertyChangeEvent evt) {
-                if (isAdjusting) return;
+                if (isAdjusting) {
+                    if (!painterAdjusted) {
+                        painterAdjusted = true;
+                        invalidateCache();
+                    }
+                    return;
+                }
+                invalidateCache();
                 fireStateChanged();
             }
             
@@ -229,14 +362,23 @@ public class PainterHighlighter extends AbstractHighlighter {
      * {@inheritDoc}
      * <p>
      * This implementation sets the painter if it is not null. Does nothing
-     * otherwise.
+     * otherwise. If the painter's output is cached, the component is
+     * given a painter which paints from the cache. Subclasses which change
+     * the painter during the decoration must do so before calling this.
      */
     @Override
     protected Component doHighlight(Component component,
             ComponentAdapter adapter) {
-       ((PainterAware) component).setPainter(painter);
+       ((PainterAware) component).setPainter(isCaching() ? getCachingPainter() : painter);
         return component;
     }
+    
+    private CachingPainter getCachingPainter() {
+        if (cachingPainter == null) {
+            cachingPainter = new CachingPainter();
+        }
+        return cachingPainter;
+    }
 
     /**
      * {@inheritDoc} <p>
@@ -249,5 +391,104 @@ public class PainterHighlighter extends AbstractHighlighter {
         return getPainter() != null && (component instanceof PainterAware);
     }
     
+    /**
+     * Painter which blits the output of the highlighter's painter from a 
+     * bounded LRU cache of images keyed by size. 
+     */
+    private class CachingPainter implements Painter<Object> {
+        
+        private final Map<ImageKey, BufferedImage> images = 
+            new LinkedHashMap<ImageKey, BufferedImage>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<ImageKey, BufferedImage> eldest) {
+                    if (size() <= CACHE_SIZE) return false;
+                    eldest.getValue().flush();
+                    return true;
+                }
+            
+        };
+        
+        /** reused for lookup. */
+        private final ImageKey lookup = new ImageKey();
+        
+        @SuppressWarnings("unchecked")
+        @Override
+        public void paint(Graphics2D g, Object object, int width, int height) {
+            if ((width <= 0) || (height <= 0)) return;
+            AffineTransform transform = g.getTransform();
+            int imageWidth = (int) Math.ceil(width * transform.getScaleX());
+            int imageHeight = (int) Math.ceil(height * transform.getScaleY());
+            if (((transform.getType() & ~(AffineTransform.TYPE_TRANSLATION 
+                    | AffineTransform.TYPE_MASK_SCALE)) != 0)
+                    || (imageWidth <= 0) || (imageHeight <= 0)
+                    || ((long) imageWidth * imageHeight > MAX_CACHED_PIXELS)) {
+                painter.paint(g, object, width, height);
+                return;
+            }
+            lookup.set(width, height, imageWidth, imageHeight);
+            BufferedImage image = images.get(lookup);
+            if (image == null) {
+                GraphicsConfiguration gc = g.getDeviceConfiguration();
+                image = gc != null 
+                    ? gc.createCompatibleImage(imageWidth, imageHeight, Transparency.TRANSLUCENT)
+                    : new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D imageGraphics = image.createGraphics();
+                try {
+                    imageGraphics.scale(imageWidth / (double) width, imageHeight / (double) height);
+                    painter.paint(imageGraphics, object, width, height);
+                } finally {
+                    imageGraphics.dispose();
+                }
+                ImageKey key = new ImageKey();
+                key.set(width, height, imageWidth, imageHeight);
+                images.put(key, image);
+            }
+            g.drawImage(image, 0, 0, width, height, null);
+        }
+        
+        void clear() {
+            for (BufferedImage image : images.values()) {
+                image.flush();
+            }
+            images.clear();
+        }
+    }
+    
+    /**
+     * Key of cached images. 
+     */
+    private static class ImageKey {
+        int width;
+        int height;
+        int imageWidth;
+        int imageHeight;
+        
+        void set(int width, int height, int imageWidth, int imageHeight) {
+            this.width = width;
+            this.height = height;
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ImageKey)) return false;
+            ImageKey other = (ImageKey) obj;
+            return (width == other.width) && (height == other.height) 
+                && (imageWidth == other.imageWidth) 
+                && (imageHeight == other.imageHeight);
+        }
+        
+        @Override
+        public int hashCode() {
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + imageWidth;
+            return 31 * result + imageHeight;
+        }
+    }
+    
     
 }
@@ -23,6 +23,8 @@ package org.jdesktop.swingx.decorator;
 import java.awt.Component;
 import java.util.regex.Pattern;
 
+import org.jdesktop.swingx.search.LiteralMatcher;
+
 /**
  * Pattern based HighlightPredicate. <p>
  * 
@@ -38,12 +40,13 @@ import java.util.regex.Pattern;
  * 
  * @author Jeanette Winzenburg
  */
-public class PatternPredicate implements HighlightPredicate {
+public class PatternPredicate implements HighlightPredicate, CostHint {
     public static final int ALL = -1;
     
     private int highlightColumn;
     private int testColumn;
     private Pattern pattern;
+    private LiteralMatcher literalMatcher;
     
     /**
      * Instantiates a Predicate with the given Pattern and testColumn index
@@ -85,6 +88,7 @@ public class PatternPredicate implements HighlightPredicate {
      */
     public PatternPredicate(Pattern pattern, int testColumn, int decorateColumn) {
         this.pattern = pattern;
+        this.literalMatcher = LiteralMatcher.forPattern(pattern);
         this.testColumn = testColumn;
         this.highlightColumn = decorateColumn;
     }
@@ -181,6 +185,9 @@ public class PatternPredicate implements HighlightPredicate {
         if ((value == null) || (value.length() == 0)) {
             return false;
         }
+        if (literalMatcher != null) {
+            return literalMatcher.matches(value);
+        }
         return pattern.matcher(value).find();
     }
 
@@ -196,6 +203,17 @@ public class PatternPredicate implements HighlightPredicate {
                (highlightColumn == adapter.convertColumnIndexToModel(adapter.column)));
     }
 
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return {@link CostHint#EXPENSIVE}: matching requires the
+     * string representation of one or all cells in the row.
+     */
+    @Override
+    public int getCost() {
+        return EXPENSIVE;
+    }
+
     /**
      * 
      * @return returns the column index to decorate (in model coordinates)
@@ -0,0 +1,140 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility methods to evaluate the cost hints of HighlightPredicates.
+ * 
+ * @see CostHint
+ */
+final class PredicateCosts {
+
+    /**
+     * Marker for predicates without a known cost.
+     */
+    static final int UNKNOWN = -1;
+    
+    /**
+     * Costs of the predefined predicate constants.
+     */
+    private static final Map<HighlightPredicate, Integer> CONSTANT_COSTS;
+
+    static {
+        CONSTANT_COSTS = new IdentityHashMap<HighlightPredicate, Integer>();
+        HighlightPredicate[] cheap = {HighlightPredicate.ALWAYS, HighlightPredicate.NEVER, 
+                HighlightPredicate.ROLLOVER_ROW, HighlightPredicate.ROLLOVER_COLUMN, 
+                HighlightPredicate.ROLLOVER_CELL, HighlightPredicate.EDITABLE, 
+                HighlightPredicate.READ_ONLY, HighlightPredicate.IS_LEAF, 
+                HighlightPredicate.IS_FOLDER, HighlightPredicate.IS_SELECTED, 
+                HighlightPredicate.HAS_FOCUS, HighlightPredicate.EVEN, HighlightPredicate.ODD};
+        for (HighlightPredicate predicate : cheap) {
+            CONSTANT_COSTS.put(predicate, CostHint.CHEAP);
+        }
+        CONSTANT_COSTS.put(HighlightPredicate.BIG_DECIMAL_NEGATIVE, CostHint.MODERATE);
+        CONSTANT_COSTS.put(HighlightPredicate.INTEGER_NEGATIVE, CostHint.MODERATE);
+        CONSTANT_COSTS.put(HighlightPredicate.IS_TEXT_TRUNCATED, CostHint.EXPENSIVE);
+    }
+    
+    private static final Comparator<HighlightPredicate> COST_COMPARATOR = new Comparator<HighlightPredicate>() {
+        
+        @Override
+        public int compare(HighlightPredicate o1, HighlightPredicate o2) {
+            int cost1 = getCost(o1);
+            int cost2 = getCost(o2);
+            return cost1 < cost2 ? -1 : (cost1 == cost2 ? 0 : 1);
+        }
+        
+    };
+    
+    /**
+     * Returns the cost of the given predicate or UNKNOWN if it has no 
+     * cost hint. The cost of a predicate which negates a predicate is that of
+     * the negated, the cost of compound predicates is the sum of their 
+     * children, if all are known.
+     * 
+     * @param predicate the predicate to evaluate
+     * @return the cost of the predicate or UNKNOWN
+     */
+    static int getCost(HighlightPredicate predicate) {
+        if (predicate instanceof CostHint) {
+            return Math.max(0, ((CostHint) predicate).getCost());
+        }
+        if (predicate instanceof HighlightPredicate.NotHighlightPredicate) {
+            return getCost(((HighlightPredicate.NotHighlightPredicate) predicate).getHighlightPredicate());
+        }
+        if (predicate instanceof HighlightPredicate.AndHighlightPredicate) {
+            return getCost(((HighlightPredicate.AndHighlightPredicate) predicate).getHighlightPredicates());
+        }
+        if (predicate instanceof HighlightPredicate.OrHighlightPredicate) {
+            return getCost(((HighlightPredicate.OrHighlightPredicate) predicate).getHighlightPredicates());
+        }
+        Integer cost = CONSTANT_COSTS.get(predicate);
+        return cost != null ? cost : UNKNOWN;
+    }
+    
+    /**
+     * Returns the sum of the costs of all predicates or UNKNOWN if any
+     * of the costs is unknown.
+     * 
+     * @param predicates the predicates to evaluate
+     * @return the summed cost or UNKNOWN
+     */
+    static int getCost(HighlightPredicate[] predicates) {
+        int sum = 0;
+        for (HighlightPredicate predicate : predicates) {
+            int cost = getCost(predicate);
+            if (cost == UNKNOWN) return UNKNOWN;
+            sum += cost;
+        }
+        return sum;
+    }
+    
+    /**
+     * Returns an array of the given predicates in evaluation order. Predicates
+     * with a known cost are sorted cheapest first. Predicates without a known cost
+     * keep their position, they are barriers for the reordering, 
+     * as they might rely on the declaration order.
+     * 
+     * @param predicates the predicates in declaration order
+     * @return an array of predicates in evaluation order
+     */
+    static HighlightPredicate[] getEvaluationOrder(List<HighlightPredicate> predicates) {
+        List<HighlightPredicate> ordered = new ArrayList<HighlightPredicate>(predicates);
+        int start = 0;
+        for (int i = 0; i <= ordered.size(); i++) {
+            if ((i == ordered.size()) || (getCost(ordered.get(i)) == UNKNOWN)) {
+                // sort is stable: equal cost keep declaration order
+                Collections.sort(ordered.subList(start, i), COST_COMPARATOR);
+                start = i + 1;
+            }
+        }
+        return ordered.toArray(new HighlightPredicate[ordered.size()]);
+    }
+    
+    private PredicateCosts() {}
+}
@@ -23,6 +23,8 @@ package org.jdesktop.swingx.decorator;
 import java.awt.Component;
 import java.util.regex.Pattern;
 
+import org.jdesktop.swingx.search.LiteralMatcher;
+
 /**
  * Pattern based HighlightPredicate for searching. Highlights
  * the current adapter cell if the value matches the pattern. 
@@ -37,12 +39,13 @@ import java.util.regex.Pattern;
  * 
  * @author Jeanette Winzenburg
  */
-public class SearchPredicate implements HighlightPredicate {
+public class SearchPredicate implements HighlightPredicate, CostHint {
     public static final int ALL = -1;
     public static final String MATCH_ALL = ".*";
     private int highlightColumn;
     private int highlightRow; // in view coordinates?
     private Pattern pattern;
+    private LiteralMatcher literalMatcher;
 
     /**
      * Instantiates a Predicate with the given Pattern. 
@@ -85,6 +88,7 @@ public class SearchPredicate implements HighlightPredicate {
      */
     public SearchPredicate(Pattern pattern, int row, int column) {
         this.pattern = pattern;
+        this.literalMatcher = LiteralMatcher.forPattern(pattern);
         this.highlightColumn = column;
         this.highlightRow = row;
     }
@@ -174,6 +178,17 @@ public class SearchPredicate implements HighlightPredicate {
         return false;
     }
 
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return {@link CostHint#EXPENSIVE}: matching requires the
+     * string representation of the cell.
+     */
+    @Override
+    public int getCost() {
+        return EXPENSIVE;
+    }
+
     /**
      * Test the value. This is called only if the 
      * pre-check returned true, because accessing the 
@@ -191,6 +206,9 @@ public class SearchPredicate implements HighlightPredicate {
          if ((value == null) || (value.length() == 0)) {
              return false;
          }
+         if (literalMatcher != null) {
+             return literalMatcher.matches(value);
+         }
          return pattern.matcher(value).find();
      }
 
@@ -31,6 +31,15 @@ import java.awt.Component;
  */
 public class ShadingColorHighlighter extends ColorHighlighter {
 
+    /** lookup table of darkened color components. */
+    private static final int[] SHADES = new int[256];
+    
+    static {
+        for (int i = 0; i < SHADES.length; i++) {
+            SHADES[i] = (int) (i * 0.95);
+        }
+    }
+
     /**
      * Instantiates a Highlighter with null colors using the default 
      * HighlightPredicate.
@@ -77,10 +86,18 @@ public class ShadingColorHighlighter extends ColorHighlighter {
         }
     }
 
+    /**
+     * Returns the darkened color of the given seed. The result is 
+     * looked up in a table, the returned color is interned.
+     * 
+     * @param seed the color to darken
+     * @return the darkened, opaque color
+     * @see ColorCache
+     */
     protected Color computeBackgroundSeed(Color seed) {
-        return new Color(Math.max((int) (seed.getRed() * 0.95), 0), Math.max(
-                (int) (seed.getGreen() * 0.95), 0), Math.max((int) (seed
-                .getBlue() * 0.95), 0));
+        int rgb = seed.getRGB();
+        return ColorCache.getColor(SHADES[(rgb >> 16) & 0xff], 
+                SHADES[(rgb >> 8) & 0xff], SHADES[rgb & 0xff]);
     }
 
 }
@@ -469,16 +469,16 @@ public class SearchFieldUI extends BuddyTextFieldUI {
         /**
          * Called when the search text changes. Calls
          * {@link JXSearchField#postActionEvent()} In instant search mode or
-         * starts the search field instant search timer if the instant search
-         * delay is greater 0.
+         * starts the search field instant search timer if the current instant
+         * search delay is greater 0.
          */
         private void update() {
             if (searchField.isInstantSearchMode()) {
                 searchField.getInstantSearchTimer().stop();
+                int delay = searchField.getCurrentInstantSearchDelay();
                 // only use timer when delay greater 0.
-                if (searchField.getInstantSearchDelay() > 0) {
-                    searchField.getInstantSearchTimer().setInitialDelay(
-                            searchField.getInstantSearchDelay());
+                if (delay > 0) {
+                    searchField.getInstantSearchTimer().setInitialDelay(delay);
                     searchField.getInstantSearchTimer().start();
                 } else {
                     searchField.postActionEvent();
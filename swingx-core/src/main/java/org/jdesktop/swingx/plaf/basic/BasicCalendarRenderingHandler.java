@@ -10,6 +10,7 @@ import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
 
 import javax.swing.JComponent;
 import javax.swing.JLabel;
@@ -174,15 +175,30 @@ class BasicCalendarRenderingHandler implements CalendarRenderingHandler {
         }
         FormatStringValue sv = new FormatStringValue(new SimpleDateFormat("d", locale)) {
 
+            /** 
+             * the converter for the time zone of the latest calendar, 
+             * its format is never changed. 
+             */
+            private FormatStringValue zoneValue;
+            
             @Override
             public String getString(Object value) {
                 if (value instanceof Calendar) {
-                    ((DateFormat) getFormat()).setTimeZone(((Calendar) value).getTimeZone());
-                    value = ((Calendar) value).getTime();
+                    Calendar calendar = (Calendar) value;
+                    return getZoneValue(calendar.getTimeZone()).getString(calendar.getTime());
                 }
                 return super.getString(value);
             }
 
+            private FormatStringValue getZoneValue(TimeZone timeZone) {
+                if ((zoneValue == null) || !timeZone.equals(
+                        ((DateFormat) zoneValue.getFormat()).getTimeZone())) {
+                    DateFormat zoneFormat = (DateFormat) getFormat().clone();
+                    zoneFormat.setTimeZone(timeZone);
+                    zoneValue = new FormatStringValue(zoneFormat, true);
+                }
+                return zoneValue;
+            }
         };
         return sv;
     }
@@ -3102,6 +3102,44 @@ public class BasicXListUI  extends BasicListUI
 
     private static final TransferHandler defaultTransferHandler = new ListTransferHandler();
 
+    /**
+     * The transferable of selected list values, the values are converted
+     * to text lazily.
+     */
+    static class ListTransferable extends LazyTransferable {
+        private final Object[] values;
+
+        ListTransferable(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        protected int getRowCount() {
+            return values.length;
+        }
+
+        @Override
+        protected String getPlainRow(int row) {
+            Object obj = values[row];
+            return (obj == null) ? "" : obj.toString();
+        }
+
+        @Override
+        protected String getHTMLRow(int row) {
+            return "  <li>" + getPlainRow(row) + "\n";
+        }
+
+        @Override
+        protected String getHTMLPrefix() {
+            return "<html>\n<body>\n<ul>\n";
+        }
+
+        @Override
+        protected String getHTMLSuffix() {
+            return "</ul>\n</body>\n</html>";
+        }
+    }
+
     static class ListTransferHandler extends TransferHandler implements UIResource {
 
         /**
@@ -3121,24 +3159,8 @@ public class BasicXListUI  extends BasicListUI
                 if (values == null || values.length == 0) {
                     return null;
                 }
-                
-                StringBuffer plainBuf = new StringBuffer();
-                StringBuffer htmlBuf = new StringBuffer();
-                
-                htmlBuf.append("<html>\n<body>\n<ul>\n");
-
-                for (int i = 0; i < values.length; i++) {
-                    Object obj = values[i];
-                    String val = ((obj == null) ? "" : obj.toString());
-                    plainBuf.append(val + "\n");
-                    htmlBuf.append("  <li>" + val + "\n");
-                }
-                
-                // remove the last newline
-                plainBuf.deleteCharAt(plainBuf.length() - 1);
-                htmlBuf.append("</ul>\n</body>\n</html>");
-                
-                return new BasicTransferable(plainBuf.toString(), htmlBuf.toString());
+                // the text is built only if requested, row by row
+                return new ListTransferable(values);
             }
 
             return null;
@@ -0,0 +1,293 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.plaf.basic.core;
+
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * A transferable which generates its plain and html content only when
+ * a flavor is actually requested, row by row. <p>
+ * 
+ * The content is defined by a number of rows and the text of each row, 
+ * the html rows are wrapped into a prefix and suffix, the plain rows are 
+ * separated by newlines. The <code>String</code> flavors materialize the
+ * complete text once, on first request. The <code>Reader</code> and 
+ * <code>InputStream</code> flavors stream the rows, so only one row is 
+ * held in memory at any time. <p>
+ * 
+ * Subclasses are responsible to snapshot whatever they need to produce
+ * the rows at creation time, the rows might be requested much later and 
+ * on any thread.
+ */
+public abstract class LazyTransferable extends BasicTransferable {
+
+    /**
+     * Instantiates a transferable which supports plain and html flavors.
+     */
+    public LazyTransferable() {
+        super(null, null);
+    }
+    
+    /**
+     * Returns the number of rows to transfer.
+     * 
+     * @return the number of rows
+     */
+    protected abstract int getRowCount();
+    
+    /**
+     * Returns the plain text of the given row, without separator.
+     * 
+     * @param row the index of the row
+     * @return the plain text of the row
+     */
+    protected abstract String getPlainRow(int row);
+    
+    /**
+     * Returns the html text of the given row, including any line break.
+     * 
+     * @param row the index of the row
+     * @return the html text of the row
+     */
+    protected abstract String getHTMLRow(int row);
+    
+    /**
+     * Returns the html text before the first row. This implementation 
+     * returns an empty string.
+     * 
+     * @return the html text before the rows
+     */
+    protected String getHTMLPrefix() {
+        return "";
+    }
+    
+    /**
+     * Returns the html text after the last row. This implementation 
+     * returns an empty string.
+     * 
+     * @return the html text after the rows
+     */
+    protected String getHTMLSuffix() {
+        return "";
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return true.
+     */
+    @Override
+    protected boolean isPlainSupported() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return true.
+     */
+    @Override
+    protected boolean isHTMLSupported() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to build the complete text on first access.
+     */
+    @Override
+    protected synchronized String getPlainData() {
+        if (plainData == null) {
+            plainData = readFully(new RowReader(false));
+        }
+        return plainData;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to build the complete text on first access.
+     */
+    @Override
+    protected synchronized String getHTMLData() {
+        if (htmlData == null) {
+            htmlData = readFully(new RowReader(true));
+        }
+        return htmlData;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to stream the rows for the <code>Reader</code> and 
+     * <code>InputStream</code> flavors of plain text and html.
+     */
+    @Override
+    public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException,
+            IOException {
+        if (!isRicherFlavor(flavor)) {
+            boolean html = isHTMLFlavor(flavor);
+            if (html || isPlainFlavor(flavor)) {
+                if (Reader.class.equals(flavor.getRepresentationClass())) {
+                    return new RowReader(html);
+                } else if (InputStream.class.equals(flavor.getRepresentationClass())) {
+                    return new UnicodeInputStream(new RowReader(html));
+                }
+            }
+        }
+        return super.getTransferData(flavor);
+    }
+
+    private static String readFully(Reader reader) {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[4096];
+        try {
+            int count;
+            while ((count = reader.read(buffer, 0, buffer.length)) >= 0) {
+                builder.append(buffer, 0, count);
+            }
+        } catch (IOException e) {
+            // can't happen, the rows are generated
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * A Reader which requests the rows one after the other.
+     */
+    private class RowReader extends Reader {
+        private final boolean html;
+        private final int rowCount;
+        /** the index of the next part: -1 is the prefix, rowCount the suffix. */
+        private int next;
+        private String current = "";
+        private int position;
+        
+        RowReader(boolean html) {
+            this.html = html;
+            this.rowCount = getRowCount();
+            this.next = html ? -1 : 0;
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            while (position >= current.length()) {
+                if (!advance()) return -1;
+            }
+            int count = Math.min(length, current.length() - position);
+            current.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        /**
+         * Moves to the next part, returns false if there is none.
+         */
+        private boolean advance() {
+            position = 0;
+            if (html) {
+                if (next > rowCount) return false;
+                current = next < 0 ? getHTMLPrefix() 
+                        : (next == rowCount ? getHTMLSuffix() : getHTMLRow(next));
+            } else {
+                if (next >= rowCount) return false;
+                String row = getPlainRow(next);
+                current = next < rowCount - 1 ? row + "\n" : row;
+            }
+            if (current == null) {
+                current = "";
+            }
+            next++;
+            return true;
+        }
+        
+        @Override
+        public void close() {
+            next = Integer.MAX_VALUE;
+            current = "";
+        }
+    }
+    
+    /**
+     * An InputStream which encodes the characters of a Reader in charset 
+     * "unicode", that is UTF-16 big endian with a byte order mark.
+     */
+    private static class UnicodeInputStream extends InputStream {
+        private final Reader reader;
+        private final char[] chars = new char[1024];
+        private int count;
+        private int position;
+        /** the pending low byte, or -1. */
+        private int low = -1;
+        
+        UnicodeInputStream(Reader reader) {
+            this.reader = reader;
+            // byte order mark
+            chars[0] = '\uFEFF';
+            count = 1;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if (low >= 0) {
+                int b = low;
+                low = -1;
+                return b;
+            }
+            if (position >= count) {
+                count = reader.read(chars, 0, chars.length);
+                position = 0;
+                if (count < 0) {
+                    count = 0;
+                    return -1;
+                }
+            }
+            char c = chars[position++];
+            low = c & 0xFF;
+            return c >> 8;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            int read = 0;
+            while (read < length) {
+                if ((low < 0) && (position >= count) && (read > 0)) break;
+                int b = read();
+                if (b < 0) break;
+                buffer[offset + read++] = (byte) b;
+            }
+            return read > 0 ? read : -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -20,7 +20,16 @@
  */
 package org.jdesktop.swingx.renderer;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DateFormat;
+import java.text.DecimalFormat;
 import java.text.Format;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import javax.swing.SwingUtilities;
 
 /**
  * Base type for <code>Format</code>-backed <code>StringValue</code>. Has
@@ -40,15 +49,40 @@ import java.text.Format;
  * </code></pre>
  * 
  * 
+ * If the memoizing property is true, the formatted strings are memoized in a 
+ * small bounded cache, for values of immutable types (boxed numbers, 
+ * BigDecimal/-Integer and String) and <code>Date</code>s, keyed by their
+ * time. The cache is cleared when the format is replaced or its pattern or
+ * time zone is changed. As the format can't be observed, client code which
+ * changes other state of the format must call <code>clearCache</code>. <p>
+ * 
+ * <code>Format</code>s are not thread-safe: off the EDT, the values are
+ * formatted with a per-thread copy of the format, so the same instance can
+ * be used f.i. for sorting or searching in a background thread. The copy is 
+ * re-created under the same conditions as the memoized strings.
+ * <p>
+ * 
  * PENDING: need to update on Locale change? How to detect? When?
  * 
  * @author Jeanette Winzenburg
  */
 public class FormatStringValue implements StringValue {
 
+    /** the maximum number of memoized strings, must be a power of two. */
+    private static final int CACHE_SIZE = 256;
+    
     /** the format used in creating the String representation. */
     protected Format format;
 
+    /** a flag indicating whether or not the formatted strings are memoized. */
+    private boolean memoizing;
+    
+    /** the memoized strings of the current format, lazily created. */
+    private transient volatile FormatCache cache;
+    
+    /** per-thread copies of the format for use off the EDT. */
+    private transient ThreadLocal<FormatCopy> threadFormats;
+
     /**
      * Instantiates a formatted converter with null format.
      *
@@ -63,7 +97,20 @@ public class FormatStringValue implements StringValue {
      * @param format the format to use in creating the String representation.
      */
     public FormatStringValue(Format format) {
-       this.format = format; 
+       this(format, false); 
+    }
+    
+    /**
+     * Instantiates a formatted converter with the given Format and 
+     * memoizing property.
+     * 
+     * @param format the format to use in creating the String representation.
+     * @param memoizing true if the formatted strings should be memoized.
+     * @see #setMemoizing(boolean)
+     */
+    public FormatStringValue(Format format, boolean memoizing) {
+        this.format = format;
+        this.memoizing = memoizing;
     }
     
     /**
@@ -75,14 +122,48 @@ public class FormatStringValue implements StringValue {
     }
     
     /**
-     * {@inheritDoc}
+     * Returns a boolean indicating whether the formatted strings are
+     * memoized.
+     * 
+     * @return true if the formatted strings are memoized.
+     * @see #setMemoizing(boolean)
+     */
+    public boolean isMemoizing() {
+        return memoizing;
+    }
+    
+    /**
+     * Sets whether or not the formatted strings should be memoized. This
+     * should be true only if the format's output depends on nothing but 
+     * its pattern and time zone, or the client code calls clearCache 
+     * after changing other state of the format. The default is false.
+     * 
+     * @param memoizing true if the formatted strings should be memoized.
+     */
+    public void setMemoizing(boolean memoizing) {
+        this.memoizing = memoizing;
+        cache = null;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the memoized string, if available. 
      */
     @Override
     public String getString(Object value) {
         if (value == null) return "";
-        if (format != null) {
+        Format current = format;
+        if (current != null) {
+            FormatCache formatCache = isMemoizing() ? getCache(current) : null;
+            String text = formatCache != null ? formatCache.get(value) : null;
+            if (text != null) return text;
             try {
-                return format.format(value);
+                text = getThreadFormat(current).format(value);
+                if (formatCache != null) {
+                    formatCache.put(value, text);
+                }
+                return text;
             } catch (IllegalArgumentException e) {
                 // didn't work, nothing we can do
             }
@@ -90,4 +171,170 @@ public class FormatStringValue implements StringValue {
         return value.toString();
     }
 
+    /**
+     * Clears the memoized strings and per-thread copies of the format. Must 
+     * be called after changing state of the format other than its pattern
+     * or time zone.
+     */
+    public void clearCache() {
+        cache = null;
+        threadFormats = null;
+    }
+    
+    /**
+     * Returns the cache of memoized strings for the given format, 
+     * a new cache if the format is replaced or changed.
+     */
+    private FormatCache getCache(Format current) {
+        FormatCache formatCache = cache;
+        if ((formatCache == null) || !formatCache.matches(current)) {
+            formatCache = new FormatCache(current);
+            cache = formatCache;
+        }
+        return formatCache;
+    }
+    
+    /**
+     * Returns the format to use in the current thread: the format itself on
+     * the EDT, a per-thread copy otherwise.
+     * 
+     * @param current the format to use
+     * @return a format which is safe to use in the current thread
+     */
+    private Format getThreadFormat(Format current) {
+        if (SwingUtilities.isEventDispatchThread()) return current;
+        ThreadLocal<FormatCopy> local = threadFormats;
+        if (local == null) {
+            local = new ThreadLocal<FormatCopy>();
+            threadFormats = local;
+        }
+        FormatCopy copy = local.get();
+        if ((copy == null) || !copy.matches(current)) {
+            copy = new FormatCopy(current);
+            local.set(copy);
+        }
+        return copy.copy;
+    }
+    
+    /**
+     * The state of a format which can be compared without listening: the
+     * instance, and the pattern and time zone where applicable.
+     */
+    private static class FormatState {
+        
+        private final Format format;
+        private final String pattern;
+        private final TimeZone timeZone;
+        
+        FormatState(Format format) {
+            this.format = format;
+            this.pattern = getPattern(format);
+            this.timeZone = getTimeZone(format);
+        }
+        
+        /**
+         * Returns a boolean indicating whether the given format is the same
+         * instance in the same state.
+         */
+        boolean matches(Format other) {
+            return (format == other) && isEqual(pattern, getPattern(other))
+                && isEqual(timeZone, getTimeZone(other));
+        }
+        
+        private static String getPattern(Format format) {
+            if (format instanceof SimpleDateFormat) {
+                return ((SimpleDateFormat) format).toPattern();
+            }
+            if (format instanceof DecimalFormat) {
+                return ((DecimalFormat) format).toPattern();
+            }
+            return null;
+        }
+        
+        private static TimeZone getTimeZone(Format format) {
+            return format instanceof DateFormat ? ((DateFormat) format).getTimeZone() : null;
+        }
+        
+        private static boolean isEqual(Object first, Object second) {
+            return (first == second) || ((first != null) && first.equals(second));
+        }
+    }
+    
+    /**
+     * Copy of a format for use in one thread.
+     */
+    private static final class FormatCopy extends FormatState {
+        
+        final Format copy;
+        
+        FormatCopy(Format format) {
+            super(format);
+            this.copy = (Format) format.clone();
+        }
+    }
+    
+    /**
+     * Direct-mapped cache of formatted strings. Entries are immutable, so
+     * the cache can be used from any thread.
+     */
+    private static final class FormatCache extends FormatState {
+        
+        private final Entry[] entries = new Entry[CACHE_SIZE];
+        
+        FormatCache(Format format) {
+            super(format);
+        }
+        
+        String get(Object value) {
+            if (!isCacheable(value)) return null;
+            Entry entry = entries[index(value)];
+            return (entry != null) && entry.matches(value) ? entry.text : null;
+        }
+        
+        void put(Object value, String text) {
+            if (!isCacheable(value)) return;
+            entries[index(value)] = new Entry(value, text);
+        }
+        
+        private static int index(Object value) {
+            int h = value.hashCode() * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+        }
+        
+        /**
+         * Returns a boolean indicating whether the value can be used as key.
+         */
+        private static boolean isCacheable(Object value) {
+            Class<?> type = value.getClass();
+            return (type == Date.class) || (type == String.class) 
+                || (type == Integer.class) || (type == Long.class) 
+                || (type == Double.class) || (type == Float.class) 
+                || (type == Short.class) || (type == Byte.class)
+                || (type == BigDecimal.class) || (type == BigInteger.class);
+        }
+    }
+    
+    /**
+     * Memoized string of a value. Dates are mutable, they are keyed by time.
+     */
+    private static final class Entry {
+        
+        private final Object key;
+        private final long time;
+        final String text;
+        
+        Entry(Object value, String text) {
+            this.key = value instanceof Date ? null : value;
+            this.time = value instanceof Date ? ((Date) value).getTime() : 0;
+            this.text = text;
+        }
+        
+        boolean matches(Object value) {
+            if (value instanceof Date) {
+                return (key == null) && (time == ((Date) value).getTime());
+            }
+            return (key != null) && (key.getClass() == value.getClass()) && key.equals(value);
+        }
+    }
+
 }
@@ -0,0 +1,396 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.renderer;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.font.TextLayout;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.Icon;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.plaf.LabelUI;
+import javax.swing.plaf.basic.BasicHTML;
+import javax.swing.plaf.basic.BasicLabelUI;
+import javax.swing.plaf.metal.MetalLabelUI;
+
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * A bounded cache of shaped text, keyed by the text, the <code>Font</code> 
+ * and the <code>FontRenderContext</code>. Intended to be shared by rendering
+ * components which paint the same short texts over and over again, f.i. 
+ * the cells of a column with a limited set of values: the glyphs are 
+ * laid out once and then drawn from the cache. <p>
+ * 
+ * Entries are evicted in least-recently-used order if the cache exceeds 
+ * its maximum size. <p>
+ * 
+ * Besides the plain lookup, the cache can paint the content of simple 
+ * <code>JLabel</code>s - single line, plain text, enabled, no mnemonic and
+ * a plain basic or metal ui-delegate - at the same location and with the 
+ * same text rendering hints as the ui-delegate would do. <p>
+ * 
+ * The methods of this class are thread-safe. 
+ * 
+ * @see JRendererLabel#setGlyphCacheEnabled(boolean)
+ * @see org.jdesktop.swingx.JXLabel#setGlyphCacheEnabled(boolean)
+ */
+public final class GlyphLayoutCache {
+
+    /** the default maximum number of layouts in the cache. */
+    public static final int DEFAULT_MAX_SIZE = 512;
+    
+    private static GlyphLayoutCache sharedInstance;
+    
+    private final Map<Key, GlyphLayout> layouts;
+    
+    /**
+     * Returns the cache shared by the rendering components.
+     * 
+     * @return the shared cache
+     */
+    public static synchronized GlyphLayoutCache getInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new GlyphLayoutCache(DEFAULT_MAX_SIZE);
+        }
+        return sharedInstance;
+    }
+    
+    /**
+     * Instantiates a cache with the given maximum size.
+     * 
+     * @param maxSize the maximum number of layouts kept in the cache
+     * @throws IllegalArgumentException if the maxSize is not positive
+     */
+    public GlyphLayoutCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("size must be positive " + maxSize);
+        }
+        layouts = new LinkedHashMap<Key, GlyphLayout>(64, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, GlyphLayout> eldest) {
+                return size() > maxSize;
+            }
+            
+        };
+    }
+    
+    /**
+     * Returns the layout of the text in the given font and render context,
+     * creates and caches it if not yet available.
+     * 
+     * @param text the text to lay out
+     * @param font the font to use
+     * @param frc the render context of the target graphics
+     * @return the layout of the text, never null
+     * @throws NullPointerException if any of the parameters is null
+     */
+    public GlyphLayout getLayout(String text, Font font, FontRenderContext frc) {
+        Key key = new Key(Contract.asNotNull(text, "text must not be null"), 
+                Contract.asNotNull(font, "font must not be null"), 
+                Contract.asNotNull(frc, "render context must not be null"));
+        synchronized (this) {
+            GlyphLayout layout = layouts.get(key);
+            if (layout != null) return layout;
+        }
+        // shape outside of the lock, a concurrent duplicate is harmless
+        GlyphLayout layout = new GlyphLayout(text, font, frc);
+        synchronized (this) {
+            layouts.put(key, layout);
+        }
+        return layout;
+    }
+    
+    /**
+     * Returns the number of layouts currently in the cache.
+     * 
+     * @return the number of cached layouts
+     */
+    public synchronized int size() {
+        return layouts.size();
+    }
+    
+    /**
+     * Removes all layouts from the cache.
+     */
+    public synchronized void clear() {
+        layouts.clear();
+    }
+    
+    /**
+     * Paints the content of the label, that is the background if opaque, the 
+     * icon and the text, if the label is simple enough to be painted from the 
+     * cache. Does nothing and returns false otherwise. The text is placed 
+     * by <code>SwingUtilities.layoutCompoundLabel</code>, as the basic 
+     * ui-delegate does.
+     * 
+     * @param label the label to paint
+     * @param g the graphics to paint on
+     * @return true if the label is painted, false if it must be painted by 
+     *   its ui-delegate
+     */
+    public boolean paintLabel(JLabel label, Graphics g) {
+        if (!isCacheable(label) || !(g instanceof Graphics2D)) return false;
+        Font font = label.getFont();
+        if (label.isOpaque()) {
+            g.setColor(label.getBackground());
+            g.fillRect(0, 0, label.getWidth(), label.getHeight());
+        }
+        Insets insets = label.getInsets();
+        Rectangle viewR = new Rectangle(insets.left, insets.top, 
+                label.getWidth() - (insets.left + insets.right),
+                label.getHeight() - (insets.top + insets.bottom));
+        Rectangle iconR = new Rectangle();
+        Rectangle textR = new Rectangle();
+        FontMetrics metrics = label.getFontMetrics(font);
+        Icon icon = label.getIcon();
+        String clipped = SwingUtilities.layoutCompoundLabel(label, metrics, label.getText(), 
+                icon, label.getVerticalAlignment(), label.getHorizontalAlignment(), 
+                label.getVerticalTextPosition(), label.getHorizontalTextPosition(), 
+                viewR, iconR, textR, label.getIconTextGap());
+        if (icon != null) {
+            icon.paintIcon(label, g, iconR.x, iconR.y);
+        }
+        if (clipped.length() == 0) return true;
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            applyTextHints(label, g2);
+            g2.setFont(font);
+            g2.setColor(label.getForeground());
+            getLayout(clipped, font, g2.getFontRenderContext())
+                .draw(g2, textR.x, textR.y + metrics.getAscent());
+        } finally {
+            g2.dispose();
+        }
+        return true;
+    }
+
+    /**
+     * Returns a boolean indicating whether the label's content can be painted
+     * from the cache.
+     * 
+     * @param label the label to check
+     * @return true if the label has single line plain text and a 
+     *   <code>BasicLabelUI</code> or <code>MetalLabelUI</code> - not a 
+     *   subclass which might paint the text differently - , false otherwise
+     */
+    public static boolean isCacheable(JLabel label) {
+        String text = label.getText();
+        if ((text == null) || (text.length() == 0) || (label.getFont() == null)) return false;
+        if (!label.isEnabled() || (label.getDisplayedMnemonicIndex() >= 0)) return false;
+        if (label.getClientProperty(BasicHTML.propertyKey) != null) return false;
+        LabelUI ui = label.getUI();
+        return (ui != null) && ((ui.getClass() == BasicLabelUI.class) 
+                || (ui.getClass() == MetalLabelUI.class));
+    }
+    
+    /**
+     * Sets the text rendering hints of the given component to the graphics, 
+     * as the ui-delegates do when drawing text: the antialiasing and lcd
+     * contrast installed by the LAF, either as client properties or reflected 
+     * in the render context of the component's font metrics. Leaves the 
+     * graphics unchanged if the component has no antialiasing.
+     * 
+     * @param c the component to draw the text of, its font must not be null
+     * @param g the graphics to configure
+     */
+    static void applyTextHints(JComponent c, Graphics2D g) {
+        Object aaHint = c.getClientProperty(RenderingHints.KEY_TEXT_ANTIALIASING);
+        if (aaHint == null) {
+            FontRenderContext frc = c.getFontMetrics(c.getFont()).getFontRenderContext();
+            if (frc.isAntiAliased()) {
+                aaHint = frc.getAntiAliasingHint();
+            }
+        }
+        if (aaHint == null) return;
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, aaHint);
+        Object contrast = c.getClientProperty(RenderingHints.KEY_TEXT_LCD_CONTRAST);
+        if (contrast != null) {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_LCD_CONTRAST, contrast);
+        }
+    }
+    
+    /**
+     * Returns a boolean indicating whether the text contains characters which
+     * need a full layout: bidi, complex scripts, combining marks or 
+     * supplementary characters.
+     * 
+     * @param text the text to check
+     * @return true if the text can't be drawn with a simple GlyphVector
+     */
+    public static boolean requiresLayout(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            // below the combining diacritical marks
+            if (c < '\u0300') continue;
+            if (((c >= '\u0590') && (c <= '\u1FFF')) 
+                    || ((c >= '\u200C') && (c <= '\u206F'))
+                    || ((c >= '\uFB1D') && (c <= '\uFEFF'))
+                    || Character.isHighSurrogate(c) || Character.isLowSurrogate(c)
+                    || isCombiningMark(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a boolean indicating whether the char is a mark which combines
+     * with the preceding character.
+     * 
+     * @param c the char to check
+     * @return true if the char is a combining mark
+     */
+    private static boolean isCombiningMark(char c) {
+        int type = Character.getType(c);
+        return (type == Character.NON_SPACING_MARK) 
+                || (type == Character.ENCLOSING_MARK)
+                || (type == Character.COMBINING_SPACING_MARK);
+    }
+
+    /**
+     * The shaped glyphs of one text. Uses a <code>GlyphVector</code> if 
+     * possible and falls back to a <code>TextLayout</code> for text which 
+     * requires complex layout.
+     */
+    public static final class GlyphLayout {
+        private final String text;
+        private final GlyphVector glyphs;
+        private final TextLayout layout;
+        private final float advance;
+        private final float ascent;
+        private final float descent;
+        
+        GlyphLayout(String text, Font font, FontRenderContext frc) {
+            this.text = text;
+            if (requiresLayout(text)) {
+                layout = new TextLayout(text, font, frc);
+                glyphs = null;
+                advance = layout.getAdvance();
+                ascent = layout.getAscent();
+                descent = layout.getDescent();
+            } else {
+                layout = null;
+                glyphs = font.createGlyphVector(frc, text);
+                advance = (float) glyphs.getLogicalBounds().getWidth();
+                LineMetrics metrics = font.getLineMetrics(text, frc);
+                ascent = metrics.getAscent();
+                descent = metrics.getDescent();
+            }
+        }
+        
+        /**
+         * Returns the text of this layout.
+         * 
+         * @return the text
+         */
+        public String getText() {
+            return text;
+        }
+        
+        /**
+         * Returns the advance of the text.
+         * 
+         * @return the advance of the text
+         */
+        public float getAdvance() {
+            return advance;
+        }
+        
+        /**
+         * Returns the ascent of the text.
+         * 
+         * @return the ascent of the text
+         */
+        public float getAscent() {
+            return ascent;
+        }
+        
+        /**
+         * Returns the descent of the text.
+         * 
+         * @return the descent of the text
+         */
+        public float getDescent() {
+            return descent;
+        }
+        
+        /**
+         * Draws the text with the graphics' current color, the baseline 
+         * at the given location. 
+         * 
+         * @param g the graphics to draw on
+         * @param x the x coordinate of the text's origin
+         * @param y the y coordinate of the baseline
+         */
+        public void draw(Graphics2D g, float x, float y) {
+            if (glyphs != null) {
+                g.drawGlyphVector(glyphs, x, y);
+            } else {
+                layout.draw(g, x, y);
+            }
+        }
+    }
+    
+    /**
+     * The compound key of text, font and render context.
+     */
+    private static final class Key {
+        private final String text;
+        private final Font font;
+        private final FontRenderContext frc;
+        private final int hash;
+        
+        Key(String text, Font font, FontRenderContext frc) {
+            this.text = text;
+            this.font = font;
+            this.frc = frc;
+            this.hash = (text.hashCode() * 31 + font.hashCode()) * 31 + frc.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return (hash == other.hash) && text.equals(other.text) 
+                && font.equals(other.font) && frc.equals(other.frc);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.renderer;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.CellRendererPane;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+/**
+ * A bounded cache of Icons, keyed by an arbitrary key object and a target
+ * size. Intended to be shared by <code>IconValue</code>s which load or derive 
+ * icons, to not repeat the work for every cell on every paint. <p>
+ * 
+ * The key is compared by equality: it might be the value itself, if
+ * it is immutable, or a type the icon depends on. Entries are evicted in 
+ * least-recently-used order if the cache exceeds its maximum size. <p>
+ * 
+ * Scaled variants of image-based icons are created in a background thread.
+ * Until it is ready, a placeholder of the target size is returned. When
+ * the scaled icon is available, the components which painted the
+ * placeholder are repainted. <p>
+ * 
+ * The methods of this class are thread-safe. 
+ * 
+ * @see IconValues#cached(IconValue)
+ * @see IconValues#scaled(IconValue, int, int)
+ */
+public final class IconCache {
+
+    /** the default maximum number of icons in the cache. */
+    public static final int DEFAULT_MAX_SIZE = 512;
+    
+    private static IconCache sharedInstance;
+    
+    /** the executor for background scaling, lazily created. */
+    private static Executor executor;
+    
+    private final Map<Key, Icon> icons;
+    private final Map<Key, PendingIcon> pending = new LinkedHashMap<Key, PendingIcon>();
+    
+    private Icon placeholder;
+    
+    /**
+     * Returns the cache shared by the IconValues of this package. It is
+     * cleared on every change of the LookAndFeel, as the icons (f.i. the
+     * system icons of files) may depend on it.
+     * 
+     * @return the shared cache
+     */
+    public static synchronized IconCache getInstance() {
+        if (sharedInstance == null) {
+            sharedInstance = new IconCache(DEFAULT_MAX_SIZE);
+            UIManager.addPropertyChangeListener(new PropertyChangeListener() {
+                
+                @Override
+                public void propertyChange(PropertyChangeEvent evt) {
+                    if ("lookAndFeel".equals(evt.getPropertyName())) {
+                        getInstance().clear();
+                    }
+                }
+            });
+        }
+        return sharedInstance;
+    }
+    
+    /**
+     * Instantiates a cache with the given maximum size.
+     * 
+     * @param maxSize the maximum number of icons kept in the cache
+     * @throws IllegalArgumentException if the maxSize is not positive
+     */
+    public IconCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("size must be positive " + maxSize);
+        }
+        icons = new LinkedHashMap<Key, Icon>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Icon> eldest) {
+                return size() > maxSize;
+            }
+            
+        };
+    }
+    
+    /**
+     * Returns the cached icon for the given key and size. This is the 
+     * placeholder if a scaled icon is still pending.
+     * 
+     * @param key the key of the icon
+     * @param width the target width, or -1 for the original size
+     * @param height the target height, or -1 for the original size
+     * @return the cached icon or null if none
+     */
+    public synchronized Icon getIcon(Object key, int width, int height) {
+        Key lookup = new Key(key, width, height);
+        Icon icon = icons.get(lookup);
+        return icon != null ? icon : pending.get(lookup);
+    }
+    
+    /**
+     * Puts the icon for the given key and size into the cache.
+     * 
+     * @param key the key of the icon
+     * @param width the target width, or -1 for the original size
+     * @param height the target height, or -1 for the original size
+     * @param icon the icon to cache, a null value removes the entry
+     */
+    public synchronized void putIcon(Object key, int width, int height, Icon icon) {
+        Key k = new Key(key, width, height);
+        if (icon == null) {
+            icons.remove(k);
+        } else {
+            icons.put(k, icon);
+        }
+    }
+    
+    /**
+     * Returns a variant of the source icon which fits into the given size,
+     * preserving its aspect ratio. Image-based icons are scaled in a 
+     * background thread: a placeholder is returned until the scaled icon 
+     * is ready. Other icons are scaled in the calling thread. The result is 
+     * cached under the given key.
+     * 
+     * @param key the key of the icon
+     * @param source the icon to scale, may be null
+     * @param width the target width
+     * @param height the target height
+     * @return the cached icon of the given key and size, the scaled source 
+     *   icon or a placeholder; null if the source is null.
+     */
+    public Icon getScaledIcon(Object key, Icon source, int width, int height) {
+        Icon cached = getIcon(key, width, height);
+        if ((cached != null) || (source == null)) return cached;
+        final Key k = new Key(key, width, height);
+        final int scaledWidth = getScaledSize(source.getIconWidth(), source.getIconHeight(), width, height, true);
+        final int scaledHeight = getScaledSize(source.getIconWidth(), source.getIconHeight(), width, height, false);
+        if ((source == IconValue.NULL_ICON) || (scaledWidth <= 0) || (scaledHeight <= 0)
+                || ((scaledWidth == source.getIconWidth()) && (scaledHeight == source.getIconHeight()))) {
+            putIcon(key, width, height, source);
+            return source;
+        }
+        if (!(source instanceof ImageIcon)) {
+            Icon scaled = scale(source, scaledWidth, scaledHeight);
+            putIcon(key, width, height, scaled);
+            return scaled;
+        }
+        final ImageIcon imageIcon = (ImageIcon) source;
+        final PendingIcon pendingIcon;
+        synchronized (this) {
+            PendingIcon other = pending.get(k);
+            if (other != null) return other;
+            pendingIcon = new PendingIcon(scaledWidth, scaledHeight, placeholder);
+            pending.put(k, pendingIcon);
+        }
+        getExecutor().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                Icon scaled = imageIcon;
+                try {
+                    scaled = scale(imageIcon, scaledWidth, scaledHeight);
+                } finally {
+                    synchronized (IconCache.this) {
+                        // not cleared meanwhile 
+                        if (pending.remove(k) == pendingIcon) {
+                            icons.put(k, scaled);
+                        }
+                    }
+                    pendingIcon.ready();
+                }
+            }
+            
+        });
+        return pendingIcon;
+    }
+    
+    /**
+     * Removes all icons from the cache.
+     */
+    public synchronized void clear() {
+        icons.clear();
+        pending.clear();
+    }
+    
+    /**
+     * Returns the icon painted while a scaled icon is pending.
+     * 
+     * @return the placeholder, may be null
+     */
+    public synchronized Icon getPlaceholder() {
+        return placeholder;
+    }
+    
+    /**
+     * Sets the icon to paint while a scaled icon is pending. It is painted
+     * centered in the target size. 
+     * 
+     * @param placeholder the placeholder, may be null to paint nothing
+     */
+    public synchronized void setPlaceholder(Icon placeholder) {
+        this.placeholder = placeholder;
+    }
+    
+    /**
+     * Returns the scaled width or height of a source size to fit into the 
+     * target size, preserving the aspect ratio. 
+     */
+    private static int getScaledSize(int sourceWidth, int sourceHeight, 
+            int width, int height, boolean horizontal) {
+        if ((sourceWidth <= 0) || (sourceHeight <= 0)) return 0;
+        double factor = Math.min(width / (double) sourceWidth, height / (double) sourceHeight);
+        return (int) Math.round((horizontal ? sourceWidth : sourceHeight) * factor);
+    }
+    
+    /**
+     * Paints the icon into an image of the given size.
+     */
+    private static Icon scale(Icon source, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, 
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, 
+                    RenderingHints.VALUE_RENDER_QUALITY);
+            if (source instanceof ImageIcon) {
+                g.drawImage(((ImageIcon) source).getImage(), 0, 0, width, height, null);
+            } else {
+                g.scale(width / (double) source.getIconWidth(), 
+                        height / (double) source.getIconHeight());
+                source.paintIcon(null, g, 0, 0);
+            }
+        } finally {
+            g.dispose();
+        }
+        return new ImageIcon(image);
+    }
+    
+    private static synchronized Executor getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "IconCache");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+                
+            });
+        }
+        return executor;
+    }
+    
+    /**
+     * Placeholder for a pending scaled icon. Remembers the components 
+     * it is painted on, to repaint them when the icon is ready.
+     */
+    private static class PendingIcon implements Icon {
+        
+        private final int width;
+        private final int height;
+        private final Icon placeholder;
+        /** the components to repaint, accessed on the EDT only. */
+        private final Map<Component, Boolean> targets = new WeakHashMap<Component, Boolean>();
+        
+        PendingIcon(int width, int height, Icon placeholder) {
+            this.width = width;
+            this.height = height;
+            this.placeholder = placeholder;
+        }
+        
+        @Override
+        public int getIconWidth() {
+            return width;
+        }
+
+        @Override
+        public int getIconHeight() {
+            return height;
+        }
+
+        @Override
+        public void paintIcon(Component c, Graphics g, int x, int y) {
+            if (c != null) {
+                // renderers paint on behalf of the collection component
+                Component target = c;
+                if (c.getParent() instanceof CellRendererPane) {
+                    target = c.getParent().getParent();
+                }
+                if (target != null) {
+                    targets.put(target, Boolean.TRUE);
+                }
+            }
+            if (placeholder != null) {
+                placeholder.paintIcon(c, g, x + (width - placeholder.getIconWidth()) / 2, 
+                        y + (height - placeholder.getIconHeight()) / 2);
+            }
+        }
+        
+        /**
+         * Repaints the components the placeholder was painted on.
+         */
+        void ready() {
+            SwingUtilities.invokeLater(new Runnable() {
+
+                @Override
+                public void run() {
+                    for (Component target : targets.keySet()) {
+                        target.repaint();
+                    }
+                    targets.clear();
+                }
+                
+            });
+        }
+    }
+    
+    /**
+     * Key of cached icons.
+     */
+    private static final class Key {
+        private final Object key;
+        private final int width;
+        private final int height;
+        
+        Key(Object key, int width, int height) {
+            this.key = key;
+            this.width = width;
+            this.height = height;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return (width == other.width) && (height == other.height) 
+                && (key == null ? other.key == null : key.equals(other.key));
+        }
+        
+        @Override
+        public int hashCode() {
+            int result = key == null ? 0 : key.hashCode();
+            result = 31 * result + width;
+            return 31 * result + height;
+        }
+    }
+}
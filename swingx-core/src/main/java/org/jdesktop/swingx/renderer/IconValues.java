@@ -25,6 +25,8 @@ import java.io.File;
 import javax.swing.Icon;
 import javax.swing.filechooser.FileSystemView;
 
+import org.jdesktop.swingx.util.Contract;
+
 /**
  * A collection of common {@code IconValue} implementations.
  * 
@@ -64,7 +66,10 @@ public final class IconValues {
     /**
      * An {@code IconValue} that presents the current L&F icon for a given file.
      * If the value passed to {@code FILE_ICON} is not a {@link File}, this has
-     * the same effect as {@link IconValues#NONE}.
+     * the same effect as {@link IconValues#NONE}. <p>
+     * 
+     * Looking up system icons is expensive, consider to use it wrapped into
+     * {@link #cached(IconValue)}.
      */
     @SuppressWarnings("serial")
     public static final IconValue FILE_ICON = new IconValue() {
@@ -80,6 +85,103 @@ public final class IconValues {
         }
     };
     
+    /**
+     * Returns an {@code IconValue} which caches the icons of the given delegate
+     * in the shared {@link IconCache}, keyed by value. The delegate is queried
+     * only once per value, until the icon is evicted from the cache. <p>
+     * 
+     * Note: the values must be usable as keys, that is they must not 
+     * change their <code>equals</code> and <code>hashCode</code>.
+     * 
+     * @param delegate the {@code IconValue} to query for uncached icons
+     * @return an {@code IconValue} which caches the icons of the delegate
+     * @throws NullPointerException if the delegate is null
+     */
+    public static IconValue cached(IconValue delegate) {
+        return new CachedIconValue(delegate, -1, -1);
+    }
+    
+    /**
+     * Returns an {@code IconValue} which scales the icons of the given delegate
+     * to fit into the given size, preserving their aspect ratio. The scaled 
+     * icons are cached in the shared {@link IconCache}, keyed by value. 
+     * Image-based icons are scaled in the background, with a placeholder
+     * of the target size shown until ready.
+     * 
+     * @param delegate the {@code IconValue} to query for uncached icons
+     * @param width the width to fit the icons into
+     * @param height the height to fit the icons into
+     * @return an {@code IconValue} which caches scaled icons of the delegate
+     * @throws NullPointerException if the delegate is null
+     * @throws IllegalArgumentException if width or height is not positive
+     * @see IconCache#getScaledIcon(Object, Icon, int, int)
+     */
+    public static IconValue scaled(IconValue delegate, int width, int height) {
+        if ((width <= 0) || (height <= 0)) {
+            throw new IllegalArgumentException("size must be positive " + width + "/" + height);
+        }
+        return new CachedIconValue(delegate, width, height);
+    }
+    
+    /**
+     * IconValue which caches (and optionally scales) the icons of a 
+     * delegate in the shared IconCache.
+     */
+    @SuppressWarnings("serial")
+    private static class CachedIconValue implements IconValue {
+        
+        private final IconValue delegate;
+        private final int width;
+        private final int height;
+
+        CachedIconValue(IconValue delegate, int width, int height) {
+            this.delegate = Contract.asNotNull(delegate, "delegate must not be null");
+            this.width = width;
+            this.height = height;
+        }
+        
+        @Override
+        public Icon getIcon(Object value) {
+            if (value == null) return delegate.getIcon(value);
+            IconCache cache = IconCache.getInstance();
+            // the cache is shared, the value's icon depends on the delegate
+            CacheKey key = new CacheKey(delegate, value);
+            Icon icon = cache.getIcon(key, width, height);
+            if (icon != null) return icon;
+            icon = delegate.getIcon(value);
+            if (width < 0) {
+                cache.putIcon(key, width, height, icon);
+                return icon;
+            }
+            return cache.getScaledIcon(key, icon, width, height);
+        }
+    }
+    
+    /**
+     * Cache key of a value's icon as returned by a delegate.
+     */
+    private static final class CacheKey {
+        private final IconValue delegate;
+        private final Object value;
+        
+        CacheKey(IconValue delegate, Object value) {
+            this.delegate = delegate;
+            this.value = value;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) obj;
+            return (delegate == other.delegate) && value.equals(other.value);
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(delegate) + value.hashCode();
+        }
+    }
+    
     private IconValues() {
         // does nothing
     }
@@ -59,11 +59,18 @@ import org.jdesktop.swingx.painter.Painter;
  * please keep this performance consideration in mind.
  * <p>
  * 
+ * Optionally, plain single line text is painted from the shared 
+ * <code>GlyphLayoutCache</code>, if the ui-delegate allows, so repeated cell 
+ * texts are not laid out again on every paint.
+ * <p>
+ * 
  * @author Jeanette Winzenburg
  */
 public class JRendererLabel extends JLabel implements PainterAware, IconAware {
 
     protected Painter painter;
+    
+    private boolean glyphCacheEnabled;
 
     /**
      * 
@@ -97,6 +104,30 @@ public class JRendererLabel extends JLabel implements PainterAware, IconAware {
 ////        return super.isOpaque();
 //    }
 
+    /**
+     * Sets a flag which indicates whether plain text should be painted
+     * from the shared glyph layout cache. The default is false. <p>
+     * 
+     * If enabled, the cache is used if <code>GlyphLayoutCache.isCacheable(this)</code>,
+     * otherwise the ui-delegate paints as usual.
+     * 
+     * @param enabled the flag to use the glyph layout cache
+     * @see GlyphLayoutCache#paintLabel(JLabel, Graphics)
+     */
+    public void setGlyphCacheEnabled(boolean enabled) {
+        this.glyphCacheEnabled = enabled;
+    }
+    
+    /**
+     * Returns a flag which indicates whether plain text is painted
+     * from the shared glyph layout cache.
+     * 
+     * @return the flag to use the glyph layout cache
+     */
+    public boolean isGlyphCacheEnabled() {
+        return glyphCacheEnabled;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -134,10 +165,22 @@ public class JRendererLabel extends JLabel implements PainterAware, IconAware {
             } else {
                 // transparent apply the background painter before calling super
                 paintPainter(g);
-                super.paintComponent(g);
+                paintContent(g);
             }
         } else {
             // nothing to worry about - delegate to super
+            paintContent(g);
+        }
+    }
+
+    /**
+     * Paints the content from the glyph layout cache, if enabled and 
+     * possible, delegates to super otherwise.
+     * 
+     * @param g the graphics to paint on
+     */
+    private void paintContent(Graphics g) {
+        if (!isGlyphCacheEnabled() || !GlyphLayoutCache.getInstance().paintLabel(this, g)) {
             super.paintComponent(g);
         }
     }
@@ -0,0 +1,257 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.renderer;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Rectangle;
+
+import javax.swing.JComponent;
+import javax.swing.SwingConstants;
+import javax.swing.UIManager;
+
+import org.jdesktop.swingx.renderer.GlyphLayoutCache.GlyphLayout;
+
+/**
+ * A lightweight rendering component which draws a single line of text, 
+ * for dense grids of plain text cells, f.i. numbers. <p>
+ * 
+ * Compared to <code>JRendererLabel</code> it has no ui-delegate, no icon
+ * and no html support: it fills its background, if opaque, and draws the 
+ * text directly with a layout from the shared <code>GlyphLayoutCache</code> at the
+ * configured horizontal alignment, vertically centered. Text which doesn't
+ * fit is clipped, there is no ellipsis. Color, font and border properties
+ * are respected, so it can be decorated by the usual color and font 
+ * highlighters. <p>
+ * 
+ * Like <code>JRendererLabel</code> it overrides the <code>validate</code>, 
+ * <code>invalidate</code>, <code>revalidate</code>, <code>repaint</code>, 
+ * and <code>firePropertyChange</code> methods to be no-ops for performance 
+ * reasons.
+ * 
+ * @see TextStampProvider
+ * @see GlyphLayoutCache
+ * @see JRendererLabel
+ */
+public class JRendererTextStamp extends JComponent {
+
+    private String text = "";
+    private int horizontalAlignment = SwingConstants.LEADING;
+    
+    /**
+     * Instantiates an opaque stamp with empty text.
+     */
+    public JRendererTextStamp() {
+        setOpaque(true);
+    }
+
+    /**
+     * Returns the text to draw.
+     * 
+     * @return the text, never null
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Sets the text to draw.
+     * 
+     * @param text the text, null is treated as empty.
+     */
+    public void setText(String text) {
+        this.text = text != null ? text : "";
+    }
+
+    /**
+     * Returns the horizontal alignment of the text.
+     * 
+     * @return the horizontal alignment, one of the <code>SwingConstants</code> 
+     *   LEFT, CENTER, RIGHT, LEADING or TRAILING.
+     */
+    public int getHorizontalAlignment() {
+        return horizontalAlignment;
+    }
+
+    /**
+     * Sets the horizontal alignment of the text.
+     * 
+     * @param alignment the horizontal alignment, one of the 
+     *   <code>SwingConstants</code> LEFT, CENTER, RIGHT, LEADING or TRAILING.
+     */
+    public void setHorizontalAlignment(int alignment) {
+        this.horizontalAlignment = alignment;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to return the size of the text plus insets, if not
+     * set explicitly.
+     */
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) return super.getPreferredSize();
+        Insets insets = getInsets();
+        Font font = getFont();
+        if (font == null) return new Dimension(insets.left + insets.right, insets.top + insets.bottom);
+        FontMetrics metrics = getFontMetrics(font);
+        return new Dimension(metrics.stringWidth(text) + insets.left + insets.right,
+                metrics.getHeight() + insets.top + insets.bottom);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to fill the background, if opaque, and draw the text.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        Font font = getFont();
+        if ((text.length() == 0) || (font == null)) return;
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            GlyphLayoutCache.applyTextHints(this, g2);
+            GlyphLayout stamp = GlyphLayoutCache.getInstance().getLayout(
+                    text, font, g2.getFontRenderContext());
+            Insets insets = getInsets();
+            Rectangle textRect = new Rectangle(insets.left, insets.top, 
+                    getWidth() - insets.left - insets.right, 
+                    getHeight() - insets.top - insets.bottom);
+            if ((textRect.width <= 0) || (textRect.height <= 0)) return;
+            float x = textRect.x + getAlignmentOffset(textRect.width - stamp.getAdvance());
+            float y = textRect.y + (textRect.height - stamp.getAscent() - stamp.getDescent()) / 2 + stamp.getAscent();
+            if (stamp.getAdvance() > textRect.width) {
+                g2.clipRect(textRect.x, textRect.y, textRect.width, textRect.height);
+            }
+            g2.setColor(getTextColor());
+            stamp.draw(g2, x, y);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Returns the color to draw the text with.
+     * 
+     * @return the color to draw the text with.
+     */
+    protected Color getTextColor() {
+        if (!isEnabled()) {
+            Color disabled = UIManager.getColor("Label.disabledForeground");
+            if (disabled != null) return disabled;
+        }
+        return getForeground();
+    }
+    
+    /**
+     * Returns the horizontal offset of the text for the given free space.
+     */
+    private float getAlignmentOffset(float space) {
+        boolean leftToRight = getComponentOrientation().isLeftToRight();
+        switch (horizontalAlignment) {
+        case SwingConstants.CENTER:
+            return space / 2;
+        case SwingConstants.RIGHT:
+            return space;
+        case SwingConstants.TRAILING:
+            return leftToRight ? space : 0;
+        case SwingConstants.LEADING:
+            return leftToRight ? 0 : space;
+        default:
+            return 0;
+        }
+    }
+    
+//----------------- performance overrides, see JRendererLabel
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to not automatically de/register itself from/to the ToolTipManager.
+     * As rendering component it is not considered to be active in any way, so the
+     * manager must not listen. 
+     */
+    @Override
+    public void setToolTipText(String text) {
+        putClientProperty(TOOL_TIP_TEXT_KEY, text);
+    }
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    public void invalidate() {}
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    public void validate() {}
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    public void revalidate() {}
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    public void repaint(long tm, int x, int y, int width, int height) {}
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    public void repaint(Rectangle r) { }
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    public void repaint() {
+    }
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {  
+    }
+
+    /**
+     * Overridden for performance reasons.
+     */
+    @Override
+    public void firePropertyChange(String propertyName, boolean oldValue, boolean newValue) { }
+
+}
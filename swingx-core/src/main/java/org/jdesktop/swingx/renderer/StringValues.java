@@ -120,10 +120,13 @@ public final class StringValues {
 
     /**
      * Default converter for <code>Date</code> types. Uses the default format
-     * as returned from <code>DateFormat</code>.
+     * as returned from <code>DateFormat</code>. The formatted strings are 
+     * memoized, safe to use off the EDT.
+     * 
+     * @see FormatStringValue
      */
     @SuppressWarnings("serial")
-    public final static FormatStringValue DATE_TO_STRING = new FormatStringValue() {
+    public final static FormatStringValue DATE_TO_STRING = new FormatStringValue(null, true) {
         
         /**
          * {@inheritDoc}
@@ -140,10 +143,13 @@ public final class StringValues {
     
     /**
      * Default converter for <code>Number</code> types. Uses the default format
-     * as returned from <code>NumberFormat</code>.
+     * as returned from <code>NumberFormat</code>. The formatted strings are 
+     * memoized, safe to use off the EDT.
+     * 
+     * @see FormatStringValue
      */
     @SuppressWarnings("serial")
-    public final static FormatStringValue NUMBER_TO_STRING = new FormatStringValue() {
+    public final static FormatStringValue NUMBER_TO_STRING = new FormatStringValue(null, true) {
         
         /**
          * {@inheritDoc}
@@ -0,0 +1,107 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.renderer;
+
+import javax.swing.JLabel;
+
+/**
+ * A component provider which uses a <code>JRendererTextStamp</code> as 
+ * rendering component: a fast mode for plain text cells, f.i. in dense 
+ * numeric grids. <p>
+ * 
+ * It configures the stamp's text from the StringValue. Icons are not
+ * supported. Color and font highlighters apply as usual.
+ * 
+ * <pre><code>
+ * table.setDefaultRenderer(Number.class, new DefaultTableRenderer(
+ *     new TextStampProvider(StringValues.NUMBER_TO_STRING, JLabel.RIGHT)));
+ * </code></pre>
+ * 
+ * @see JRendererTextStamp
+ * @see LabelProvider
+ */
+public class TextStampProvider extends ComponentProvider<JRendererTextStamp> {
+
+    /**
+     * Instantiates a TextStampProvider with default to-String converter and 
+     * LEADING horizontal alignment.
+     */
+    public TextStampProvider() {
+        this(null);
+    }
+    
+    /**
+     * Instantiates a TextStampProvider with the given to-String converter and 
+     * LEADING horizontal alignment. If the converter is null, the default 
+     * TO_STRING is used.
+     * 
+     * @param converter the converter to use for mapping the cell value to a
+     *        String representation.
+     */
+    public TextStampProvider(StringValue converter) {
+        this(converter, JLabel.LEADING);
+    }
+
+    /**
+     * Instantiates a TextStampProvider with given to-String converter and given
+     * horizontal alignment. If the converter is null, the default TO_STRING is
+     * used.
+     * 
+     * @param converter the converter to use for mapping the cell value to a
+     *        String representation.
+     * @param alignment the horizontal alignment.
+     */
+    public TextStampProvider(StringValue converter, int alignment) {
+        super(converter, alignment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected JRendererTextStamp createRendererComponent() {
+        return new JRendererTextStamp();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Here: sets the stamp's horizontal alignment to the alignment as configured 
+     * in the controller.
+     */
+    @Override
+    protected void configureState(CellContext context) {
+        rendererComponent.setHorizontalAlignment(getHorizontalAlignment());
+    }
+
+    /**
+     * {@inheritDoc}
+     * Here: sets the stamp's text to the value as returned by getValueAsString.
+     * 
+     * @param context the cellContext to use
+     * 
+     * @see #getValueAsString(CellContext)
+     */
+    @Override
+    protected void format(CellContext context) {
+        rendererComponent.setText(getValueAsString(context));
+    }
+
+}
@@ -53,6 +53,12 @@ public abstract class AbstractSearchable implements Searchable {
 
     private AbstractHighlighter matchHighlighter;
     
+    /** the pattern the cached literalMatcher was created for. */
+    private Pattern literalPattern;
+    
+    /** the literal matching strategy for literalPattern, may be null. */
+    private LiteralMatcher literalMatcher;
+
 
     /** key for client property to use SearchHighlighter as match marker. */
     public static final String MATCH_HIGHLIGHTER = "match.highlighter";
@@ -289,6 +295,29 @@ public abstract class AbstractSearchable implements Searchable {
         return pattern.pattern().equals(lastSearchResult.getRegEx());
     }
 
+    /**
+     * Checks if the given text is a candidate for a match against the 
+     * pattern. This is a quick pre-check which allows subclasses to skip
+     * the regex engine for texts which can't match. <p>
+     * 
+     * This implementation returns false if the text is empty or the pattern
+     * has no regex semantics and its literal doesn't match the text, 
+     * true otherwise. 
+     * 
+     * @param pattern <code>Pattern</code> that we will try to match
+     * @param text the text to test 
+     * @return false if the text definitely doesn't match, true otherwise.
+     * @see LiteralMatcher
+     */
+    protected boolean isMatchCandidate(Pattern pattern, String text) {
+        if (isEmpty(text)) return false;
+        if (pattern != literalPattern) {
+            literalPattern = pattern;
+            literalMatcher = LiteralMatcher.forPattern(pattern);
+        }
+        return (literalMatcher == null) || literalMatcher.matches(text);
+    }
+
     /**
      * Checks if the startIndex should be considered as the same as in
      * the previous search.
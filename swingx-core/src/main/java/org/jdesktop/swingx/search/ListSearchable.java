@@ -66,7 +66,7 @@ public class ListSearchable extends AbstractSearchable {
          */
         protected SearchResult findMatchAt(Pattern pattern, int row) {
             String text = list.getStringAt(row);
-            if ((text != null) && (text.length() > 0 )) {
+            if (isMatchCandidate(pattern, text)) {
                 Matcher matcher = pattern.matcher(text);
                 if (matcher.find()) {
                     return createSearchResult(matcher, row, 0);
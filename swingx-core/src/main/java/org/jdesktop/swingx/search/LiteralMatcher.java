@@ -0,0 +1,393 @@
+/*
+ * $Id$
+ *
+ * Copyright 2004 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.search;
+
+import java.util.regex.Pattern;
+
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * Matching strategy for plain literals which by-passes the regex engine. <p>
+ *
+ * The typical user search - "contains", "starts with", "ends with" or "equals"
+ * some text - is compiled by the <code>PatternModel</code> into a
+ * quoted, optionally anchored <code>Pattern</code>. Testing such a
+ * Pattern is equivalent to a simple <code>indexOf</code> or
+ * <code>regionMatches</code> on the String, which is considerably cheaper
+ * than running the regex engine for every cell. <p>
+ *
+ * Use {@link #forPattern(Pattern)} to detect whether a given Pattern has no
+ * regex semantics. If so, the returned LiteralMatcher's
+ * {@link #matches(String)} is guaranteed to return the same as
+ * <code>pattern.matcher(text).find()</code>. Case insensitive matching
+ * compares against a precomputed case-folded needle, using the same
+ * folding rules as the regex engine. <p>
+ *
+ * Instances are immutable and can be shared across threads.
+ *
+ * @see PatternModel#getLiteralMatcher()
+ */
+public abstract class LiteralMatcher {
+
+    /** The flags which don't change the semantics of a literal match. */
+    private static final int SUPPORTED_FLAGS = Pattern.LITERAL
+        | Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+    /** The characters with special meaning if unescaped. */
+    private static final String META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final String literal;
+    private final char[] needle;
+    private final char[] foldedNeedle;
+    private final boolean caseSensitive;
+    private final boolean unicodeCase;
+
+    /**
+     * Returns a LiteralMatcher which is equivalent to the given Pattern or
+     * null if the pattern has regex semantics. Equivalent means that
+     * <code>matches(text)</code> returns the same as
+     * <code>pattern.matcher(text).find()</code> for all text.
+     *
+     * @param pattern the pattern to analyse, may be null
+     * @return a LiteralMatcher equivalent to the pattern or null if
+     *   the pattern is null or requires the regex engine.
+     */
+    public static LiteralMatcher forPattern(Pattern pattern) {
+        if (pattern == null) return null;
+        int flags = pattern.flags();
+        if ((flags & ~SUPPORTED_FLAGS) != 0) return null;
+        boolean caseSensitive = (flags & Pattern.CASE_INSENSITIVE) == 0;
+        boolean unicodeCase = (flags & Pattern.UNICODE_CASE) != 0;
+        String regex = pattern.pattern();
+        if ((flags & Pattern.LITERAL) != 0) {
+            return create(regex, false, false, caseSensitive, unicodeCase);
+        }
+        int start = 0;
+        int end = regex.length();
+        boolean startAnchored = regex.startsWith("^");
+        if (startAnchored) {
+            start++;
+        }
+        StringBuilder builder = new StringBuilder(regex.length());
+        boolean endAnchored = false;
+        while (start < end) {
+            char c = regex.charAt(start);
+            if (c == '\\') {
+                if (start + 1 >= end) return null;
+                char next = regex.charAt(start + 1);
+                if (next == 'Q') {
+                    int quoteEnd = regex.indexOf("\\E", start + 2);
+                    if (quoteEnd < 0) {
+                        quoteEnd = end;
+                    }
+                    builder.append(regex, start + 2, quoteEnd);
+                    start = quoteEnd + 2;
+                } else if (Character.isLetterOrDigit(next)) {
+                    // character classes, back references, escape sequences
+                    return null;
+                } else {
+                    builder.append(next);
+                    start += 2;
+                }
+            } else if (c == '$' && start == end - 1) {
+                endAnchored = true;
+                start++;
+            } else if (META_CHARACTERS.indexOf(c) >= 0) {
+                return null;
+            } else {
+                builder.append(c);
+                start++;
+            }
+        }
+        return create(builder.toString(), startAnchored, endAnchored,
+                caseSensitive, unicodeCase);
+    }
+
+    /**
+     * Returns a LiteralMatcher which matches text containing the literal.
+     *
+     * @param literal the text to search for, must not be null.
+     * @param caseSensitive flag to indicate case sensitive matching
+     * @return a LiteralMatcher for the "contains" rule
+     */
+    public static LiteralMatcher contains(String literal, boolean caseSensitive) {
+        return create(literal, false, false, caseSensitive, true);
+    }
+
+    /**
+     * Returns a LiteralMatcher which matches text starting with the literal.
+     *
+     * @param literal the text to search for, must not be null.
+     * @param caseSensitive flag to indicate case sensitive matching
+     * @return a LiteralMatcher for the "startsWith" rule
+     */
+    public static LiteralMatcher startsWith(String literal, boolean caseSensitive) {
+        return create(literal, true, false, caseSensitive, true);
+    }
+
+    /**
+     * Returns a LiteralMatcher which matches text ending with the literal.
+     *
+     * @param literal the text to search for, must not be null.
+     * @param caseSensitive flag to indicate case sensitive matching
+     * @return a LiteralMatcher for the "endsWith" rule
+     */
+    public static LiteralMatcher endsWith(String literal, boolean caseSensitive) {
+        return create(literal, false, true, caseSensitive, true);
+    }
+
+    /**
+     * Returns a LiteralMatcher which matches text equal to the literal.
+     *
+     * @param literal the text to search for, must not be null.
+     * @param caseSensitive flag to indicate case sensitive matching
+     * @return a LiteralMatcher for the "equals" rule
+     */
+    public static LiteralMatcher equalTo(String literal, boolean caseSensitive) {
+        return create(literal, true, true, caseSensitive, true);
+    }
+
+    private static LiteralMatcher create(String literal, boolean startAnchored,
+            boolean endAnchored, boolean caseSensitive, boolean unicodeCase) {
+        Contract.asNotNull(literal, "literal must not be null");
+        for (int i = 0; i < literal.length(); i++) {
+            // the regex engine matches code points, keep it for those
+            char c = literal.charAt(i);
+            if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) return null;
+        }
+        if (startAnchored && endAnchored) {
+            return new EqualsMatcher(literal, caseSensitive, unicodeCase);
+        }
+        if (startAnchored) {
+            return new StartsWithMatcher(literal, caseSensitive, unicodeCase);
+        }
+        if (endAnchored) {
+            return new EndsWithMatcher(literal, caseSensitive, unicodeCase);
+        }
+        return new ContainsMatcher(literal, caseSensitive, unicodeCase);
+    }
+
+    private LiteralMatcher(String literal, boolean caseSensitive, boolean unicodeCase) {
+        this.literal = literal;
+        this.caseSensitive = caseSensitive;
+        this.unicodeCase = unicodeCase;
+        this.needle = literal.toCharArray();
+        if (caseSensitive) {
+            foldedNeedle = needle;
+        } else {
+            foldedNeedle = new char[needle.length];
+            for (int i = 0; i < needle.length; i++) {
+                foldedNeedle[i] = fold(needle[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a boolean indicating whether the given text is matched, that
+     * is whether the Pattern this was created from would find a match.
+     *
+     * @param text the text to test, may be null
+     * @return true if the text matches, false if not or the text is null
+     */
+    public abstract boolean matches(String text);
+
+    /**
+     * Returns the plain text to match.
+     *
+     * @return the unquoted literal text to match
+     */
+    public String getLiteral() {
+        return literal;
+    }
+
+    /**
+     * @return true if matching is case sensitive, false otherwise
+     */
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+
+    /**
+     * Returns a boolean indicating whether the literal matches the
+     * text starting at the given offset.
+     *
+     * PRE: 0 <= offset && offset + literal length <= text length
+     *
+     * @param text the text to test
+     * @param offset the start offset in text
+     * @return true if the literal matches the region starting at offset
+     */
+    protected boolean regionMatches(String text, int offset) {
+        if (caseSensitive) {
+            return text.startsWith(literal, offset);
+        }
+        for (int i = 0; i < foldedNeedle.length; i++) {
+            char c = text.charAt(offset + i);
+            if ((c != needle[i]) && (fold(c) != foldedNeedle[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the start index of the first match of the literal in
+     * text or -1 if none found.
+     *
+     * @param text the text to search
+     * @return the index of the first match or -1.
+     */
+    protected int indexOf(String text) {
+        if (caseSensitive) {
+            return text.indexOf(literal);
+        }
+        if (needle.length == 0) return 0;
+        int last = text.length() - needle.length;
+        char first = needle[0];
+        char foldedFirst = foldedNeedle[0];
+        for (int i = 0; i <= last; i++) {
+            char c = text.charAt(i);
+            if (((c == first) || (fold(c) == foldedFirst))
+                    && regionMatches(text, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the length of the text to match against an end-anchored literal,
+     * that is the text length without a single trailing line terminator, as
+     * implied by the regex's '$' boundary.
+     *
+     * @param text the text to test
+     * @return the end index a trailing literal must match to, or the
+     *    text length if the text doesn't end with a line terminator.
+     */
+    protected int getEndWithoutLineTerminator(String text) {
+        int length = text.length();
+        if (length == 0) return length;
+        char last = text.charAt(length - 1);
+        if (last == '\n') {
+            return (length > 1) && (text.charAt(length - 2) == '\r') ? length - 2 : length - 1;
+        }
+        if ((last == '\r') || (last == '\u0085') || ((last | 1) == '\u2029')) {
+            return length - 1;
+        }
+        return length;
+    }
+
+    /**
+     * Tests whether the literal matches the text either up to its very end or
+     * up to a single trailing line terminator.
+     *
+     * @param text the text to test
+     * @param anchoredAtStart flag to require the literal to match at offset 0.
+     * @return true if the text ends with the literal
+     */
+    protected boolean endMatches(String text, boolean anchoredAtStart) {
+        int length = text.length();
+        if (endMatches(text, length, anchoredAtStart)) return true;
+        int end = getEndWithoutLineTerminator(text);
+        return (end != length) && endMatches(text, end, anchoredAtStart);
+    }
+
+    private boolean endMatches(String text, int end, boolean anchoredAtStart) {
+        int offset = end - needle.length;
+        if (anchoredAtStart ? offset != 0 : offset < 0) return false;
+        return regionMatches(text, offset);
+    }
+
+    /**
+     * Folds the char in the same way as the regex engine does in
+     * case-insensitive mode.
+     *
+     * @param c the char to fold
+     * @return the folded char
+     */
+    private char fold(char c) {
+        if (unicodeCase) {
+            return Character.toLowerCase(Character.toUpperCase(c));
+        }
+        return ((c >= 'A') && (c <= 'Z')) ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Matches text containing the literal.
+     */
+    private static class ContainsMatcher extends LiteralMatcher {
+
+        ContainsMatcher(String literal, boolean caseSensitive, boolean unicodeCase) {
+            super(literal, caseSensitive, unicodeCase);
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return (text != null) && (indexOf(text) >= 0);
+        }
+    }
+
+    /**
+     * Matches text starting with the literal.
+     */
+    private static class StartsWithMatcher extends LiteralMatcher {
+
+        StartsWithMatcher(String literal, boolean caseSensitive, boolean unicodeCase) {
+            super(literal, caseSensitive, unicodeCase);
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return (text != null) && (text.length() >= getLiteral().length())
+                    && regionMatches(text, 0);
+        }
+    }
+
+    /**
+     * Matches text ending with the literal.
+     */
+    private static class EndsWithMatcher extends LiteralMatcher {
+
+        EndsWithMatcher(String literal, boolean caseSensitive, boolean unicodeCase) {
+            super(literal, caseSensitive, unicodeCase);
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return (text != null) && endMatches(text, false);
+        }
+    }
+
+    /**
+     * Matches text equal to the literal.
+     */
+    private static class EqualsMatcher extends LiteralMatcher {
+
+        EqualsMatcher(String literal, boolean caseSensitive, boolean unicodeCase) {
+            super(literal, caseSensitive, unicodeCase);
+        }
+
+        @Override
+        public boolean matches(String text) {
+            return (text != null) && endMatches(text, true);
+        }
+    }
+}
@@ -25,6 +25,11 @@ import java.util.regex.Pattern;
 
 /**
  * Implemented by classes that work with {@link java.util.regex.Pattern} objects.
+ * <p>
+ * 
+ * Implementations which test many Strings against the Pattern should check
+ * if it can be matched without the regex engine, by way of 
+ * {@link LiteralMatcher#forPattern(Pattern)}.
 
  * @author Ramesh Gupta
  */
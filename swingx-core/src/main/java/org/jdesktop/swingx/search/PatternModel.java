@@ -128,6 +128,8 @@ public class PatternModel {
 
     private Pattern pattern;
 
+    private LiteralMatcher literalMatcher;
+
     private int foundIndex = -1;
 
     private boolean caseSensitive;
@@ -223,6 +225,21 @@ public class PatternModel {
         return pattern;
     }
 
+    /**
+     * Returns the literal matching strategy which is equivalent to the 
+     * current Pattern, or null if the Pattern has regex semantics or is null. <p>
+     * 
+     * The matcher is automatically updated whenever the pattern changes. 
+     * Clients which test many Strings against the Pattern should prefer 
+     * it over the Pattern, as it by-passes the regex engine.
+     * 
+     * @return a LiteralMatcher equivalent to the current Pattern or null
+     * @see LiteralMatcher#forPattern(Pattern)
+     */
+    public LiteralMatcher getLiteralMatcher() {
+        return literalMatcher;
+    }
+
     public String getRawText() {
         return rawText;
     }
@@ -271,6 +288,7 @@ public class PatternModel {
         } else if ((old == null) || (!old.pattern().equals(regEx))) {
             pattern = Pattern.compile(regEx, getFlags());
         }
+        updateLiteralMatcher(old);
         firePropertyChange("pattern", old, getPattern());
     }
 
@@ -293,9 +311,21 @@ public class PatternModel {
         } else if (!caseSensitive && ((flags & flag) == 0)) {
             pattern = Pattern.compile(pattern.pattern(), flag);
         }
+        updateLiteralMatcher(old);
         firePropertyChange("pattern", old, getPattern());
     }
 
+    /**
+     * Re-creates the literal matcher if the pattern changed. 
+     * 
+     * @param old the pattern before the change
+     */
+    private void updateLiteralMatcher(Pattern old) {
+        if ((old != pattern) || (literalMatcher == null && pattern != null)) {
+            literalMatcher = LiteralMatcher.forPattern(pattern);
+        }
+    }
+
     public void addPropertyChangeListener(PropertyChangeListener l) {
         if (propertySupport == null) {
             propertySupport = new PropertyChangeSupport(this);
@@ -151,7 +151,7 @@ public class TableSearchable extends AbstractSearchable {
      */
     protected SearchResult findMatchAt(Pattern pattern, int row, int column) {
         String text = table.getStringAt(row, column);
-        if ((text != null) && (text.length() > 0)) {
+        if (isMatchCandidate(pattern, text)) {
             Matcher matcher = pattern.matcher(text);
             if (matcher.find()) {
                 return createSearchResult(matcher, row, column);
@@ -27,6 +27,7 @@ import java.util.regex.PatternSyntaxException;
 
 import javax.swing.RowFilter;
 
+import org.jdesktop.swingx.search.LiteralMatcher;
 import org.jdesktop.swingx.util.Contract;
 
 /**
@@ -189,10 +190,13 @@ public class RowFilters {
     }
 
     /**
-     * C&P from core to allow richer factory methods.
+     * C&P from core to allow richer factory methods. <p>
+     * 
+     * Patterns without regex semantics are matched by a LiteralMatcher.
      */
     private static class RegexFilter extends GeneralFilter {
         private Matcher matcher;
+        private LiteralMatcher literalMatcher;
 
         RegexFilter(Pattern regex, int[] columns) {
             super(columns);
@@ -202,11 +206,15 @@ public class RowFilters {
 //                throw new IllegalArgumentException("Pattern must be non-null");
             }
             matcher = regex.matcher("");
+            literalMatcher = LiteralMatcher.forPattern(regex);
         }
 
         @Override
         protected boolean include(
                 Entry<? extends Object,? extends Object> value, int index) {
+            if (literalMatcher != null) {
+                return literalMatcher.matches(value.getStringValue(index));
+            }
             matcher.reset(value.getStringValue(index));
             return matcher.find();
         }
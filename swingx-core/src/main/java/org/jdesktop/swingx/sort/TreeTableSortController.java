@@ -0,0 +1,1120 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.sort;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.RowFilter;
+import javax.swing.RowSorter.SortKey;
+import javax.swing.SortOrder;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreePath;
+
+import org.jdesktop.swingx.renderer.StringValue;
+import org.jdesktop.swingx.renderer.StringValues;
+import org.jdesktop.swingx.tree.TreeModelSupport;
+import org.jdesktop.swingx.treetable.TreeTableModel;
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * A SortController to use for a JXTreeTable.<p>
+ * 
+ * Core RowSorters are targeted to linear structures, so this controller 
+ * sorts and filters hierarchically: it is a TreeTableModel which decorates
+ * the underlying model and presents the children of each parent sorted by
+ * the sort keys, using the same nodes. Sibling order is computed lazily and 
+ * cached per parent, so only the parents which are actually accessed 
+ * (typically the expanded nodes) are sorted.<p>
+ * 
+ * The filter is applied to every node except the root. A node is included 
+ * if it is accepted by the filter or if any of its descendants is included, 
+ * that is ancestors of matching nodes are kept visible. The identifier of the 
+ * filter's entry is the node's child index in its parent in the underlying 
+ * model.<p>
+ * 
+ * TreeModelEvents of the underlying model are mapped to the view coordinates
+ * of the parent they are fired for. Only that parent's children are 
+ * re-sorted, and, if filtered, its ancestors re-evaluated. Changes in sort
+ * order or filter are notified as a treeStructureChanged on the root while
+ * {@link #isReordering()} returns true.<p>
+ * 
+ * @see org.jdesktop.swingx.JXTreeTable#setTreeTableSortController(TreeTableSortController)
+ */
+public class TreeTableSortController implements TreeTableModel, SortController<TreeTableModel> {
+
+    private final static SortOrder[] DEFAULT_CYCLE = new SortOrder[] {SortOrder.ASCENDING, SortOrder.DESCENDING};
+
+    private static final int[] EMPTY = new int[0];
+    
+    /**
+     * Underlying model.
+     */
+    private TreeTableModel model;
+    
+    private final TreeModelSupport modelSupport;
+    
+    private TreeModelListener modelListener;
+
+    /** cache of the sorted/filtered children, per parent. */
+    private final Map<Object, ChildMapping> mappings = new IdentityHashMap<Object, ChildMapping>();
+    
+    /** cache of the filter result, including descendants, per node. */
+    private final Map<Object, Boolean> included = new IdentityHashMap<Object, Boolean>();
+    
+    private List<SortOrder> sortCycle;
+    
+    private boolean sortable;
+    
+    private boolean sortsOnUpdates;
+    
+    private StringValueProvider stringValueProvider;
+    
+    private final Map<Integer, Comparator<?>> comparators = new HashMap<Integer, Comparator<?>>();
+    
+    private final Map<Integer, Boolean> columnSortables = new HashMap<Integer, Boolean>();
+    
+    private List<SortKey> sortKeys = Collections.emptyList();
+    
+    private int maxSortKeys = 3;
+    
+    private RowFilter<? super TreeTableModel, ? super Integer> filter;
+    
+    private boolean reordering;
+    
+    private NodeEntry entry;
+
+    public TreeTableSortController() {
+        this(null);
+    }
+    
+    /**
+     * @param model the underlying model to use, or <code>null</code>
+     */
+    public TreeTableSortController(TreeTableModel model) {
+        modelSupport = new TreeModelSupport(this);
+        setSortable(true);
+        setSortOrderCycle(DEFAULT_CYCLE);
+        setSortsOnUpdates(true);
+        setModel(model);
+    }
+    
+    /**
+     * Sets the <code>TreeTableModel</code> to use as the underlying model. 
+     * A value of <code>null</code> can be used to set an empty model. 
+     * Notifies its listeners with a treeStructureChanged for the new root.
+     * 
+     * @param model the underlying model to use, or <code>null</code>
+     */
+    public void setModel(TreeTableModel model) {
+        if (this.model == model) return;
+        if (this.model != null) {
+            this.model.removeTreeModelListener(getTreeModelListener());
+        }
+        this.model = model;
+        if (model != null) {
+            model.addTreeModelListener(getTreeModelListener());
+        }
+        clearCaches();
+        modelSupport.fireNewRoot();
+    }
+    
+    /**
+     * Returns the underlying model.
+     * 
+     * @return the underlying model, may be null.
+     */
+    public TreeTableModel getModel() {
+        return model;
+    }
+
+    /**
+     * Returns a boolean indicating whether the controller is notifying 
+     * a structure change which only reorders or filters existing nodes. 
+     * Listeners may use this to preserve their state, f.i. the expanded
+     * paths. 
+     * 
+     * @return true if the current treeStructureChanged is caused by the
+     *   sort order or filter only.
+     */
+    public boolean isReordering() {
+        return reordering;
+    }
+    
+    /**
+     * Returns a boolean indicating whether all nodes of the given path 
+     * are included in this model.
+     * 
+     * @param path the path to check
+     * @return true if the path is visible in this model, false otherwise
+     */
+    public boolean containsPath(TreePath path) {
+        if (path == null || model == null) return false;
+        if (path.getParentPath() == null) {
+            return path.getLastPathComponent() == model.getRoot();
+        }
+        return containsPath(path.getParentPath())
+            && getIndexOfChild(path.getParentPath().getLastPathComponent(), 
+                    path.getLastPathComponent()) >= 0;
+    }
+    
+//----------------------- configuration
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public void setSortable(boolean sortable) {
+        this.sortable = sortable;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public boolean isSortable() {
+        return sortable;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public void setSortable(int column, boolean sortable) {
+        checkColumn(column);
+        columnSortables.put(column, sortable);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public boolean isSortable(int column) {
+        checkColumn(column);
+        if (!isSortable()) return false;
+        Boolean columnSortable = columnSortables.get(column);
+        return columnSortable == null || columnSortable.booleanValue();
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public void setComparator(int column, Comparator<?> comparator) {
+        checkColumn(column);
+        comparators.put(column, comparator);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Returns a Comparator based on the model's column class if none is 
+     * set, same as TableSortController.
+     * 
+     * @see TableSortController#getComparator(int)
+     */
+    @Override
+    public Comparator<?> getComparator(int column) {
+        checkColumn(column);
+        Comparator<?> comparator = comparators.get(column);
+        if (comparator != null) {
+            return comparator;
+        }
+        Class<?> columnClass = model.getColumnClass(column);
+        if (columnClass == String.class) {
+            return Collator.getInstance();
+        }
+        if (Comparable.class.isAssignableFrom(columnClass)) {
+            return DefaultSortController.COMPARABLE_COMPARATOR;
+        }
+        return Collator.getInstance();
+    }
+    
+    /**
+     * Returns a boolean indicating whether the values of the given
+     * column are compared by their string representation.
+     * Must implement same logic as the comparator lookup.
+     * 
+     * @param column the column index in model coordinates
+     * @return true if the string values are compared
+     */
+    protected boolean useToString(int column) {
+        if (comparators.get(column) != null) {
+            return false;
+        }
+        Class<?> columnClass = model.getColumnClass(column);
+        if (columnClass == String.class) {
+            return false;
+        }
+        return !Comparable.class.isAssignableFrom(columnClass);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     */
+    @Override
+    public void setSortOrderCycle(SortOrder... cycle) {
+        Contract.asNotNull(cycle, "Elements of SortOrderCycle must not be null");
+        sortCycle = Arrays.asList(cycle);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     */
+    @Override
+    public SortOrder[] getSortOrderCycle() {
+        return sortCycle.toArray(new SortOrder[0]);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * If false, changed nodes are not re-sorted among their siblings.
+     */
+    @Override
+    public void setSortsOnUpdates(boolean sortsOnUpdates) {
+        this.sortsOnUpdates = sortsOnUpdates;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     */
+    @Override
+    public boolean getSortsOnUpdates() {
+        return sortsOnUpdates;
+    }
+
+    /**
+     * Sets the registry of string values. If null, the default provider is used.
+     * The row passed into the provider is the node's child index in the 
+     * underlying model.
+     * 
+     * @param registry the registry to get StringValues for conversion.
+     */
+    @Override
+    public void setStringValueProvider(StringValueProvider registry) {
+        this.stringValueProvider = registry;
+    }
+
+    /**
+     * Returns the registry of string values.
+     * 
+     * @return the registry of string converters, guaranteed to never be null.
+     */
+    @Override
+    public StringValueProvider getStringValueProvider() {
+        if (stringValueProvider == null) {
+            stringValueProvider = DEFAULT_PROVIDER;
+        }
+        return stringValueProvider;
+    }
+    
+    /**
+     * Sets the maximum number of sort keys. 
+     * 
+     * @param max the maximum number of sort keys
+     * @throws IllegalArgumentException if <code>max</code> &lt; 1
+     */
+    public void setMaxSortKeys(int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("Invalid max");
+        }
+        maxSortKeys = max;
+    }
+    
+    /**
+     * Returns the maximum number of sort keys.
+     * 
+     * @return the maximum number of sort keys
+     */
+    public int getMaxSortKeys() {
+        return maxSortKeys;
+    }
+    
+//----------------------- sort
+    
+    /**
+     * Sets the sort keys and re-sorts all children. A null or empty list 
+     * removes sorting.
+     * 
+     * @param keys the new sort keys, may be null
+     * @throws IllegalArgumentException if any of the keys is null or 
+     *   its column out of range
+     */
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> old = sortKeys;
+        if (keys != null && keys.size() > 0) {
+            for (SortKey key : keys) {
+                if (key == null || key.getColumn() < 0 || key.getColumn() >= getModelColumnCount()) {
+                    throw new IllegalArgumentException("Invalid SortKey");
+                }
+            }
+            sortKeys = Collections.unmodifiableList(new ArrayList<SortKey>(keys));
+        } else {
+            sortKeys = Collections.emptyList();
+        }
+        if (!sortKeys.equals(old)) {
+            reload();
+        }
+    }
+    
+    /**
+     * Returns the current sort keys.
+     * 
+     * @return the current sort keys, guaranteed to be not null
+     */
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 
+     * Gets first/next SortOrder from sort order cycle. Does nothing if the 
+     * cycle is empty. 
+     */
+    @Override
+    public void toggleSortOrder(int column) {
+        checkColumn(column);
+        if (!isSortable(column))
+            return;
+        SortOrder firstInCycle = getFirstInCycle();
+        // nothing to toggle through
+        if (firstInCycle == null)
+            return;
+        List<SortKey> keys = new ArrayList<SortKey>(getSortKeys());
+        SortKey sortKey = SortUtils.getFirstSortKeyForColumn(keys, column);
+        if (keys.indexOf(sortKey) == 0)  {
+            //  primary key: in this case we'll use next sortorder in cylce
+            keys.set(0, new SortKey(column, getNextInCycle(sortKey.getSortOrder())));
+        } else {
+            // all others: make primary with first sortOrder in cycle
+            keys.remove(sortKey);
+            keys.add(0, new SortKey(column, getFirstInCycle()));
+        }
+        if (keys.size() > getMaxSortKeys()) {
+            keys = keys.subList(0, getMaxSortKeys());
+        }
+        setSortKeys(keys);
+    }
+    
+    private SortOrder getNextInCycle(SortOrder current) {
+        int pos = sortCycle.indexOf(current);
+        if (pos < 0) {
+            // not in cycle ... what to do?
+            return getFirstInCycle();
+        }
+        pos++;
+        if (pos >= sortCycle.size()) {
+            pos = 0;
+        }
+        return sortCycle.get(pos);
+    }
+
+    private SortOrder getFirstInCycle() {
+        return sortCycle.size() > 0 ? sortCycle.get(0) : null;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public void setSortOrder(int column, SortOrder sortOrder) {
+        if (!isSortable(column)) return;
+        SortKey replace = new SortKey(column, sortOrder);
+        List<SortKey> keys = new ArrayList<SortKey>(getSortKeys());
+        SortUtils.removeFirstSortKeyForColumn(keys, column);
+        keys.add(0, replace);
+        setSortKeys(keys);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public SortOrder getSortOrder(int column) {
+        SortKey key = SortUtils.getFirstSortKeyForColumn(getSortKeys(), column);
+        return key != null ? key.getSortOrder() : SortOrder.UNSORTED;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     */
+    @Override
+    public void resetSortOrders() {
+        if (!isSortable()) return;
+        List<SortKey> keys = new ArrayList<SortKey>(getSortKeys());
+        for (int i = keys.size() -1; i >= 0; i--) {
+            SortKey sortKey = keys.get(i);
+            if (isSortable(sortKey.getColumn())) {
+                keys.remove(sortKey);
+            }
+        }
+        setSortKeys(keys);
+    }
+
+//----------------------- filter
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * The filter is applied to the nodes, ancestors of included nodes
+     * are included as well.
+     */
+    @Override
+    public void setRowFilter(RowFilter<? super TreeTableModel, ? super Integer> filter) {
+        if (this.filter == filter) return;
+        this.filter = filter;
+        reload();
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     */
+    @Override
+    public RowFilter<? super TreeTableModel, ? super Integer> getRowFilter() {
+        return filter;
+    }
+    
+//----------------------- TreeTableModel
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the underlying model's root.
+     */
+    @Override
+    public Object getRoot() {
+        return model != null ? model.getRoot() : null;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the underlying model's child at the sorted
+     * position.
+     */
+    @Override
+    public Object getChild(Object parent, int index) {
+        if (!isActive()) {
+            return model.getChild(parent, index);
+        }
+        return model.getChild(parent, getChildMapping(parent).viewToModel[index]);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the number of included children.
+     */
+    @Override
+    public int getChildCount(Object parent) {
+        if (model == null) return 0;
+        if (!isActive()) {
+            return model.getChildCount(parent);
+        }
+        return getChildMapping(parent).viewToModel.length;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the sorted position of the child or -1 if
+     * it is not included.
+     */
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (model == null || parent == null || child == null) return -1;
+        int modelIndex = model.getIndexOfChild(parent, child);
+        if (!isActive() || modelIndex < 0) {
+            return modelIndex;
+        }
+        int[] modelToView = getChildMapping(parent).modelToView;
+        return modelIndex < modelToView.length ? modelToView[modelIndex] : -1;
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return model.isLeaf(node);
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        model.valueForPathChanged(path, newValue);
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener l) {
+        modelSupport.addTreeModelListener(l);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener l) {
+        modelSupport.removeTreeModelListener(l);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return model.getColumnClass(columnIndex);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return getModelColumnCount();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return model.getColumnName(column);
+    }
+
+    @Override
+    public int getHierarchicalColumn() {
+        return model != null ? model.getHierarchicalColumn() : -1;
+    }
+
+    @Override
+    public Object getValueAt(Object node, int column) {
+        return model.getValueAt(node, column);
+    }
+
+    @Override
+    public boolean isCellEditable(Object node, int column) {
+        return model.isCellEditable(node, column);
+    }
+
+    @Override
+    public void setValueAt(Object value, Object node, int column) {
+        model.setValueAt(value, node, column);
+    }
+
+//----------------------- sorting/filtering implementation
+    
+    /**
+     * Returns a boolean indicating whether the children are sorted or 
+     * filtered.
+     */
+    private boolean isActive() {
+        return filter != null || SortUtils.getFirstSortingKey(sortKeys) != null;
+    }
+    
+    private int getModelColumnCount() {
+        return model != null ? model.getColumnCount() : 0;
+    }
+
+    private void checkColumn(int column) {
+        if (column < 0 || column >= getModelColumnCount()) {
+            throw new IndexOutOfBoundsException(
+                    "column beyond range of TreeTableModel");
+        }
+    }
+    
+    private void clearCaches() {
+        mappings.clear();
+        included.clear();
+        entry = null;
+    }
+    
+    /**
+     * Drops all cached orders and notifies the listeners with a 
+     * treeStructureChanged on the root.
+     */
+    private void reload() {
+        clearCaches();
+        if (getRoot() == null) return;
+        fireReordered(new TreePath(getRoot()));
+    }
+    
+    private void fireReordered(TreePath path) {
+        boolean old = reordering;
+        reordering = true;
+        try {
+            modelSupport.fireTreeStructureChanged(path);
+        } finally {
+            reordering = old;
+        }
+    }
+    
+    /**
+     * Returns the cached mapping of the children of the given parent, 
+     * computing it if not available.
+     */
+    private ChildMapping getChildMapping(Object parent) {
+        ChildMapping mapping = mappings.get(parent);
+        if (mapping == null) {
+            mapping = createChildMapping(parent);
+            mappings.put(parent, mapping);
+        }
+        return mapping;
+    }
+    
+    /**
+     * Filters and sorts the children of the given parent.
+     */
+    private ChildMapping createChildMapping(Object parent) {
+        int childCount = model.getChildCount(parent);
+        Object[] children = new Object[childCount];
+        int[] accepted = new int[childCount];
+        int count = 0;
+        for (int i = 0; i < childCount; i++) {
+            children[i] = model.getChild(parent, i);
+            if (isIncluded(children[i], i)) {
+                accepted[count++] = i;
+            }
+        }
+        if (count != childCount) {
+            accepted = Arrays.copyOf(accepted, count);
+        }
+        List<SortKey> keys = getSortingKeys();
+        if (!keys.isEmpty() && count > 1) {
+            sort(parent, accepted, keys);
+        }
+        return new ChildMapping(accepted, children);
+    }
+
+    private List<SortKey> getSortingKeys() {
+        List<SortKey> keys = new ArrayList<SortKey>();
+        for (SortKey key : sortKeys) {
+            if (SortUtils.isSorted(key.getSortOrder())) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+    
+    /**
+     * Sorts the given child indices of the parent by the sort keys. The 
+     * values are looked up once per child and key. Ties are resolved by 
+     * the model index.
+     */
+    private void sort(Object parent, int[] indices, final List<SortKey> keys) {
+        final Object[][] values = new Object[keys.size()][indices.length];
+        final Comparator<?>[] comparatorsByKey = new Comparator<?>[keys.size()];
+        for (int k = 0; k < keys.size(); k++) {
+            int column = keys.get(k).getColumn();
+            comparatorsByKey[k] = getComparator(column);
+            boolean useToString = useToString(column);
+            for (int i = 0; i < indices.length; i++) {
+                Object value = model.getValueAt(model.getChild(parent, indices[i]), column);
+                if (useToString && value != null) {
+                    value = getStringValueProvider().getStringValue(indices[i], column).getString(value);
+                }
+                values[k][i] = value;
+            }
+        }
+        Integer[] positions = new Integer[indices.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        final int[] modelIndices = indices.clone();
+        Arrays.sort(positions, new Comparator<Integer>() {
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            @Override
+            public int compare(Integer p1, Integer p2) {
+                for (int k = 0; k < comparatorsByKey.length; k++) {
+                    Object v1 = values[k][p1];
+                    Object v2 = values[k][p2];
+                    int result;
+                    // same as DefaultRowSorter: nulls first
+                    if (v1 == null) {
+                        result = v2 == null ? 0 : -1;
+                    } else if (v2 == null) {
+                        result = 1;
+                    } else {
+                        result = ((Comparator) comparatorsByKey[k]).compare(v1, v2);
+                    }
+                    if (keys.get(k).getSortOrder() == SortOrder.DESCENDING) {
+                        result *= -1;
+                    }
+                    if (result != 0) {
+                        return result;
+                    }
+                }
+                return modelIndices[p1] - modelIndices[p2];
+            }
+        });
+        for (int i = 0; i < positions.length; i++) {
+            indices[i] = modelIndices[positions[i]];
+        }
+    }
+    
+    /**
+     * Returns a boolean indicating whether the node is included, that is
+     * accepted by the filter or has an included descendant. The result is
+     * cached.
+     * 
+     * @param node the node to check
+     * @param modelIndex the index of the node in its parent
+     */
+    private boolean isIncluded(Object node, int modelIndex) {
+        if (filter == null) return true;
+        Boolean result = included.get(node);
+        if (result == null) {
+            boolean include = filter.include(getEntry(node, modelIndex));
+            if (!include) {
+                int childCount = model.getChildCount(node);
+                for (int i = 0; i < childCount && !include; i++) {
+                    include = isIncluded(model.getChild(node, i), i);
+                }
+            }
+            result = include;
+            included.put(node, result);
+        }
+        return result;
+    }
+    
+    private NodeEntry getEntry(Object node, int modelIndex) {
+        if (entry == null) {
+            entry = new NodeEntry();
+        }
+        entry.node = node;
+        entry.modelIndex = modelIndex;
+        return entry;
+    }
+    
+    /**
+     * The per-parent mapping of child indices, with the children it was
+     * created from.
+     */
+    private static class ChildMapping {
+        final int[] viewToModel;
+        final int[] modelToView;
+        final Object[] children;
+        
+        ChildMapping(int[] viewToModel, Object[] children) {
+            this.viewToModel = viewToModel;
+            this.children = children;
+            int modelCount = children.length;
+            this.modelToView = modelCount == 0 ? EMPTY : new int[modelCount];
+            Arrays.fill(modelToView, -1);
+            for (int i = 0; i < viewToModel.length; i++) {
+                modelToView[viewToModel[i]] = i;
+            }
+        }
+    }
+    
+    /**
+     * RowFilter.Entry on a node.
+     */
+    private class NodeEntry extends RowFilter.Entry<TreeTableModel, Integer> {
+        Object node;
+        int modelIndex;
+        
+        @Override
+        public TreeTableModel getModel() {
+            return model;
+        }
+
+        @Override
+        public int getValueCount() {
+            return model.getColumnCount();
+        }
+
+        @Override
+        public Object getValue(int index) {
+            return model.getValueAt(node, index);
+        }
+
+        @Override
+        public String getStringValue(int index) {
+            return getStringValueProvider().getStringValue(modelIndex, index)
+                .getString(getValue(index));
+        }
+
+        @Override
+        public Integer getIdentifier() {
+            return modelIndex;
+        }
+    }
+
+    private static final StringValueProvider DEFAULT_PROVIDER = new StringValueProvider() {
+
+        @Override
+        public StringValue getStringValue(int row, int column) {
+            return StringValues.TO_STRING;
+        }
+        
+    };
+    
+//----------------------- model events
+    
+    private TreeModelListener getTreeModelListener() {
+        if (modelListener == null) {
+            modelListener = new TreeModelListener() {
+                
+                @Override
+                public void treeNodesChanged(TreeModelEvent e) {
+                    nodesChanged(e);
+                }
+
+                @Override
+                public void treeNodesInserted(TreeModelEvent e) {
+                    nodesInserted(e);
+                }
+
+                @Override
+                public void treeNodesRemoved(TreeModelEvent e) {
+                    nodesRemoved(e);
+                }
+
+                @Override
+                public void treeStructureChanged(TreeModelEvent e) {
+                    structureChanged(e);
+                }
+            };
+        }
+        return modelListener;
+    }
+
+    private void nodesChanged(TreeModelEvent e) {
+        TreePath parentPath = e.getTreePath();
+        int[] indices = e.getChildIndices();
+        if (!isActive() || indices == null || parentPath == null) {
+            fireEvent(EVENT_CHANGED, e.getTreePath(), indices, e.getChildren());
+            return;
+        }
+        Object parent = parentPath.getLastPathComponent();
+        if (filter != null) {
+            for (Object child : e.getChildren()) {
+                included.remove(child);
+            }
+        }
+        if (updateAncestors(parentPath)) return;
+        ChildMapping old = mappings.get(parent);
+        if (old == null) return;
+        ChildMapping mapping = old;
+        if (filter != null || sortsOnUpdates) {
+            mapping = createChildMapping(parent);
+            if (!Arrays.equals(old.viewToModel, mapping.viewToModel)) {
+                mappings.put(parent, mapping);
+                fireReordered(parentPath);
+                return;
+            }
+        }
+        fireMapped(EVENT_CHANGED, parentPath, indices, e.getChildren(), mapping);
+    }
+    
+    private void nodesInserted(TreeModelEvent e) {
+        TreePath parentPath = e.getTreePath();
+        if (!isActive()) {
+            fireEvent(EVENT_INSERTED, parentPath, e.getChildIndices(), e.getChildren());
+            return;
+        }
+        if (updateAncestors(parentPath)) return;
+        Object parent = parentPath.getLastPathComponent();
+        ChildMapping old = mappings.get(parent);
+        if (old == null) return;
+        ChildMapping mapping = createChildMapping(parent);
+        mappings.put(parent, mapping);
+        int[] indices = e.getChildIndices();
+        if (!isConsistent(old.viewToModel, mapping.viewToModel, indices)) {
+            fireReordered(parentPath);
+            return;
+        }
+        fireMapped(EVENT_INSERTED, parentPath, indices, e.getChildren(), mapping);
+    }
+    
+    private void nodesRemoved(TreeModelEvent e) {
+        TreePath parentPath = e.getTreePath();
+        if (!isActive()) {
+            fireEvent(EVENT_REMOVED, parentPath, e.getChildIndices(), e.getChildren());
+            return;
+        }
+        for (Object child : e.getChildren()) {
+            purge(child);
+        }
+        if (updateAncestors(parentPath)) return;
+        Object parent = parentPath.getLastPathComponent();
+        ChildMapping old = mappings.get(parent);
+        if (old == null) return;
+        ChildMapping mapping = createChildMapping(parent);
+        mappings.put(parent, mapping);
+        int[] indices = e.getChildIndices();
+        if (!isConsistent(mapping.viewToModel, old.viewToModel, indices)) {
+            fireReordered(parentPath);
+            return;
+        }
+        fireMapped(EVENT_REMOVED, parentPath, indices, e.getChildren(), old);
+    }
+    
+    private void structureChanged(TreeModelEvent e) {
+        TreePath path = e.getTreePath();
+        if (path == null || path.getParentPath() == null) {
+            clearCaches();
+            modelSupport.fireTreeStructureChanged(path);
+            return;
+        }
+        if (isActive()) {
+            // keep the node's old inclusion to detect a change
+            Object node = path.getLastPathComponent();
+            Boolean old = included.get(node);
+            purge(node);
+            if (old != null) {
+                included.put(node, old);
+            }
+            if (updateAncestors(path)) return;
+        }
+        modelSupport.fireTreeStructureChanged(path);
+    }
+
+    /**
+     * Re-evaluates the inclusion of the nodes of the given path after
+     * a change of their descendants. If the inclusion of any node 
+     * changed, drops the cached order of its parent and notifies a 
+     * reordering of the topmost such parent.
+     * 
+     * @param path the path to the parent of the changed nodes, or to the
+     *   node with the changed structure
+     * @return true if a reordering was notified, false otherwise
+     */
+    private boolean updateAncestors(TreePath path) {
+        if (filter == null) return false;
+        TreePath changed = null;
+        for (TreePath current = path; current.getParentPath() != null; 
+                current = current.getParentPath()) {
+            Object node = current.getLastPathComponent();
+            Object parent = current.getParentPath().getLastPathComponent();
+            Boolean old = included.remove(node);
+            if (old == null) continue;
+            boolean include = isIncluded(node, model.getIndexOfChild(parent, node));
+            if (old.booleanValue() != include) {
+                mappings.remove(parent);
+                changed = current.getParentPath();
+            }
+        }
+        if (changed == null) return false;
+        // the children of all nodes below are re-queried
+        for (TreePath current = path; current.getPathCount() > changed.getPathCount(); 
+                current = current.getParentPath()) {
+            mappings.remove(current.getLastPathComponent());
+        }
+        fireReordered(changed);
+        return true;
+    }
+    
+    /**
+     * Removes the cached state of the node and its cached descendants. 
+     * Walks the children of the cached mappings, the node might be 
+     * removed from the model already.
+     */
+    private void purge(Object node) {
+        included.remove(node);
+        ChildMapping mapping = mappings.remove(node);
+        if (mapping == null) return;
+        for (Object child : mapping.children) {
+            purge(child);
+        }
+    }
+
+    /**
+     * Checks that the mapping without the given model indices has the 
+     * same order as the mapping with them, that is the inserted/removed
+     * children can be notified without reordering the others.
+     * 
+     * @param without the mapping without the children
+     * @param with the mapping with the children
+     * @param indices the ascending model indices of the children 
+     */
+    private boolean isConsistent(int[] without, int[] with, int[] indices) {
+        int j = 0;
+        for (int i = 0; i < with.length; i++) {
+            int modelIndex = with[i];
+            int pos = Arrays.binarySearch(indices, modelIndex);
+            if (pos >= 0) continue;
+            // the model index of the same child without the children
+            int other = modelIndex + pos + 1;
+            if (j >= without.length || without[j] != other) return false;
+            j++;
+        }
+        return j == without.length;
+    }
+    
+    private static final int EVENT_CHANGED = 0;
+    private static final int EVENT_INSERTED = 1;
+    private static final int EVENT_REMOVED = 2;
+    
+    /**
+     * Maps the model indices of the children to the view indices in the 
+     * given mapping and notifies the included children.
+     */
+    private void fireMapped(int type, TreePath parentPath, int[] indices, Object[] children, 
+            ChildMapping mapping) {
+        int[] viewIndices = new int[indices.length];
+        Object[] viewChildren = new Object[indices.length];
+        int count = 0;
+        for (int i = 0; i < indices.length; i++) {
+            int view = indices[i] < mapping.modelToView.length ? mapping.modelToView[indices[i]] : -1;
+            if (view < 0) continue;
+            viewIndices[count] = view;
+            viewChildren[count++] = children[i];
+        }
+        if (count == 0) return;
+        // sort by view index, as required by the TreeModelEvent
+        long[] pairs = new long[count];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = ((long) viewIndices[i] << 32) | i;
+        }
+        Arrays.sort(pairs);
+        int[] sortedIndices = new int[count];
+        Object[] sortedChildren = new Object[count];
+        for (int i = 0; i < count; i++) {
+            int pos = (int) pairs[i];
+            sortedIndices[i] = viewIndices[pos];
+            sortedChildren[i] = viewChildren[pos];
+        }
+        fireEvent(type, parentPath, sortedIndices, sortedChildren);
+    }
+    
+    private void fireEvent(int type, TreePath parentPath, int[] indices, Object[] children) {
+        TreeModelListener[] listeners = modelSupport.getTreeModelListeners();
+        if (listeners.length == 0) return;
+        TreeModelEvent e = new TreeModelEvent(this, parentPath, indices, children);
+        for (int i = listeners.length - 1; i >= 0; i--) {
+            switch (type) {
+            case EVENT_CHANGED:
+                listeners[i].treeNodesChanged(e);
+                break;
+            case EVENT_INSERTED:
+                listeners[i].treeNodesInserted(e);
+                break;
+            default:
+                listeners[i].treeNodesRemoved(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.table;
+
+/**
+ * A sequence of row heights with logarithmic access, the variable row height
+ * store of <code>JXTable</code>. <p>
+ * 
+ * Has the same responsibilities as core <code>SizeSequence</code>: it 
+ * maps between row indices and y positions and supports changing the height
+ * of single rows as well as inserting and removing ranges of rows. Other 
+ * than <code>SizeSequence</code>, which updates an array, all operations
+ * including insert and remove are O(log n). <p>
+ * 
+ * Internally, the heights are kept as runs of equal heights in a randomized
+ * balanced tree (treap) which is augmented with the row count and total 
+ * height of each subtree. Consequently, a sequence of n rows of uniform 
+ * height takes a single node, memory grows with the number of rows which
+ * differ from their neighbours.
+ * 
+ * @see javax.swing.SizeSequence
+ */
+public class RowHeightSequence {
+
+    private Node root;
+    
+    /** state of the pseudo-random generator for node priorities. */
+    private int seed = 0x2545F491;
+    
+    /** 
+     * Result registers of split, to not allocate a pair per call. 
+     * Only valid directly after the call.
+     */
+    private Node splitLeft;
+    private Node splitRight;
+    
+    /**
+     * Instantiates an empty sequence.
+     */
+    public RowHeightSequence() {
+    }
+    
+    /**
+     * Instantiates a sequence of count rows with the same height.
+     * 
+     * @param count the number of rows
+     * @param height the height of each row
+     * @throws IllegalArgumentException if count or height is negative
+     */
+    public RowHeightSequence(int count, int height) {
+        insertEntries(0, count, height);
+    }
+    
+    /**
+     * Instantiates a sequence with the given row heights.
+     * 
+     * @param heights the heights of the rows
+     * @throws IllegalArgumentException if any height is negative
+     */
+    public RowHeightSequence(int[] heights) {
+        setSizes(heights);
+    }
+    
+    /**
+     * Returns the number of rows.
+     * 
+     * @return the number of rows
+     */
+    public int size() {
+        return count(root);
+    }
+    
+    /**
+     * Returns the total height of all rows.
+     * 
+     * @return the total height
+     */
+    public long getTotalSize() {
+        return sum(root);
+    }
+
+    /**
+     * Returns the height of the given row.
+     * 
+     * @param index the index of the row
+     * @return the height of the row
+     * @throws IndexOutOfBoundsException if index is not in the range of rows
+     */
+    public int getSize(int index) {
+        checkIndex(index, size() - 1);
+        Node node = root;
+        while (true) {
+            int leftCount = count(node.left);
+            if (index < leftCount) {
+                node = node.left;
+            } else if (index < leftCount + node.count) {
+                return node.height;
+            } else {
+                index -= leftCount + node.count;
+                node = node.right;
+            }
+        }
+    }
+    
+    /**
+     * Sets the height of the given row.
+     * 
+     * @param index the index of the row
+     * @param height the new height of the row
+     * @throws IndexOutOfBoundsException if index is not in the range of rows
+     * @throws IllegalArgumentException if height is negative
+     */
+    public void setSize(int index, int height) {
+        checkHeight(height);
+        if (getSize(index) == height) return;
+        split(root, index);
+        Node before = splitLeft;
+        split(splitRight, 1);
+        Node after = splitRight;
+        // a tree of a single row is a single node
+        Node row = splitLeft;
+        row.height = height;
+        update(row);
+        root = merge(merge(before, row), after);
+    }
+    
+    /**
+     * Sets the heights of all rows, replacing the current rows.
+     * 
+     * @param heights the new heights of the rows
+     * @throws IllegalArgumentException if any height is negative
+     */
+    public void setSizes(int[] heights) {
+        // build the cartesian tree of the runs in linear time
+        Node[] stack = new Node[64];
+        int top = -1;
+        int i = 0;
+        while (i < heights.length) {
+            int height = checkHeight(heights[i]);
+            int end = i + 1;
+            while ((end < heights.length) && (heights[end] == height)) {
+                end++;
+            }
+            Node node = new Node(end - i, height, nextPriority());
+            Node last = null;
+            while ((top >= 0) && (stack[top].priority < node.priority)) {
+                last = stack[top--];
+                update(last);
+            }
+            node.left = last;
+            if (top >= 0) {
+                stack[top].right = node;
+            }
+            if (++top == stack.length) {
+                Node[] grown = new Node[stack.length * 2];
+                System.arraycopy(stack, 0, grown, 0, stack.length);
+                stack = grown;
+            }
+            stack[top] = node;
+            i = end;
+        }
+        for (int j = top; j >= 0; j--) {
+            update(stack[j]);
+        }
+        root = top >= 0 ? stack[0] : null;
+    }
+    
+    /**
+     * Returns the heights of all rows.
+     * 
+     * @return the heights of the rows
+     */
+    public int[] getSizes() {
+        int[] heights = new int[size()];
+        fill(root, heights, 0);
+        return heights;
+    }
+    
+    /**
+     * Returns the y position of the given row, that is the sum of the
+     * heights of all rows before it.
+     * 
+     * @param index the index of the row, may be size() for the total height
+     * @return the position of the row, clamped to the int range
+     * @throws IndexOutOfBoundsException if index is not in the range of rows
+     */
+    public int getPosition(int index) {
+        checkIndex(index, size());
+        long position = 0;
+        Node node = root;
+        while (node != null) {
+            int leftCount = count(node.left);
+            if (index < leftCount) {
+                node = node.left;
+            } else {
+                position += sum(node.left);
+                index -= leftCount;
+                if (index < node.count) {
+                    position += (long) index * node.height;
+                    break;
+                }
+                position += (long) node.count * node.height;
+                index -= node.count;
+                node = node.right;
+            }
+        }
+        return (int) Math.min(position, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Returns the index of the row which contains the given y position.
+     * 
+     * @param position the y position
+     * @return the index of the row, -1 if the position is negative, size() if
+     *   it is beyond the last row
+     */
+    public int getIndex(int position) {
+        if (position < 0) return -1;
+        long remaining = position;
+        int index = 0;
+        Node node = root;
+        while (node != null) {
+            long leftSum = sum(node.left);
+            if (remaining < leftSum) {
+                node = node.left;
+            } else {
+                remaining -= leftSum;
+                index += count(node.left);
+                long runSum = (long) node.count * node.height;
+                if (remaining < runSum) {
+                    return index + (int) (remaining / node.height);
+                }
+                remaining -= runSum;
+                index += node.count;
+                node = node.right;
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * Inserts rows of the same height.
+     * 
+     * @param start the index of the first inserted row
+     * @param length the number of rows to insert
+     * @param height the height of the inserted rows
+     * @throws IndexOutOfBoundsException if start is not in the range of rows
+     * @throws IllegalArgumentException if length or height is negative
+     */
+    public void insertEntries(int start, int length, int height) {
+        checkIndex(start, size());
+        checkHeight(height);
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative " + length);
+        }
+        if (length == 0) return;
+        split(root, start);
+        Node after = splitRight;
+        Node inserted = new Node(length, height, nextPriority());
+        root = merge(merge(splitLeft, inserted), after);
+    }
+    
+    /**
+     * Removes a range of rows.
+     * 
+     * @param start the index of the first removed row
+     * @param length the number of rows to remove
+     * @throws IndexOutOfBoundsException if the range is not in the range of rows
+     */
+    public void removeEntries(int start, int length) {
+        checkIndex(start, size());
+        checkIndex(start + length, size());
+        if (length <= 0) return;
+        split(root, start);
+        Node before = splitLeft;
+        split(splitRight, length);
+        root = merge(before, splitRight);
+    }
+    
+//------------------- treap
+    
+    /**
+     * Splits the tree into the first k rows and the rest, the results are
+     * stored in splitLeft and splitRight. A run which spans the split 
+     * position is divided.
+     */
+    private void split(Node node, int k) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        int leftCount = count(node.left);
+        if (k <= leftCount) {
+            split(node.left, k);
+            node.left = splitRight;
+            update(node);
+            splitRight = node;
+        } else if (k >= leftCount + node.count) {
+            split(node.right, k - leftCount - node.count);
+            node.right = splitLeft;
+            update(node);
+            splitLeft = node;
+        } else {
+            int head = k - leftCount;
+            // same priority keeps the heap order of the right subtree
+            Node tail = new Node(node.count - head, node.height, node.priority);
+            tail.right = node.right;
+            node.right = null;
+            node.count = head;
+            update(tail);
+            update(node);
+            splitLeft = node;
+            splitRight = tail;
+        }
+    }
+    
+    private Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+    
+    private int fill(Node node, int[] heights, int offset) {
+        if (node == null) return offset;
+        offset = fill(node.left, heights, offset);
+        for (int i = 0; i < node.count; i++) {
+            heights[offset++] = node.height;
+        }
+        return fill(node.right, heights, offset);
+    }
+
+    private int nextPriority() {
+        // xorshift
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+    
+    private static void update(Node node) {
+        node.subtreeCount = node.count + count(node.left) + count(node.right);
+        node.subtreeSum = (long) node.count * node.height + sum(node.left) + sum(node.right);
+    }
+    
+    private static int count(Node node) {
+        return node != null ? node.subtreeCount : 0;
+    }
+    
+    private static long sum(Node node) {
+        return node != null ? node.subtreeSum : 0;
+    }
+    
+    private static void checkIndex(int index, int max) {
+        if ((index < 0) || (index > max)) {
+            throw new IndexOutOfBoundsException("index " + index + " not in range [0, " + max + "]");
+        }
+    }
+    
+    private static int checkHeight(int height) {
+        if (height < 0) {
+            throw new IllegalArgumentException("height must not be negative " + height);
+        }
+        return height;
+    }
+    
+    /**
+     * A run of rows with equal height.
+     */
+    private static class Node {
+        int count;
+        int height;
+        final int priority;
+        Node left;
+        Node right;
+        int subtreeCount;
+        long subtreeSum;
+        
+        Node(int count, int height, int priority) {
+            this.count = count;
+            this.height = height;
+            this.priority = priority;
+            update(this);
+        }
+    }
+}
@@ -35,6 +35,7 @@ import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 
+import org.jdesktop.swingx.decorator.ComponentAdapter;
 import org.jdesktop.swingx.decorator.CompoundHighlighter;
 import org.jdesktop.swingx.decorator.Highlighter;
 import org.jdesktop.swingx.plaf.UIDependent;
@@ -264,6 +265,20 @@ public class TableColumnExt extends TableColumn implements UIDependent {
         ignoreHighlighterStateChange = false;
     }
     
+    /**
+     * Applies the column's <code>Highlighter</code>s to the given rendering
+     * component. Called by the table after applying its own highlighters.
+     * 
+     * @param stamp the rendering component to decorate
+     * @param adapter the ComponentAdapter for this decorate operation
+     * @return the decorated rendering component
+     * @see #setHighlighters(Highlighter...)
+     */
+    public Component prepareRenderer(Component stamp, ComponentAdapter adapter) {
+        if (compoundHighlighter == null) return stamp;
+        return compoundHighlighter.highlight(stamp, adapter);
+    }
+    
     /**
      * Returns the CompoundHighlighter assigned to the table, null if none.
      * PENDING: open up for subclasses again?.
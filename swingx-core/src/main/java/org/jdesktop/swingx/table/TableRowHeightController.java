@@ -148,6 +148,9 @@ public class TableRowHeightController {
                     public void run() {
                         if ("model".equals(evt.getPropertyName())) {
                             updateModel((TableModel) evt.getOldValue());
+                        } else if ("rowSorter".equals(evt.getPropertyName())) {
+                            // a new sorter resets the row heights
+                            updatePreferredRowHeights();
                         }
                         
                     }
@@ -0,0 +1,44 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.tree;
+
+import javax.swing.tree.TreePath;
+
+/**
+ * A predicate which decides whether or not a node, identified by its 
+ * path, takes part in an operation on a subtree, like the bulk expansion
+ * of <code>JXTree</code>. <p>
+ * 
+ * Note: implementations must not change the tree or its model.
+ * 
+ * @see org.jdesktop.swingx.JXTree#expandSubtree(TreePath, int, TreePathPredicate)
+ */
+public interface TreePathPredicate {
+
+    /**
+     * Returns a boolean to indicate whether the node at the given path 
+     * is included.
+     * 
+     * @param path the path to the node, never null
+     * @return true if the node is included, false otherwise
+     */
+    boolean isIncluded(TreePath path);
+}
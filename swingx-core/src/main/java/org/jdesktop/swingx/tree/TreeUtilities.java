@@ -1,17 +1,27 @@
 package org.jdesktop.swingx.tree;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 
+import org.jdesktop.swingx.renderer.StringValue;
+import org.jdesktop.swingx.renderer.StringValues;
+import org.jdesktop.swingx.util.Contract;
+
 /**
  * Contains convenience classes/methods for handling hierarchical Swing structures.
  * 
@@ -423,6 +433,275 @@ public class TreeUtilities {
         return e;
     }
     
+    /**
+     * Accumulates the nodes of a TreeModel into partial results during a 
+     * parallel traversal and combines the partial results into one. <p>
+     * 
+     * Each task of the traversal creates its own partial result and is the
+     * only one to access it until it is combined, so implementations need
+     * not synchronize on the result. They must be stateless or thread-safe
+     * otherwise.
+     * 
+     * @param <R> the type of the result
+     * 
+     * @see TreeUtilities#aggregate(TreeModel, Object, ExecutorService, NodeAggregator)
+     */
+    public static interface NodeAggregator<R> {
+        
+        /**
+         * Returns a new, empty partial result.
+         * 
+         * @return a new, empty partial result
+         */
+        R createResult();
+        
+        /**
+         * Accumulates the given node into the partial result.
+         * 
+         * @param result the partial result of the calling task
+         * @param node the node to accumulate
+         * @return true to continue the traversal, false to stop it as soon as
+         *   possible, f.i. when a search is satisfied
+         */
+        boolean accumulate(R result, Object node);
+        
+        /**
+         * Combines two partial results. The order in which partial results are 
+         * combined is unspecified.
+         * 
+         * @param first a partial result
+         * @param second another partial result
+         * @return the combination of both
+         */
+        R combine(R first, R second);
+    }
+    
+    /**
+     * Traverses the subtree below and including the given node in parallel
+     * and returns the aggregated result. <p>
+     * 
+     * The traversal starts with a single task submitted to the executor. While
+     * traversing its subtree depth-first, each task hands the oldest pending 
+     * subtrees on its stack - which are the ones nearest to its root and so 
+     * likely the largest - to new tasks whenever the executor runs short of 
+     * queued work. This way even unbalanced trees are spread across all 
+     * workers while balanced trees are not cut into more tasks than needed. <p>
+     * 
+     * The model is accessed concurrently from the executor's threads, so it 
+     * must not change during the traversal and must be safe to read from
+     * several threads. Neither is true for models which are shown in a
+     * component, unless the caller is on the EDT - which it should not block, 
+     * though. The method must not be called on a thread of the executor.
+     * 
+     * @param <R> the type of the result
+     * @param model the TreeModel to traverse, must not be null
+     * @param node the root of the subtree to traverse, must not be null
+     * @param executor the executor to run the traversal, must not be null
+     * @param aggregator the aggregator to accumulate the nodes with, must not be null
+     * @return the aggregated result
+     * @throws InterruptedException if the calling thread is interrupted while 
+     *    waiting for the traversal to complete
+     * @throws RuntimeException any runtime exception thrown by the model
+     *    or the aggregator, or by the executor when rejecting a task
+     */
+    public static <R> R aggregate(TreeModel model, Object node, 
+            ExecutorService executor, NodeAggregator<R> aggregator) 
+            throws InterruptedException {
+        Contract.asNotNull(model, "model must not be null");
+        Contract.asNotNull(node, "node must not be null");
+        Contract.asNotNull(executor, "executor must not be null");
+        Contract.asNotNull(aggregator, "aggregator must not be null");
+        return new ParallelTraversal<R>(model, executor, aggregator).traverse(node);
+    }
+
+    /**
+     * Counts the nodes of the subtree below and including the given node 
+     * in parallel. The restrictions of
+     * {@link #aggregate(TreeModel, Object, ExecutorService, NodeAggregator)} apply.
+     * 
+     * @param model the TreeModel to traverse, must not be null
+     * @param node the root of the subtree to count, must not be null
+     * @param executor the executor to run the traversal, must not be null
+     * @return the number of nodes in the subtree
+     * @throws InterruptedException if the calling thread is interrupted while 
+     *    waiting for the traversal to complete
+     */
+    public static int countNodes(TreeModel model, Object node, ExecutorService executor) 
+            throws InterruptedException {
+        int[] count = aggregate(model, node, executor, new NodeAggregator<int[]>() {
+
+            @Override
+            public int[] createResult() {
+                return new int[1];
+            }
+
+            @Override
+            public boolean accumulate(int[] result, Object node) {
+                result[0]++;
+                return true;
+            }
+
+            @Override
+            public int[] combine(int[] first, int[] second) {
+                first[0] += second[0];
+                return first;
+            }
+        });
+        return count[0];
+    }
+    
+    /**
+     * Searches the subtree below and including the given node in parallel
+     * for nodes whose string representation matches the pattern. The 
+     * restrictions of
+     * {@link #aggregate(TreeModel, Object, ExecutorService, NodeAggregator)} apply.
+     * 
+     * @param model the TreeModel to search, must not be null
+     * @param node the root of the subtree to search, must not be null
+     * @param executor the executor to run the search, must not be null
+     * @param pattern the pattern to match, must not be null
+     * @param stringValue the converter to use for the string representation,
+     *   uses <code>StringValues.TO_STRING</code> if null
+     * @return the matching nodes in no particular order, the list is empty if
+     *   there are none
+     * @throws InterruptedException if the calling thread is interrupted while 
+     *    waiting for the search to complete
+     */
+    public static List<Object> findNodes(TreeModel model, Object node, 
+            ExecutorService executor, final Pattern pattern, StringValue stringValue) 
+            throws InterruptedException {
+        Contract.asNotNull(pattern, "pattern must not be null");
+        final StringValue sv = stringValue != null ? stringValue : StringValues.TO_STRING;
+        return aggregate(model, node, executor, new NodeAggregator<List<Object>>() {
+
+            @Override
+            public List<Object> createResult() {
+                return new ArrayList<Object>();
+            }
+
+            @Override
+            public boolean accumulate(List<Object> result, Object node) {
+                if (pattern.matcher(sv.getString(node)).find()) {
+                    result.add(node);
+                }
+                return true;
+            }
+
+            @Override
+            public List<Object> combine(List<Object> first, List<Object> second) {
+                first.addAll(second);
+                return first;
+            }
+        });
+    }
+    
+    /**
+     * One parallel traversal of a TreeModel. Counts the tasks which are
+     * submitted but not yet finished to detect completion, and those
+     * which are not yet started to decide about splitting.
+     */
+    private static class ParallelTraversal<R> {
+        
+        /** Number of queued tasks below which running tasks split off subtrees. */
+        private static final int SPLIT_THRESHOLD = 2;
+        
+        private final TreeModel model;
+        private final ExecutorService executor;
+        private final NodeAggregator<R> aggregator;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Queue<R> results = new ConcurrentLinkedQueue<R>();
+        private volatile boolean stopped;
+        // guarded by this
+        private int outstanding;
+        private RuntimeException failure;
+        
+        ParallelTraversal(TreeModel model, ExecutorService executor, 
+                NodeAggregator<R> aggregator) {
+            this.model = model;
+            this.executor = executor;
+            this.aggregator = aggregator;
+        }
+        
+        R traverse(Object node) throws InterruptedException {
+            submit(node);
+            synchronized (this) {
+                try {
+                    while (outstanding > 0) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    stopped = true;
+                    throw e;
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+            R result = results.poll();
+            R next;
+            while ((next = results.poll()) != null) {
+                result = aggregator.combine(result, next);
+            }
+            return result;
+        }
+        
+        private void submit(final Object node) {
+            synchronized (this) {
+                outstanding++;
+            }
+            queued.incrementAndGet();
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        queued.decrementAndGet();
+                        RuntimeException error = null;
+                        try {
+                            if (!stopped) {
+                                traverseSubtree(node);
+                            }
+                        } catch (RuntimeException e) {
+                            error = e;
+                        }
+                        finished(error);
+                    }
+                });
+            } catch (RuntimeException e) {
+                queued.decrementAndGet();
+                finished(e);
+            }
+        }
+        
+        private void traverseSubtree(Object node) {
+            R result = aggregator.createResult();
+            Deque<Object> stack = new ArrayDeque<Object>();
+            stack.push(node);
+            while (!stack.isEmpty() && !stopped) {
+                while (stack.size() > 1 && queued.get() < SPLIT_THRESHOLD) {
+                    submit(stack.removeLast());
+                }
+                Object current = stack.pop();
+                if (!aggregator.accumulate(result, current)) {
+                    stopped = true;
+                }
+                for (int i = model.getChildCount(current) - 1; i >= 0; i--) {
+                    stack.push(model.getChild(current, i));
+                }
+            }
+            results.add(result);
+        }
+        
+        private synchronized void finished(RuntimeException error) {
+            if (error != null && failure == null) {
+                failure = error;
+                stopped = true;
+            }
+            if (--outstanding == 0) {
+                notifyAll();
+            }
+        }
+    }
+    
     private TreeUtilities() {}
     
     @SuppressWarnings("unused")
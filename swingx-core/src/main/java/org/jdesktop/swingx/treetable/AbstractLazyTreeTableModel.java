@@ -0,0 +1,522 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.jdesktop.swingx.treetable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+import javax.swing.tree.TreePath;
+
+/**
+ * AbstractLazyTreeTableModel is a starting point for tree table models 
+ * whose children are expensive to load, f.i. from a database or a remote 
+ * catalog. Children are loaded on a background executor when they are first 
+ * queried, that is typically when a node is expanded. Until then the node 
+ * reports a single placeholder child, which shows a "loading" text in the 
+ * hierarchical column. The loaded children replace the placeholder and are 
+ * cached per node.
+ * <p>
+ * 
+ * To create a concrete model you need only to provide implementations for the
+ * following methods:
+ * 
+ * <pre>
+ * public int getColumnCount();
+ * protected Object getNodeValueAt(Object node, int column);
+ * protected List&lt;?&gt; loadChildren(Object parent) throws Exception;
+ * </pre>
+ * 
+ * <code>loadChildren</code> is called on a background thread, all other methods
+ * are expected to be called on the EDT only. Nodes must implement equals and
+ * hashCode consistently, they are used as keys of the cache.
+ * <p>
+ */
+public abstract class AbstractLazyTreeTableModel extends AbstractTreeTableModel {
+
+    private static final Logger LOG = Logger
+            .getLogger(AbstractLazyTreeTableModel.class.getName());
+    
+    private static ExecutorService defaultExecutor;
+    
+    private final ExecutorService executor;
+    
+    /** the children per parent node, accessed on the EDT only. */
+    private final Map<Object, Children> cache = new HashMap<Object, Children>();
+    
+    /** the parent per loaded node, accessed on the EDT only. */
+    private final Map<Object, Object> parents = new HashMap<Object, Object>();
+    
+    /**
+     * Constructs an {@code AbstractLazyTreeTableModel} with a {@code null} root
+     * node.
+     */
+    public AbstractLazyTreeTableModel() {
+        this(null);
+    }
+
+    /**
+     * Constructs an {@code AbstractLazyTreeTableModel} with the specified root
+     * node, using a shared executor.
+     * 
+     * @param root root node
+     */
+    public AbstractLazyTreeTableModel(Object root) {
+        this(root, null);
+    }
+    
+    /**
+     * Constructs an {@code AbstractLazyTreeTableModel} with the specified root
+     * node and executor.
+     * 
+     * @param root root node
+     * @param executor the executor to load the children on, a shared 
+     *   executor is used if null.
+     */
+    public AbstractLazyTreeTableModel(Object root, ExecutorService executor) {
+        super(root);
+        this.executor = executor != null ? executor : getDefaultExecutor();
+    }
+
+    /**
+     * Loads the children of the given parent. Called on a background thread,
+     * implementations must not access the state of this model. 
+     * 
+     * @param parent the node to load the children of
+     * @return the children, may be empty but must not be null
+     * @throws Exception if the children could not be loaded
+     */
+    protected abstract List<?> loadChildren(Object parent) throws Exception;
+    
+    /**
+     * Returns the value of the given node which is not a placeholder.
+     * 
+     * @param node the node, not a placeholder
+     * @param column the column index
+     * @return the value of the node at the column
+     * @see #getValueAt(Object, int)
+     */
+    protected abstract Object getNodeValueAt(Object node, int column);
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the text of a placeholder in the hierarchical 
+     * column and null in all other columns, and the value of 
+     * <code>getNodeValueAt</code> for all other nodes.
+     */
+    @Override
+    public final Object getValueAt(Object node, int column) {
+        if (isLoadingNode(node)) {
+            return column == getHierarchicalColumn() ? node.toString() : null;
+        }
+        return getNodeValueAt(node, column);
+    }
+    
+    /**
+     * Returns a boolean indicating whether the given node may have children,
+     * without loading them. This implementation returns true.
+     * 
+     * @param node the node to check
+     * @return true if the node may have children, false if it is a leaf
+     */
+    protected boolean allowsChildren(Object node) {
+        return true;
+    }
+    
+    /**
+     * Returns the text shown by placeholders. 
+     * 
+     * @return the text of the placeholder nodes
+     */
+    protected String getLoadingText() {
+        return "Loading...";
+    }
+    
+    /**
+     * Called on the EDT if <code>loadChildren</code> threw an exception.
+     * This implementation logs the exception and returns an empty list.
+     * 
+     * @param parent the node whose children could not be loaded
+     * @param e the exception thrown by loadChildren
+     * @return the children to use instead
+     */
+    protected List<?> loadFailed(Object parent, Exception e) {
+        LOG.log(Level.WARNING, "failed to load children of " + parent, e);
+        return Collections.emptyList();
+    }
+    
+    /**
+     * Called on the EDT for each node which is dropped from the loaded tree
+     * when the children of one of its ancestors are reloaded. Subclasses which
+     * cache data per node should release it here. This implementation does
+     * nothing.
+     * 
+     * @param node the node which is no longer part of the tree
+     * @see #reload(Object)
+     */
+    protected void nodeEvicted(Object node) {
+    }
+    
+    /**
+     * Returns a boolean indicating whether the node is a placeholder for
+     * children which are not yet loaded.
+     * 
+     * @param node the node to check
+     * @return true if the node is a placeholder
+     */
+    public boolean isLoadingNode(Object node) {
+        return node instanceof LoadingNode;
+    }
+    
+    /**
+     * Returns a boolean indicating whether the children of the given parent
+     * are loaded. 
+     * 
+     * @param parent the node to check
+     * @return true if the children are loaded and cached
+     */
+    public boolean isLoaded(Object parent) {
+        Children children = cache.get(parent);
+        return children != null && children.children != null;
+    }
+    
+    /**
+     * Returns a boolean indicating whether the children of the given parent
+     * are currently being loaded.
+     * 
+     * @param parent the node to check
+     * @return true if a background load of the children is pending
+     */
+    public boolean isLoading(Object parent) {
+        Children children = cache.get(parent);
+        return children != null && children.task != null;
+    }
+    
+    /**
+     * Cancels the loading of the children of the given parent. The
+     * placeholder remains until the parent is reloaded. Does nothing
+     * if the children are not currently loading.
+     * 
+     * @param parent the node to cancel loading for.
+     * @see #reload(Object)
+     */
+    public void cancelLoading(Object parent) {
+        Children children = cache.get(parent);
+        if (children == null || children.task == null) return;
+        children.task.cancel(true);
+        children.task = null;
+    }
+    
+    /**
+     * Cancels all pending loads.
+     * 
+     * @see #cancelLoading(Object)
+     */
+    public void cancelAll() {
+        for (Object parent : new ArrayList<Object>(cache.keySet())) {
+            cancelLoading(parent);
+        }
+    }
+    
+    /**
+     * Drops the cached children of the given node and its descendants and 
+     * notifies a structure change. The children are loaded again when next 
+     * queried.
+     * 
+     * @param parent the node to reload the children of.
+     */
+    public void reload(Object parent) {
+        TreePath path = getPathToRoot(parent);
+        evict(parent);
+        if (path != null) {
+            modelSupport.fireTreeStructureChanged(path);
+        }
+    }
+    
+    /**
+     * Returns the path from the root to the given node, or null if the 
+     * node is not loaded.
+     * 
+     * @param node the node to get the path for
+     * @return the path to the node or null
+     */
+    public TreePath getPathToRoot(Object node) {
+        if (node == null) return null;
+        if (node.equals(getRoot())) return new TreePath(node);
+        Object parent = parents.get(node);
+        if (parent == null) return null;
+        TreePath parentPath = getPathToRoot(parent);
+        return parentPath != null ? parentPath.pathByAddingChild(node) : null;
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the placeholder while the children are not
+     * loaded. Starts loading if necessary.
+     */
+    @Override
+    public Object getChild(Object parent, int index) {
+        Children children = getChildren(parent);
+        if (children == null) {
+            throw new IndexOutOfBoundsException("no children: " + parent);
+        }
+        return children.get(index);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return 1 (the placeholder) while the children are not
+     * loaded. Starts loading if necessary.
+     */
+    @Override
+    public int getChildCount(Object parent) {
+        Children children = getChildren(parent);
+        return children != null ? children.size() : 0;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     */
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (parent == null || child == null) return -1;
+        Children children = cache.get(parent);
+        return children != null ? children.indexOf(child) : -1;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to not load the children: returns true for placeholders,
+     * nodes which are loaded without children or don't allow children.
+     */
+    @Override
+    public boolean isLeaf(Object node) {
+        if (isLoadingNode(node)) return true;
+        Children children = cache.get(node);
+        if (children != null && children.children != null && !children.placeholderShown) {
+            return children.children.isEmpty();
+        }
+        return !allowsChildren(node);
+    }
+
+    /**
+     * Returns the children of the given parent, starting to load them 
+     * if not yet cached. Returns null for leafs.
+     */
+    private Children getChildren(Object parent) {
+        if (parent == null || isLoadingNode(parent)) return null;
+        Children children = cache.get(parent);
+        if (children == null) {
+            if (!allowsChildren(parent)) return null;
+            children = new Children(parent);
+            cache.put(parent, children);
+            startLoading(children);
+        }
+        return children;
+    }
+    
+    private void startLoading(final Children children) {
+        final Object parent = children.parent;
+        children.task = executor.submit(new Runnable() {
+
+            @Override
+            public void run() {
+                List<?> result = null;
+                Exception error = null;
+                try {
+                    result = loadChildren(parent);
+                } catch (Exception e) {
+                    error = e;
+                }
+                if (Thread.currentThread().isInterrupted()) return;
+                final List<?> loaded = result;
+                final Exception failure = error;
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        publish(children, loaded, failure);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Replaces the placeholder by the loaded children: first notifies the
+     * added children, then the removed placeholder, so the parent is never
+     * empty in between.
+     */
+    private void publish(Children children, List<?> loaded, Exception error) {
+        // cancelled or evicted
+        if (children.task == null || cache.get(children.parent) != children) return;
+        children.task = null;
+        if (error != null || loaded == null) {
+            loaded = loadFailed(children.parent, error);
+        }
+        children.children = new ArrayList<Object>(loaded);
+        for (Object child : children.children) {
+            parents.put(child, children.parent);
+        }
+        TreePath path = getPathToRoot(children.parent);
+        if (path == null) {
+            children.placeholderShown = false;
+            return;
+        }
+        int count = children.children.size();
+        if (count > 0) {
+            int[] indices = new int[count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = i + 1;
+            }
+            modelSupport.fireChildrenAdded(path, indices, children.children.toArray());
+        }
+        children.placeholderShown = false;
+        modelSupport.fireChildRemoved(path, 0, children.placeholder);
+    }
+    
+    /**
+     * Removes the cached state of the node and its cached descendants.
+     */
+    private void evict(Object node) {
+        Children children = cache.remove(node);
+        if (children == null) return;
+        if (children.task != null) {
+            children.task.cancel(true);
+            children.task = null;
+        }
+        if (children.children != null) {
+            for (Object child : children.children) {
+                parents.remove(child);
+                evict(child);
+                nodeEvicted(child);
+            }
+        }
+    }
+    
+    private static synchronized ExecutorService getDefaultExecutor() {
+        if (defaultExecutor == null) {
+            defaultExecutor = Executors.newFixedThreadPool(4, new ThreadFactory() {
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "LazyTreeTableModel");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+                
+            });
+        }
+        return defaultExecutor;
+    }
+    
+    /**
+     * The cached children of a parent. While the placeholder is shown, it
+     * is the first child.
+     */
+    private class Children {
+        final Object parent;
+        final LoadingNode placeholder;
+        List<Object> children;
+        Map<Object, Integer> indices;
+        boolean placeholderShown = true;
+        Future<?> task;
+        
+        Children(Object parent) {
+            this.parent = parent;
+            this.placeholder = new LoadingNode(parent);
+        }
+        
+        int size() {
+            int size = children != null ? children.size() : 0;
+            return placeholderShown ? size + 1 : size;
+        }
+        
+        Object get(int index) {
+            if (placeholderShown) {
+                if (index == 0) return placeholder;
+                index--;
+            }
+            if (children == null) {
+                throw new IndexOutOfBoundsException("index " + index);
+            }
+            return children.get(index);
+        }
+        
+        int indexOf(Object child) {
+            int offset = 0;
+            if (placeholderShown) {
+                if (placeholder.equals(child)) return 0;
+                offset = 1;
+            }
+            if (children == null) return -1;
+            if (indices == null) {
+                indices = new HashMap<Object, Integer>(children.size() * 4 / 3 + 1);
+                for (int i = 0; i < children.size(); i++) {
+                    indices.put(children.get(i), i);
+                }
+            }
+            Integer index = indices.get(child);
+            return index != null ? index + offset : -1;
+        }
+    }
+    
+    /**
+     * Placeholder child of a node whose children are loading. Equal to
+     * all placeholders of the same parent.
+     */
+    private class LoadingNode {
+        private final Object parent;
+        
+        LoadingNode(Object parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof LoadingNode) 
+                && parent.equals(((LoadingNode) obj).parent);
+        }
+
+        @Override
+        public int hashCode() {
+            return parent.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getLoadingText();
+        }
+    }
+}
@@ -20,10 +20,16 @@
  */
 package org.jdesktop.swingx.treetable;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
 
 import javax.swing.tree.TreeNode;
 
@@ -68,11 +74,15 @@ public abstract class AbstractMutableTreeTableNode implements
      * Creates the list used to manage the children of this node.
      * <p>
      * This method is called by the constructor.
+     * <p>
+     * This implementation returns a list which looks up children by 
+     * identity in constant time, so that {@code getIndex} and {@code insert}
+     * don't degrade for nodes with many children.
      * 
      * @return a list; this list is guaranteed to be non-{@code null}
      */
     protected List<MutableTreeTableNode> createChildrenList() {
-        return new ArrayList<MutableTreeTableNode>();
+        return new IndexedChildList();
     }
     
     public void add(MutableTreeTableNode child) {
@@ -88,7 +98,7 @@ public abstract class AbstractMutableTreeTableNode implements
             throw new IllegalStateException("this node cannot accept children");
         }
 
-        if (children.contains(child)) {
+        if (child.getParent() == this && children.contains(child)) {
             children.remove(child);
             index--;
         }
@@ -100,6 +110,41 @@ public abstract class AbstractMutableTreeTableNode implements
         }
     }
 
+    /**
+     * Inserts the given children at location index with a single change
+     * of the children list and sets their parent. The children must not
+     * be children of this node.
+     * 
+     * @param newChildren the children to insert
+     * @param index the location of the first child
+     */
+    void insertAll(List<? extends MutableTreeTableNode> newChildren, int index) {
+        if (!allowsChildren) {
+            throw new IllegalStateException("this node cannot accept children");
+        }
+        children.addAll(index, newChildren);
+        for (MutableTreeTableNode child : newChildren) {
+            if (child.getParent() != this) {
+                child.setParent(this);
+            }
+        }
+    }
+    
+    /**
+     * Removes the given children with a single change of the children list
+     * and resets their parent.
+     * 
+     * @param oldChildren the children to remove
+     */
+    void removeAll(Collection<? extends MutableTreeTableNode> oldChildren) {
+        Set<Object> identities = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        identities.addAll(oldChildren);
+        children.removeAll(identities);
+        for (MutableTreeTableNode child : oldChildren) {
+            child.setParent(null);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -131,7 +176,7 @@ public abstract class AbstractMutableTreeTableNode implements
     @Override
     public void setParent(MutableTreeTableNode newParent) {
         if (newParent == null || newParent.getAllowsChildren()) {
-            if (parent != null && parent.getIndex(this) != -1) {
+            if (parent != null && isChildOf(parent)) {
                 parent.remove(this);
             }
         } else {
@@ -141,10 +186,21 @@ public abstract class AbstractMutableTreeTableNode implements
 
         parent = newParent;
 
-        if (parent != null && parent.getIndex(this) == -1) {
+        if (parent != null && !isChildOf(parent)) {
             parent.insert(this, parent.getChildCount());
         }
     }
+    
+    /**
+     * Returns a boolean indicating whether this node is contained in the 
+     * children of the given node. Doesn't look up the index if not needed.
+     */
+    private boolean isChildOf(MutableTreeTableNode node) {
+        if (node instanceof AbstractMutableTreeTableNode) {
+            return ((AbstractMutableTreeTableNode) node).children.contains(this);
+        }
+        return node.getIndex(this) != -1;
+    }
 
     /**
      * Returns this node's user object.
@@ -280,4 +336,198 @@ public abstract class AbstractMutableTreeTableNode implements
             return userObject.toString();
         }
     }
+
+    /**
+     * A list of children with an identity index. The index contains all
+     * children, so that lookups of other nodes fail in constant time. The 
+     * positions before validCount are valid, the others are updated on 
+     * lookup. Appending keeps the positions valid. Falls back to linear
+     * lookup if a child is contained more than once.
+     */
+    static class IndexedChildList extends AbstractList<MutableTreeTableNode> 
+        implements RandomAccess {
+        
+        private final List<MutableTreeTableNode> nodes = new ArrayList<MutableTreeTableNode>();
+        private final Map<Object, Integer> indices = new IdentityHashMap<Object, Integer>();
+        private int validCount;
+        /** true if a node is contained more than once, the index is unused then. */
+        private boolean duplicates;
+        /** the number of positions updated by lookups, for testing. */
+        int reindexCount;
+        
+        @Override
+        public MutableTreeTableNode get(int index) {
+            return nodes.get(index);
+        }
+
+        @Override
+        public int size() {
+            return nodes.size();
+        }
+
+        @Override
+        public MutableTreeTableNode set(int index, MutableTreeTableNode node) {
+            MutableTreeTableNode old = nodes.set(index, node);
+            if (old != node) {
+                unindex(old);
+                index(node, index);
+            }
+            return old;
+        }
+
+        @Override
+        public void add(int index, MutableTreeTableNode node) {
+            nodes.add(index, node);
+            modCount++;
+            index(node, index);
+            if (index == validCount && index == nodes.size() - 1) {
+                validCount++;
+            } else {
+                validCount = Math.min(validCount, index);
+            }
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends MutableTreeTableNode> c) {
+            if (c.isEmpty()) return false;
+            boolean append = index == validCount && index == nodes.size();
+            nodes.addAll(index, c);
+            modCount++;
+            int position = index;
+            for (MutableTreeTableNode node : c) {
+                index(node, position++);
+            }
+            validCount = append ? nodes.size() : Math.min(validCount, index);
+            return true;
+        }
+
+        @Override
+        public MutableTreeTableNode remove(int index) {
+            MutableTreeTableNode old = nodes.remove(index);
+            modCount++;
+            unindex(old);
+            validCount = Math.min(validCount, index);
+            return old;
+        }
+        
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to remove all nodes in a single pass.
+         */
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            int first = -1;
+            int kept = 0;
+            for (int i = 0; i < nodes.size(); i++) {
+                MutableTreeTableNode node = nodes.get(i);
+                if (c.contains(node)) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    unindex(node);
+                } else {
+                    nodes.set(kept++, node);
+                }
+            }
+            if (first < 0) return false;
+            nodes.subList(kept, nodes.size()).clear();
+            modCount++;
+            validCount = Math.min(validCount, first);
+            return true;
+        }
+        
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            List<MutableTreeTableNode> range = nodes.subList(fromIndex, toIndex);
+            for (MutableTreeTableNode node : range) {
+                unindex(node);
+            }
+            range.clear();
+            modCount++;
+            validCount = Math.min(validCount, fromIndex);
+        }
+
+        @Override
+        public void clear() {
+            nodes.clear();
+            modCount++;
+            indices.clear();
+            validCount = 0;
+            duplicates = false;
+        }
+
+        /**
+         * Adds the node to the index, its position is valid only if before
+         * validCount.
+         */
+        private void index(Object node, int index) {
+            if (duplicates) return;
+            if (indices.put(node, index) != null) {
+                duplicates = true;
+                validCount = 0;
+            }
+        }
+        
+        /**
+         * Removes the node from the index.
+         */
+        private void unindex(Object node) {
+            if (duplicates) return;
+            indices.remove(node);
+        }
+        
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to compare by identity.
+         */
+        @Override
+        public int indexOf(Object o) {
+            if (duplicates) {
+                for (int i = 0; i < nodes.size(); i++) {
+                    if (nodes.get(i) == o) return i;
+                }
+                return -1;
+            }
+            Integer index = indices.get(o);
+            if (index == null) return -1;
+            // a stale position may point before validCount
+            if (index < validCount && nodes.get(index) == o) return index;
+            // update the positions up to the node
+            for (int i = validCount; i < nodes.size(); i++) {
+                MutableTreeTableNode node = nodes.get(i);
+                indices.put(node, i);
+                reindexCount++;
+                validCount = i + 1;
+                if (node == o) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to compare by identity.
+         */
+        @Override
+        public boolean contains(Object o) {
+            return duplicates ? indexOf(o) >= 0 : indices.containsKey(o);
+        }
+        
+        /**
+         * {@inheritDoc} <p>
+         * 
+         * Implemented to compare by identity.
+         */
+        @Override
+        public boolean remove(Object o) {
+            int index = indexOf(o);
+            if (index < 0) return false;
+            remove(index);
+            return true;
+        }
+    }
 }
@@ -21,7 +21,10 @@
 package org.jdesktop.swingx.treetable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.tree.TreePath;
 
@@ -398,6 +401,104 @@ public class DefaultTreeTableModel extends AbstractTreeTableModel {
                 index, node);
     }
 
+    /**
+     * Inserts the given children into the parent's children, starting at 
+     * location index. Notifies a single {@code treeNodesInserted} for all 
+     * children. This is the preferred way to add many children at once.
+     * 
+     * @param newChildren the children to insert, must not be children of 
+     *   the parent
+     * @param parent the parent to insert into
+     * @param index the location of the first child
+     * @throws IllegalArgumentException if any of the children is a child of
+     *   the parent
+     */
+    public void insertNodesInto(List<? extends MutableTreeTableNode> newChildren,
+            MutableTreeTableNode parent, int index) {
+        if (newChildren.isEmpty()) return;
+        for (MutableTreeTableNode child : newChildren) {
+            if (child.getParent() == parent) {
+                throw new IllegalArgumentException("node is a child of parent already: " + child);
+            }
+        }
+        int[] indices = new int[newChildren.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = index + i;
+        }
+        if (parent instanceof AbstractMutableTreeTableNode) {
+            ((AbstractMutableTreeTableNode) parent).insertAll(newChildren, index);
+        } else {
+            for (int i = 0; i < indices.length; i++) {
+                parent.insert(newChildren.get(i), indices[i]);
+            }
+        }
+        
+        modelSupport.fireChildrenAdded(new TreePath(getPathToRoot(parent)), indices,
+                newChildren.toArray());
+    }
+    
+    /**
+     * Removes the given nodes from their parents. Notifies a single 
+     * {@code treeNodesRemoved} per parent, with all indices. This is the 
+     * preferred way to remove many nodes at once.
+     * 
+     * @param nodes the nodes to remove
+     * @throws IllegalArgumentException if any of the nodes has no parent
+     */
+    public void removeNodesFromParent(List<? extends MutableTreeTableNode> nodes) {
+        // group by parent, keeping the order of the parents
+        Map<MutableTreeTableNode, List<MutableTreeTableNode>> byParent = 
+            new IdentityHashMap<MutableTreeTableNode, List<MutableTreeTableNode>>();
+        List<MutableTreeTableNode> parents = new ArrayList<MutableTreeTableNode>();
+        Map<MutableTreeTableNode, Boolean> seen = new IdentityHashMap<MutableTreeTableNode, Boolean>();
+        for (MutableTreeTableNode node : nodes) {
+            MutableTreeTableNode parent = (MutableTreeTableNode) node.getParent();
+            if (parent == null) {
+                throw new IllegalArgumentException("node does not have a parent: " + node);
+            }
+            if (seen.put(node, Boolean.TRUE) != null) continue;
+            List<MutableTreeTableNode> children = byParent.get(parent);
+            if (children == null) {
+                children = new ArrayList<MutableTreeTableNode>();
+                byParent.put(parent, children);
+                parents.add(parent);
+            }
+            children.add(node);
+        }
+        for (MutableTreeTableNode parent : parents) {
+            removeChildren(parent, byParent.get(parent));
+        }
+    }
+
+    /**
+     * Removes the children from the parent at once if supported, else from 
+     * the last to the first, and notifies them in ascending order.
+     */
+    private void removeChildren(MutableTreeTableNode parent, List<MutableTreeTableNode> children) {
+        // index of the child in the high bits, position in the list in the low
+        long[] positions = new long[children.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = ((long) parent.getIndex(children.get(i)) << 32) | i;
+        }
+        Arrays.sort(positions);
+        TreePath path = new TreePath(getPathToRoot(parent));
+        int[] indices = new int[positions.length];
+        Object[] removed = new Object[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            indices[i] = (int) (positions[i] >> 32);
+            removed[i] = children.get((int) positions[i]);
+        }
+        if (parent instanceof AbstractMutableTreeTableNode) {
+            ((AbstractMutableTreeTableNode) parent).removeAll(children);
+        } else {
+            for (int i = indices.length - 1; i >= 0; i--) {
+                parent.remove(indices[i]);
+            }
+        }
+        
+        modelSupport.fireChildrenRemoved(path, indices, removed);
+    }
+    
     /**
      * Called when value for the item identified by path has been changed. If
      * newValue signifies a truly new value the model should post a {@code
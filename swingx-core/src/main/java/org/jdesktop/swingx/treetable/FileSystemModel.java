@@ -22,8 +22,11 @@
 package org.jdesktop.swingx.treetable;
 
 import java.io.File;
-import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.tree.TreePath;
 
 /**
  * A tree table model to simulate a file system.
@@ -41,6 +44,10 @@ import java.util.Date;
  * deletion of files, and the movement of files. This simple implementation does
  * not intend to tackle such problems, but this implementation may be extended
  * to handle such details.
+ * <p>
+ * Directories are listed once, and the listing and file attributes
+ * are cached. Use {@link #refresh(File)} to re-read a directory after changes
+ * in the file system.
  * 
  * @author Ramesh Gupta
  * @author Karl Schaefer
@@ -48,6 +55,12 @@ import java.util.Date;
 public class FileSystemModel extends AbstractTreeTableModel {
     // The the returned file length for directories.
     private static final Long DIRECTORY = 0L;
+    
+    /** cached listings per directory, files are null for non-directories. */
+    private final Map<File, Listing> listings = new HashMap<File, Listing>();
+    
+    /** cached attributes per file. */
+    private final Map<File, Attributes> attributes = new HashMap<File, Attributes>();
 
     /**
      * Creates a file system model using the root directory as the model root.
@@ -92,11 +105,10 @@ public class FileSystemModel extends AbstractTreeTableModel {
             throw new IllegalArgumentException("parent is not a file governed by this model");
         }
         
-        File parentFile = (File) parent;
-        String[] children = parentFile.list();
+        File[] children = getListing((File) parent).files;
         
         if (children != null) {
-            return new File(parentFile, children[index]);
+            return children[index];
         }
         
         return null;
@@ -108,7 +120,7 @@ public class FileSystemModel extends AbstractTreeTableModel {
     @Override
     public int getChildCount(Object parent) {
         if (parent instanceof File) {
-            String[] children = ((File) parent).list();
+            File[] children = getListing((File) parent).files;
             
             if (children != null) {
                 return children.length;
@@ -166,11 +178,11 @@ public class FileSystemModel extends AbstractTreeTableModel {
             case 0:
                 return file.getName();
             case 1:
-                return isLeaf(node) ? file.length() : DIRECTORY;
+                return isLeaf(node) ? getAttributes(file).length : DIRECTORY;
             case 2:
-                return file.isDirectory();
+                return getAttributes(file).directory;
             case 3:
-                return new Date(file.lastModified());
+                return new Date(getAttributes(file).lastModified);
             }
         }
 
@@ -183,16 +195,7 @@ public class FileSystemModel extends AbstractTreeTableModel {
     @Override
     public int getIndexOfChild(Object parent, Object child) {
         if (parent instanceof File && child instanceof File) {
-            File parentFile = (File) parent;
-            File[] files = parentFile.listFiles();
-            
-            Arrays.sort(files);
-            
-            for (int i = 0, len = files.length; i < len; i++) {
-                if (files[i].equals(child)) {
-                    return i;
-                }
-            }
+            return getListing((File) parent).indexOf((File) child);
         }
         
         return -1;
@@ -215,6 +218,8 @@ public class FileSystemModel extends AbstractTreeTableModel {
      */
     public void setRoot(File root) {
         this.root = root;
+        listings.clear();
+        attributes.clear();
         
         modelSupport.fireNewRoot();
     }
@@ -226,9 +231,103 @@ public class FileSystemModel extends AbstractTreeTableModel {
     public boolean isLeaf(Object node) {
         if (node instanceof File) {
             //do not use isFile(); some system files return false
-            return ((File) node).list() == null;
+            return getListing((File) node).files == null;
         }
         
         return true;
     }
+    
+    /**
+     * Drops the cached listing and attributes of the given directory and 
+     * its listed descendants and notifies listeners that the structure
+     * below the directory has changed. The directory is listed again when
+     * next queried.
+     * 
+     * @param directory the directory to refresh, must be governed by
+     *   this model
+     */
+    public void refresh(File directory) {
+        if (!isValidFileNode(directory)) {
+            throw new IllegalArgumentException("directory is not a file governed by this model");
+        }
+        evict(directory);
+        modelSupport.fireTreeStructureChanged(getPathToRoot(directory));
+    }
+    
+    private TreePath getPathToRoot(File file) {
+        if (file.equals(root)) {
+            return new TreePath(file);
+        }
+        return getPathToRoot(file.getParentFile()).pathByAddingChild(file);
+    }
+    
+    private void evict(File file) {
+        attributes.remove(file);
+        Listing listing = listings.remove(file);
+        if (listing != null && listing.files != null) {
+            for (File child : listing.files) {
+                evict(child);
+            }
+        }
+    }
+    
+    /**
+     * Returns the cached listing of the file, listing it if necessary.
+     */
+    private Listing getListing(File file) {
+        Listing listing = listings.get(file);
+        if (listing == null) {
+            listing = new Listing(file.listFiles());
+            listings.put(file, listing);
+        }
+        return listing;
+    }
+    
+    private Attributes getAttributes(File file) {
+        Attributes result = attributes.get(file);
+        if (result == null) {
+            result = new Attributes(file);
+            attributes.put(file, result);
+        }
+        return result;
+    }
+    
+    /**
+     * The children of a directory, with an index map created on demand.
+     */
+    private static class Listing {
+        final File[] files;
+        Map<File, Integer> indices;
+        
+        Listing(File[] files) {
+            this.files = files;
+        }
+        
+        int indexOf(File child) {
+            if (files == null) return -1;
+            if (indices == null) {
+                indices = new HashMap<File, Integer>(files.length * 4 / 3 + 1);
+                for (int i = 0; i < files.length; i++) {
+                    indices.put(files[i], i);
+                }
+            }
+            Integer index = indices.get(child);
+            return index != null ? index : -1;
+        }
+    }
+    
+    /**
+     * The file attributes shown in the columns.
+     */
+    static class Attributes {
+        final long length;
+        final boolean directory;
+        final long lastModified;
+        
+        Attributes(File file) {
+            length = file.length();
+            directory = file.isDirectory();
+            lastModified = file.lastModified();
+        }
+    }
 }
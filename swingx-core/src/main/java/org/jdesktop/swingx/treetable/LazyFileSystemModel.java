@@ -0,0 +1,214 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.jdesktop.swingx.treetable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A file system tree table model which lists directories on a background
+ * thread.
+ * <p>
+ * The columns are the same as in {@code FileSystemModel}. Each directory is 
+ * listed once, when its children are first queried, together with the 
+ * attributes of its entries, and cached. Until then the directory shows a 
+ * placeholder child. Use {@link #refresh(File)} to re-read a directory after 
+ * changes in the file system.
+ * 
+ * @see FileSystemModel
+ * @see AbstractLazyTreeTableModel
+ */
+public class LazyFileSystemModel extends AbstractLazyTreeTableModel {
+    // The the returned file length for directories.
+    private static final Long DIRECTORY = 0L;
+    
+    /** cached attributes per file, written on the background thread. */
+    private final Map<File, FileSystemModel.Attributes> attributes = 
+        new ConcurrentHashMap<File, FileSystemModel.Attributes>();
+
+    /**
+     * Creates a file system model using the root directory as the model root.
+     */
+    public LazyFileSystemModel() {
+        this(new File(File.separator));
+    }
+
+    /**
+     * Creates a file system model using the specified {@code root}.
+     * 
+     * @param root
+     *            the root for this model; this may be different than the root
+     *            directory for a file system.
+     */
+    public LazyFileSystemModel(File root) {
+        this(root, null);
+    }
+    
+    /**
+     * Creates a file system model using the specified {@code root} and 
+     * executor.
+     * 
+     * @param root
+     *            the root for this model
+     * @param executor the executor to list the directories on, a shared 
+     *   executor is used if null.
+     */
+    public LazyFileSystemModel(File root, ExecutorService executor) {
+        super(root, executor);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to list the directory and read the attributes 
+     * of its entries.
+     */
+    @Override
+    protected List<?> loadChildren(Object parent) throws Exception {
+        File[] files = ((File) parent).listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        for (File file : files) {
+            attributes.put(file, new FileSystemModel.Attributes(file));
+        }
+        return new ArrayList<File>(Arrays.asList(files));
+    }
+
+    /**
+     * Re-reads the given directory on the background thread. The attributes
+     * of the directory itself are read again as well.
+     * 
+     * @param directory the directory to refresh
+     */
+    public void refresh(File directory) {
+        attributes.remove(directory);
+        reload(directory);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to drop the cached attributes of the file.
+     */
+    @Override
+    protected void nodeEvicted(Object node) {
+        attributes.remove(node);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return false for files which are known to not be
+     * directories.
+     */
+    @Override
+    protected boolean allowsChildren(Object node) {
+        FileSystemModel.Attributes attrs = getAttributes((File) node);
+        return attrs.directory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+        case 0:
+            return String.class;
+        case 1:
+            return Long.class;
+        case 2:
+            return Boolean.class;
+        case 3:
+            return Date.class;
+        default:
+            return super.getColumnClass(column);
+        }
+    }
+
+    @Override
+    public int getColumnCount() {
+        return 4;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        switch (column) {
+        case 0:
+            return "Name";
+        case 1:
+            return "Size";
+        case 2:
+            return "Directory";
+        case 3:
+            return "Modification Date";
+        default:
+            return super.getColumnName(column);
+        }
+    }
+
+    @Override
+    protected Object getNodeValueAt(Object node, int column) {
+        if (node instanceof File) {
+            File file = (File) node;
+            FileSystemModel.Attributes attrs = getAttributes(file);
+            switch (column) {
+            case 0:
+                return file.getName();
+            case 1:
+                return attrs.directory ? DIRECTORY : attrs.length;
+            case 2:
+                return attrs.directory;
+            case 3:
+                return new Date(attrs.lastModified);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public File getRoot() {
+        return (File) root;
+    }
+    
+    private FileSystemModel.Attributes getAttributes(File file) {
+        FileSystemModel.Attributes result = attributes.get(file);
+        if (result == null) {
+            // the root and refreshed directories, all others are read with the listing
+            result = new FileSystemModel.Attributes(file);
+            attributes.put(file, result);
+        }
+        return result;
+    }
+}
@@ -79,6 +79,46 @@ public class JXListTest extends InteractiveTestCase {
     private StringValue sv;
 
     
+    /**
+     * Changes of highlighters during one cycle of the EDT are coalesced 
+     * into one repaint.
+     */
+    @Test
+    public void testHighlighterChangeCoalescedRepaint() throws Exception {
+        final int[] repaints = new int[1];
+        final JXList list = new JXList(listModel) {
+            @Override
+            public void repaint(long tm, int x, int y, int width, int height) {
+                repaints[0]++;
+            }
+        };
+        list.setSize(100, 100);
+        final ColorHighlighter highlighter = new ColorHighlighter();
+        list.addHighlighter(highlighter);
+        // flush pending repaints
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                repaints[0] = 0;
+                highlighter.setBackground(Color.RED);
+                highlighter.setForeground(Color.BLUE);
+                highlighter.setSelectedBackground(Color.YELLOW);
+                assertEquals("repaint must be delayed", 0, repaints[0]);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals("changes must be coalesced", 1, repaints[0]);
+            }
+        });
+    }
+    
     /**
      * Issue #1563-swingx: find cell that was clicked for componentPopup
      * 
@@ -33,6 +33,7 @@ import org.jdesktop.swingx.plaf.UIManagerExt;
 import org.jdesktop.swingx.search.NativeSearchFieldSupport;
 import org.jdesktop.swingx.search.RecentSearches;
 import org.jdesktop.swingx.search.RecentSearches.RecentSearchesPopup;
+import org.jdesktop.test.PropertyChangeReport;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -208,6 +209,37 @@ public class JXSearchFieldTest {
         assertFalse(eventReceived);
     }
 
+    @Test
+    public void testAdaptiveInstantSearchDelay() throws Exception {
+        assertFalse("fixed delay by default", searchField.isAdaptiveInstantSearchDelay());
+        PropertyChangeReport report = new PropertyChangeReport(searchField);
+        searchField.setAdaptiveInstantSearchDelay(true);
+        assertTrue(searchField.isAdaptiveInstantSearchDelay());
+        assertTrue(report.hasEvents("adaptiveInstantSearchDelay"));
+        searchField.setInstantSearchDelay(100);
+        assertEquals("instant search delay used until measured", 
+                100, searchField.getCurrentInstantSearchDelay());
+        searchField.postActionEvent();
+        assertEquals("fast search must use minimal delay", 
+                20, searchField.getCurrentInstantSearchDelay());
+        searchField.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                try {
+                    Thread.sleep(60);
+                } catch (InterruptedException ex) {
+                    // ignore
+                }
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            searchField.postActionEvent();
+        }
+        assertTrue("slow search must increase delay", 
+                searchField.getCurrentInstantSearchDelay() >= 100);
+        searchField.setAdaptiveInstantSearchDelay(false);
+        assertEquals(100, searchField.getCurrentInstantSearchDelay());
+    }
+
     @Test
     public void testButtonVisibility() throws Exception {
         assertTrue(searchField.getFindButton().isVisible());
@@ -13,6 +13,7 @@ import java.awt.Dimension;
 import java.awt.GraphicsEnvironment;
 import java.awt.KeyboardFocusManager;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeListener;
 import java.lang.reflect.InvocationTargetException;
@@ -2682,6 +2683,50 @@ public class JXTableUnitTest extends InteractiveTestCase {
         assertSame(textField, editor.getComponent());
     }
     
+    /**
+     * Variable row heights must be kept on inserts/deletes without a 
+     * sorter, as in core.
+     */
+    @Test
+    public void testVariableRowHeightsNoSorter() {
+        DefaultTableModel model = new DefaultTableModel(10, 2);
+        JXTable table = new JXTable(model);
+        table.setRowSorter(null);
+        table.setRowHeight(5, 50);
+        model.insertRow(0, new Object[] {"new", "row"});
+        assertEquals(50, table.getRowHeight(6));
+        assertEquals(table.getRowHeight(), table.getRowHeight(0));
+        model.removeRow(2);
+        assertEquals(50, table.getRowHeight(5));
+        assertEquals(5 * table.getRowHeight() + 50, table.getCellRect(6, 0, false).y);
+    }
+    
+    /**
+     * Updates with variable row heights must repaint the changed rows only.
+     */
+    @Test
+    public void testVariableRowHeightsUpdateRepaint() {
+        DefaultTableModel model = new DefaultTableModel(10, 2);
+        final List<Rectangle> repainted = new ArrayList<Rectangle>();
+        JXTable table = new JXTable(model) {
+            @Override
+            public void repaint(long tm, int x, int y, int width, int height) {
+                repainted.add(new Rectangle(x, y, width, height));
+            }
+        };
+        table.setSize(200, 1000);
+        table.setRowHeight(5, 50);
+        repainted.clear();
+        model.setValueAt("changed", 7, 0);
+        Rectangle cell = table.getCellRect(7, 0, true);
+        boolean found = false;
+        for (Rectangle r : repainted) {
+            assertTrue("repaint beyond the changed rows: " + r, r.height < table.getHeight());
+            found |= r.contains(0, cell.y) && r.contains(0, cell.y + cell.height - 1);
+        }
+        assertTrue("changed row repainted: " + repainted, found);
+    }
+    
     /**
      * test default rowHeight calculation with default font.
      * Beware: the default height is the font's height + 2, but 
@@ -26,18 +26,24 @@ import java.awt.Point;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 import java.util.logging.Logger;
 
 import javax.swing.BorderFactory;
+import javax.swing.Icon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.JTree;
 import javax.swing.RowSorter;
+import javax.swing.SortOrder;
 import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.table.TableModel;
@@ -45,6 +51,7 @@ import javax.swing.table.TableRowSorter;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
+import javax.swing.tree.TreeSelectionModel;
 
 import org.jdesktop.swingx.decorator.BorderHighlighter;
 import org.jdesktop.swingx.decorator.ComponentAdapterTest.JXTreeTableT;
@@ -52,10 +59,12 @@ import org.jdesktop.swingx.renderer.DefaultTreeRenderer;
 import org.jdesktop.swingx.renderer.StringValue;
 import org.jdesktop.swingx.renderer.StringValues;
 import org.jdesktop.swingx.sort.TableSortController;
+import org.jdesktop.swingx.sort.TreeTableSortController;
 import org.jdesktop.swingx.table.TableColumnExt;
 import org.jdesktop.swingx.test.ActionMapTreeTableModel;
 import org.jdesktop.swingx.test.ComponentTreeTableModel;
 import org.jdesktop.swingx.test.TreeTableUtils;
+import org.jdesktop.swingx.treetable.AbstractTreeTableModel;
 import org.jdesktop.swingx.treetable.DefaultMutableTreeTableNode;
 import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
 import org.jdesktop.swingx.treetable.FileSystemModel;
@@ -64,6 +73,7 @@ import org.jdesktop.swingx.treetable.TreeTableModel;
 import org.jdesktop.swingx.treetable.TreeTableModelProvider;
 import org.jdesktop.swingx.treetable.TreeTableNode;
 import org.jdesktop.test.AncientSwingTeam;
+import org.jdesktop.test.ListSelectionReport;
 import org.jdesktop.test.PropertyChangeReport;
 import org.jdesktop.test.TableModelReport;
 import org.jdesktop.test.TreeExpansionReport;
@@ -137,7 +147,396 @@ public class JXTreeTableUnitTest extends InteractiveTestCase {
         JXTreeTable table = new JXTreeTable();
         table.getEditingRow();
     }
+
+    /**
+     * TreeTableSortController: sort api is routed to the controller,
+     * the treeTableModel is unchanged and the expansion kept.
+     */
+    @Test
+    public void testTreeTableSortController() {
+        TreeTableModel model = createCustomTreeTableModelFromDefault();
+        JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        TreeTableSortController controller = new TreeTableSortController();
+        table.setTreeTableSortController(controller);
+        assertSame(model, table.getTreeTableModel());
+        assertSame(model, controller.getModel());
+        table.expandAll();
+        int rowCount = table.getRowCount();
+        table.toggleSortOrder(0);
+        assertEquals(SortOrder.ASCENDING, table.getSortOrder(0));
+        assertEquals(rowCount, table.getRowCount());
+        // default model: colors, food, sports
+        TreePath last = table.getPathForRow(rowCount - 1);
+        assertEquals("sports", last.getParentPath().getLastPathComponent().toString());
+        table.toggleSortOrder(0);
+        assertEquals(rowCount, table.getRowCount());
+        assertEquals("colors", table.getPathForRow(rowCount - 1).getParentPath()
+                .getLastPathComponent().toString());
+        table.setTreeTableSortController(null);
+        assertSame(model, table.getTreeTableModel());
+    }
+
+    /**
+     * TreeTableSortController: a click into the header toggles the sort order,
+     * the header renderer shows the sort icon.
+     */
+    @Test
+    public void testTreeTableSortControllerHeaderClick() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setTreeTableSortController(new TreeTableSortController());
+        JXTableHeader header = (JXTableHeader) table.getTableHeader();
+        MouseEvent click = new MouseEvent(header, MouseEvent.MOUSE_CLICKED, 
+                System.currentTimeMillis(), InputEvent.BUTTON1_MASK, 5, 5, 1, false, 
+                MouseEvent.BUTTON1);
+        for (MouseListener l : header.getMouseListeners()) {
+            l.mouseClicked(click);
+        }
+        assertEquals(SortOrder.ASCENDING, table.getSortOrder(0));
+        assertEquals(0, table.getSortedColumnIndex());
+        assertSame(table.getColumn(0), table.getSortedColumn());
+        Icon icon = UIManager.getIcon("Table.ascendingSortIcon");
+        assertNotNull("sanity: ascending sort icon", icon);
+        JLabel label = (JLabel) header.getDefaultRenderer().getTableCellRendererComponent(
+                table, "dummy", false, false, -1, 0);
+        assertSame(icon, label.getIcon());
+    }
+
+    /**
+     * Expand must fire rowsInserted for the visible descendants only.
+     */
+    @Test
+    public void testExpandFiresRowsInserted() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setRootVisible(true);
+        table.expandRow(0);
+        table.expandRow(1);
+        table.collapseRow(1);
+        int rowCount = table.getRowCount();
+        TreePath path = table.getPathForRow(1);
+        int childCount = table.getTreeTableModel().getChildCount(path.getLastPathComponent());
+        TableModelReport report = new TableModelReport(table.getModel());
+        table.expandRow(1);
+        assertEquals(1, report.getEventCount());
+        assertEquals(1, report.getInsertEventCount());
+        TableModelEvent e = report.getLastInsertEvent();
+        assertEquals(2, e.getFirstRow());
+        assertEquals(1 + childCount, e.getLastRow());
+        assertEquals(rowCount + childCount, table.getRowCount());
+        assertEquals(table.getRowCount(), table.getModel().getRowCount());
+    }
+
+    /**
+     * Collapse must fire rowsDeleted for all visible descendants, including
+     * those of expanded children.
+     */
+    @Test
+    public void testCollapseFiresRowsDeleted() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setRootVisible(true);
+        table.expandAll();
+        int rowCount = table.getRowCount();
+        TableModelReport report = new TableModelReport(table.getModel());
+        table.collapseRow(0);
+        assertEquals(1, report.getEventCount());
+        assertEquals(1, report.getDeleteEventCount());
+        TableModelEvent e = report.getLastDeleteEvent();
+        assertEquals(1, e.getFirstRow());
+        assertEquals(rowCount - 1, e.getLastRow());
+        assertEquals(1, table.getRowCount());
+    }
+
+    /**
+     * Bulk expansion must fire a single table event.
+     */
+    @Test
+    public void testExpandCollapseSubtreeTableEvents() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setRootVisible(true);
+        table.collapseAll();
+        TableModelReport report = new TableModelReport(table.getModel());
+        table.expandSubtree(table.getPathForRow(0));
+        int rowCount = table.getRowCount();
+        assertEquals(1, report.getEventCount());
+        TableModelEvent e = report.getLastInsertEvent();
+        assertEquals(1, e.getFirstRow());
+        assertEquals(rowCount - 1, e.getLastRow());
+        assertEquals(rowCount, table.getModel().getRowCount());
+        assertRowNodes(table);
+        report.clear();
+        table.collapseAll();
+        assertEquals(1, report.getEventCount());
+        e = report.getLastDeleteEvent();
+        assertEquals(1, e.getFirstRow());
+        assertEquals(rowCount - 1, e.getLastRow());
+        assertEquals(1, table.getRowCount());
+        assertRowNodes(table);
+    }
+    
+    /**
+     * The cached row nodes must be patched on inserts/removes.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testRowNodesAfterInsertRemove() throws InterruptedException, InvocationTargetException {
+        final DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        for (int i = 0; i < 5; i++) {
+            DefaultMutableTreeTableNode child = new DefaultMutableTreeTableNode("child" + i);
+            child.add(new DefaultMutableTreeTableNode("grandchild" + i));
+            root.add(child);
+        }
+        final DefaultTreeTableModel model = new DefaultTreeTableModel(root);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        table.expandAll();
+        assertRowNodes(table);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.insertNodeInto(new DefaultMutableTreeTableNode("new"), root, 2);
+                model.removeNodeFromParent((MutableTreeTableNode) root.getChildAt(0).getChildAt(0));
+                model.removeNodeFromParent((MutableTreeTableNode) root.getChildAt(4));
+                // pending events: must not use the cache
+                assertRowNodes(table);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertRowNodes(table);
+            }
+        });
+    }
+    
+    /**
+     * The cached row nodes must be dropped on inserts/removes after an
+     * expanded sibling: the rows of the table events are approximate.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testRowNodesAfterInsertBehindExpanded() throws InterruptedException, InvocationTargetException {
+        final DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        DefaultMutableTreeTableNode a = new DefaultMutableTreeTableNode("A");
+        a.add(new DefaultMutableTreeTableNode("a1"));
+        a.add(new DefaultMutableTreeTableNode("a2"));
+        root.add(a);
+        root.add(new DefaultMutableTreeTableNode("B"));
+        final DefaultTreeTableModel model = new DefaultTreeTableModel(root);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.expandAll();
+        assertRowNodes(table);
+        final DefaultMutableTreeTableNode c = new DefaultMutableTreeTableNode("C");
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.insertNodeInto(c, root, 1);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertRowNodes(table);
+                model.removeNodeFromParent(c);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertRowNodes(table);
+            }
+        });
+    }
     
+    /**
+     * The cached row nodes of updated rows must be dropped: the nodes 
+     * might be replaced.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testRowNodesAfterNodesChanged() throws InterruptedException, InvocationTargetException {
+        final List<Object> children = new ArrayList<Object>();
+        children.add("A");
+        final AbstractTreeTableModel model = new AbstractTreeTableModel("root") {
+            
+            @Override
+            public int getColumnCount() {
+                return 1;
+            }
+
+            @Override
+            public Object getValueAt(Object node, int column) {
+                return node;
+            }
+
+            @Override
+            public Object getChild(Object parent, int index) {
+                return children.get(index);
+            }
+
+            @Override
+            public int getChildCount(Object parent) {
+                return parent == getRoot() ? children.size() : 0;
+            }
+
+            @Override
+            public int getIndexOfChild(Object parent, Object child) {
+                return parent == getRoot() ? children.indexOf(child) : -1;
+            }
+            
+            @Override
+            public void valueForPathChanged(TreePath path, Object newValue) {
+                int index = getIndexOfChild(getRoot(), path.getLastPathComponent());
+                children.set(index, newValue);
+                modelSupport.fireChildChanged(path.getParentPath(), index, newValue);
+            }
+        };
+        final JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        table.expandAll();
+        assertRowNodes(table);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // replace the node without structural change
+                model.valueForPathChanged(table.getPathForRow(1), "replaced");
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals("replaced", table.getModel().getValueAt(1, 0));
+            }
+        });
+    }
+    
+    /**
+     * The cached row nodes must be dropped on expansion and rootVisible 
+     * changes.
+     */
+    @Test
+    public void testRowNodesAfterExpansion() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setRootVisible(true);
+        assertRowNodes(table);
+        table.expandAll();
+        assertRowNodes(table);
+        table.collapseRow(1);
+        assertRowNodes(table);
+        table.setRootVisible(false);
+        assertRowNodes(table);
+    }
+    
+    /**
+     * Asserts that the table's values are those of the tree's nodes.
+     */
+    private void assertRowNodes(JXTreeTable table) {
+        TreeTableModel model = table.getTreeTableModel();
+        assertEquals(table.getRowCount(), table.getModel().getRowCount());
+        for (int row = 0; row < table.getRowCount(); row++) {
+            Object node = table.getPathForRow(row).getLastPathComponent();
+            assertEquals("row " + row, model.getValueAt(node, 0), table.getModel().getValueAt(row, 0));
+        }
+    }
+    
+    /**
+     * The table events of a batch of tree model changes must be coalesced.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testCoalescedInsertEvents() throws InterruptedException, InvocationTargetException {
+        final DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        root.add(new DefaultMutableTreeTableNode("first"));
+        final DefaultTreeTableModel model = new DefaultTreeTableModel(root);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        final TableModelReport report = new TableModelReport(table.getModel());
+        // change on the EDT to not race against the delayed events
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 50; i++) {
+                    model.insertNodeInto(new DefaultMutableTreeTableNode(i), root, root.getChildCount());
+                }
+                for (int i = 0; i < 10; i++) {
+                    model.valueForPathChanged(new TreePath(model.getPathToRoot(root.getChildAt(i))), "changed" + i);
+                }
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, report.getInsertEventCount());
+                TableModelEvent e = report.getLastInsertEvent();
+                assertEquals(2, e.getFirstRow());
+                assertEquals(51, e.getLastRow());
+                assertEquals(1, report.getUpdateEventCount());
+                assertEquals(2, report.getEventCount());
+                assertEquals(table.getRowCount(), table.getModel().getRowCount());
+            }
+        });
+    }
+    
+    /**
+     * A structureChanged must absorb all other table events of the batch.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testCoalescedStructureChanged() throws InterruptedException, InvocationTargetException {
+        final DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        final DefaultTreeTableModel model = new DefaultTreeTableModel(root);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        final TableModelReport report = new TableModelReport(table.getModel());
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 10; i++) {
+                    model.insertNodeInto(new DefaultMutableTreeTableNode(i), root, 0);
+                }
+                model.setRoot(new DefaultMutableTreeTableNode("other"));
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, report.getEventCount());
+                assertTrue(report.isStructureChanged(report.getLastEvent()));
+            }
+        });
+    }
+    
+    /**
+     * Expanding a collapsed node below collapsed parents must fire
+     * inserts only.
+     */
+    @Test
+    public void testExpandPathWithCollapsedParents() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setRootVisible(true);
+        table.expandAll();
+        TreePath path = table.getPathForRow(1);
+        table.collapseAll();
+        assertFalse(table.isExpanded(path.getParentPath()));
+        int rowCount = table.getRowCount();
+        TableModelReport report = new TableModelReport(table.getModel());
+        table.expandPath(path);
+        assertTrue(report.hasEvents());
+        assertEquals("all events must be inserts", 
+                report.getEventCount(), report.getInsertEventCount());
+        assertTrue(table.getRowCount() > rowCount);
+        assertEquals(table.getRowCount(), table.getModel().getRowCount());
+    }
+
     @Test
     public void testFakeSortable() {
         JXTreeTable table = new FakeSortableTreeTable();
@@ -1044,6 +1443,71 @@ public class JXTreeTableUnitTest extends InteractiveTestCase {
     }
 
 
+    /**
+     * Expansion must update the selected rows with a single notification.
+     */
+    @Test
+    public void testExpandResetsRowSelectionInBulk() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setRootVisible(true);
+        table.expandRow(0);
+        // expand the last child to have rows for two intervals
+        table.expandRow(table.getRowCount() - 1);
+        int last = table.getRowCount() - 1;
+        assertTrue(last > 4);
+        table.setRowSelectionInterval(last - 1, last);
+        table.addRowSelectionInterval(2, 2);
+        TreePath[] paths = table.getTreeSelectionModel().getSelectionPaths();
+        int childCount = table.getTreeTableModel().getChildCount(
+                table.getPathForRow(1).getLastPathComponent());
+        assertTrue(childCount > 0);
+        ListSelectionReport report = new ListSelectionReport();
+        table.getSelectionModel().addListSelectionListener(report);
+        table.expandRow(1);
+        assertEquals(1, report.getEventCount(true));
+        assertTrue(table.isRowSelected(2 + childCount));
+        assertTrue(table.isRowSelected(last - 1 + childCount));
+        assertTrue(table.isRowSelected(last + childCount));
+        assertEquals(3, table.getSelectedRowCount());
+        assertEquals(paths.length, table.getTreeSelectionModel().getSelectionCount());
+        for (TreePath path : paths) {
+            assertTrue(table.getTreeSelectionModel().isPathSelected(path));
+        }
+    }
+    
+    /**
+     * Changes of the row selection must update the paths of the changed 
+     * rows with a single notification.
+     */
+    @Test
+    public void testRowSelectionUpdatesPaths() {
+        JXTreeTable table = new JXTreeTable(createCustomTreeTableModelFromDefault());
+        table.setRootVisible(true);
+        table.expandAll();
+        table.setRowSelectionInterval(1, 3);
+        TreeSelectionReport report = new TreeSelectionReport();
+        table.getTreeSelectionModel().addTreeSelectionListener(report);
+        table.addRowSelectionInterval(5, 6);
+        assertEquals(1, report.getEventCount());
+        table.removeRowSelectionInterval(2, 2);
+        assertEquals(2, report.getEventCount());
+        // both added and removed
+        table.getSelectionModel().setSelectionInterval(1, 1);
+        table.getSelectionModel().addSelectionInterval(3, 4);
+        report.clear();
+        table.getSelectionModel().setValueIsAdjusting(true);
+        table.getSelectionModel().removeSelectionInterval(1, 1);
+        table.getSelectionModel().addSelectionInterval(7, 7);
+        table.getSelectionModel().setValueIsAdjusting(false);
+        assertEquals(1, report.getEventCount());
+        TreeSelectionModel selectionModel = table.getTreeSelectionModel();
+        assertEquals(table.getSelectedRowCount(), selectionModel.getSelectionCount());
+        for (int row = 0; row < table.getRowCount(); row++) {
+            assertEquals("row " + row, table.isRowSelected(row), 
+                    selectionModel.isPathSelected(table.getPathForRow(row)));
+        }
+    }
+    
     /**
      * Issue #4-, #340-swingx: duplicate notification
      * 
@@ -33,12 +33,14 @@ import org.jdesktop.swingx.renderer.StringValue;
 import org.jdesktop.swingx.renderer.StringValues;
 import org.jdesktop.swingx.tree.DefaultXTreeCellEditor;
 import org.jdesktop.swingx.tree.DefaultXTreeCellRenderer;
+import org.jdesktop.swingx.tree.TreePathPredicate;
 import org.jdesktop.swingx.treetable.DefaultMutableTreeTableNode;
 import org.jdesktop.swingx.treetable.FileSystemModel;
 import org.jdesktop.swingx.treetable.TreeTableModel;
 import org.jdesktop.test.AncientSwingTeam;
 import org.jdesktop.test.PropertyChangeReport;
 import org.jdesktop.test.TestUtils;
+import org.jdesktop.test.TreeExpansionReport;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -64,6 +66,78 @@ public class JXTreeUnitTest extends InteractiveTestCase {
      * 
      * Test api and event firing.
      */
+    /**
+     * Bulk expansion: must notify once and expand all nodes of the subtree.
+     */
+    @Test
+    public void testExpandSubtree() {
+        JXTree tree = new JXTree();
+        JTree core = new JTree();
+        for (int i = 0; i < core.getRowCount(); i++) {
+            core.expandRow(i);
+        }
+        TreePath root = tree.getPathForRow(0);
+        tree.collapsePath(root);
+        TreeExpansionReport report = new TreeExpansionReport(tree);
+        tree.expandSubtree(root);
+        assertEquals(1, report.getEventCount());
+        assertEquals(root, report.getLastExpandedEvent().getPath());
+        assertEquals(core.getRowCount(), tree.getRowCount());
+        for (int i = 0; i < tree.getRowCount(); i++) {
+            // different model instances
+            assertEquals(core.getPathForRow(i).toString(), tree.getPathForRow(i).toString());
+            assertEquals(core.isExpanded(i), tree.isExpanded(i));
+        }
+    }
+    
+    /**
+     * Bulk expansion: respect depth and predicate.
+     */
+    @Test
+    public void testExpandSubtreeDepthPredicate() {
+        JXTree tree = new JXTree();
+        final TreePath root = tree.getPathForRow(0);
+        tree.collapsePath(root);
+        // sample model: root - colors/sports/food - leafs
+        tree.expandSubtree(root, 0, null);
+        assertEquals(4, tree.getRowCount());
+        tree.collapsePath(root);
+        final Object colors = tree.getModel().getChild(root.getLastPathComponent(), 0);
+        tree.expandSubtree(root, 1, new TreePathPredicate() {
+            @Override
+            public boolean isIncluded(TreePath path) {
+                return path.getLastPathComponent() != colors;
+            }
+        });
+        assertFalse(tree.isExpanded(root.pathByAddingChild(colors)));
+        for (int i = 1; i < 3; i++) {
+            Object child = tree.getModel().getChild(root.getLastPathComponent(), i);
+            assertTrue(tree.isExpanded(root.pathByAddingChild(child)));
+        }
+    }
+    
+    /**
+     * Bulk collapse: must notify once and keep the layout in synch, that is
+     * re-expanding the root must show its children collapsed.
+     */
+    @Test
+    public void testCollapseSubtree() {
+        JXTree tree = new JXTree();
+        TreePath root = tree.getPathForRow(0);
+        tree.expandAll();
+        int childCount = tree.getModel().getChildCount(root.getLastPathComponent());
+        TreeExpansionReport report = new TreeExpansionReport(tree);
+        tree.collapseSubtree(root);
+        assertEquals(1, report.getEventCount());
+        assertEquals(root, report.getLastCollapsedEvent().getPath());
+        assertEquals(1, tree.getRowCount());
+        tree.expandPath(root);
+        assertEquals(childCount + 1, tree.getRowCount());
+        for (int i = 1; i < tree.getRowCount(); i++) {
+            assertFalse(tree.isExpanded(i));
+        }
+    }
+    
     @Test
     public void testPopupTriggerLocationAvailable() {
         JXTree table = new JXTree();
@@ -0,0 +1,187 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableModel;
+
+import org.jdesktop.swingx.TableExporter.Format;
+import org.jdesktop.swingx.renderer.DefaultTableRenderer;
+import org.jdesktop.swingx.renderer.StringValue;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test TableExporter.
+ */
+@RunWith(JUnit4.class)
+public class TableExporterTest {
+
+    private JXTable table;
+    
+    @Before
+    public void setUp() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                DefaultTableModel model = new DefaultTableModel(
+                        new Object[][] {
+                                {"b", 2, "x"}, 
+                                {"a, \"quoted\"", 1, "y"}, 
+                                {"c<&>", 3, "z"}}, 
+                        new Object[] {"Name", "Value", "Hidden"});
+                table = new JXTable(model);
+            }
+        });
+    }
+    
+    /**
+     * Rows in view order, visible columns only, string representation.
+     */
+    @Test
+    public void testCSVFollowsView() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                table.getColumnExt("Hidden").setVisible(false);
+                table.setSortOrder("Value", SortOrder.ASCENDING);
+                table.getColumn("Value").setCellRenderer(new DefaultTableRenderer(new StringValue() {
+                    public String getString(Object value) {
+                        return "#" + value;
+                    }
+                }));
+            }
+        });
+        String expected = "Name,Value\r\n\"a, \"\"quoted\"\"\",#1\r\nb,#2\r\nc<&>,#3\r\n";
+        assertEquals(expected, export(new TableExporter(table, Format.CSV)));
+    }
+    
+    @Test
+    public void testTSVWithoutHeader() throws Exception {
+        TableExporter exporter = new TableExporter(table, Format.TSV);
+        exporter.setIncludeHeader(false);
+        assertEquals("b\t2\tx\na, \"quoted\"\t1\ty\nc<&>\t3\tz\n", export(exporter));
+    }
+    
+    @Test
+    public void testHTMLEscaped() throws Exception {
+        String html = export(new TableExporter(table, Format.HTML));
+        assertTrue(html, html.startsWith("<html>"));
+        assertTrue(html, html.contains("<tr><th>Name</th><th>Value</th><th>Hidden</th></tr>"));
+        assertTrue(html, html.contains("<td>c&lt;&amp;&gt;</td>"));
+        assertTrue(html, html.endsWith("</html>\n"));
+    }
+    
+    /**
+     * Chunks must not lose or repeat rows.
+     */
+    @Test
+    public void testChunks() throws Exception {
+        TableExporter exporter = new TableExporter(table, Format.TSV);
+        String all = export(exporter);
+        exporter.setChunkSize(2);
+        assertEquals(all, export(exporter));
+    }
+    
+    @Test
+    public void testOutputStream() throws Exception {
+        final TableExporter exporter = new TableExporter(table, Format.CSV);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SwingWorker<?, ?>[] worker = new SwingWorker<?, ?>[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                try {
+                    worker[0] = exporter.export(out, "UTF-8");
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        assertEquals(3, worker[0].get());
+        assertEquals(export(exporter), out.toString("UTF-8"));
+    }
+    
+    @Test
+    public void testModelChanged() throws Exception {
+        final TableExporter exporter = new TableExporter(table, Format.CSV);
+        final SwingWorker<?, ?>[] worker = new SwingWorker<?, ?>[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                worker[0] = exporter.export(new StringWriter());
+                ((DefaultTableModel) table.getModel()).removeRow(0);
+            }
+        });
+        try {
+            worker[0].get();
+            fail("export must fail on removed rows");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConcurrentModificationException);
+        }
+    }
+    
+    @Test
+    public void testCancel() throws Exception {
+        final TableExporter exporter = new TableExporter(table, Format.CSV);
+        final SwingWorker<?, ?>[] worker = new SwingWorker<?, ?>[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                worker[0] = exporter.export(new StringWriter());
+                worker[0].cancel(false);
+            }
+        });
+        assertTrue(worker[0].isCancelled());
+        try {
+            worker[0].get();
+            fail("cancelled export must not have a result");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testChunkSizeMustBePositive() {
+        new TableExporter(table, Format.CSV).setChunkSize(0);
+    }
+    
+    private String export(final TableExporter exporter) throws Exception {
+        final StringWriter writer = new StringWriter();
+        final SwingWorker<?, ?>[] worker = new SwingWorker<?, ?>[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                worker[0] = exporter.export(writer);
+            }
+        });
+        worker[0].get();
+        return writer.toString();
+    }
+}
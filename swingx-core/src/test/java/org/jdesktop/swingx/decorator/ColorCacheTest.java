@@ -0,0 +1,120 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+
+import javax.swing.JLabel;
+import javax.swing.plaf.ColorUIResource;
+import javax.swing.plaf.UIResource;
+
+import org.jdesktop.swingx.util.PaintUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test ColorCache and its usage in color highlighters.
+ */
+@RunWith(JUnit4.class)
+public class ColorCacheTest {
+
+    private static final Color[] COLORS = {
+        Color.WHITE, Color.BLACK, Color.RED, new Color(12, 34, 56),
+        new Color(200, 100, 50, 0), new Color(10, 20, 30, 128), 
+        new Color(255, 255, 255, 1), new ColorUIResource(Color.YELLOW),
+    };
+    
+    @Test
+    public void testInterned() {
+        Color color = ColorCache.getColor(0x80102030);
+        assertSame(color, ColorCache.getColor(0x80102030));
+        assertEquals(0x80102030, color.getRGB());
+        assertSame(ColorCache.getColor(0xff102030), ColorCache.getColor(0x10, 0x20, 0x30));
+    }
+    
+    /**
+     * Blended colors must be the same as those of PaintUtils.
+     */
+    @Test
+    public void testBlend() {
+        for (Color origin : COLORS) {
+            for (Color over : COLORS) {
+                Color blended = ColorCache.blend(origin, over);
+                assertEquals(PaintUtils.blend(origin, over), blended);
+                assertFalse(blended instanceof UIResource);
+                assertSame(blended, ColorCache.blend(origin, over));
+            }
+        }
+        assertSame(Color.RED, ColorCache.blend(Color.RED, null));
+        assertSame(Color.RED, ColorCache.blend(null, Color.RED));
+    }
+    
+    @Test
+    public void testRamp() {
+        Color start = new Color(0, 10, 255, 255);
+        Color end = new Color(255, 20, 0, 55);
+        Color[] ramp = ColorCache.createRamp(start, end, 5);
+        assertEquals(5, ramp.length);
+        assertEquals(start, ramp[0]);
+        assertEquals(end, ramp[4]);
+        assertEquals(new Color(128, 15, 128, 155), ramp[2]);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testRampSteps() {
+        ColorCache.createRamp(Color.RED, Color.BLUE, 1);
+    }
+    
+    /**
+     * The shaded background must be unchanged by the lookup table.
+     */
+    @Test
+    public void testShading() {
+        ShadingColorHighlighter highlighter = new ShadingColorHighlighter();
+        for (Color seed : COLORS) {
+            Color expected = new Color(Math.max((int) (seed.getRed() * 0.95), 0), 
+                    Math.max((int) (seed.getGreen() * 0.95), 0), 
+                    Math.max((int) (seed.getBlue() * 0.95), 0));
+            assertEquals(expected, highlighter.computeBackgroundSeed(seed));
+        }
+    }
+    
+    /**
+     * Highlighting must not create new colors per cell.
+     */
+    @Test
+    public void testHighlightInterned() {
+        ColorHighlighter highlighter = new ColorHighlighter(new Color(10, 20, 30, 128), null);
+        JLabel label = new JLabel();
+        label.setBackground(Color.WHITE);
+        ComponentAdapter adapter = new ComponentAdapterTest.JXListT(new Object[] {"a"}).getComponentAdapter(0);
+        highlighter.highlight(label, adapter);
+        Color first = label.getBackground();
+        label.setBackground(Color.WHITE);
+        highlighter.highlight(label, adapter);
+        assertSame(first, label.getBackground());
+    }
+}
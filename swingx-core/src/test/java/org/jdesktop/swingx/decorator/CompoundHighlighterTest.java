@@ -22,11 +22,17 @@
 package org.jdesktop.swingx.decorator;
 
 import java.awt.Color;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
 import javax.swing.BorderFactory;
 import javax.swing.JLabel;
 import javax.swing.UIManager;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 
 import org.jdesktop.swingx.InteractiveTestCase;
 import org.jdesktop.swingx.renderer.JRendererLabel;
@@ -434,6 +440,145 @@ public class CompoundHighlighterTest extends InteractiveTestCase {
         assertEquals("event count must not be increased", count,  changeReport.getEventCount() );
     }
 
+//----------------- testing the compiled pipeline
+
+    /**
+     * Nested compounds are flattened for painting but must still be
+     * applied in declaration order.
+     */
+    @Test
+    public void testNestedCompoundAppliedInOrder() {
+        CompoundHighlighter nested = new CompoundHighlighter(
+                new ColorHighlighter(Color.red, null),
+                new ColorHighlighter(Color.blue, null));
+        CompoundHighlighter pipeline = new CompoundHighlighter(
+                new ColorHighlighter(Color.green, null), nested);
+        JLabel label = new JLabel();
+        pipeline.highlight(label, createComponentAdapter(label));
+        assertEquals(Color.blue, label.getBackground());
+        nested.addHighlighter(new ColorHighlighter(Color.yellow, null));
+        pipeline.highlight(label, createComponentAdapter(label));
+        assertEquals("change in nested compound must be picked up",
+                Color.yellow, label.getBackground());
+    }
+
+    /**
+     * Highlighters restricted to a column must be skipped for others.
+     */
+    @Test
+    public void testColumnRestrictedHighlighter() {
+        ColorHighlighter columnHighlighter = new ColorHighlighter(
+                new HighlightPredicate.ColumnHighlightPredicate(1), Color.red, null);
+        CompoundHighlighter pipeline = new CompoundHighlighter(
+                new ColorHighlighter(Color.green, null), columnHighlighter);
+        JLabel label = new JLabel();
+        ComponentAdapter adapter = createComponentAdapter(label);
+        adapter.column = 0;
+        pipeline.highlight(label, adapter);
+        assertEquals(Color.green, label.getBackground());
+        adapter.column = 1;
+        pipeline.highlight(label, adapter);
+        assertEquals(Color.red, label.getBackground());
+    }
+
+    /**
+     * Subclasses of a column predicate might match other columns, 
+     * they must not be restricted.
+     */
+    @Test
+    public void testColumnPredicateSubclassNotRestricted() {
+        HighlightPredicate predicate = new HighlightPredicate.ColumnHighlightPredicate(1) {
+            @Override
+            public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+                return true;
+            }
+        };
+        CompoundHighlighter pipeline = new CompoundHighlighter(
+                new ColorHighlighter(Color.green, null), 
+                new ColorHighlighter(predicate, Color.red, null));
+        JLabel label = new JLabel();
+        ComponentAdapter adapter = createComponentAdapter(label);
+        adapter.column = 0;
+        pipeline.highlight(label, adapter);
+        assertEquals(Color.red, label.getBackground());
+    }
+
+    /**
+     * Changing the predicate of a contained highlighter must invalidate
+     * the column grouping.
+     */
+    @Test
+    public void testPredicateChangeInvalidatesPipeline() {
+        ColorHighlighter columnHighlighter = new ColorHighlighter(
+                new HighlightPredicate.ColumnHighlightPredicate(1), Color.red, null);
+        CompoundHighlighter pipeline = new CompoundHighlighter(
+                new ColorHighlighter(Color.green, null), columnHighlighter);
+        JLabel label = new JLabel();
+        ComponentAdapter adapter = createComponentAdapter(label);
+        pipeline.highlight(label, adapter);
+        assertEquals(Color.green, label.getBackground());
+        columnHighlighter.setHighlightPredicate(new HighlightPredicate.ColumnHighlightPredicate(0));
+        pipeline.highlight(label, adapter);
+        assertEquals(Color.red, label.getBackground());
+    }
+
+    /**
+     * The affected region of a change in a column-restricted highlighter
+     * must cover the columns before and after the change.
+     */
+    @Test
+    public void testAffectedColumns() {
+        ColorHighlighter columnHighlighter = new ColorHighlighter(
+                new HighlightPredicate.ColumnHighlightPredicate(1), Color.red, null);
+        final CompoundHighlighter pipeline = new CompoundHighlighter(columnHighlighter);
+        final List<int[]> columns = new ArrayList<int[]>();
+        pipeline.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                columns.add(pipeline.getAffectedColumns());
+            }
+        });
+        columnHighlighter.setBackground(Color.blue);
+        assertTrue(Arrays.equals(new int[] {1}, columns.get(0)));
+        // compile
+        JLabel label = new JLabel();
+        pipeline.highlight(label, createComponentAdapter(label));
+        columnHighlighter.setHighlightPredicate(new HighlightPredicate.ColumnHighlightPredicate(3));
+        assertTrue(Arrays.equals(new int[] {1, 3}, columns.get(1)));
+        pipeline.addHighlighter(new ColorHighlighter());
+        assertNull("list change affects all columns", columns.get(2));
+        assertNull("region must be reset after notification", pipeline.getAffectedColumns());
+    }
+    
+    /**
+     * The affected region of a nested compound must be propagated.
+     */
+    @Test
+    public void testAffectedRegionNested() {
+        ColorHighlighter columnHighlighter = new ColorHighlighter(
+                new HighlightPredicate.ColumnHighlightPredicate(2), Color.red, null);
+        final CompoundHighlighter pipeline = new CompoundHighlighter(
+                new CompoundHighlighter(columnHighlighter));
+        final List<int[]> columns = new ArrayList<int[]>();
+        pipeline.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                columns.add(pipeline.getAffectedColumns());
+            }
+        });
+        columnHighlighter.setForeground(Color.blue);
+        assertTrue(Arrays.equals(new int[] {2}, columns.get(0)));
+        assertNull(pipeline.getAffectedRows());
+        // the previously highlighted column must be repainted as well, 
+        // although neither compound has been used for highlighting yet
+        columnHighlighter.setHighlightPredicate(new HighlightPredicate.ColumnHighlightPredicate(1));
+        assertTrue(Arrays.equals(new int[] {1, 2}, columns.get(1)));
+        columnHighlighter.setHighlightPredicate(HighlightPredicate.ALWAYS);
+        assertNull(columns.get(2));
+        columnHighlighter.setHighlightPredicate(new HighlightPredicate.ColumnHighlightPredicate(0));
+        assertNull(columns.get(3));
+    }
+    
     /**
      * Same content in both.
      * @param highlighters
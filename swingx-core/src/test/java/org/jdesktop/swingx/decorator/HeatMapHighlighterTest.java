@@ -0,0 +1,170 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.decorator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.table.DefaultTableModel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test HeatMapHighlighter: mapping of values and incremental range maintenance.
+ */
+@RunWith(JUnit4.class)
+public class HeatMapHighlighterTest {
+
+    private DefaultTableModel model;
+    private HeatMapHighlighter highlighter;
+    private List<int[]> changes;
+    
+    @Before
+    public void setUp() {
+        model = new DefaultTableModel(new Object[][] {
+                {"a", 10}, {"b", 20}, {"c", "none"}, {"d", 30}}, 
+                new Object[] {"Name", "Value"});
+        highlighter = new HeatMapHighlighter(model, 1, Color.WHITE, Color.RED, 3);
+        changes = new ArrayList<int[]>();
+        highlighter.addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                changes.add(highlighter.getAffectedColumns());
+            }
+        });
+    }
+    
+    @Test
+    public void testRange() {
+        assertEquals(10, highlighter.getMinimum(), 0);
+        assertEquals(30, highlighter.getMaximum(), 0);
+    }
+    
+    @Test
+    public void testColor() {
+        Color[] ramp = ColorCache.createRamp(Color.WHITE, Color.RED, 3);
+        assertSame(ramp[0], highlighter.getColor(10));
+        assertSame(ramp[1], highlighter.getColor(20));
+        assertSame(ramp[2], highlighter.getColor(30));
+        assertSame("out of range value must be clamped", ramp[2], highlighter.getColor(100));
+        assertNull(highlighter.getColor(Double.NaN));
+    }
+    
+    @Test
+    public void testInsertExtendsRange() {
+        highlighter.getMinimum();
+        model.insertRow(0, new Object[] {"e", 5});
+        assertEquals(5, highlighter.getMinimum(), 0);
+        assertEquals(1, changes.size());
+        assertTrue(Arrays.equals(new int[] {1}, changes.get(0)));
+        model.addRow(new Object[] {"f", 25});
+        assertEquals("insert inside the range must not fire", 1, changes.size());
+    }
+    
+    /**
+     * A subclassed column predicate isn't restricted to its columns: the 
+     * range change must affect all columns.
+     */
+    @Test
+    public void testInsertExtendsRangePredicateSubclass() {
+        highlighter.setHighlightPredicate(new HighlightPredicate.ColumnHighlightPredicate(1) { });
+        changes.clear();
+        highlighter.getMinimum();
+        model.insertRow(0, new Object[] {"e", 5});
+        assertEquals(1, changes.size());
+        assertNull(changes.get(0));
+    }
+    
+    @Test
+    public void testUpdateOverwritesExtreme() {
+        highlighter.getMaximum();
+        model.setValueAt(15, 3, 1);
+        assertEquals(20, highlighter.getMaximum(), 0);
+        assertEquals(1, changes.size());
+        model.setValueAt("z", 3, 0);
+        assertEquals("change in other column must not fire", 1, changes.size());
+    }
+    
+    @Test
+    public void testDeleteExtreme() {
+        highlighter.getMinimum();
+        model.removeRow(0);
+        assertEquals(20, highlighter.getMinimum(), 0);
+        assertEquals(1, changes.size());
+        model.removeRow(1);
+        assertEquals("removing a non-numeric value must not fire", 1, changes.size());
+        assertEquals(20, highlighter.getMinimum(), 0);
+        assertEquals(30, highlighter.getMaximum(), 0);
+    }
+    
+    /**
+     * Values must be kept in synch across inserts and deletes which 
+     * grow and reuse the spare capacity.
+     */
+    @Test
+    public void testInsertDeleteMany() {
+        highlighter.getMinimum();
+        for (int i = 0; i < 100; i++) {
+            model.insertRow(2, new Object[] {"n" + i, 100 + i});
+        }
+        assertEquals(199, highlighter.getMaximum(), 0);
+        // remove the inserted rows from the middle, the largest first
+        for (int i = 0; i < 100; i++) {
+            model.removeRow(2);
+        }
+        assertEquals(30, highlighter.getMaximum(), 0);
+        model.insertRow(4, new Object[] {"tail", 1});
+        model.removeRow(0);
+        assertEquals(1, highlighter.getMinimum(), 0);
+        assertEquals(30, highlighter.getMaximum(), 0);
+        model.removeRow(3);
+        assertEquals(20, highlighter.getMinimum(), 0);
+    }
+    
+    @Test
+    public void testStructureChanged() {
+        highlighter.getMinimum();
+        model.setDataVector(new Object[][] {{"x", -1}}, new Object[] {"Name", "Value"});
+        assertEquals(-1, highlighter.getMinimum(), 0);
+        assertEquals(-1, highlighter.getMaximum(), 0);
+    }
+    
+    @Test
+    public void testSetTableModel() {
+        highlighter.setTableModel(null);
+        assertEquals(Double.NaN, highlighter.getMinimum(), 0);
+        highlighter.getMinimum();
+        model.insertRow(0, new Object[] {"e", 5});
+        assertEquals("detached highlighter must not listen to the model", 1, changes.size());
+    }
+}
@@ -8,6 +8,7 @@
 package org.jdesktop.swingx.decorator;
 
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Insets;
 import java.awt.Point;
@@ -294,6 +295,78 @@ public class HighlightPredicateTest extends InteractiveTestCase {
         assertFalse(notAlways.isHighlighted(allColored, adapter));
     }
 
+    /**
+     * test that AND evaluates cheap predicates first and short-circuits
+     * the expensive.
+     */
+    @Test
+    public void testAndCostOrdered() {
+        ComponentAdapter adapter = createComponentAdapter(allColored, true);
+        CountingPredicate expensive = new CountingPredicate(true, CostHint.EXPENSIVE);
+        AndHighlightPredicate predicate = new AndHighlightPredicate(expensive, HighlightPredicate.NEVER);
+        assertFalse(predicate.isHighlighted(allColored, adapter));
+        assertEquals("expensive predicate must not be evaluated", 0, expensive.count);
+        assertSame("declaration order must be unchanged", expensive, predicate.getHighlightPredicates()[0]);
+    }
+    
+    /**
+     * test that OR evaluates cheap predicates first and short-circuits
+     * the expensive.
+     */
+    @Test
+    public void testOrCostOrdered() {
+        ComponentAdapter adapter = createComponentAdapter(allColored, true);
+        CountingPredicate expensive = new CountingPredicate(false, CostHint.EXPENSIVE);
+        OrHighlightPredicate predicate = new OrHighlightPredicate(expensive, 
+                new NotHighlightPredicate(HighlightPredicate.NEVER));
+        assertTrue(predicate.isHighlighted(allColored, adapter));
+        assertEquals("expensive predicate must not be evaluated", 0, expensive.count);
+    }
+    
+    /**
+     * test that predicates without cost hint are not reordered.
+     */
+    @Test
+    public void testAndCostOrderedUnknownBarrier() {
+        ComponentAdapter adapter = createComponentAdapter(allColored, true);
+        CountingPredicate expensive = new CountingPredicate(false, CostHint.EXPENSIVE);
+        HighlightPredicate unknown = new HighlightPredicate() {
+            @Override
+            public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+                return true;
+            }
+        };
+        AndHighlightPredicate predicate = new AndHighlightPredicate(expensive, unknown, 
+                HighlightPredicate.NEVER);
+        assertFalse(predicate.isHighlighted(allColored, adapter));
+        assertEquals("expensive predicate before barrier must be evaluated", 1, expensive.count);
+    }
+    
+    /**
+     * Predicate with a cost hint which counts its evaluations.
+     */
+    private static class CountingPredicate implements HighlightPredicate, CostHint {
+        private final boolean result;
+        private final int cost;
+        int count;
+        
+        CountingPredicate(boolean result, int cost) {
+            this.result = result;
+            this.cost = cost;
+        }
+        
+        @Override
+        public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            count++;
+            return result;
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+    }
+    
     /**
      * test access the contained predicates
      */
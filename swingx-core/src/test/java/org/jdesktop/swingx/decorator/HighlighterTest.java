@@ -11,6 +11,8 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.ComponentOrientation;
 import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.util.logging.Logger;
 
 import javax.swing.BorderFactory;
@@ -216,6 +218,113 @@ public class HighlighterTest extends InteractiveTestCase {
         assertEquals(mattePainter, allColored.getPainter());
     }
     
+    /**
+     * Cacheable PainterHighlighter: paints the painter once per size and 
+     * again after a change of the painter.
+     */
+    @Test
+    public void testPainterHighlighterCached() {
+        ComponentAdapter adapter = createComponentAdapter(allColored, false);
+        final int[] paintCount = new int[1];
+        MattePainter mattePainter = new MattePainter(Color.RED) {
+            @Override
+            protected void doPaint(Graphics2D g, Object component, int width,
+                    int height) {
+                paintCount[0]++;
+                super.doPaint(g, component, width, height);
+            }
+        };
+        PainterHighlighter hl = new PainterHighlighter(mattePainter);
+        hl.setCacheable(true);
+        hl.highlight(allColored, adapter);
+        Painter<Object> painter = allColored.getPainter();
+        BufferedImage image = new BufferedImage(20, 20, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        painter.paint(g, allColored, 10, 10);
+        painter.paint(g, allColored, 10, 10);
+        assertEquals("same size must be painted from cache", 1, paintCount[0]);
+        assertEquals(Color.RED.getRGB(), image.getRGB(5, 5));
+        painter.paint(g, allColored, 20, 20);
+        assertEquals("different size must be painted", 2, paintCount[0]);
+        mattePainter.setFillPaint(Color.BLUE);
+        painter.paint(g, allColored, 20, 20);
+        assertEquals("change of painter must invalidate cache", 3, paintCount[0]);
+        assertEquals(Color.BLUE.getRGB(), image.getRGB(15, 15));
+        g.dispose();
+    }
+    
+    /**
+     * Cacheable PainterHighlighter with a painter which overrides validate: 
+     * must not paint from the cache, the painter may be dirty for the 
+     * painted object.
+     */
+    @Test
+    public void testPainterHighlighterValidatingNotCached() {
+        ComponentAdapter adapter = createComponentAdapter(allColored, false);
+        final int[] validateCount = new int[1];
+        MattePainter mattePainter = new MattePainter(Color.RED) {
+            @Override
+            protected void validate(Object object) {
+                validateCount[0]++;
+            }
+        };
+        mattePainter.setCacheable(true);
+        PainterHighlighter hl = new PainterHighlighter(mattePainter);
+        hl.setCacheable(true);
+        hl.highlight(allColored, adapter);
+        assertSame("validating painter must be used directly", 
+                mattePainter, allColored.getPainter());
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        allColored.getPainter().paint(g, allColored, 10, 10);
+        allColored.getPainter().paint(g, allColored, 10, 10);
+        assertEquals("validate must be called on every paint", 2, validateCount[0]);
+        g.dispose();
+    }
+    
+    /**
+     * Cacheable PainterHighlighter which changes the painter during the 
+     * decoration: must not cache the per-cell output.
+     */
+    @Test
+    public void testPainterHighlighterAdjustedNotCached() {
+        ComponentAdapter adapter = createComponentAdapter(allColored, false);
+        final MattePainter mattePainter = new MattePainter(Color.RED, true);
+        final Color[] fills = {Color.BLUE, Color.GREEN, Color.RED};
+        PainterHighlighter hl = new PainterHighlighter(mattePainter) {
+            int cell;
+            
+            @Override
+            protected Component doHighlight(Component component,
+                    ComponentAdapter adapter) {
+                mattePainter.setFillPaint(fills[cell++ % fills.length]);
+                return super.doHighlight(component, adapter);
+            }
+            
+        };
+        hl.setCacheable(true);
+        ChangeReport report = new ChangeReport();
+        hl.addChangeListener(report);
+        for (int i = 0; i < fills.length; i++) {
+            hl.highlight(allColored, adapter);
+            assertSame("per-cell painter must be used directly", 
+                    mattePainter, allColored.getPainter());
+        }
+        assertEquals("changes during decoration must not be notified", 
+                0, report.getEventCount());
+    }
+    
+    @Test
+    public void testPainterHighlighterCacheableProperty() {
+        PainterHighlighter hl = new PainterHighlighter(new MattePainter());
+        assertFalse(hl.isCacheable());
+        ChangeReport report = new ChangeReport();
+        hl.addChangeListener(report);
+        hl.setCacheable(true);
+        assertTrue(hl.isCacheable());
+        assertEquals(1, report.getEventCount());
+    }
+    
     @Test
     public void testPainterHighlighterNotUseNullPainter() {
         ComponentAdapter adapter = createComponentAdapter(allColored, false);
@@ -28,10 +28,12 @@ import java.awt.Dimension;
 import java.awt.GraphicsEnvironment;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.text.DateFormat;
 import java.text.DateFormatSymbols;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.logging.Logger;
 
 import javax.swing.CellRendererPane;
@@ -44,6 +46,8 @@ import org.jdesktop.swingx.InteractiveTestCase;
 import org.jdesktop.swingx.JXFrame;
 import org.jdesktop.swingx.JXMonthView;
 import org.jdesktop.swingx.calendar.CalendarUtils;
+import org.jdesktop.swingx.renderer.FormatStringValue;
+import org.jdesktop.swingx.renderer.StringValue;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -1505,6 +1509,25 @@ public class BasicMonthViewUITest extends InteractiveTestCase {
     };
 
     
+    /**
+     * The day StringValue must format calendars in their time zone and
+     * must not change its format to do so.
+     */
+    @Test
+    public void testDayStringValueTimeZone() {
+        StringValue sv = new BasicCalendarRenderingHandler().createDayStringValue(Locale.US);
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+        calendar.clear();
+        calendar.set(2008, Calendar.MAY, 10, 23, 30);
+        assertEquals("10", sv.getString(calendar));
+        Calendar east = Calendar.getInstance(TimeZone.getTimeZone("GMT+02:00"));
+        east.setTime(calendar.getTime());
+        assertEquals("11", sv.getString(east));
+        assertEquals("10", sv.getString(calendar));
+        TimeZone zone = ((DateFormat) ((FormatStringValue) sv).getFormat()).getTimeZone();
+        assertEquals("shared format must be unchanged", TimeZone.getDefault(), zone);
+    }
+    
     /**
      * Issue #708-swingx: updateUI changes state.
      * 
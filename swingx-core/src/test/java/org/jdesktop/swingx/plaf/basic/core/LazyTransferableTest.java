@@ -0,0 +1,135 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.plaf.basic.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.datatransfer.DataFlavor;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test LazyTransferable and the list transferable.
+ */
+@RunWith(JUnit4.class)
+public class LazyTransferableTest {
+
+    private static final DataFlavor PLAIN_READER = flavor("text/plain;class=java.io.Reader");
+    private static final DataFlavor PLAIN_STREAM = flavor("text/plain;charset=unicode;class=java.io.InputStream");
+    private static final DataFlavor HTML_STRING = flavor("text/html;class=java.lang.String");
+    private static final DataFlavor HTML_READER = flavor("text/html;class=java.io.Reader");
+    
+    /**
+     * The content must be the same as formerly built eagerly.
+     */
+    @Test
+    public void testListContent() throws Exception {
+        BasicXListUI.ListTransferable transferable = 
+            new BasicXListUI.ListTransferable(new Object[] {"a", null, 3});
+        assertEquals("a\n\n3", transferable.getTransferData(DataFlavor.stringFlavor));
+        assertEquals("<html>\n<body>\n<ul>\n  <li>a\n  <li>\n  <li>3\n</ul>\n</body>\n</html>", 
+                transferable.getTransferData(HTML_STRING));
+    }
+    
+    @Test
+    public void testStreamingSameAsString() throws Exception {
+        BasicXListUI.ListTransferable transferable = 
+            new BasicXListUI.ListTransferable(new Object[] {"a", "\u00E9\u4E2D", "\uD835\uDC00"});
+        String plain = (String) transferable.getTransferData(DataFlavor.stringFlavor);
+        assertEquals(plain, read((Reader) transferable.getTransferData(PLAIN_READER)));
+        assertEquals(plain, read(new InputStreamReader(
+                (InputStream) transferable.getTransferData(PLAIN_STREAM), "unicode")));
+        assertEquals(transferable.getTransferData(HTML_STRING), 
+                read((Reader) transferable.getTransferData(HTML_READER)));
+    }
+    
+    /**
+     * Rows are requested only when a flavor is requested, and streamed.
+     */
+    @Test
+    public void testLazy() throws Exception {
+        CountingTransferable transferable = new CountingTransferable(1000);
+        assertTrue(transferable.isDataFlavorSupported(PLAIN_READER));
+        assertEquals(0, transferable.requested);
+        Reader reader = (Reader) transferable.getTransferData(PLAIN_READER);
+        assertEquals(0, transferable.requested);
+        char[] buffer = new char[4];
+        reader.read(buffer);
+        assertEquals("only the rows needed must be requested", 1, transferable.requested);
+    }
+    
+    @Test
+    public void testEmpty() throws Exception {
+        CountingTransferable transferable = new CountingTransferable(0);
+        assertEquals("", transferable.getTransferData(DataFlavor.stringFlavor));
+        assertEquals("", read((Reader) transferable.getTransferData(PLAIN_READER)));
+    }
+    
+    private String read(Reader reader) throws Exception {
+        StringWriter writer = new StringWriter();
+        char[] buffer = new char[3];
+        int count;
+        while ((count = reader.read(buffer)) >= 0) {
+            writer.write(buffer, 0, count);
+        }
+        return writer.toString();
+    }
+    
+    private static DataFlavor flavor(String mimeType) {
+        try {
+            return new DataFlavor(mimeType);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static class CountingTransferable extends LazyTransferable {
+        private final int rowCount;
+        int requested;
+        
+        CountingTransferable(int rowCount) {
+            this.rowCount = rowCount;
+        }
+        
+        @Override
+        protected int getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        protected String getPlainRow(int row) {
+            requested++;
+            return "r" + row;
+        }
+
+        @Override
+        protected String getHTMLRow(int row) {
+            return "<p>" + getPlainRow(row);
+        }
+    }
+}
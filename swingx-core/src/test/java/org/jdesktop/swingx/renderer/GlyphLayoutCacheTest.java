@@ -0,0 +1,212 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.renderer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JLabel;
+import javax.swing.plaf.basic.BasicLabelUI;
+import javax.swing.plaf.metal.MetalLabelUI;
+
+import org.jdesktop.swingx.icon.EmptyIcon;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test GlyphLayoutCache and its usage in JRendererLabel.
+ */
+@RunWith(JUnit4.class)
+public class GlyphLayoutCacheTest {
+
+    private static final FontRenderContext FRC = new FontRenderContext(null, false, false);
+    
+    @Test
+    public void testLayoutCached() {
+        GlyphLayoutCache cache = new GlyphLayoutCache(10);
+        Font font = new Font("Dialog", Font.PLAIN, 12);
+        GlyphLayoutCache.GlyphLayout layout = cache.getLayout("text", font, FRC);
+        assertSame(layout, cache.getLayout("text", font, FRC));
+        assertSame("equal font must hit", layout, 
+                cache.getLayout("text", new Font("Dialog", Font.PLAIN, 12), FRC));
+        assertNotSame("font is part of the key", layout, 
+                cache.getLayout("text", font.deriveFont(20f), FRC));
+        assertNotSame("render context is part of the key", layout, 
+                cache.getLayout("text", font, new FontRenderContext(null, true, false)));
+        assertEquals(3, cache.size());
+        assertEquals(font.getStringBounds("text", FRC).getWidth(), layout.getAdvance(), 0.01);
+    }
+    
+    @Test
+    public void testEviction() {
+        GlyphLayoutCache cache = new GlyphLayoutCache(2);
+        Font font = new Font("Dialog", Font.PLAIN, 12);
+        GlyphLayoutCache.GlyphLayout a = cache.getLayout("a", font, FRC);
+        cache.getLayout("b", font, FRC);
+        // access a, b is eldest
+        assertSame(a, cache.getLayout("a", font, FRC));
+        cache.getLayout("c", font, FRC);
+        assertEquals(2, cache.size());
+        assertSame("recently used must be kept", a, cache.getLayout("a", font, FRC));
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+    
+    /**
+     * Combining marks must be laid out, also outside of the complex script
+     * ranges.
+     */
+    @Test
+    public void testRequiresLayoutCombiningMarks() {
+        assertFalse(GlyphLayoutCache.requiresLayout("plain \u00e9 \u0416"));
+        assertTrue(GlyphLayoutCache.requiresLayout("e\u0301"));
+        assertTrue(GlyphLayoutCache.requiresLayout("a\u20DD"));
+        assertTrue(GlyphLayoutCache.requiresLayout("\u05D0"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxSizeMustBePositive() {
+        new GlyphLayoutCache(0);
+    }
+    
+    @Test
+    public void testCacheable() {
+        JLabel label = createLabel("plain");
+        assertTrue(GlyphLayoutCache.isCacheable(label));
+        label.setText("<html><b>bold</b>");
+        assertFalse("html is not cacheable", GlyphLayoutCache.isCacheable(label));
+        label.setText("");
+        assertFalse("empty text is not cacheable", GlyphLayoutCache.isCacheable(label));
+        label.setText("plain");
+        label.setEnabled(false);
+        assertFalse("disabled is not cacheable", GlyphLayoutCache.isCacheable(label));
+        label.setEnabled(true);
+        label.setDisplayedMnemonic('p');
+        assertFalse("mnemonic is not cacheable", GlyphLayoutCache.isCacheable(label));
+    }
+    
+    /**
+     * Subclasses of the basic ui-delegate might paint the text differently.
+     */
+    @Test
+    public void testCacheableExactDelegate() {
+        JLabel label = createLabel("plain");
+        label.setUI(new MetalLabelUI());
+        assertTrue(GlyphLayoutCache.isCacheable(label));
+        label.setUI(new BasicLabelUI() {
+            
+            @Override
+            protected void paintEnabledText(JLabel l, Graphics g, String s,
+                    int textX, int textY) {
+            }
+            
+        });
+        assertFalse("subclassed delegate is not cacheable", GlyphLayoutCache.isCacheable(label));
+    }
+    
+    /**
+     * Painting from the cache must produce the same pixels as the ui-delegate.
+     */
+    @Test
+    public void testPaintLabelSameAsDelegate() {
+        JLabel label = createLabel("repeated text");
+        label.setIcon(new EmptyIcon(5, 5));
+        label.setHorizontalAlignment(JLabel.CENTER);
+        label.setSize(120, 20);
+        BufferedImage delegate = new BufferedImage(120, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = delegate.createGraphics();
+        label.getUI().update(g, label);
+        g.dispose();
+        GlyphLayoutCache cache = new GlyphLayoutCache(10);
+        BufferedImage cached = new BufferedImage(120, 20, BufferedImage.TYPE_INT_RGB);
+        g = cached.createGraphics();
+        assertTrue(cache.paintLabel(label, g));
+        g.dispose();
+        assertEquals(1, cache.size());
+        assertArrayEquals(getPixels(delegate), getPixels(cached));
+    }
+    
+    /**
+     * Painting from the cache must use the component's text rendering hints.
+     */
+    @Test
+    public void testPaintLabelAntialiasedSameAsDelegate() {
+        JLabel label = createLabel("antialiased text");
+        label.putClientProperty(RenderingHints.KEY_TEXT_ANTIALIASING, 
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        label.setSize(120, 20);
+        BufferedImage delegate = new BufferedImage(120, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = delegate.createGraphics();
+        label.getUI().update(g, label);
+        g.dispose();
+        BufferedImage cached = new BufferedImage(120, 20, BufferedImage.TYPE_INT_RGB);
+        g = cached.createGraphics();
+        assertTrue(new GlyphLayoutCache(10).paintLabel(label, g));
+        g.dispose();
+        assertArrayEquals(getPixels(delegate), getPixels(cached));
+    }
+    
+    @Test
+    public void testPaintLabelNotCacheable() {
+        JLabel label = createLabel("<html>html");
+        GlyphLayoutCache cache = new GlyphLayoutCache(10);
+        BufferedImage image = new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        assertFalse(cache.paintLabel(label, g));
+        g.dispose();
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    public void testRendererLabelGlyphCache() {
+        JRendererLabel label = new JRendererLabel();
+        assertFalse("glyph cache disabled by default", label.isGlyphCacheEnabled());
+        label.setGlyphCacheEnabled(true);
+        assertTrue(label.isGlyphCacheEnabled());
+    }
+    
+    private int[] getPixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+    
+    private JLabel createLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setUI(new BasicLabelUI());
+        label.setFont(new Font("Dialog", Font.PLAIN, 12));
+        label.setOpaque(true);
+        label.setBackground(Color.WHITE);
+        label.setForeground(Color.BLACK);
+        return label;
+    }
+}
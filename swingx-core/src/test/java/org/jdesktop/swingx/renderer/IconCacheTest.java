@@ -0,0 +1,136 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.UIManager;
+
+import org.jdesktop.swingx.icon.EmptyIcon;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test IconCache and the caching IconValues.
+ */
+@RunWith(JUnit4.class)
+public class IconCacheTest {
+
+    @Test
+    public void testEviction() {
+        IconCache cache = new IconCache(2);
+        Icon icon = new EmptyIcon(1, 1);
+        cache.putIcon("a", -1, -1, icon);
+        cache.putIcon("b", -1, -1, icon);
+        // access a, b is eldest
+        assertSame(icon, cache.getIcon("a", -1, -1));
+        cache.putIcon("c", -1, -1, icon);
+        assertNull("least recently used must be evicted", cache.getIcon("b", -1, -1));
+        assertSame(icon, cache.getIcon("a", -1, -1));
+        assertNull("size is part of the key", cache.getIcon("a", 1, 1));
+    }
+    
+    /**
+     * Non-image icons are scaled synchronously, preserving the aspect ratio.
+     */
+    @Test
+    public void testScaledIcon() {
+        IconCache cache = new IconCache(10);
+        Icon scaled = cache.getScaledIcon("a", new EmptyIcon(20, 10), 10, 10);
+        assertEquals(10, scaled.getIconWidth());
+        assertEquals(5, scaled.getIconHeight());
+        assertSame(scaled, cache.getIcon("a", 10, 10));
+    }
+    
+    /**
+     * Image icons are scaled in the background, with a placeholder of the
+     * target size until ready.
+     */
+    @Test
+    public void testScaledImageIcon() throws Exception {
+        IconCache cache = new IconCache(10);
+        ImageIcon source = new ImageIcon(new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB));
+        Icon icon = cache.getScaledIcon("a", source, 16, 16);
+        assertEquals(16, icon.getIconWidth());
+        assertEquals(16, icon.getIconHeight());
+        long timeout = System.currentTimeMillis() + 5000;
+        Icon scaled = cache.getIcon("a", 16, 16);
+        while ((scaled == icon) && (System.currentTimeMillis() < timeout)) {
+            Thread.sleep(10);
+            scaled = cache.getIcon("a", 16, 16);
+        }
+        assertNotSame("scaled icon must replace placeholder", icon, scaled);
+        assertTrue(scaled instanceof ImageIcon);
+        assertEquals(16, scaled.getIconWidth());
+    }
+    
+    @Test
+    public void testCachedIconValue() {
+        final int[] count = new int[1];
+        IconValue iv = IconValues.cached(new IconValue() {
+            @Override
+            public Icon getIcon(Object value) {
+                count[0]++;
+                return new EmptyIcon(count[0], count[0]);
+            }
+        });
+        Icon icon = iv.getIcon("a");
+        assertSame(icon, iv.getIcon("a"));
+        assertEquals(1, count[0]);
+        iv.getIcon("b");
+        assertEquals(2, count[0]);
+    }
+    
+    /**
+     * The shared cache must be cleared on change of the LookAndFeel, the 
+     * icons may depend on it.
+     */
+    @Test
+    public void testSharedCacheClearedOnLookAndFeelChange() throws Exception {
+        IconCache cache = IconCache.getInstance();
+        Icon icon = new EmptyIcon(1, 1);
+        cache.putIcon("a", -1, -1, icon);
+        // sanity
+        assertSame(icon, cache.getIcon("a", -1, -1));
+        UIManager.setLookAndFeel(UIManager.getLookAndFeel().getClass().getName());
+        assertNull("shared cache must be cleared", cache.getIcon("a", -1, -1));
+    }
+    
+    @Test
+    public void testScaledIconValueNullIcon() {
+        IconValue iv = IconValues.scaled(IconValues.NONE, 16, 16);
+        assertSame(IconValue.NULL_ICON, iv.getIcon("a"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testScaledIconValueSize() {
+        IconValues.scaled(IconValues.ICON, 0, 16);
+    }
+}
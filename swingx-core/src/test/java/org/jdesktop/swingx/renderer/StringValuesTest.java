@@ -22,10 +22,18 @@
 package org.jdesktop.swingx.renderer;
 
 import java.io.File;
+import java.text.FieldPosition;
+import java.text.Format;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TimeZone;
+
+import javax.swing.SwingUtilities;
 
 import junit.framework.TestCase;
 
@@ -44,6 +52,127 @@ import org.junit.runners.JUnit4;
 @RunWith(JUnit4.class)
 public class StringValuesTest extends TestCase {
 
+    /**
+     * FormatStringValue memoizes formatted strings of immutable values 
+     * and dates.
+     */
+    @Test
+    public void testFormatStringValueCached() {
+        CountingFormat format = new CountingFormat();
+        FormatStringValue sv = new FormatStringValue(format, true);
+        assertEquals("42", sv.getString(42));
+        assertEquals("42", sv.getString(42));
+        assertEquals(1, format.count[0]);
+        Date date = new Date(1000);
+        assertEquals("1000", sv.getString(date));
+        date.setTime(2000);
+        assertEquals("mutated date must not be served from cache", "2000", sv.getString(date));
+        assertEquals(3, format.count[0]);
+        Object mutable = new StringBuilder("mutable");
+        sv.getString(mutable);
+        sv.getString(mutable);
+        assertEquals("mutable values must not be cached", 5, format.count[0]);
+    }
+    
+    @Test
+    public void testFormatStringValueClearCache() {
+        CountingFormat format = new CountingFormat();
+        FormatStringValue sv = new FormatStringValue(format, true);
+        sv.getString(42);
+        format.prefix = "#";
+        assertEquals("42", sv.getString(42));
+        sv.clearCache();
+        assertEquals("#42", sv.getString(42));
+    }
+    
+    /**
+     * FormatStringValue doesn't memoize by default.
+     */
+    @Test
+    public void testFormatStringValueNotMemoizing() {
+        CountingFormat format = new CountingFormat();
+        FormatStringValue sv = new FormatStringValue(format);
+        assertFalse(sv.isMemoizing());
+        sv.getString(42);
+        assertEquals("42", sv.getString(42));
+        assertEquals(2, format.count[0]);
+        sv.setMemoizing(true);
+        assertTrue(sv.isMemoizing());
+        sv.getString(42);
+        assertEquals("42", sv.getString(42));
+        assertEquals(3, format.count[0]);
+    }
+    
+    /**
+     * Changes of the format's time zone or pattern must be respected, both
+     * by the memoized strings and the per-thread copy.
+     */
+    @Test
+    public void testFormatStringValueFormatState() {
+        assertFormatStateRespected(false);
+        assertFormatStateRespected(true);
+    }
+
+    private void assertFormatStateRespected(boolean memoizing) {
+        SimpleDateFormat format = new SimpleDateFormat("HH", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        FormatStringValue sv = new FormatStringValue(format, memoizing);
+        Date date = new Date(0);
+        assertEquals("00", sv.getString(date));
+        format.setTimeZone(TimeZone.getTimeZone("GMT+01:00"));
+        assertEquals("time zone change", "01", sv.getString(date));
+        format.applyPattern("HH:mm");
+        assertEquals("pattern change", "01:00", sv.getString(date));
+    }
+    
+    /**
+     * Off the EDT, the format is used through a per-thread copy.
+     */
+    @Test
+    public void testFormatStringValueThreadCopy() throws Exception {
+        final CountingFormat format = new CountingFormat();
+        final FormatStringValue sv = new FormatStringValue(format);
+        final String[] result = new String[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = sv.getString(1);
+            }
+        });
+        assertEquals("1", result[0]);
+        assertEquals("EDT must use the format", 0, format.clones[0]);
+        assertEquals("2", sv.getString(2));
+        assertEquals("background thread must use a copy", 1, format.clones[0]);
+        assertEquals("3", sv.getString(3));
+        assertEquals("copy must be reused", 1, format.clones[0]);
+    }
+    
+    @SuppressWarnings("serial")
+    private static class CountingFormat extends Format {
+        int[] count = new int[1];
+        int[] clones = new int[1];
+        String prefix = "";
+        
+        @Override
+        public StringBuffer format(Object obj, StringBuffer toAppendTo,
+                FieldPosition pos) {
+            count[0]++;
+            Object value = obj instanceof Date ? ((Date) obj).getTime() : obj;
+            return toAppendTo.append(prefix).append(value);
+        }
+
+        @Override
+        public Object parseObject(String source, ParsePosition pos) {
+            return null;
+        }
+        
+        @Override
+        public Object clone() {
+            clones[0]++;
+            return super.clone();
+        }
+    }
+    
     @Test
     public void testLocaleSVPrefixNotContained() {
         Map<Object, String> lookup = new HashMap<Object, String>();
@@ -0,0 +1,129 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.renderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import javax.swing.JLabel;
+import javax.swing.SwingConstants;
+
+import org.jdesktop.swingx.JXTable;
+import org.jdesktop.swingx.decorator.ColorHighlighter;
+import org.jdesktop.swingx.decorator.FontHighlighter;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test TextStampProvider and JRendererTextStamp.
+ */
+@RunWith(JUnit4.class)
+public class TextStampProviderTest {
+
+    /**
+     * The stamp is configured from the StringValue and decorated by 
+     * color and font highlighters.
+     */
+    @Test
+    public void testTableRendererHighlighted() {
+        JXTable table = new JXTable(new Object[][] {{1234}}, new Object[] {"Value"});
+        table.setDefaultRenderer(Object.class, new DefaultTableRenderer(
+                new TextStampProvider(StringValues.NUMBER_TO_STRING, JLabel.RIGHT)));
+        Font bold = table.getFont().deriveFont(Font.BOLD);
+        table.setHighlighters(new ColorHighlighter(Color.YELLOW, Color.RED), 
+                new FontHighlighter(bold));
+        Component comp = table.prepareRenderer(table.getCellRenderer(0, 0), 0, 0);
+        assertTrue(comp instanceof JRendererTextStamp);
+        JRendererTextStamp stamp = (JRendererTextStamp) comp;
+        assertEquals(StringValues.NUMBER_TO_STRING.getString(1234), stamp.getText());
+        assertEquals(SwingConstants.RIGHT, stamp.getHorizontalAlignment());
+        assertEquals(Color.YELLOW, stamp.getBackground());
+        assertEquals(Color.RED, stamp.getForeground());
+        assertSame(bold, stamp.getFont());
+    }
+    
+    /**
+     * Text is drawn at the alignment, background is filled.
+     */
+    @Test
+    public void testPaintAlignment() {
+        JRendererTextStamp stamp = new JRendererTextStamp();
+        stamp.setFont(new Font("Dialog", Font.PLAIN, 12));
+        stamp.setBackground(Color.WHITE);
+        stamp.setForeground(Color.BLACK);
+        stamp.setText("88");
+        stamp.setSize(100, 20);
+        stamp.setHorizontalAlignment(SwingConstants.RIGHT);
+        BufferedImage image = paint(stamp);
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(1, 1));
+        assertFalse("left half must be empty", hasText(image, 0, 50));
+        assertTrue("text must be right aligned", hasText(image, 50, 100));
+        stamp.setHorizontalAlignment(SwingConstants.LEFT);
+        image = paint(stamp);
+        assertTrue("text must be left aligned", hasText(image, 0, 50));
+        assertFalse("right half must be empty", hasText(image, 50, 100));
+    }
+    
+    @Test
+    public void testPreferredSize() {
+        JRendererTextStamp stamp = new JRendererTextStamp();
+        JLabel label = new JLabel("12345");
+        Font font = new Font("Dialog", Font.PLAIN, 12);
+        label.setFont(font);
+        stamp.setFont(font);
+        stamp.setText("12345");
+        assertEquals(label.getPreferredSize(), stamp.getPreferredSize());
+    }
+    
+    @Test
+    public void testRequiresLayout() {
+        assertFalse(GlyphLayoutCache.requiresLayout("1,234.56 abc \u00e9"));
+        assertTrue(GlyphLayoutCache.requiresLayout("abc \u05d0"));
+        assertTrue(GlyphLayoutCache.requiresLayout("\ud835\udc00"));
+    }
+    
+    private BufferedImage paint(JRendererTextStamp stamp) {
+        BufferedImage image = new BufferedImage(stamp.getWidth(), stamp.getHeight(), 
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        stamp.paint(g);
+        g.dispose();
+        return image;
+    }
+    
+    private boolean hasText(BufferedImage image, int fromX, int toX) {
+        for (int x = fromX; x < toX; x++) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                if (image.getRGB(x, y) != Color.WHITE.getRGB()) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * $Id$
+ *
+ * Copyright 2004 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ */
+package org.jdesktop.swingx.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Testing LiteralMatcher: must be equivalent to the pattern it is created from.
+ */
+@RunWith(JUnit4.class)
+public class LiteralMatcherTest {
+
+    private static final String[] TEXTS = {
+        "", "a", "A", "ab", "AB", "xaby", "XABY", "a.b", "A.B", "abab", "ba",
+        "ab\n", "ab\r\n", "ab\r", "ab\u2028", "ab\n\n", "\nab", "\u212a", "k", "K",
+        "stra\u00dfe", "STRASSE", "a\\Eb", "a$b", "^ab",
+    };
+
+    private static final String[] LITERALS = {
+        "", "a", "ab", "AB", "a.b", "k", "stra\u00dfe", "a\\Eb", "a$b", "b\r",
+    };
+    
+    private static final int[] FLAGS = {
+        0, Pattern.CASE_INSENSITIVE, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE,
+    };
+
+    /**
+     * Test equivalence of matchers created from quoted patterns as 
+     * compiled by the default RegexCreator.
+     */
+    @Test
+    public void testQuotedPatterns() {
+        PatternModel.RegexCreator creator = new PatternModel.RegexCreator();
+        for (String rule : creator.getMatchRules()) {
+            creator.setMatchRule(rule);
+            for (String literal : LITERALS) {
+                for (int flags : FLAGS) {
+                    assertEquivalent(Pattern.compile(creator.createRegEx(literal), flags));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Test equivalence of matchers created from unquoted patterns 
+     * without meta characters.
+     */
+    @Test
+    public void testPlainPatterns() {
+        String[] regex = {"ab", "^ab", "ab$", "^ab$", "^", "$", "a\\.b", "a\\$b", "\\^ab", "a b"};
+        for (String string : regex) {
+            for (int flags : FLAGS) {
+                assertEquivalent(Pattern.compile(string, flags));
+            }
+        }
+    }
+    
+    /**
+     * Test equivalence of matchers created from literal patterns.
+     */
+    @Test
+    public void testLiteralFlag() {
+        for (String literal : LITERALS) {
+            for (int flags : FLAGS) {
+                assertEquivalent(Pattern.compile(literal, flags | Pattern.LITERAL));
+            }
+        }
+    }
+    
+    /**
+     * Test that patterns with regex semantics are rejected.
+     */
+    @Test
+    public void testRegexPatterns() {
+        String[] regex = {"a.b", "a*", "a|b", "[ab]", "(ab)", "a\\d", "a{2}", "a^b", "a$b", "\\Qa\\E+"};
+        for (String string : regex) {
+            assertNull(string, LiteralMatcher.forPattern(Pattern.compile(string)));
+        }
+        assertNull("unsupported flags", LiteralMatcher.forPattern(Pattern.compile("ab", Pattern.MULTILINE)));
+        assertNull("unsupported flags", LiteralMatcher.forPattern(Pattern.compile("ab", Pattern.COMMENTS)));
+        assertNull(LiteralMatcher.forPattern(null));
+    }
+    
+    /**
+     * Test the factory methods for explicit rules.
+     */
+    @Test
+    public void testFactoryMethods() {
+        for (String literal : LITERALS) {
+            for (boolean caseSensitive : new boolean[] {true, false}) {
+                int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+                String quoted = Pattern.quote(literal);
+                assertEquivalent(Pattern.compile(quoted, flags), 
+                        LiteralMatcher.contains(literal, caseSensitive));
+                assertEquivalent(Pattern.compile("^" + quoted, flags), 
+                        LiteralMatcher.startsWith(literal, caseSensitive));
+                assertEquivalent(Pattern.compile(quoted + "$", flags), 
+                        LiteralMatcher.endsWith(literal, caseSensitive));
+                assertEquivalent(Pattern.compile("^" + quoted + "$", flags), 
+                        LiteralMatcher.equalTo(literal, caseSensitive));
+            }
+        }
+    }
+
+    private void assertEquivalent(Pattern pattern) {
+        LiteralMatcher matcher = LiteralMatcher.forPattern(pattern);
+        assertNotNull("literal pattern " + pattern + " flags " + pattern.flags(), matcher);
+        assertEquivalent(pattern, matcher);
+    }
+
+    private void assertEquivalent(Pattern pattern, LiteralMatcher matcher) {
+        for (String text : TEXTS) {
+            assertEquals("pattern " + pattern + " flags " + pattern.flags() + " text " + text, 
+                    pattern.matcher(text).find(), matcher.matches(text));
+        }
+    }
+}
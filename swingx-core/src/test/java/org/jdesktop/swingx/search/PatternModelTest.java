@@ -180,6 +180,45 @@ public class PatternModelTest extends TestCase {
         assertTrue("pattern must find " + match, model.getPattern().matcher(match).find());
     }
     
+    /**
+     * test that the literal matcher is updated with the pattern.
+     */
+    @Test
+    public void testLiteralMatcher() {
+        PatternModel model = new PatternModel();
+        assertNull("no literal matcher without pattern", model.getLiteralMatcher());
+        model.setRawText("a.b");
+        LiteralMatcher matcher = model.getLiteralMatcher();
+        assertNotNull("quoted raw text must have literal matcher", matcher);
+        assertEquals("a.b", matcher.getLiteral());
+        assertFalse("not case sensitive by default", matcher.isCaseSensitive());
+        assertTrue(matcher.matches("XA.BX"));
+        assertFalse(matcher.matches("axb"));
+        model.setCaseSensitive(true);
+        assertNotSame("literal matcher must be updated on case change", 
+                matcher, model.getLiteralMatcher());
+        assertFalse(model.getLiteralMatcher().matches("XA.BX"));
+        model.setMatchRule(PatternModel.MATCH_RULE_EQUALS);
+        assertFalse(model.getLiteralMatcher().matches("xa.b"));
+        assertTrue(model.getLiteralMatcher().matches("a.b"));
+        model.setRawText(null);
+        assertNull("no literal matcher without pattern", model.getLiteralMatcher());
+    }
+    
+    /**
+     * test that regex semantics are not mapped to a literal matcher.
+     */
+    @Test
+    public void testLiteralMatcherRegex() {
+        PatternModel model = new PatternModel();
+        model.setRegexCreatorKey(PatternModel.REGEX_ANCHORED);
+        model.setRawText("a.b");
+        assertNull("regex must not have literal matcher", model.getLiteralMatcher());
+        model.setRawText("ab");
+        assertNotNull("regex without meta chars must have literal matcher", 
+                model.getLiteralMatcher());
+    }
+    
     /**
      * test if rawtext is treated as literal.
      *
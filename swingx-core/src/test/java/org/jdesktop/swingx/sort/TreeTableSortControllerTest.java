@@ -0,0 +1,208 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.sort;
+
+import java.util.Arrays;
+
+import javax.swing.RowFilter;
+import javax.swing.SortOrder;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+
+import junit.framework.TestCase;
+
+import org.jdesktop.swingx.treetable.DefaultMutableTreeTableNode;
+import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
+import org.jdesktop.test.TreeModelReport;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Unit tests for TreeTableSortController.
+ */
+@RunWith(JUnit4.class)
+public class TreeTableSortControllerTest extends TestCase {
+
+    private DefaultTreeTableModel model;
+    private DefaultMutableTreeTableNode root;
+    private DefaultMutableTreeTableNode a;
+    private TreeTableSortController controller;
+    
+    @Override
+    @Before
+    public void setUp() {
+        root = new DefaultMutableTreeTableNode("root");
+        root.add(new DefaultMutableTreeTableNode("c"));
+        a = new DefaultMutableTreeTableNode("a");
+        a.add(new DefaultMutableTreeTableNode("z"));
+        a.add(new DefaultMutableTreeTableNode("y"));
+        root.add(a);
+        root.add(new DefaultMutableTreeTableNode("b"));
+        model = new DefaultTreeTableModel(root, Arrays.asList("name"));
+        controller = new TreeTableSortController(model);
+    }
+    
+    @Test
+    public void testUnsortedSameAsModel() {
+        assertEquals(3, controller.getChildCount(root));
+        for (int i = 0; i < 3; i++) {
+            assertSame(model.getChild(root, i), controller.getChild(root, i));
+        }
+    }
+    
+    @Test
+    public void testSortsSiblingsPerParent() {
+        controller.toggleSortOrder(0);
+        assertEquals(SortOrder.ASCENDING, controller.getSortOrder(0));
+        assertChildren(root, "a", "b", "c");
+        assertChildren(a, "y", "z");
+        assertEquals(1, controller.getIndexOfChild(root, root.getChildAt(2)));
+        controller.toggleSortOrder(0);
+        assertChildren(root, "c", "b", "a");
+        assertChildren(a, "z", "y");
+    }
+    
+    @Test
+    public void testFilterKeepsAncestors() {
+        controller.setRowFilter(RowFilter.regexFilter("^y$"));
+        assertChildren(root, "a");
+        assertChildren(a, "y");
+        assertEquals(-1, controller.getIndexOfChild(root, root.getChildAt(0)));
+        controller.setRowFilter(null);
+        assertChildren(root, "c", "a", "b");
+    }
+    
+    @Test
+    public void testReorderingNotification() {
+        final boolean[] reordering = new boolean[1];
+        controller.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                reordering[0] = controller.isReordering();
+            }
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+            }
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+            }
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+            }
+        });
+        TreeModelReport report = new TreeModelReport(controller);
+        controller.toggleSortOrder(0);
+        assertEquals(1, report.getStructureEventCount());
+        assertSame(root, report.getLastStructureEvent().getTreePath().getLastPathComponent());
+        assertTrue(reordering[0]);
+        assertFalse(controller.isReordering());
+    }
+    
+    @Test
+    public void testInsertMappedToView() {
+        controller.toggleSortOrder(0);
+        assertChildren(root, "a", "b", "c");
+        TreeModelReport report = new TreeModelReport(controller);
+        model.insertNodeInto(new DefaultMutableTreeTableNode("bb"), root, 0);
+        assertEquals(1, report.getEventCount());
+        assertEquals(1, report.getInsertEventCount());
+        assertEquals(2, report.getLastInsertEvent().getChildIndices()[0]);
+        assertChildren(root, "a", "b", "bb", "c");
+    }
+    
+    @Test
+    public void testRemoveMappedToView() {
+        controller.toggleSortOrder(0);
+        assertChildren(root, "a", "b", "c");
+        TreeModelReport report = new TreeModelReport(controller);
+        // "c" is first in model, last in view
+        model.removeNodeFromParent((DefaultMutableTreeTableNode) root.getChildAt(0));
+        assertEquals(1, report.getDeleteEventCount());
+        assertEquals(2, report.getLastDeleteEvent().getChildIndices()[0]);
+        assertChildren(root, "a", "b");
+    }
+
+    @Test
+    public void testInsertFilteredOut() {
+        controller.setRowFilter(RowFilter.regexFilter("^y$"));
+        assertChildren(root, "a");
+        TreeModelReport report = new TreeModelReport(controller);
+        model.insertNodeInto(new DefaultMutableTreeTableNode("x"), root, 0);
+        assertFalse(report.hasEvents());
+        assertChildren(root, "a");
+    }
+    
+    @Test
+    public void testInsertMatchShowsAncestor() {
+        controller.setRowFilter(RowFilter.regexFilter("^x$"));
+        assertEquals(0, controller.getChildCount(root));
+        TreeModelReport report = new TreeModelReport(controller);
+        model.insertNodeInto(new DefaultMutableTreeTableNode("x"), a, 0);
+        assertEquals(1, report.getStructureEventCount());
+        assertChildren(root, "a");
+        assertChildren(a, "x");
+    }
+    
+    @Test
+    public void testChangeResorts() {
+        controller.toggleSortOrder(0);
+        assertChildren(root, "a", "b", "c");
+        TreeModelReport report = new TreeModelReport(controller);
+        model.setValueAt("d", root.getChildAt(2), 0);
+        assertEquals(1, report.getStructureEventCount());
+        assertChildren(root, "a", "c", "d");
+    }
+    
+    /**
+     * Removing a node with cached children must not query the model for
+     * the removed node.
+     */
+    @Test
+    public void testRemoveExpandedFolder() {
+        controller.toggleSortOrder(0);
+        assertChildren(root, "a", "b", "c");
+        assertChildren(a, "y", "z");
+        TreeModelReport report = new TreeModelReport(controller);
+        model.removeNodeFromParent(a);
+        assertEquals(1, report.getDeleteEventCount());
+        assertEquals(0, report.getLastDeleteEvent().getChildIndices()[0]);
+        assertChildren(root, "b", "c");
+    }
+    
+    @Test
+    public void testChangeInPlace() {
+        controller.toggleSortOrder(0);
+        assertChildren(root, "a", "b", "c");
+        TreeModelReport report = new TreeModelReport(controller);
+        model.setValueAt("bb", root.getChildAt(2), 0);
+        assertEquals(1, report.getUpdateEventCount());
+        assertEquals(1, report.getLastUpdateEvent().getChildIndices()[0]);
+    }
+    
+    private void assertChildren(Object parent, String... values) {
+        assertEquals(values.length, controller.getChildCount(parent));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], controller.getValueAt(controller.getChild(parent, i), 0));
+        }
+    }
+}
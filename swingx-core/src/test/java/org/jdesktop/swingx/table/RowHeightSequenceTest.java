@@ -0,0 +1,199 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.util.Random;
+
+import javax.swing.JTable;
+import javax.swing.RowFilter;
+import javax.swing.SizeSequence;
+import javax.swing.SortOrder;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
+
+import org.jdesktop.swingx.JXTable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test RowHeightSequence and the variable row heights of JXTable.
+ */
+@RunWith(JUnit4.class)
+public class RowHeightSequenceTest {
+
+    /**
+     * Random operations must have the same result as core SizeSequence.
+     */
+    @Test
+    public void testSameAsSizeSequence() {
+        Random random = new Random(42);
+        SizeSequence expected = new SizeSequence(100, 16);
+        RowHeightSequence sequence = new RowHeightSequence(100, 16);
+        int size = 100;
+        for (int i = 0; i < 2000; i++) {
+            int op = random.nextInt(4);
+            if ((op == 0) && (size > 0)) {
+                int index = random.nextInt(size);
+                int height = 1 + random.nextInt(40);
+                expected.setSize(index, height);
+                sequence.setSize(index, height);
+            } else if (op == 1) {
+                int start = random.nextInt(size + 1);
+                int length = random.nextInt(5);
+                expected.insertEntries(start, length, 16);
+                sequence.insertEntries(start, length, 16);
+                size += length;
+            } else if ((op == 2) && (size > 0)) {
+                int start = random.nextInt(size);
+                int length = Math.min(size - start, random.nextInt(5));
+                expected.removeEntries(start, length);
+                sequence.removeEntries(start, length);
+                size -= length;
+            } else if (size > 0) {
+                int position = random.nextInt(expected.getPosition(size) + 10);
+                assertEquals(expected.getIndex(position), sequence.getIndex(position));
+            }
+            assertEquals(size, sequence.size());
+        }
+        assertArrayEquals(expected.getSizes(), sequence.getSizes());
+        for (int i = 0; i <= size; i++) {
+            assertEquals(expected.getPosition(i), sequence.getPosition(i));
+        }
+    }
+    
+    @Test
+    public void testSetSizes() {
+        int[] heights = {5, 5, 7, 0, 7, 7, 3};
+        RowHeightSequence sequence = new RowHeightSequence(heights);
+        assertArrayEquals(heights, sequence.getSizes());
+        assertEquals(34, sequence.getTotalSize());
+        assertEquals(10, sequence.getPosition(2));
+        assertEquals("zero height row is skipped", 4, sequence.getIndex(17));
+        assertEquals(-1, sequence.getIndex(-1));
+        assertEquals(heights.length, sequence.getIndex(34));
+    }
+    
+    @Test
+    public void testLargeUniform() {
+        RowHeightSequence sequence = new RowHeightSequence(5000000, 20);
+        sequence.setSize(2500000, 100);
+        assertEquals(2500000L * 20, sequence.getPosition(2500000));
+        assertEquals(2500000, sequence.getIndex(2500000 * 20 + 99));
+        assertEquals(2500001, sequence.getIndex(2500000 * 20 + 100));
+        assertEquals(4999999L * 20 + 100, sequence.getTotalSize());
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSetSizeOutOfRange() {
+        new RowHeightSequence(2, 10).setSize(2, 5);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeHeight() {
+        new RowHeightSequence(2, 10).setSize(0, -1);
+    }
+    
+    /**
+     * Variable row heights in JXTable must map the same as in core, also after
+     * inserts and removes.
+     */
+    @Test
+    public void testTableSameAsCore() {
+        DefaultTableModel model = new DefaultTableModel(20, 2);
+        JTable core = new JTable(model);
+        JXTable table = new JXTable(model);
+        table.setRowHeight(core.getRowHeight());
+        for (int row = 0; row < 20; row += 3) {
+            core.setRowHeight(row, 10 + row);
+            table.setRowHeight(row, 10 + row);
+        }
+        assertSameRows(core, table);
+        model.insertRow(4, new Object[2]);
+        model.removeRow(10);
+        model.addRow(new Object[2]);
+        assertSameRows(core, table);
+    }
+    
+    /**
+     * Row heights must stick to their model rows on sorting and filtering.
+     */
+    @Test
+    public void testTableSortedSameAsCore() {
+        DefaultTableModel model = new DefaultTableModel(20, 1);
+        for (int row = 0; row < 20; row++) {
+            model.setValueAt((row * 7) % 20, row, 0);
+        }
+        JTable core = new JTable(model);
+        core.setRowSorter(new TableRowSorter<TableModel>(model));
+        JXTable table = new JXTable(model);
+        table.setRowHeight(core.getRowHeight());
+        for (int row = 0; row < 20; row += 2) {
+            core.setRowHeight(row, 10 + row);
+            table.setRowHeight(row, 10 + row);
+        }
+        core.getRowSorter().toggleSortOrder(0);
+        table.setSortOrder(0, SortOrder.ASCENDING);
+        assertSameRows(core, table);
+        model.insertRow(4, new Object[] {3});
+        model.removeRow(10);
+        assertSameRows(core, table);
+        RowFilter<Object, Object> filter = new RowFilter<Object, Object>() {
+            @Override
+            public boolean include(Entry<? extends Object, ? extends Object> entry) {
+                return ((Integer) entry.getValue(0)) % 3 != 0;
+            }
+        };
+        ((TableRowSorter<?>) core.getRowSorter()).setRowFilter(filter);
+        table.setRowFilter(filter);
+        assertSameRows(core, table);
+    }
+    
+    @Test
+    public void testTableUniformReset() {
+        JXTable table = new JXTable(10, 2);
+        table.setRowHeight(3, 50);
+        assertEquals(50, table.getRowHeight(3));
+        table.setRowHeight(20);
+        assertEquals(20, table.getRowHeight(3));
+        assertEquals(60, table.getCellRect(3, 0, true).y);
+    }
+    
+    private void assertSameRows(JTable core, JXTable table) {
+        assertEquals(core.getRowCount(), table.getRowCount());
+        for (int row = 0; row < core.getRowCount(); row++) {
+            assertEquals("model row " + row, core.convertRowIndexToModel(row), table.convertRowIndexToModel(row));
+        }
+        for (int row = 0; row < core.getRowCount(); row++) {
+            assertEquals("row " + row, core.getCellRect(row, 0, false), table.getCellRect(row, 0, false));
+            assertEquals(core.getRowHeight(row), table.getRowHeight(row));
+        }
+        int height = core.getCellRect(core.getRowCount() - 1, 0, true).y + 50;
+        for (int y = 0; y < height; y += 3) {
+            assertEquals("y " + y, core.rowAtPoint(new Point(0, y)), table.rowAtPoint(new Point(0, y)));
+        }
+    }
+}
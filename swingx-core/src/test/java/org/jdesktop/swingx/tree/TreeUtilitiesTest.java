@@ -7,11 +7,22 @@ package org.jdesktop.swingx.tree;
 import static org.jdesktop.swingx.tree.TreeUtilities.EMPTY_ENUMERATION;
 
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
@@ -166,6 +177,160 @@ public class TreeUtilitiesTest extends InteractiveTestCase {
     }
     
     
+// parallel traversal tests
+// all tests are against the sequential preorder traversal of the same model    
+    
+    @Test
+    public void testCountNodes() throws Exception {
+        TreeModel large = new DefaultTreeModel(createTreeNode("root", 4));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            assertEquals(countPreorder(large, large.getRoot()), 
+                    TreeUtilities.countNodes(large, large.getRoot(), executor));
+            Object child = large.getChild(large.getRoot(), 0);
+            assertEquals(countPreorder(large, child), 
+                    TreeUtilities.countNodes(large, child, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testCountNodesSplits() throws Exception {
+        TreeModel large = new DefaultTreeModel(createTreeNode("root", 4));
+        final AtomicInteger tasks = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+
+            @Override
+            public void execute(Runnable command) {
+                tasks.incrementAndGet();
+                super.execute(command);
+            }
+        };
+        try {
+            assertEquals(countPreorder(large, large.getRoot()), 
+                    TreeUtilities.countNodes(large, large.getRoot(), executor));
+            assertTrue("traversal must be split into several tasks", tasks.get() > 1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testCountNodesLeaf() throws Exception {
+        TreeModel leaf = new DefaultTreeModel(new DefaultMutableTreeNode("leaf"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(1, TreeUtilities.countNodes(leaf, leaf.getRoot(), executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testFindNodes() throws Exception {
+        TreeModel large = new DefaultTreeModel(createTreeNode("root", 4));
+        Pattern pattern = Pattern.compile("^A");
+        Set<Object> expected = new HashSet<Object>();
+        Enumeration<?> preorder = new PreorderModelEnumeration(large);
+        while (preorder.hasMoreElements()) {
+            Object node = preorder.nextElement();
+            if (pattern.matcher(node.toString()).find()) {
+                expected.add(node);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Object> found = TreeUtilities.findNodes(large, large.getRoot(), 
+                    executor, pattern, null);
+            assertEquals(expected.size(), found.size());
+            assertEquals(expected, new HashSet<Object>(found));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testAggregateStops() throws Exception {
+        TreeModel large = new DefaultTreeModel(createTreeNode("root", 4));
+        final AtomicInteger visited = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            int[] count = TreeUtilities.aggregate(large, large.getRoot(), executor, 
+                    new TreeUtilities.NodeAggregator<int[]>() {
+
+                @Override
+                public int[] createResult() {
+                    return new int[1];
+                }
+
+                @Override
+                public boolean accumulate(int[] result, Object node) {
+                    visited.incrementAndGet();
+                    result[0]++;
+                    return false;
+                }
+
+                @Override
+                public int[] combine(int[] first, int[] second) {
+                    first[0] += second[0];
+                    return first;
+                }
+            });
+            assertEquals(visited.get(), count[0]);
+            assertTrue("traversal must stop early", 
+                    count[0] < countPreorder(large, large.getRoot()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testAggregateRethrows() throws Exception {
+        TreeModel large = new DefaultTreeModel(createTreeNode("root", 4));
+        final Object child = large.getChild(large.getRoot(), 0);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TreeUtilities.aggregate(large, large.getRoot(), executor, 
+                    new TreeUtilities.NodeAggregator<Object>() {
+
+                @Override
+                public Object createResult() {
+                    return null;
+                }
+
+                @Override
+                public boolean accumulate(Object result, Object node) {
+                    if (node == child) {
+                        throw new IllegalStateException("expected");
+                    }
+                    return true;
+                }
+
+                @Override
+                public Object combine(Object first, Object second) {
+                    return null;
+                }
+            });
+            fail("exception of aggregator must be rethrown");
+        } catch (IllegalStateException e) {
+            assertEquals("expected", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    private int countPreorder(TreeModel model, Object node) {
+        int count = 0;
+        Enumeration<?> preorder = new PreorderModelEnumeration(model, node);
+        while (preorder.hasMoreElements()) {
+            preorder.nextElement();
+            count++;
+        }
+        return count;
+    }
+    
 //----------------- random generation of trees consisting of DefaultMutableTreeNodes
     
     private static Random random = new Random();
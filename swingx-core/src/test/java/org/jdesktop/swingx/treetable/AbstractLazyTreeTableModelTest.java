@@ -0,0 +1,213 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.treetable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+import org.jdesktop.test.TreeModelReport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Unit tests for AbstractLazyTreeTableModel.
+ */
+@RunWith(JUnit4.class)
+public class AbstractLazyTreeTableModelTest extends TestCase {
+
+    private ExecutorService executor;
+    private LazyModel model;
+    
+    @Override
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        model = new LazyModel(executor);
+    }
+    
+    @Override
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testPlaceholder() {
+        model.block = new CountDownLatch(1);
+        assertEquals(1, model.getChildCount("root"));
+        Object placeholder = model.getChild("root", 0);
+        assertTrue(model.isLoadingNode(placeholder));
+        assertTrue(model.isLeaf(placeholder));
+        assertEquals("Loading...", model.getValueAt(placeholder, 0));
+        assertNull(model.getValueAt(placeholder, 1));
+        assertEquals(0, model.getIndexOfChild("root", placeholder));
+        assertTrue(model.isLoading("root"));
+        model.block.countDown();
+    }
+    
+    @Test
+    public void testLoadedChildren() throws Exception {
+        TreeModelReport report = new TreeModelReport(model);
+        Object placeholder = load("root");
+        assertEquals(1, report.getInsertEventCount());
+        assertEquals(1, report.getLastInsertEvent().getChildIndices()[0]);
+        assertEquals(3, report.getLastInsertEvent().getChildIndices()[2]);
+        assertEquals(1, report.getDeleteEventCount());
+        assertEquals(placeholder, report.getLastDeleteEvent().getChildren()[0]);
+        assertEquals(3, model.getChildCount("root"));
+        assertEquals("root/1", model.getChild("root", 1));
+        assertEquals(2, model.getIndexOfChild("root", "root/2"));
+        assertEquals("root/1", model.getValueAt("root/1", 0));
+        assertEquals(2, model.getPathToRoot("root/1").getPathCount());
+        assertTrue(model.isLoaded("root"));
+        assertFalse(model.isLoading("root"));
+    }
+    
+    @Test
+    public void testCached() throws Exception {
+        load("root");
+        load("root/0");
+        model.getChildCount("root");
+        model.getChildCount("root/0");
+        assertEquals(2, model.loadCount.get());
+        assertEquals(3, model.getPathToRoot("root/0/2").getPathCount());
+    }
+    
+    @Test
+    public void testCancel() throws Exception {
+        model.block = new CountDownLatch(1);
+        model.getChildCount("root");
+        TreeModelReport report = new TreeModelReport(model);
+        model.cancelLoading("root");
+        assertFalse(model.isLoading("root"));
+        model.block.countDown();
+        flush();
+        assertFalse(report.hasEvents());
+        assertEquals(1, model.getChildCount("root"));
+        assertFalse(model.isLoaded("root"));
+    }
+    
+    @Test
+    public void testReload() throws Exception {
+        load("root");
+        load("root/0");
+        TreeModelReport report = new TreeModelReport(model);
+        model.reload("root");
+        assertEquals(1, report.getStructureEventCount());
+        assertFalse(model.isLoaded("root"));
+        assertFalse(model.isLoaded("root/0"));
+        assertEquals("loaded descendants must be evicted", 6, model.evicted.size());
+        assertTrue(model.evicted.contains("root/0/2"));
+        assertFalse("reloaded node stays in the tree", model.evicted.contains("root"));
+        load("root");
+        assertEquals(3, model.loadCount.get());
+    }
+    
+    @Test
+    public void testLoadFailed() throws Exception {
+        model.fail = true;
+        load("root");
+        assertEquals(0, model.getChildCount("root"));
+        assertTrue(model.isLeaf("root"));
+    }
+    
+    /**
+     * Starts loading the children of the parent and waits until published.
+     * Returns the placeholder.
+     */
+    private Object load(Object parent) throws Exception {
+        Object placeholder = model.getChild(parent, 0);
+        flush();
+        return placeholder;
+    }
+    
+    private void flush() throws Exception {
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+    
+    /**
+     * Nodes are strings, each has 3 children.
+     */
+    private static class LazyModel extends AbstractLazyTreeTableModel {
+        final AtomicInteger loadCount = new AtomicInteger();
+        volatile CountDownLatch block;
+        volatile boolean fail;
+        final List<Object> evicted = new ArrayList<Object>();
+        
+        LazyModel(ExecutorService executor) {
+            super("root", executor);
+        }
+        
+        @Override
+        protected List<?> loadChildren(Object parent) throws Exception {
+            loadCount.incrementAndGet();
+            if (block != null) {
+                block.await();
+            }
+            if (fail) throw new IllegalStateException("expected failure");
+            List<String> children = new ArrayList<String>();
+            for (int i = 0; i < 3; i++) {
+                children.add(parent + "/" + i);
+            }
+            return children;
+        }
+
+        @Override
+        protected Object getNodeValueAt(Object node, int column) {
+            return column == 0 ? node : null;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+        
+        @Override
+        protected List<?> loadFailed(Object parent, Exception e) {
+            return new ArrayList<Object>();
+        }
+        
+        @Override
+        protected void nodeEvicted(Object node) {
+            evicted.add(node);
+        }
+    }
+}
@@ -49,6 +49,56 @@ public class DefaultMutableTreeTableNodeUnitTest extends TestCase {
          assertEquals(root.getChildCount(), 1);
      }
      
+    @Test
+     public void testIndexOfManyChildren() {
+         DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+         DefaultMutableTreeTableNode[] nodes = new DefaultMutableTreeTableNode[100];
+         for (int i = 0; i < nodes.length; i++) {
+             nodes[i] = new DefaultMutableTreeTableNode(i);
+             root.add(nodes[i]);
+         }
+         assertEquals(57, root.getIndex(nodes[57]));
+         root.insert(new DefaultMutableTreeTableNode("first"), 0);
+         assertEquals(58, root.getIndex(nodes[57]));
+         root.remove(nodes[10]);
+         assertEquals(-1, root.getIndex(nodes[10]));
+         assertEquals(57, root.getIndex(nodes[57]));
+         assertEquals(-1, root.getIndex(new DefaultMutableTreeTableNode(57)));
+         // move inside the same parent
+         root.insert(nodes[99], 2);
+         assertEquals(1, root.getIndex(nodes[99]));
+         assertEquals(100, root.getChildCount());
+         for (int i = 0; i < root.getChildCount(); i++) {
+             assertEquals(i, root.getIndex(root.getChildAt(i)));
+         }
+     }
+
+    /**
+     * Front inserts into a large node must not update the positions of all
+     * children per insert.
+     */
+    @Test
+    public void testFrontInsertNotReindexed() {
+        DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        for (int i = 0; i < 2000; i++) {
+            root.add(new DefaultMutableTreeTableNode(i));
+        }
+        AbstractMutableTreeTableNode.IndexedChildList list = 
+            (AbstractMutableTreeTableNode.IndexedChildList) root.children;
+        int reindexed = list.reindexCount;
+        DefaultMutableTreeTableNode[] inserted = new DefaultMutableTreeTableNode[1000];
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = new DefaultMutableTreeTableNode("new" + i);
+            root.insert(inserted[i], 0);
+        }
+        assertTrue("reindexed per insert: " + (list.reindexCount - reindexed),
+                list.reindexCount - reindexed <= 2 * inserted.length);
+        assertEquals(3000, root.getChildCount());
+        assertEquals(999, root.getIndex(inserted[0]));
+        assertEquals(2999, root.getIndex(root.getChildAt(2999)));
+        assertSame(root, inserted[0].getParent());
+    }
+    
     @Test
      public void testChildren() {
          DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
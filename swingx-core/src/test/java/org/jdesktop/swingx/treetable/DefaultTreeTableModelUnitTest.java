@@ -1,12 +1,17 @@
 package org.jdesktop.swingx.treetable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Vector;
 
+import javax.swing.event.TreeModelEvent;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 
 import junit.framework.TestCase;
 
+import org.jdesktop.test.TreeModelReport;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -116,6 +121,79 @@ public class DefaultTreeTableModelUnitTest extends TestCase {
         }
     }
     
+    @Test
+    public void testInsertNodesInto() {
+        TreeModelReport report = new TreeModelReport(model);
+        List<MutableTreeTableNode> nodes = new ArrayList<MutableTreeTableNode>();
+        for (int i = 0; i < 3; i++) {
+            nodes.add(new DefaultMutableTreeTableNode("new" + i));
+        }
+        model.insertNodesInto(nodes, child1, 1);
+        assertEquals(1, report.getEventCount());
+        TreeModelEvent e = report.getLastInsertEvent();
+        assertTrue(Arrays.equals(new int[] {1, 2, 3}, e.getChildIndices()));
+        assertSame(nodes.get(2), e.getChildren()[2]);
+        assertEquals(6, child1.getChildCount());
+        assertSame(grandchild1, child1.getChildAt(0));
+        assertSame(nodes.get(0), child1.getChildAt(1));
+        assertSame(grandchild2, child1.getChildAt(4));
+        assertEquals(4, child1.getIndex(grandchild2));
+    }
+    
+    @Test
+    public void testRemoveNodesFromParent() {
+        TreeModelReport report = new TreeModelReport(model);
+        List<MutableTreeTableNode> nodes = new ArrayList<MutableTreeTableNode>();
+        nodes.add(grandchild5);
+        nodes.add(grandchild3);
+        nodes.add(grandchild1);
+        nodes.add(grandchild3);
+        model.removeNodesFromParent(nodes);
+        // one per parent, in the order of the parents
+        assertEquals(2, report.getEventCount());
+        assertEquals(2, report.getDeleteEventCount());
+        TreeModelEvent e = report.getLastDeleteEvent();
+        assertSame(child1, e.getTreePath().getLastPathComponent());
+        assertTrue(Arrays.equals(new int[] {0, 2}, e.getChildIndices()));
+        assertSame(grandchild1, e.getChildren()[0]);
+        assertSame(grandchild3, e.getChildren()[1]);
+        assertEquals(1, child1.getChildCount());
+        assertSame(grandchild2, child1.getChildAt(0));
+        assertNull(grandchild1.getParent());
+    }
+    
+    /**
+     * Bulk changes of a large node must update the positions once, not per
+     * child.
+     */
+    @Test
+    public void testNodesIntoLargeParentNotReindexed() {
+        DefaultMutableTreeTableNode parent = new DefaultMutableTreeTableNode("parent");
+        for (int i = 0; i < 2000; i++) {
+            parent.add(new DefaultMutableTreeTableNode(i));
+        }
+        model.insertNodeInto(parent, root, 0);
+        AbstractMutableTreeTableNode.IndexedChildList list = 
+            (AbstractMutableTreeTableNode.IndexedChildList) parent.children;
+        int reindexed = list.reindexCount;
+        List<MutableTreeTableNode> nodes = new ArrayList<MutableTreeTableNode>();
+        for (int i = 0; i < 1000; i++) {
+            nodes.add(new DefaultMutableTreeTableNode("new" + i));
+        }
+        model.insertNodesInto(nodes, parent, 0);
+        assertEquals(2000, parent.getIndex(parent.getChildAt(2000)));
+        assertTrue("reindexed per insert: " + (list.reindexCount - reindexed),
+                list.reindexCount - reindexed <= 3000);
+        assertSame(parent, nodes.get(999).getParent());
+        reindexed = list.reindexCount;
+        model.removeNodesFromParent(nodes);
+        assertEquals(1999, parent.getIndex(parent.getChildAt(1999)));
+        assertTrue("reindexed per remove: " + (list.reindexCount - reindexed),
+                list.reindexCount - reindexed <= 2000);
+        assertEquals(2000, parent.getChildCount());
+        assertNull(nodes.get(0).getParent());
+    }
+    
     @Test
     public void testGetValueAt() {
         //Test expected cases
@@ -0,0 +1,137 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.treetable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Unit tests for LazyFileSystemModel.
+ */
+@RunWith(JUnit4.class)
+public class LazyFileSystemModelTest extends TestCase {
+
+    private ExecutorService executor;
+    private File root;
+    private File directory;
+    private LazyFileSystemModel model;
+    
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        root = File.createTempFile("lazyfs", "");
+        assertTrue(root.delete() && root.mkdir());
+        directory = new File(root, "directory");
+        assertTrue(directory.mkdir());
+        model = new LazyFileSystemModel(root, executor);
+    }
+    
+    @Override
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        delete(root);
+    }
+    
+    /**
+     * Refresh must drop the attributes of deleted files.
+     */
+    @Test
+    public void testRefreshEvictsAttributes() throws Exception {
+        File file = new File(directory, "file");
+        write(file, 5);
+        load(root);
+        load(directory);
+        assertEquals(5L, model.getValueAt(file, 1));
+        assertTrue(file.delete());
+        model.refresh(directory);
+        assertEquals("attributes of deleted file must be evicted", 
+                0L, model.getValueAt(file, 1));
+        load(directory);
+        assertEquals(0, model.getChildCount(directory));
+    }
+    
+    /**
+     * Refresh must re-read the attributes of the directory itself.
+     */
+    @Test
+    public void testRefreshDirectoryAttributes() throws Exception {
+        assertTrue(directory.setLastModified(1000000000L));
+        load(root);
+        load(directory);
+        assertEquals(new Date(1000000000L), model.getValueAt(directory, 3));
+        write(new File(directory, "file"), 1);
+        assertTrue(directory.setLastModified(2000000000L));
+        model.refresh(directory);
+        assertEquals(new Date(2000000000L), model.getValueAt(directory, 3));
+    }
+    
+    /**
+     * Starts loading the children of the parent and waits until published.
+     */
+    private void load(Object parent) throws Exception {
+        model.getChildCount(parent);
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+    
+    private void write(File file, int length) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[length]);
+        } finally {
+            out.close();
+        }
+    }
+    
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -22,15 +22,21 @@
 package org.jdesktop.swingx.treetable;
 
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.JTree;
+import javax.swing.SwingUtilities;
 import javax.swing.tree.TreeModel;
 
 import org.jdesktop.swingx.InteractiveTestCase;
 import org.jdesktop.swingx.JXFrame;
+import org.jdesktop.test.TreeModelReport;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -97,6 +103,80 @@ public class TreeTableModelTest extends InteractiveTestCase {
         assertColumnClassAssignableFromValue(model);
     }
 
+    /**
+     * FileSystemModel: listing is cached until refreshed.
+     */
+    @Test
+    public void testFileSystemModelCachedListing() throws Exception {
+        File dir = createTempDirectory("b", "a", "c");
+        try {
+            FileSystemModel model = new FileSystemModel(dir);
+            assertEquals(3, model.getChildCount(dir));
+            for (int i = 0; i < 3; i++) {
+                File child = model.getChild(dir, i);
+                assertEquals(i, model.getIndexOfChild(dir, child));
+            }
+            new File(dir, "d").createNewFile();
+            assertEquals("listing must be cached", 3, model.getChildCount(dir));
+            TreeModelReport report = new TreeModelReport(model);
+            model.refresh(dir);
+            assertEquals(1, report.getStructureEventCount());
+            assertEquals(4, model.getChildCount(dir));
+        } finally {
+            delete(dir);
+        }
+    }
+    
+    /**
+     * LazyFileSystemModel: lists in background, same columns as FileSystemModel.
+     */
+    @Test
+    public void testLazyFileSystemModel() throws Exception {
+        File dir = createTempDirectory("b", "a");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            LazyFileSystemModel model = new LazyFileSystemModel(dir, executor);
+            assertColumnClassAssignableFromValue(model);
+            assertTrue(model.isLoadingNode(model.getChild(dir, 0)));
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).get();
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            assertEquals(2, model.getChildCount(dir));
+            File first = (File) model.getChild(dir, 0);
+            assertEquals(first.getName(), model.getValueAt(first, 0));
+            assertEquals(0, model.getIndexOfChild(dir, first));
+            assertTrue(model.isLeaf(first));
+            assertEquals(Boolean.FALSE, model.getValueAt(first, 2));
+        } finally {
+            executor.shutdownNow();
+            delete(dir);
+        }
+    }
+    
+    private File createTempDirectory(String... files) throws IOException {
+        File dir = File.createTempFile("swingx", "dir");
+        dir.delete();
+        dir.mkdir();
+        for (String name : files) {
+            new File(dir, name).createNewFile();
+        }
+        return dir;
+    }
+    
+    private void delete(File dir) {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
     /**
      * loops through all model columns to test type contract.
      * 